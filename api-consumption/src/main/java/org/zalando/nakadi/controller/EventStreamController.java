@@ -46,6 +46,7 @@ import org.zalando.nakadi.service.EventStreamChecks;
 import org.zalando.nakadi.service.EventStreamConfig;
 import org.zalando.nakadi.service.EventStreamFactory;
 import org.zalando.nakadi.service.EventTypeChangeListener;
+import org.zalando.nakadi.service.ReadAuthorizationCache;
 import org.zalando.nakadi.service.timeline.TimelineService;
 import org.zalando.nakadi.util.FlowIdUtils;
 import org.zalando.nakadi.view.Cursor;
@@ -212,11 +213,14 @@ public class EventStreamController {
             Counter consumerCounter = null;
             EventStream eventStream = null;
             final AtomicBoolean needCheckAuthorization = new AtomicBoolean(false);
+            final ReadAuthorizationCache readAuthorizationCache = new ReadAuthorizationCache();
 
             LOG.info("[X-NAKADI-CURSORS] \"{}\" {}", eventTypeName, Optional.ofNullable(cursorsStr).orElse("-"));
 
-            try (Closeable ignore = eventTypeChangeListener.registerListener(et -> needCheckAuthorization.set(true),
-                    Collections.singletonList(eventTypeName))) {
+            try (Closeable ignore = eventTypeChangeListener.registerListener(et -> {
+                        readAuthorizationCache.invalidate();
+                        needCheckAuthorization.set(true);
+                    }, Collections.singletonList(eventTypeName))) {
                 final EventType eventType = eventTypeCache.getEventType(eventTypeName);
 
                 authorizationValidator.authorizeEventTypeView(eventType);
@@ -254,7 +258,7 @@ public class EventStreamController {
                 final Meter bytesFlushedMeter = this.streamMetrics.meter(bytesFlushedMetricName);
 
                 eventStream = eventStreamFactory.createEventStream(
-                        outputStream, eventConsumer, streamConfig, bytesFlushedMeter);
+                        outputStream, eventConsumer, streamConfig, bytesFlushedMeter, readAuthorizationCache);
 
                 outputStream.flush(); // Flush status code to client
 
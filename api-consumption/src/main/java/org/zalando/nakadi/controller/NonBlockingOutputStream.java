@@ -0,0 +1,151 @@
+package org.zalando.nakadi.controller;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Output stream on top of servlet output stream in non-blocking mode. Written data is kept in memory until servlet
+ * container is ready to accept it, so that streaming thread never waits for slow clients. Streaming is expected to
+ * check {@link #isReady()} before writing more data, and to continue once the callback registered with
+ * {@link #onReady(Runnable)} is called.
+ * <p>
+ * Data is passed to servlet container on flush, and closing the stream only marks it as closed - the future returned
+ * from {@link #getDrained()} is completed once all the data is passed to the container.
+ */
+class NonBlockingOutputStream extends OutputStream implements WriteListener {
+
+    private final ServletOutputStream out;
+    private final long maxPendingBytes;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final Deque<byte[]> pending = new ArrayDeque<>();
+    private final CompletableFuture<Void> drained = new CompletableFuture<>();
+    private long pendingBytes;
+    private boolean flushRequested;
+    private boolean closed;
+    private Throwable error;
+    private Runnable readyCallback;
+
+    NonBlockingOutputStream(final ServletOutputStream out, final long maxPendingBytes) {
+        this.out = out;
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    @Override
+    public synchronized void write(final int b) throws IOException {
+        checkWritable();
+        buffer.write(b);
+    }
+
+    @Override
+    public synchronized void write(final byte[] b, final int off, final int len) throws IOException {
+        checkWritable();
+        buffer.write(b, off, len);
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        checkWritable();
+        moveBufferToPending();
+        flushRequested = true;
+        drain();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (null == error) {
+            moveBufferToPending();
+            flushRequested = true;
+            drain();
+        }
+    }
+
+    /**
+     * @return true if more data may be written without exceeding the limit of pending bytes. In case if output failed
+     * true is returned as well, so that the failure is discovered on the next write.
+     */
+    synchronized boolean isReady() {
+        return null != error || pendingBytes + buffer.size() < maxPendingBytes;
+    }
+
+    synchronized void onReady(final Runnable callback) {
+        this.readyCallback = callback;
+    }
+
+    CompletableFuture<Void> getDrained() {
+        return drained;
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+        final Runnable callback;
+        synchronized (this) {
+            drain();
+            callback = isReady() ? readyCallback : null;
+        }
+        if (null != callback) {
+            callback.run();
+        }
+    }
+
+    @Override
+    public void onError(final Throwable t) {
+        final Runnable callback;
+        synchronized (this) {
+            error = t;
+            pending.clear();
+            pendingBytes = 0;
+            buffer.reset();
+            drained.complete(null);
+            callback = readyCallback;
+        }
+        if (null != callback) {
+            callback.run();
+        }
+    }
+
+    private void checkWritable() throws IOException {
+        if (null != error) {
+            throw new IOException("Failed to write to client", error);
+        }
+        if (closed) {
+            throw new IOException("Stream is already closed");
+        }
+    }
+
+    private void moveBufferToPending() {
+        if (buffer.size() > 0) {
+            pending.addLast(buffer.toByteArray());
+            pendingBytes += buffer.size();
+            buffer.reset();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (null != error) {
+            return;
+        }
+        // Container accepts the whole chunk, but will report that it is not ready until the chunk is sent
+        while (!pending.isEmpty() && out.isReady()) {
+            final byte[] chunk = pending.pollFirst();
+            pendingBytes -= chunk.length;
+            out.write(chunk);
+        }
+        if (pending.isEmpty() && flushRequested && out.isReady()) {
+            flushRequested = false;
+            out.flush();
+        }
+        if (closed && pending.isEmpty() && !flushRequested) {
+            drained.complete(null);
+        }
+    }
+}
@@ -10,13 +10,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.zalando.nakadi.ShutdownHooks;
 import org.zalando.nakadi.config.NakadiSettings;
@@ -44,6 +52,8 @@ import org.zalando.nakadi.view.UserStreamParameters;
 import org.zalando.problem.Problem;
 
 import javax.annotation.Nullable;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.Closeable;
@@ -51,6 +61,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
@@ -67,6 +78,7 @@ import static org.zalando.problem.Status.UNPROCESSABLE_ENTITY;
 public class SubscriptionStreamController {
     public static final String CONSUMERS_COUNT_METRIC_NAME = "consumers";
     private static final Logger LOG = LoggerFactory.getLogger(SubscriptionStreamController.class);
+    private static final long MAX_PENDING_OUTPUT_BYTES = 1024 * 1024;
 
     private final SubscriptionStreamerFactory subscriptionStreamerFactory;
     private final ObjectMapper jsonMapper;
@@ -100,11 +112,22 @@ public class SubscriptionStreamController {
         private boolean headersSent;
         private final HttpServletResponse response;
         private final OutputStream out;
+        private final NonBlockingOutputStream nonBlockingOut;
         private final Map<Class, Function<Exception, Problem>> exceptionProblem;
 
         SubscriptionOutputImpl(final HttpServletResponse response, final OutputStream out) {
+            this(response, out, null);
+        }
+
+        SubscriptionOutputImpl(final HttpServletResponse response, final NonBlockingOutputStream out) {
+            this(response, out, out);
+        }
+
+        private SubscriptionOutputImpl(final HttpServletResponse response, final OutputStream out,
+                                       @Nullable final NonBlockingOutputStream nonBlockingOut) {
             this.response = response;
             this.out = out;
+            this.nonBlockingOut = nonBlockingOut;
             this.headersSent = false;
             this.exceptionProblem = new HashMap<>();
             assignExceptionProblem();
@@ -162,18 +185,31 @@ public class SubscriptionStreamController {
             return this.out;
         }
 
+        @Override
+        public boolean isReady() {
+            return null == nonBlockingOut || nonBlockingOut.isReady();
+        }
+
+        @Override
+        public void onReady(final Runnable callback) {
+            if (null != nonBlockingOut) {
+                nonBlockingOut.onReady(callback);
+            }
+        }
+
     }
 
     @RequestMapping(value = "/subscriptions/{subscription_id}/events", method = RequestMethod.POST)
     public StreamingResponseBody streamEvents(
             @PathVariable("subscription_id") final String subscriptionId,
             @Valid @RequestBody final UserStreamParameters userParameters,
+            final HttpServletRequest request,
             final HttpServletResponse response,
             final Client client) {
 
         final StreamParameters streamParameters = StreamParameters.of(userParameters,
                 nakadiSettings.getMaxCommitTimeout(), client);
-        return stream(subscriptionId, response, client, streamParameters);
+        return stream(subscriptionId, request, response, client, streamParameters);
     }
 
     @RequestMapping(value = "/subscriptions/{subscription_id}/events", method = RequestMethod.GET)
@@ -189,7 +225,7 @@ public class SubscriptionStreamController {
             @Nullable @RequestParam(value = "stream_keep_alive_limit", required = false) final Integer
                     streamKeepAliveLimit,
             @Nullable @RequestParam(value = "commit_timeout", required = false) final Long commitTimeout,
-            final HttpServletResponse response, final Client client) {
+            final HttpServletRequest request, final HttpServletResponse response, final Client client) {
 
         final UserStreamParameters userParameters = new UserStreamParameters(batchLimit, streamLimit, batchTimespan,
                 batchTimeout, streamTimeout, streamKeepAliveLimit, maxUncommittedEvents, ImmutableList.of(),
@@ -198,10 +234,16 @@ public class SubscriptionStreamController {
         final StreamParameters streamParameters = StreamParameters.of(userParameters,
                 nakadiSettings.getMaxCommitTimeout(), client);
 
-        return stream(subscriptionId, response, client, streamParameters);
+        return stream(subscriptionId, request, response, client, streamParameters);
     }
 
+    /**
+     * If streams are driven by shared event loop, request thread is released right after the request is accepted, the
+     * stream uses non-blocking servlet output and slow clients are handled by pausing the stream until the output is
+     * ready again. Otherwise the stream is driven by the thread that is writing the response, in blocking mode.
+     */
     private StreamingResponseBody stream(final String subscriptionId,
+                                         final HttpServletRequest request,
                                          final HttpServletResponse response,
                                          final Client client,
                                          final StreamParameters streamParameters) {
@@ -212,51 +254,191 @@ public class SubscriptionStreamController {
         final Span requestSpan = TracingService.getActiveSpan();
         final String flowId = FlowIdUtils.peek();
 
-        return outputStream -> {
-            FlowIdUtils.push(flowId);
-            final String metricName = metricNameForSubscription(subscriptionId, CONSUMERS_COUNT_METRIC_NAME);
-            final Counter consumerCounter = metricRegistry.counter(metricName);
-            consumerCounter.inc();
-            // Setting always true to validate that ClosedConnectionsCrutch is not needed in Springboot 2 version.
-            final AtomicBoolean connectionReady = new AtomicBoolean(true);
-            // closedConnectionsCrutch.listenForConnectionClose(request);
-            SubscriptionStreamer streamer = null;
-            final SubscriptionOutputImpl output = new SubscriptionOutputImpl(response, outputStream);
+        if (!subscriptionStreamerFactory.isNonBlocking()) {
+            return outputStream -> streamBlocking(
+                    subscriptionId, response, outputStream, client, streamParameters, requestSpan, flowId);
+        }
+
+        final DeferredResult<Void> deferredResult = new DeferredResult<>();
+        final WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        // Output may be switched to non-blocking mode only after async processing is started
+        asyncManager.registerDeferredResultInterceptor(deferredResult,
+                new DeferredResultProcessingInterceptor() {
+                    @Override
+                    public <T> void preProcess(final NativeWebRequest webRequest, final DeferredResult<T> result)
+                            throws IOException {
+                        startStreaming(subscriptionId, response, client, streamParameters, requestSpan, flowId,
+                                deferredResult);
+                    }
+                });
+        try {
+            asyncManager.startDeferredResultProcessing(deferredResult);
+        } catch (final Exception e) {
+            throw new InternalNakadiException("Failed to start streaming", e);
+        }
+        // Response is written by event loop, there is nothing left to stream by the request thread
+        return null;
+    }
+
+    private void streamBlocking(final String subscriptionId,
+                                final HttpServletResponse response,
+                                final OutputStream outputStream,
+                                final Client client,
+                                final StreamParameters streamParameters,
+                                final Span requestSpan,
+                                final String flowId) throws IOException {
+        FlowIdUtils.push(flowId);
+        final String metricName = metricNameForSubscription(subscriptionId, CONSUMERS_COUNT_METRIC_NAME);
+        final Counter consumerCounter = metricRegistry.counter(metricName);
+        consumerCounter.inc();
+        // Setting always true to validate that ClosedConnectionsCrutch is not needed in Springboot 2 version.
+        final AtomicBoolean connectionReady = new AtomicBoolean(true);
+        SubscriptionStreamer streamer = null;
+        final SubscriptionOutputImpl output = new SubscriptionOutputImpl(response, outputStream);
+
+        try {
+            if (eventStreamChecks.isSubscriptionConsumptionBlocked(subscriptionId, client.getClientId())) {
+                writeProblemResponse(response, outputStream,
+                        Problem.valueOf(FORBIDDEN, "Application or event type is blocked"));
+                return;
+            }
+            final Subscription subscription = subscriptionDbRepository.getSubscription(subscriptionId);
+            subscriptionValidationService.validatePartitionsToStream(subscription,
+                    streamParameters.getPartitions());
+
+            final Session session = Session.generate(1, streamParameters.getPartitions());
+
+            streamer = subscriptionStreamerFactory.build(subscription, streamParameters, session, output,
+                    connectionReady, null);
+
+            final Tracer.SpanBuilder spanBuilder =
+                    TracingService.buildNewFollowerSpan("streaming_async", requestSpan.context())
+                    .withTag("client", client.getClientId())
+                    .withTag("session.id", session.getId())
+                    .withTag("subscription.id", subscriptionId);
+            try (
+                Closeable ignore1 = TracingService.withActiveSpan(spanBuilder);
+                Closeable ignore2 = shutdownHooks.addHook(streamer::terminateStream) // bugfix ARUHA-485
+            ) {
+                streamer.stream();
+            }
+        } catch (final InterruptedException ex) {
+            LOG.warn("Interrupted while streaming with " + streamer, ex);
+            Thread.currentThread().interrupt();
+        } catch (final RuntimeException e) {
+            output.onException(e);
+        } finally {
+            consumerCounter.dec();
+            outputStream.close();
+        }
+    }
+
+    private void startStreaming(final String subscriptionId,
+                                final HttpServletResponse response,
+                                final Client client,
+                                final StreamParameters streamParameters,
+                                final Span requestSpan,
+                                final String flowId,
+                                final DeferredResult<Void> deferredResult) throws IOException {
+        final String metricName = metricNameForSubscription(subscriptionId, CONSUMERS_COUNT_METRIC_NAME);
+        final Counter consumerCounter = metricRegistry.counter(metricName);
+        consumerCounter.inc();
+        // Setting always true to validate that ClosedConnectionsCrutch is not needed in Springboot 2 version.
+        final AtomicBoolean connectionReady = new AtomicBoolean(true);
 
+        final ServletOutputStream servletOutputStream = response.getOutputStream();
+        final OutputStream outputStream;
+        final SubscriptionOutputImpl output;
+        final CompletableFuture<Void> outputClosed;
+        if (subscriptionStreamerFactory.isNonBlocking()) {
+            final NonBlockingOutputStream nonBlockingOutputStream =
+                    new NonBlockingOutputStream(servletOutputStream, MAX_PENDING_OUTPUT_BYTES);
+            servletOutputStream.setWriteListener(nonBlockingOutputStream);
+            outputStream = nonBlockingOutputStream;
+            output = new SubscriptionOutputImpl(response, nonBlockingOutputStream);
+            outputClosed = nonBlockingOutputStream.getDrained();
+        } else {
+            outputStream = servletOutputStream;
+            output = new SubscriptionOutputImpl(response, outputStream);
+            outputClosed = CompletableFuture.completedFuture(null);
+        }
+        final Runnable onStreamingFinished = () -> {
             try {
-                if (eventStreamChecks.isSubscriptionConsumptionBlocked(subscriptionId, client.getClientId())) {
+                outputStream.close();
+            } catch (final IOException e) {
+                LOG.warn("Failed to close output stream", e);
+            }
+            outputClosed.whenComplete((ignore, ex) -> {
+                consumerCounter.dec();
+                deferredResult.setResult(null);
+            });
+        };
+
+        try {
+            if (eventStreamChecks.isSubscriptionConsumptionBlocked(subscriptionId, client.getClientId())) {
+                try {
                     writeProblemResponse(response, outputStream,
                             Problem.valueOf(FORBIDDEN, "Application or event type is blocked"));
-                    return;
+                } finally {
+                    onStreamingFinished.run();
                 }
-                final Subscription subscription = subscriptionDbRepository.getSubscription(subscriptionId);
-                subscriptionValidationService.validatePartitionsToStream(subscription,
-                        streamParameters.getPartitions());
-
-                final Session session = Session.generate(1, streamParameters.getPartitions());
-
-                streamer = subscriptionStreamerFactory.build(subscription, streamParameters, session, output,
-                        connectionReady);
-
-                final Tracer.SpanBuilder spanBuilder =
-                        TracingService.buildNewFollowerSpan("streaming_async", requestSpan.context())
-                        .withTag("client", client.getClientId())
-                        .withTag("session.id", session.getId())
-                        .withTag("subscription.id", subscriptionId);
-                try (
-                    Closeable ignore1 = TracingService.withActiveSpan(spanBuilder);
-                    Closeable ignore2 = shutdownHooks.addHook(streamer::terminateStream) // bugfix ARUHA-485
-                ) {
-                    streamer.stream();
+                return;
+            }
+            final Subscription subscription = subscriptionDbRepository.getSubscription(subscriptionId);
+            subscriptionValidationService.validatePartitionsToStream(subscription,
+                    streamParameters.getPartitions());
+
+            final Session session = Session.generate(1, streamParameters.getPartitions());
+
+            final Span streamingSpan = TracingService.buildNewFollowerSpan("streaming_async", requestSpan.context())
+                    .withTag("client", client.getClientId())
+                    .withTag("session.id", session.getId())
+                    .withTag("subscription.id", subscriptionId)
+                    .start();
+            final SubscriptionStreamer streamer = subscriptionStreamerFactory.build(subscription, streamParameters,
+                    session, output, connectionReady, createTaskDecorator(flowId, streamingSpan));
+
+            final Closeable shutdownHook = shutdownHooks.addHook(streamer::terminateStream); // bugfix ARUHA-485
+            deferredResult.onTimeout(streamer::terminateStream);
+            deferredResult.onError(ex -> {
+                connectionReady.set(false);
+                streamer.terminateStream();
+            });
+            streamer.streamAsync().whenComplete((ignore, ex) -> {
+                if (null != ex) {
+                    LOG.warn("Streaming with " + streamer + " finished with error", ex);
+                }
+                try {
+                    shutdownHook.close();
+                } catch (final IOException e) {
+                    LOG.warn("Failed to remove shutdown hook", e);
                 }
-            } catch (final InterruptedException ex) {
-                LOG.warn("Interrupted while streaming with " + streamer, ex);
-                Thread.currentThread().interrupt();
-            } catch (final RuntimeException e) {
-                output.onException(e);
+                streamingSpan.finish();
+                onStreamingFinished.run();
+            });
+        } catch (final RuntimeException e) {
+            output.onException(e);
+            onStreamingFinished.run();
+        }
+    }
+
+    /**
+     * Streaming tasks are executed by threads that are shared between streams, therefore request context (security
+     * context, flow id and tracing span) is set up for each of the tasks.
+     */
+    private static TaskDecorator createTaskDecorator(final String flowId, final Span span) {
+        final SecurityContext securityContext = SecurityContextHolder.getContext();
+        return task -> () -> {
+            final SecurityContext previousContext = SecurityContextHolder.getContext();
+            SecurityContextHolder.setContext(securityContext);
+            FlowIdUtils.push(flowId);
+            try (Closeable ignore = TracingService.activateSpan(span)) {
+                task.run();
+            } catch (final IOException e) {
+                LOG.warn("Failed to deactivate tracing span", e);
             } finally {
-                consumerCounter.dec();
-                outputStream.close();
+                FlowIdUtils.clear();
+                SecurityContextHolder.setContext(previousContext);
             }
         };
     }
@@ -0,0 +1,95 @@
+package org.zalando.nakadi.service;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Array backed ring buffer of events of a single partition, that are waiting to be sent to client as one batch.
+ * Number of events and their size in bytes are maintained on every change, so that the streaming loop never has to
+ * iterate over buffered events in order to account memory. The buffer grows on demand up to the batch limit.
+ */
+class EventBatchBuffer {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int maxCapacity;
+    private final List<byte[]> view = new View();
+    private byte[][] events;
+    private int head;
+    private int size;
+    private long bytes;
+
+    EventBatchBuffer(final int maxCapacity) {
+        this.maxCapacity = Math.max(1, maxCapacity);
+        this.events = new byte[Math.min(this.maxCapacity, INITIAL_CAPACITY)][];
+    }
+
+    void add(final byte[] event) {
+        if (size == events.length) {
+            grow();
+        }
+        events[(head + size) % events.length] = event;
+        ++size;
+        bytes += event.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean isFull() {
+        return size >= maxCapacity;
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return Read-only view on buffered events, that is valid until next modification of the buffer
+     */
+    List<byte[]> asList() {
+        return view;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; ++i) {
+            events[(head + i) % events.length] = null;
+        }
+        head = (head + size) % events.length;
+        size = 0;
+        bytes = 0;
+    }
+
+    private void grow() {
+        if (size >= maxCapacity) {
+            throw new IllegalStateException("Batch buffer is full, " + size + " events are already buffered");
+        }
+        final byte[][] newEvents = new byte[(int) Math.min(maxCapacity, 2L * events.length)][];
+        for (int i = 0; i < size; ++i) {
+            newEvents[i] = events[(head + i) % events.length];
+        }
+        events = newEvents;
+        head = 0;
+    }
+
+    private class View extends AbstractList<byte[]> implements RandomAccess {
+        @Override
+        public byte[] get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return events[(head + index) % events.length];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package org.zalando.nakadi.service;
 
 import com.codahale.metrics.Meter;
-import com.google.common.collect.Lists;
 import org.apache.kafka.common.KafkaException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -16,17 +15,13 @@ import org.zalando.nakadi.service.publishing.NakadiKpiPublisher;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import static java.lang.System.currentTimeMillis;
-import static java.util.function.Function.identity;
 
 public class EventStream {
 
@@ -43,11 +38,13 @@ public class EventStream {
     private final long kpiFrequencyMs;
     private final NakadiKpiPublisher kpiPublisher;
     private final EventStreamChecks eventStreamChecks;
+    private final ReadAuthorizationCache readAuthorizationCache;
 
     public EventStream(final EventConsumer eventConsumer,
                        final OutputStream outputStream,
                        final EventStreamConfig config,
                        final EventStreamChecks eventStreamChecks,
+                       final ReadAuthorizationCache readAuthorizationCache,
                        final CursorConverter cursorConverter, final Meter bytesFlushedMeter,
                        final EventStreamWriter eventStreamWriter,
                        final NakadiKpiPublisher kpiPublisher, final String kpiDataStreamedEventType,
@@ -60,6 +57,7 @@ public class EventStream {
         this.eventStreamWriter = eventStreamWriter;
         this.kpiPublisher = kpiPublisher;
         this.eventStreamChecks = eventStreamChecks;
+        this.readAuthorizationCache = readAuthorizationCache;
         this.kpiData = new StreamKpiData();
         this.kpiDataStreamedEventType = kpiDataStreamedEventType;
         this.kpiFrequencyMs = kpiFrequencyMs;
@@ -68,18 +66,15 @@ public class EventStream {
     public void streamEvents(final AtomicBoolean connectionReady, final Runnable checkAuthorization) {
         try {
             int messagesRead = 0;
-            final Map<String, Integer> keepAliveInARow = createMapWithPartitionKeys(partition -> 0);
-
-            final Map<String, List<byte[]>> currentBatches =
-                    createMapWithPartitionKeys(partition -> Lists.newArrayList());
-            // Partition to NakadiCursor.
-            final Map<String, NakadiCursor> latestOffsets = config.getCursors().stream().collect(
-                    Collectors.toMap(NakadiCursor::getPartition, c -> c));
-
             final long start = currentTimeMillis();
-            final Map<String, Long> batchStartTimes = createMapWithPartitionKeys(partition -> start);
-            final List<ConsumedEvent> consumedEvents = new LinkedList<>();
-            long lastKpiEventSent = System.currentTimeMillis();
+            final long batchTimeoutMillis = TimeUnit.SECONDS.toMillis(config.getBatchTimeout());
+            final Map<String, PartitionState> partitions = new LinkedHashMap<>();
+            for (final NakadiCursor cursor : config.getCursors()) {
+                partitions.put(cursor.getPartition(), new PartitionState(cursor, config.getBatchLimit(), start));
+            }
+            // Batch timeouts are checked only when the earliest of them may be reached, not on every event
+            long nextBatchTimeoutCheck = start + batchTimeoutMillis;
+            long lastKpiEventSent = start;
             long bytesInMemory = 0;
 
             while (connectionReady.get()) {
@@ -92,66 +87,66 @@ public class EventStream {
 
                 checkAuthorization.run();
 
-                if (consumedEvents.isEmpty()) {
-                    final List<ConsumedEvent> eventsFromKafka = eventConsumer.readEvents();
-                    for (final ConsumedEvent evt: eventsFromKafka) {
-                        if (eventStreamChecks.isConsumptionBlocked(evt)) {
-                            continue;
-                        }
-                        consumedEvents.add(evt);
+                for (final ConsumedEvent event : eventConsumer.readEvents()) {
+                    if (config.getStreamLimit() != 0 && messagesRead >= config.getStreamLimit()) {
+                        break;
                     }
-                }
-                final Optional<ConsumedEvent> eventOrEmpty = consumedEvents.isEmpty() ?
-                        Optional.empty() : Optional.of(consumedEvents.remove(0));
-
-                if (eventOrEmpty.isPresent()) {
-                    final ConsumedEvent event = eventOrEmpty.get();
-
-                    // update offset for the partition of event that was read
-                    latestOffsets.put(event.getPosition().getPartition(), event.getPosition());
-
-                    // put message to batch
-                    currentBatches.get(event.getPosition().getPartition()).add(event.getEvent());
+                    if (eventStreamChecks.isConsumptionBlocked(event, readAuthorizationCache)) {
+                        continue;
+                    }
+                    final PartitionState partition = partitions.get(event.getPosition().getPartition());
+                    // update offset for the partition of event that was read and put message to batch
+                    partition.latestOffset = event.getPosition();
+                    partition.batch.add(event.getEvent());
                     messagesRead++;
                     bytesInMemory += event.getEvent().length;
 
                     // if we read the message - reset keep alive counter for this partition
-                    keepAliveInARow.put(event.getPosition().getPartition(), 0);
+                    partition.keepAliveInARow = 0;
+
+                    if (partition.batch.isFull()) {
+                        bytesInMemory -= flushBatch(partition, currentTimeMillis());
+                    }
                 }
 
-                // for each partition check if it's time to send the batch
-                for (final String partition : latestOffsets.keySet()) {
-                    final long timeSinceBatchStart = currentTimeMillis() - batchStartTimes.get(partition);
-                    if (config.getBatchTimeout() * 1000 <= timeSinceBatchStart
-                            || currentBatches.get(partition).size() >= config.getBatchLimit()) {
-                        final List<byte[]> eventsToSend = currentBatches.get(partition);
-                        sendBatch(latestOffsets.get(partition), eventsToSend);
-
-                        if (!eventsToSend.isEmpty()) {
-                            bytesInMemory -= eventsToSend.stream().mapToLong(v -> v.length).sum();
-                            eventsToSend.clear();
-                        } else {
-                            // if we hit keep alive count limit - close the stream
-                            keepAliveInARow.put(partition, keepAliveInARow.get(partition) + 1);
+                // check if it's time to send the batches because of batch timeout
+                final long now = currentTimeMillis();
+                if (now >= nextBatchTimeoutCheck) {
+                    nextBatchTimeoutCheck = Long.MAX_VALUE;
+                    boolean keepAliveLimitReachedForAllPartitions = config.getStreamKeepAliveLimit() != 0;
+                    for (final PartitionState partition : partitions.values()) {
+                        if (batchTimeoutMillis <= now - partition.batchStartTime) {
+                            if (partition.batch.isEmpty()) {
+                                // if we hit keep alive count limit - close the stream
+                                partition.keepAliveInARow++;
+                            }
+                            bytesInMemory -= flushBatch(partition, now);
                         }
-
-                        batchStartTimes.put(partition, currentTimeMillis());
+                        nextBatchTimeoutCheck = Math.min(
+                                nextBatchTimeoutCheck, partition.batchStartTime + batchTimeoutMillis);
+                        keepAliveLimitReachedForAllPartitions &=
+                                partition.keepAliveInARow >= config.getStreamKeepAliveLimit();
+                    }
+                    // check if we reached keepAliveInARow for all the partitions; if yes - then close stream
+                    if (keepAliveLimitReachedForAllPartitions) {
+                        break;
                     }
                 }
+
                 // Dump some data that is exceeding memory limits
                 while (isMemoryLimitReached(bytesInMemory)) {
-                    final Map.Entry<String, List<byte[]>> heaviestPartition = currentBatches.entrySet().stream()
-                            .max(Comparator.comparing(
-                                    entry -> entry.getValue().stream().mapToLong(event -> event.length).sum()))
-                            .get();
-                    sendBatch(latestOffsets.get(heaviestPartition.getKey()), heaviestPartition.getValue());
-                    final long freed = heaviestPartition.getValue().stream().mapToLong(v -> v.length).sum();
+                    PartitionState heaviestPartition = null;
+                    for (final PartitionState partition : partitions.values()) {
+                        if (null == heaviestPartition ||
+                                partition.batch.getBytes() > heaviestPartition.batch.getBytes()) {
+                            heaviestPartition = partition;
+                        }
+                    }
+                    final int freedMessages = heaviestPartition.batch.size();
+                    final long freed = flushBatch(heaviestPartition, currentTimeMillis());
                     LOG.info("Memory limit reached for event type {}: {} bytes. Freed: {} bytes, {} messages",
-                            config.getEtName(), bytesInMemory, freed, heaviestPartition.getValue().size());
+                            config.getEtName(), bytesInMemory, freed, freedMessages);
                     bytesInMemory -= freed;
-                    // Init new batch for subscription
-                    heaviestPartition.getValue().clear();
-                    batchStartTimes.put(heaviestPartition.getKey(), currentTimeMillis());
                 }
 
                 if (lastKpiEventSent + kpiFrequencyMs < System.currentTimeMillis()) {
@@ -163,26 +158,14 @@ public class EventStream {
                     lastKpiEventSent = System.currentTimeMillis();
                 }
 
-                // check if we reached keepAliveInARow for all the partitions; if yes - then close stream
-                if (config.getStreamKeepAliveLimit() != 0) {
-                    final boolean keepAliveLimitReachedForAllPartitions = keepAliveInARow
-                            .values()
-                            .stream()
-                            .allMatch(keepAlives -> keepAlives >= config.getStreamKeepAliveLimit());
-
-                    if (keepAliveLimitReachedForAllPartitions) {
-                        break;
-                    }
-                }
-
                 // check if we reached the stream timeout or message count limit
                 final long timeSinceStart = currentTimeMillis() - start;
                 if (config.getStreamTimeout() != 0 && timeSinceStart >= config.getStreamTimeout() * 1000
                         || config.getStreamLimit() != 0 && messagesRead >= config.getStreamLimit()) {
 
-                    for (final String partition : latestOffsets.keySet()) {
-                        if (currentBatches.get(partition).size() > 0) {
-                            sendBatch(latestOffsets.get(partition), currentBatches.get(partition));
+                    for (final PartitionState partition : partitions.values()) {
+                        if (!partition.batch.isEmpty()) {
+                            sendBatch(partition.latestOffset, partition.batch.asList());
                         }
                     }
 
@@ -226,10 +209,18 @@ public class EventStream {
                         .put("bytes_streamed", bytes));
     }
 
-    private <T> Map<String, T> createMapWithPartitionKeys(final Function<String, T> valueFunction) {
-        return config
-                .getCursors().stream().map(NakadiCursor::getPartition)
-                .collect(Collectors.toMap(identity(), valueFunction));
+    /**
+     * Sends currently accumulated batch of the partition (or keep alive batch, if there are no events) and starts a
+     * new batch.
+     *
+     * @return number of bytes of events that were released from memory
+     */
+    private long flushBatch(final PartitionState partition, final long now) throws IOException {
+        sendBatch(partition.latestOffset, partition.batch.asList());
+        final long freed = partition.batch.getBytes();
+        partition.batch.clear();
+        partition.batchStartTime = now;
+        return freed;
     }
 
     private void sendBatch(final NakadiCursor topicPosition, final List<byte[]> currentBatch)
@@ -246,4 +237,17 @@ public class EventStream {
         this.eventConsumer.close();
     }
 
+    private static class PartitionState {
+        private final EventBatchBuffer batch;
+        private NakadiCursor latestOffset;
+        private long batchStartTime;
+        private int keepAliveInARow;
+
+        private PartitionState(final NakadiCursor latestOffset, final int batchLimit, final long batchStartTime) {
+            this.batch = new EventBatchBuffer(batchLimit);
+            this.latestOffset = latestOffset;
+            this.batchStartTime = batchStartTime;
+        }
+    }
+
 }
@@ -36,14 +36,20 @@ public class EventStreamFactory {
         this.kpiFrequencyMs = kpiFrequencyMs;
     }
 
+    /**
+     * @param readAuthorizationCache Cache of READ authorization decisions for the stream, that is invalidated by the
+     *                               caller when authorization of event type changes.
+     */
     public EventStream createEventStream(final OutputStream outputStream, final EventConsumer eventConsumer,
-                                         final EventStreamConfig config, final Meter bytesFlushedMeter)
+                                         final EventStreamConfig config, final Meter bytesFlushedMeter,
+                                         final ReadAuthorizationCache readAuthorizationCache)
             throws InvalidCursorException {
         return new EventStream(
                 eventConsumer,
                 outputStream,
                 config,
                 eventStreamChecks,
+                readAuthorizationCache,
                 cursorConverter,
                 bytesFlushedMeter,
                 eventStreamWriter,
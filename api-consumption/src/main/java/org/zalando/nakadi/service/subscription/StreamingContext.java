@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskDecorator;
 import org.zalando.nakadi.domain.ConsumedEvent;
 import org.zalando.nakadi.domain.NakadiCursor;
 import org.zalando.nakadi.domain.Subscription;
@@ -18,6 +19,7 @@ import org.zalando.nakadi.service.CursorTokenService;
 import org.zalando.nakadi.service.EventStreamChecks;
 import org.zalando.nakadi.service.EventStreamWriter;
 import org.zalando.nakadi.service.EventTypeChangeListener;
+import org.zalando.nakadi.service.ReadAuthorizationCache;
 import org.zalando.nakadi.service.publishing.NakadiKpiPublisher;
 import org.zalando.nakadi.service.subscription.autocommit.AutocommitSupport;
 import org.zalando.nakadi.service.subscription.model.Partition;
@@ -30,12 +32,14 @@ import org.zalando.nakadi.service.subscription.zk.ZkSubscription;
 import org.zalando.nakadi.service.subscription.zk.ZkSubscriptionClient;
 import org.zalando.nakadi.service.timeline.TimelineService;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -45,6 +49,8 @@ import java.util.function.BiFunction;
 public class StreamingContext implements SubscriptionStreamer {
 
     public static final State DEAD_STATE = new DummyState();
+    // Turns that are longer are delaying other streams of event loop noticeably, most likely because of blocking call
+    private static final long SLOW_TURN_MS = 1000;
 
     private final StreamParameters parameters;
     private final Session session;
@@ -56,6 +62,7 @@ public class StreamingContext implements SubscriptionStreamer {
     private final CursorTokenService cursorTokenService;
     private final ObjectMapper objectMapper;
     private final EventStreamChecks eventStreamChecks;
+    private final ReadAuthorizationCache readAuthorizationCache = new ReadAuthorizationCache();
     private final ScheduledExecutorService timer;
     private final BlockingQueue<Runnable> taskQueue = new LinkedBlockingQueue<>();
     private final BiFunction<Collection<Session>, Partition[], Partition[]> rebalancer;
@@ -75,6 +82,12 @@ public class StreamingContext implements SubscriptionStreamer {
 
     private final long streamMemoryLimitBytes;
 
+    @Nullable
+    private final StreamingEventLoop eventLoop;
+    private final TaskDecorator taskDecorator;
+    private final AtomicBoolean turnScheduled = new AtomicBoolean(false);
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
     private State currentState = new DummyState();
     private ZkSubscription<List<String>> sessionListSubscription;
     private Closeable authorizationCheckSubscription;
@@ -110,6 +123,8 @@ public class StreamingContext implements SubscriptionStreamer {
         this.kpiCollectionFrequencyMs = builder.kpiCollectionFrequencyMs;
         this.streamMemoryLimitBytes = builder.streamMemoryLimitBytes;
         this.cursorOperationsService = builder.cursorOperationsService;
+        this.eventLoop = builder.eventLoop;
+        this.taskDecorator = null == builder.taskDecorator ? (task -> task) : builder.taskDecorator;
     }
 
     public TimelineService getTimelineService() {
@@ -182,6 +197,25 @@ public class StreamingContext implements SubscriptionStreamer {
         streamInternal(new StartingState());
     }
 
+    @Override
+    public CompletableFuture<Void> streamAsync() {
+        return streamAsyncInternal(new StartingState());
+    }
+
+    CompletableFuture<Void> streamAsyncInternal(final State firstState) {
+        Preconditions.checkState(isNonBlocking(), "Event loop is not enabled for streaming context");
+        // Tasks are executed by event loop from now on, see scheduleTurn
+        switchState(firstState);
+        return completion;
+    }
+
+    /**
+     * @return true if stream is driven by shared event loop, and therefore tasks must not block waiting for data.
+     */
+    public boolean isNonBlocking() {
+        return null != eventLoop && eventLoop.isEnabled();
+    }
+
     void streamInternal(final State firstState)
             throws InterruptedException {
         // Add first task - switch to starting state.
@@ -189,18 +223,60 @@ public class StreamingContext implements SubscriptionStreamer {
 
         while (currentState != DEAD_STATE) {
             // Wait forever
-            final Runnable task = taskQueue.poll(1, TimeUnit.HOURS);
-            try {
-                if (task != null) {
-                    task.run();
+            processTask(taskQueue.poll(1, TimeUnit.HOURS));
+        }
+    }
+
+    private void processTask(@Nullable final Runnable task) {
+        try {
+            if (task != null) {
+                task.run();
+            }
+        } catch (final NakadiRuntimeException ex) {
+            log.error("Failed to process task " + task + ", will rethrow original error", ex);
+            switchStateImmediately(new CleanupState(ex.getException()));
+        } catch (final RuntimeException ex) {
+            log.error("Failed to process task " + task + ", code carefully!", ex);
+            switchStateImmediately(new CleanupState(ex));
+        }
+    }
+
+    /**
+     * Schedules processing of tasks on event loop, unless it is already scheduled. Tasks that are added while the
+     * turn is running will be processed either by the same turn or by the next one, as the flag is reset before the
+     * queue is checked for the last time.
+     */
+    private void scheduleTurn() {
+        if (turnScheduled.compareAndSet(false, true)) {
+            eventLoop.execute(taskDecorator.decorate(this::runTurn));
+        }
+    }
+
+    private void runTurn() {
+        final long turnStart = System.currentTimeMillis();
+        try {
+            for (int i = 0; i < eventLoop.getTasksPerTurn() && currentState != DEAD_STATE; ++i) {
+                final Runnable task = taskQueue.poll();
+                if (null == task) {
+                    break;
                 }
-            } catch (final NakadiRuntimeException ex) {
-                log.error("Failed to process task " + task + ", will rethrow original error", ex);
-                switchStateImmediately(new CleanupState(ex.getException()));
-            } catch (final RuntimeException ex) {
-                log.error("Failed to process task " + task + ", code carefully!", ex);
-                switchStateImmediately(new CleanupState(ex));
+                processTask(task);
             }
+        } catch (final RuntimeException | Error ex) {
+            completion.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            turnScheduled.set(false);
+        }
+        final long turnDuration = System.currentTimeMillis() - turnStart;
+        if (turnDuration > SLOW_TURN_MS) {
+            log.warn("Turn of the stream took {} ms, other streams of event loop were delayed", turnDuration);
+        }
+        if (currentState == DEAD_STATE) {
+            taskQueue.clear();
+            completion.complete(null);
+        } else if (!taskQueue.isEmpty()) {
+            scheduleTurn();
         }
     }
 
@@ -278,7 +354,13 @@ public class StreamingContext implements SubscriptionStreamer {
     }
 
     public void addTask(final Runnable task) {
+        if (isNonBlocking() && completion.isDone()) {
+            return;
+        }
         taskQueue.offer(task);
+        if (isNonBlocking()) {
+            scheduleTurn();
+        }
     }
 
     public void scheduleTask(final Runnable task, final long timeout, final TimeUnit unit) {
@@ -296,7 +378,7 @@ public class StreamingContext implements SubscriptionStreamer {
     }
 
     public boolean isConsumptionBlocked(final ConsumedEvent event) {
-        return eventStreamChecks.isConsumptionBlocked(event);
+        return eventStreamChecks.isConsumptionBlocked(event, readAuthorizationCache);
     }
 
     public CursorTokenService getCursorTokenService() {
@@ -343,7 +425,10 @@ public class StreamingContext implements SubscriptionStreamer {
         // for each task - switch to CleanupState with exception as a parameter
         // The reason for adding task is to execute this check on thread that still owns security context.
         authorizationCheckSubscription = eventTypeChangeListener.registerListener(
-                (eventType) -> addTask(this::checkAccessAuthorized), subscription.getEventTypes());
+                (eventType) -> {
+                    readAuthorizationCache.invalidate();
+                    addTask(this::checkAccessAuthorized);
+                }, subscription.getEventTypes());
     }
 
     public void checkAccessAuthorized() throws AccessDeniedException {
@@ -384,6 +469,8 @@ public class StreamingContext implements SubscriptionStreamer {
         private String kpiDataStremedEventType;
         private long kpiCollectionFrequencyMs;
         private long streamMemoryLimitBytes;
+        private StreamingEventLoop eventLoop;
+        private TaskDecorator taskDecorator;
 
         public Builder setOut(final SubscriptionOutput out) {
             this.out = out;
@@ -505,6 +592,16 @@ public class StreamingContext implements SubscriptionStreamer {
             return this;
         }
 
+        public Builder setEventLoop(final StreamingEventLoop eventLoop) {
+            this.eventLoop = eventLoop;
+            return this;
+        }
+
+        public Builder setTaskDecorator(final TaskDecorator taskDecorator) {
+            this.taskDecorator = taskDecorator;
+            return this;
+        }
+
         public StreamingContext build() {
             return new StreamingContext(this);
         }
@@ -0,0 +1,81 @@
+package org.zalando.nakadi.service.subscription;
+
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.zalando.nakadi.service.publishing.NamedThreadFactory;
+
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Threads that are driving subscription streams.
+ * <p>
+ * In case if event loop is enabled, a small fixed pool of threads is shared by all the streams of the node. Stream
+ * is scheduled for execution only when it has tasks to run (new data, timer, zookeeper notification, output became
+ * writable), and it yields the thread after processing a limited number of tasks, so that all the streams get their
+ * share. Tasks of one stream are never executed concurrently.
+ * <p>
+ * Tasks are still allowed to make short blocking calls: zookeeper operations (bounded by zookeeper session and
+ * connection timeouts) and kafka polls with zero timeout (which are bounded by the timeout including metadata
+ * fetches). Stream turns that are taking long are logged, as they are delaying other streams of the loop.
+ * <p>
+ * Otherwise (by default) streams are not using event loop at all, and each stream is driven by the thread that
+ * serves the http response, exactly as without event loop.
+ */
+@Component
+public class StreamingEventLoop {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingEventLoop.class);
+
+    private final int tasksPerTurn;
+    @Nullable
+    private final ExecutorService executorService;
+    private final boolean enabled;
+
+    @Autowired
+    public StreamingEventLoop(
+            @Value("${nakadi.subscription.eventLoop.threads:0}") final int threads,
+            @Value("${nakadi.subscription.eventLoop.tasksPerTurn:100}") final int tasksPerTurn) {
+        this.tasksPerTurn = Math.max(1, tasksPerTurn);
+        this.enabled = threads > 0;
+        if (enabled) {
+            this.executorService = Executors.newFixedThreadPool(
+                    threads, new NamedThreadFactory("subscription-event-loop-"));
+            LOG.info("Subscription streams are driven by event loop with {} threads", threads);
+        } else {
+            this.executorService = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (null != executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return Maximum number of tasks of one stream that are executed before the thread is given to other streams.
+     */
+    int getTasksPerTurn() {
+        return tasksPerTurn;
+    }
+
+    /**
+     * Executes one turn of a stream. Must be used only if event loop is enabled.
+     */
+    void execute(final Runnable runnable) {
+        Preconditions.checkState(null != executorService, "Event loop is not enabled");
+        executorService.execute(runnable);
+    }
+}
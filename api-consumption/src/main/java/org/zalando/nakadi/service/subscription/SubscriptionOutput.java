@@ -9,4 +9,19 @@ public interface SubscriptionOutput {
     void onException(Exception ex);
 
     OutputStream getOutputStream();
+
+    /**
+     * @return false if output can not accept more data without blocking, and streaming should wait for
+     * {@link #onReady(Runnable)} callback.
+     */
+    default boolean isReady() {
+        return true;
+    }
+
+    /**
+     * Registers callback that is called when output becomes ready to accept data after {@link #isReady()} returned
+     * false. Callback may be called from any thread.
+     */
+    default void onReady(final Runnable callback) {
+    }
 }
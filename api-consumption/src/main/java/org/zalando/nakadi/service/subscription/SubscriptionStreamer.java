@@ -1,9 +1,18 @@
 package org.zalando.nakadi.service.subscription;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface SubscriptionStreamer {
 
     void stream() throws InterruptedException;
 
+    /**
+     * Starts streaming without blocking the calling thread.
+     *
+     * @return Future that is completed when streaming is finished.
+     */
+    CompletableFuture<Void> streamAsync();
+
     void terminateStream();
 
 }
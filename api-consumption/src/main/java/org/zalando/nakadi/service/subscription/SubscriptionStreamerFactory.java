@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.stereotype.Service;
 import org.zalando.nakadi.cache.EventTypeCache;
 import org.zalando.nakadi.domain.Subscription;
@@ -24,6 +25,7 @@ import org.zalando.nakadi.service.subscription.zk.SubscriptionClientFactory;
 import org.zalando.nakadi.service.subscription.zk.ZkSubscriptionClient;
 import org.zalando.nakadi.service.timeline.TimelineService;
 
+import javax.annotation.Nullable;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -49,6 +51,7 @@ public class SubscriptionStreamerFactory {
     private final String kpiDataStreamedEventType;
     private final long kpiCollectionFrequencyMs;
     private final long streamMemoryLimitBytes;
+    private final StreamingEventLoop eventLoop;
 
     @Autowired
     public SubscriptionStreamerFactory(
@@ -65,6 +68,7 @@ public class SubscriptionStreamerFactory {
             final NakadiKpiPublisher nakadiKpiPublisher,
             final CursorOperationsService cursorOperationsService,
             final EventStreamChecks eventStreamChecks,
+            final StreamingEventLoop eventLoop,
             @Value("${nakadi.kpi.event-types.nakadiDataStreamed}") final String kpiDataStreamedEventType,
             @Value("${nakadi.kpi.config.stream-data-collection-frequency-ms}") final long kpiCollectionFrequencyMs,
             @Value("${nakadi.subscription.maxStreamMemoryBytes}") final long streamMemoryLimitBytes) {
@@ -84,6 +88,15 @@ public class SubscriptionStreamerFactory {
         this.kpiDataStreamedEventType = kpiDataStreamedEventType;
         this.kpiCollectionFrequencyMs = kpiCollectionFrequencyMs;
         this.streamMemoryLimitBytes = streamMemoryLimitBytes;
+        this.eventLoop = eventLoop;
+    }
+
+    /**
+     * @return true if streams are driven by shared event loop, in which case output provided to streamer must support
+     * non-blocking writes (see {@link SubscriptionOutput#isReady()}).
+     */
+    public boolean isNonBlocking() {
+        return eventLoop.isEnabled();
     }
 
     public SubscriptionStreamer build(
@@ -91,7 +104,8 @@ public class SubscriptionStreamerFactory {
             final StreamParameters streamParameters,
             final Session session,
             final SubscriptionOutput output,
-            final AtomicBoolean connectionReady)
+            final AtomicBoolean connectionReady,
+            @Nullable final TaskDecorator taskDecorator)
             throws InternalNakadiException, NoSuchEventTypeException {
         final ZkSubscriptionClient zkClient = zkClientFactory.createClient(
                 subscription,
@@ -123,6 +137,8 @@ public class SubscriptionStreamerFactory {
                 .setCursorOperationsService(cursorOperationsService)
                 .setKpiDataStremedEventType(kpiDataStreamedEventType)
                 .setKpiCollectionFrequencyMs(kpiCollectionFrequencyMs)
+                .setEventLoop(eventLoop)
+                .setTaskDecorator(taskDecorator)
                 .build();
     }
 
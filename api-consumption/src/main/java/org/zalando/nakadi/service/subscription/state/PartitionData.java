@@ -4,24 +4,40 @@ import com.google.common.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zalando.nakadi.domain.ConsumedEvent;
+import org.zalando.nakadi.domain.EventTypePartition;
 import org.zalando.nakadi.domain.NakadiCursor;
 import org.zalando.nakadi.service.CursorOperationsService;
 import org.zalando.nakadi.service.subscription.zk.ZkSubscription;
 import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
 
 import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.Deque;
 import java.util.List;
 import java.util.function.Predicate;
 
 class PartitionData {
+
+    /**
+     * Receives changes of memory consumption and of number of unconfirmed events of a partition, so that totals for
+     * all the partitions of a stream can be maintained without iterating over partitions.
+     */
+    interface Listener {
+        Listener NONE = (data, bytesInMemoryDelta, unconfirmedDelta) -> {
+        };
+
+        void onChanged(PartitionData data, long bytesInMemoryDelta, long unconfirmedDelta);
+    }
+
     private final Comparator<NakadiCursor> comparator;
     private final ZkSubscription<SubscriptionCursorWithoutToken> subscription;
-    private final List<ConsumedEvent> nakadiEvents = new LinkedList<>();
+    private final Deque<ConsumedEvent> nakadiEvents = new ArrayDeque<>();
     private final Logger log;
     private final CursorOperationsService cursorOperationsService;
+    private final EventTypePartition key;
+    private final Listener listener;
 
     private NakadiCursor commitOffset;
     private NakadiCursor sentOffset;
@@ -29,6 +45,7 @@ class PartitionData {
     private long batchWindowStartTimestamp;
     private int keepAliveInARow;
     private long bytesInMemory;
+    private long unconfirmed;
     final long batchTimespanMillis;
 
     @VisibleForTesting
@@ -44,7 +61,8 @@ class PartitionData {
                 LoggerFactory.getLogger(PartitionData.class),
                 currentTime,
                 batchTimespanMillis,
-                cursorOperationsService);
+                cursorOperationsService,
+                Listener.NONE);
         bytesInMemory = 0L;
     }
 
@@ -60,7 +78,8 @@ class PartitionData {
                 LoggerFactory.getLogger(PartitionData.class),
                 currentTime,
                 0L,
-                cursorOperationsService);
+                cursorOperationsService,
+                Listener.NONE);
         bytesInMemory = 0L;
     }
 
@@ -71,12 +90,15 @@ class PartitionData {
             final Logger log,
             final long currentTime,
             final long batchTimespanMillis,
-            final CursorOperationsService cursorOperationsService) {
+            final CursorOperationsService cursorOperationsService,
+            final Listener listener) {
         this.batchTimespanMillis = batchTimespanMillis;
         this.comparator = comparator;
         this.subscription = subscription;
         this.log = log;
         this.cursorOperationsService = cursorOperationsService;
+        this.key = commitOffset.getEventTypePartition();
+        this.listener = listener;
 
         this.commitOffset = commitOffset;
         this.sentOffset = commitOffset;
@@ -110,15 +132,15 @@ class PartitionData {
 
     private long batchWindowEndTimestamp() {
         if (batchWindowStartTimestamp == 0 && !nakadiEvents.isEmpty()) {
-            batchWindowStartTimestamp = nakadiEvents.get(0).getTimestamp();
+            batchWindowStartTimestamp = nakadiEvents.getFirst().getTimestamp();
         }
 
         return batchWindowStartTimestamp + batchTimespanMillis;
     }
 
     private long lastRecordTimestamp() {
-        if (nakadiEvents.size() > 0) {
-            return nakadiEvents.get(nakadiEvents.size() - 1).getTimestamp();
+        if (!nakadiEvents.isEmpty()) {
+            return nakadiEvents.getLast().getTimestamp();
         } else {
             return 0;
         }
@@ -128,7 +150,7 @@ class PartitionData {
         // extract at least one. This condition is necessary in case the event that triggers the extract is outside
         // the window but it's the only event to be streamed.
         final List<ConsumedEvent> events = extract((taken) -> {
-            return nakadiEvents.get(0).getTimestamp() < batchWindowEndTimestamp || taken == 0;
+            return nakadiEvents.getFirst().getTimestamp() < batchWindowEndTimestamp || taken == 0;
         });
 
         // needed to fast forward the window start in case there are no events for an extended period of time
@@ -139,6 +161,10 @@ class PartitionData {
         return events;
     }
 
+    EventTypePartition getKey() {
+        return key;
+    }
+
     NakadiCursor getSentOffset() {
         return sentOffset;
     }
@@ -156,25 +182,41 @@ class PartitionData {
     }
 
     private List<ConsumedEvent> extractCount(final int count) {
-        return extract((i) -> i < count);
+        return extract(Math.max(0, Math.min(count, nakadiEvents.size())), (i) -> i < count);
     }
 
     private List<ConsumedEvent> extract(final Predicate<Integer> condition) {
-        final List<ConsumedEvent> result = new ArrayList<>();
+        return extract(nakadiEvents.size(), condition);
+    }
+
+    private List<ConsumedEvent> extract(final int expectedSize, final Predicate<Integer> condition) {
+        final List<ConsumedEvent> result = new ArrayList<>(expectedSize);
+        long bytesExtracted = 0;
         for (int i = 0; !nakadiEvents.isEmpty() && condition.test(i); ++i) {
-            final ConsumedEvent event = nakadiEvents.remove(0);
-            bytesInMemory -= event.getEvent().length;
+            final ConsumedEvent event = nakadiEvents.removeFirst();
+            bytesExtracted += event.getEvent().length;
             result.add(event);
         }
         if (!result.isEmpty()) {
+            bytesInMemory -= bytesExtracted;
             this.sentOffset = result.get(result.size() - 1).getPosition();
             this.keepAliveInARow = 0;
+            notifyChanged(-bytesExtracted);
         } else {
             this.keepAliveInARow += 1;
         }
         return result;
     }
 
+    /**
+     * Recalculates number of unconfirmed events (offsets may have changed) and reports changes to listener.
+     */
+    private void notifyChanged(final long bytesInMemoryDelta) {
+        final long oldUnconfirmed = unconfirmed;
+        unconfirmed = cursorOperationsService.calculateDistance(commitOffset, sentOffset);
+        listener.onChanged(this, bytesInMemoryDelta, unconfirmed - oldUnconfirmed);
+    }
+
     public List<ConsumedEvent> extractMaxEvents(final long currentTimeMillis, final int count) {
         final List<ConsumedEvent> result = extractCount(count);
         if (!result.isEmpty()) {
@@ -197,13 +239,19 @@ class PartitionData {
      * @param beforeFirst Position to check against (last inaccessible position in stream)
      */
     void ensureDataAvailable(final NakadiCursor beforeFirst) {
+        boolean changed = false;
         if (comparator.compare(beforeFirst, commitOffset) > 0) {
             log.warn("Oldest kafka position is {} and commit offset is {}, updating", beforeFirst, commitOffset);
             commitOffset = beforeFirst;
+            changed = true;
         }
         if (comparator.compare(beforeFirst, sentOffset) > 0) {
             log.warn("Oldest kafka position is {} and sent offset is {}, updating", beforeFirst, sentOffset);
             sentOffset = beforeFirst;
+            changed = true;
+        }
+        if (changed) {
+            notifyChanged(0L);
         }
     }
 
@@ -218,6 +266,7 @@ class PartitionData {
     }
 
     CommitResult onCommitOffset(final NakadiCursor offset) {
+        final long oldBytesInMemory = bytesInMemory;
         boolean seekKafka = false;
         if (comparator.compare(offset, sentOffset) > 0) {
             log.error("Commit in future: current: {}, committed {} will skip sending obsolete data", sentOffset,
@@ -239,16 +288,19 @@ class PartitionData {
             bytesInMemory = 0L;
             committed = 0;
         }
-        while (!nakadiEvents.isEmpty() && comparator.compare(nakadiEvents.get(0).getPosition(), commitOffset) <= 0) {
-            final ConsumedEvent evt = nakadiEvents.remove(0);
+        while (!nakadiEvents.isEmpty()
+                && comparator.compare(nakadiEvents.getFirst().getPosition(), commitOffset) <= 0) {
+            final ConsumedEvent evt = nakadiEvents.removeFirst();
             bytesInMemory -= evt.getEvent().length;
         }
+        notifyChanged(bytesInMemory - oldBytesInMemory);
         return new CommitResult(seekKafka, committed);
     }
 
     void addEvent(final ConsumedEvent event) {
-        nakadiEvents.add(event);
+        nakadiEvents.addLast(event);
         bytesInMemory += event.getEvent().length;
+        listener.onChanged(this, event.getEvent().length, 0L);
     }
 
     boolean isCommitted() {
@@ -256,7 +308,7 @@ class PartitionData {
     }
 
     long getUnconfirmed() {
-        return cursorOperationsService.calculateDistance(commitOffset, sentOffset);
+        return unconfirmed;
     }
 
     public ZkSubscription<SubscriptionCursorWithoutToken> getSubscription() {
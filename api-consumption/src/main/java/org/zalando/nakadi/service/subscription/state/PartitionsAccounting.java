@@ -0,0 +1,80 @@
+package org.zalando.nakadi.service.subscription.state;
+
+import org.zalando.nakadi.domain.EventTypePartition;
+
+import javax.annotation.Nullable;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Totals of partitions that are streamed within one session: bytes of events kept in memory and number of sent, but
+ * not yet committed events. Totals are maintained incrementally from changes reported by partitions.
+ * <p>
+ * Partitions are also kept ordered by memory consumption in order to find the heaviest one. As memory consumption
+ * changes with every event read, partitions are only marked as changed and are reordered lazily, when the heaviest
+ * partition is requested.
+ */
+class PartitionsAccounting implements PartitionData.Listener {
+
+    private final Map<PartitionData, Long> orderedWeights = new HashMap<>();
+    private final NavigableSet<PartitionData> orderedByWeight = new TreeSet<>(
+            Comparator.<PartitionData>comparingLong(data -> orderedWeights.get(data))
+                    .thenComparing(PartitionData::getKey, Comparator.comparing(EventTypePartition::getEventType)
+                            .thenComparing(EventTypePartition::getPartition)));
+    private final Set<PartitionData> changedWeights = new HashSet<>();
+    private long bytesInMemory;
+    private long unconfirmed;
+
+    void add(final PartitionData data) {
+        orderedWeights.put(data, data.getBytesInMemory());
+        orderedByWeight.add(data);
+        bytesInMemory += data.getBytesInMemory();
+        unconfirmed += data.getUnconfirmed();
+    }
+
+    void remove(final PartitionData data) {
+        if (orderedWeights.containsKey(data)) {
+            orderedByWeight.remove(data);
+            orderedWeights.remove(data);
+            changedWeights.remove(data);
+            bytesInMemory -= data.getBytesInMemory();
+            unconfirmed -= data.getUnconfirmed();
+        }
+    }
+
+    @Override
+    public void onChanged(final PartitionData data, final long bytesInMemoryDelta, final long unconfirmedDelta) {
+        if (!orderedWeights.containsKey(data)) {
+            return;
+        }
+        bytesInMemory += bytesInMemoryDelta;
+        unconfirmed += unconfirmedDelta;
+        if (bytesInMemoryDelta != 0) {
+            changedWeights.add(data);
+        }
+    }
+
+    long getBytesInMemory() {
+        return bytesInMemory;
+    }
+
+    long getUnconfirmed() {
+        return unconfirmed;
+    }
+
+    @Nullable
+    PartitionData getHeaviest() {
+        for (final PartitionData data : changedWeights) {
+            orderedByWeight.remove(data);
+            orderedWeights.put(data, data.getBytesInMemory());
+            orderedByWeight.add(data);
+        }
+        changedWeights.clear();
+        return orderedByWeight.isEmpty() ? null : orderedByWeight.last();
+    }
+}
@@ -31,7 +31,6 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -48,6 +47,7 @@ import static java.util.stream.Collectors.groupingBy;
 
 class StreamingState extends State {
     private final Map<EventTypePartition, PartitionData> offsets = new HashMap<>();
+    private final PartitionsAccounting accounting = new PartitionsAccounting();
     // Maps partition barrier when releasing must be completed or stream will be closed.
     // The reasons for that if there are two partitions (p0, p1) and p0 is reassigned, if p1 is working
     // correctly, and p0 is not receiving any updates - reassignment won't complete.
@@ -109,6 +109,7 @@ class StreamingState extends State {
         addTask(this::recheckTopology);
         addTask(this::initializeStream);
         addTask(this::pollDataFromKafka);
+        getOut().onReady(() -> addTask(this::streamToOutput));
         scheduleTask(this::checkBatchTimeouts, getParameters().batchTimeoutMillis, TimeUnit.MILLISECONDS);
         scheduleTask(this::autocommitPeriodically, AUTOCOMMIT_INTERVAL_SECONDS, TimeUnit.SECONDS);
 
@@ -220,6 +221,18 @@ class StreamingState extends State {
             scheduleTask(this::pollDataFromKafka, getKafkaPollTimeout(), TimeUnit.MILLISECONDS);
             return;
         }
+        if (getContext().isNonBlocking()) {
+            // Thread is shared with other streams, therefore only the data that is already fetched is taken
+            final List<ConsumedEvent> events = eventConsumer.readEvents(0);
+            events.forEach(this::rememberEvent);
+            if (events.isEmpty()) {
+                scheduleTask(this::pollDataFromKafka, getKafkaPollTimeout(), TimeUnit.MILLISECONDS);
+            } else {
+                addTask(this::streamToOutput);
+                addTask(this::pollDataFromKafka);
+            }
+            return;
+        }
         final List<ConsumedEvent> events = eventConsumer.readEvents();
         events.forEach(this::rememberEvent);
         if (!events.isEmpty()) {
@@ -244,8 +257,7 @@ class StreamingState extends State {
     }
 
     private long getMessagesAllowedToSend() {
-        final long unconfirmed = offsets.values().stream().mapToLong(PartitionData::getUnconfirmed).sum();
-        final long limit = getParameters().maxUncommittedMessages - unconfirmed;
+        final long limit = getParameters().maxUncommittedMessages - accounting.getUnconfirmed();
         return getParameters().getMessagesAllowedToSend(limit, this.sentEvents);
     }
 
@@ -267,6 +279,11 @@ class StreamingState extends State {
     }
 
     private void streamToOutput(final boolean streamTimeoutReached) {
+        if (!streamTimeoutReached && !getOut().isReady()) {
+            // Output will notify when it is ready, polling is resumed after that
+            pollPaused = true;
+            return;
+        }
         final long currentTimeMillis = System.currentTimeMillis();
         int messagesAllowedToSend = (int) getMessagesAllowedToSend();
         final boolean wasCommitted = isEverythingCommitted();
@@ -289,18 +306,16 @@ class StreamingState extends State {
             }
         }
 
-        long memoryConsumed = offsets.values().stream().mapToLong(PartitionData::getBytesInMemory).sum();
-        while (memoryConsumed > getContext().getStreamMemoryLimitBytes() && getMessagesAllowedToSend() > 0) {
+        while (accounting.getBytesInMemory() > getContext().getStreamMemoryLimitBytes()
+                && getMessagesAllowedToSend() > 0) {
             // Select heaviest guy (and on previous step we figured out that we can not send anymore full batches,
             // therefore we can take all the events from one partition.
-            final Map.Entry<EventTypePartition, PartitionData> heaviestPartition = offsets.entrySet().stream().max(
-                    Comparator.comparing(e -> e.getValue().getBytesInMemory())
-            ).get(); // There is always at least 1 item in list
+            final PartitionData heaviestPartition = accounting.getHeaviest(); // There is always at least 1 partition
 
-            long deltaSize = heaviestPartition.getValue().getBytesInMemory();
-            final List<ConsumedEvent> events = heaviestPartition.getValue().extractMaxEvents(currentTimeMillis,
+            final long memoryConsumed = accounting.getBytesInMemory();
+            final List<ConsumedEvent> events = heaviestPartition.extractMaxEvents(currentTimeMillis,
                     (int) getMessagesAllowedToSend());
-            deltaSize -= heaviestPartition.getValue().getBytesInMemory();
+            final long deltaSize = memoryConsumed - accounting.getBytesInMemory();
 
             sentSomething = true;
             flushData(
@@ -311,7 +326,6 @@ class StreamingState extends State {
                             Optional.of("Stream parameters are causing overflow"));
             getLog().warn("Memory limit reached: {} bytes. Dumped events from {}. Freed: {} bytes, {} messages",
                     memoryConsumed, heaviestPartition.getKey(), deltaSize, events.size());
-            memoryConsumed -= deltaSize;
         }
 
         if (lastKpiEventSent + getContext().getKpiCollectionFrequencyMs() < System.currentTimeMillis()) {
@@ -321,7 +335,7 @@ class StreamingState extends State {
         if (wasCommitted && sentSomething) {
             this.lastCommitMillis = System.currentTimeMillis();
         }
-        pollPaused = getMessagesAllowedToSend() <= 0;
+        pollPaused = getMessagesAllowedToSend() <= 0 || !getOut().isReady();
         if (!offsets.isEmpty() &&
                 getParameters().isKeepAliveLimitReached(offsets.values().stream()
                         .mapToInt(PartitionData::getKeepAliveInARow))) {
@@ -669,10 +683,12 @@ class StreamingState extends State {
                         getContext().getSubscription().getId(), getSessionId(), String.valueOf(partition.getKey()))),
                 System.currentTimeMillis(),
                 this.getContext().getParameters().batchTimespan,
-                getContext().getCursorOperationsService()
+                getContext().getCursorOperationsService(),
+                accounting
         );
 
         offsets.put(partition.getKey(), pd);
+        accounting.add(pd);
         getAutocommit().addPartition(cursor);
     }
 
@@ -725,6 +741,7 @@ class StreamingState extends State {
         final PartitionData data = offsets.remove(key);
         getAutocommit().removePartition(key);
         if (null != data) {
+            accounting.remove(data);
             try {
                 if (data.getUnconfirmed() > 0) {
                     getLog().warn("Skipping commits: {}, commit={}, sent={}",
@@ -69,6 +69,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
@@ -151,7 +152,7 @@ public class EventStreamControllerTest {
         when(crutch.listenForConnectionClose(requestMock)).thenReturn(new AtomicBoolean(true));
 
         eventStreamChecks = Mockito.mock(EventStreamChecks.class);
-        Mockito.when(eventStreamChecks.isConsumptionBlocked(any(), any())).thenReturn(false);
+        Mockito.when(eventStreamChecks.isConsumptionBlocked(anyCollection(), any())).thenReturn(false);
 
         timelineService = mock(TimelineService.class);
         when(timelineService.getTopicRepository((Timeline) any())).thenReturn(topicRepositoryMock);
@@ -203,7 +204,7 @@ public class EventStreamControllerTest {
                 .thenReturn(eventConsumerMock);
 
         final EventStream eventStreamMock = mock(EventStream.class);
-        when(eventStreamFactoryMock.createEventStream(any(), any(), configCaptor.capture(), any()))
+        when(eventStreamFactoryMock.createEventStream(any(), any(), configCaptor.capture(), any(), any()))
                 .thenReturn(eventStreamMock);
 
         when(eventTypeCache.getEventType(TEST_EVENT_TYPE_NAME)).thenReturn(EVENT_TYPE);
@@ -312,7 +313,7 @@ public class EventStreamControllerTest {
 
         final ArgumentCaptor<EventStreamConfig> configCaptor = ArgumentCaptor.forClass(EventStreamConfig.class);
         final EventStream eventStreamMock = mock(EventStream.class);
-        when(eventStreamFactoryMock.createEventStream(any(), any(), configCaptor.capture(), any()))
+        when(eventStreamFactoryMock.createEventStream(any(), any(), configCaptor.capture(), any(), any()))
                 .thenReturn(eventStreamMock);
 
         final StreamingResponseBody responseBody = createStreamingResponseBody(1, 0, 1, 1, 0, null);
@@ -338,7 +339,7 @@ public class EventStreamControllerTest {
 
         final ArgumentCaptor<EventStreamConfig> configCaptor = ArgumentCaptor.forClass(EventStreamConfig.class);
         final EventStream eventStreamMock = mock(EventStream.class);
-        when(eventStreamFactoryMock.createEventStream(any(), any(), configCaptor.capture(), any()))
+        when(eventStreamFactoryMock.createEventStream(any(), any(), configCaptor.capture(), any(), any()))
                 .thenReturn(eventStreamMock);
 
         final StreamingResponseBody responseBody = createStreamingResponseBody(1, 2, 3, 4, 5,
@@ -367,7 +368,7 @@ public class EventStreamControllerTest {
         verify(timelineService, times(1)).createEventConsumer(eq(KAFKA_CLIENT_ID),
                 eq(ImmutableList.of(NakadiCursor.of(timeline, "0", "000000000000000000"))));
         verify(eventStreamFactoryMock, times(1)).createEventStream(eq(outputStream),
-                eq(eventConsumerMock), eq(streamConfig), any());
+                eq(eventConsumerMock), eq(streamConfig), any(), any());
         verify(eventStreamMock, times(1)).streamEvents(any(), any());
         verify(outputStream, times(2)).flush();
         verify(outputStream, times(1)).close();
@@ -406,7 +407,7 @@ public class EventStreamControllerTest {
             }
             return null;
         }).when(eventStream).streamEvents(any(), any());
-        when(eventStreamFactoryMock.createEventStream(any(), any(), any(), any())).thenReturn(eventStream);
+        when(eventStreamFactoryMock.createEventStream(any(), any(), any(), any(), any())).thenReturn(eventStream);
 
         // "connect" to the server
         final StreamingResponseBody responseBody = createStreamingResponseBody();
@@ -450,7 +451,7 @@ public class EventStreamControllerTest {
         final ArgumentCaptor<Integer> statusCaptor = getStatusCaptor();
         final ArgumentCaptor<String> contentTypeCaptor = getContentTypeCaptor();
 
-        when(eventStreamFactoryMock.createEventStream(any(), any(), any(), any()))
+        when(eventStreamFactoryMock.createEventStream(any(), any(), any(), any(), any()))
                 .thenReturn(mock(EventStream.class));
 
         writeStream();
@@ -481,7 +482,7 @@ public class EventStreamControllerTest {
         final ArgumentCaptor<Integer> statusCaptor = getStatusCaptor();
         final ArgumentCaptor<String> contentTypeCaptor = getContentTypeCaptor();
 
-        when(eventStreamFactoryMock.createEventStream(any(), any(), any(), any()))
+        when(eventStreamFactoryMock.createEventStream(any(), any(), any(), any(), any()))
                 .thenReturn(mock(EventStream.class));
 
         writeStream();
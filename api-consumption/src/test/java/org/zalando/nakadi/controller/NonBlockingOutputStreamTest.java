@@ -0,0 +1,103 @@
+package org.zalando.nakadi.controller;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class NonBlockingOutputStreamTest {
+
+    private TestServletOutputStream servletOutputStream;
+    private NonBlockingOutputStream out;
+
+    @Before
+    public void before() {
+        servletOutputStream = new TestServletOutputStream();
+        out = new NonBlockingOutputStream(servletOutputStream, 10);
+    }
+
+    @Test
+    public void whenServletOutputIsReadyThenDataIsWrittenOnFlush() throws IOException {
+        out.write("abc".getBytes(UTF_8));
+        Assert.assertEquals("", servletOutputStream.getWritten());
+
+        out.flush();
+        Assert.assertEquals("abc", servletOutputStream.getWritten());
+        Assert.assertEquals(1, servletOutputStream.flushes);
+    }
+
+    @Test
+    public void whenServletOutputIsNotReadyThenDataIsWrittenOnWritePossible() throws IOException {
+        final AtomicInteger readyCalls = new AtomicInteger();
+        out.onReady(readyCalls::incrementAndGet);
+        servletOutputStream.ready = false;
+
+        out.write("0123456789ab".getBytes(UTF_8));
+        out.flush();
+        Assert.assertFalse(out.isReady());
+        Assert.assertEquals("", servletOutputStream.getWritten());
+
+        servletOutputStream.ready = true;
+        out.onWritePossible();
+        Assert.assertTrue(out.isReady());
+        Assert.assertEquals("0123456789ab", servletOutputStream.getWritten());
+        Assert.assertEquals(1, readyCalls.get());
+    }
+
+    @Test
+    public void whenClosedThenDrainedOnlyAfterAllDataIsWritten() throws IOException {
+        servletOutputStream.ready = false;
+        out.write("abc".getBytes(UTF_8));
+        out.close();
+        Assert.assertFalse(out.getDrained().isDone());
+
+        servletOutputStream.ready = true;
+        out.onWritePossible();
+        Assert.assertTrue(out.getDrained().isDone());
+        Assert.assertEquals("abc", servletOutputStream.getWritten());
+    }
+
+    @Test(expected = IOException.class)
+    public void whenOutputFailedThenWriteFails() throws IOException {
+        out.onError(new IOException("Connection reset"));
+        Assert.assertTrue(out.isReady());
+        Assert.assertTrue(out.getDrained().isDone());
+        out.write(1);
+    }
+
+    private static class TestServletOutputStream extends ServletOutputStream {
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private boolean ready = true;
+        private int flushes;
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+        }
+
+        @Override
+        public void write(final int b) {
+            written.write(b);
+        }
+
+        @Override
+        public void flush() {
+            ++flushes;
+        }
+
+        String getWritten() {
+            return new String(written.toByteArray(), UTF_8);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.zalando.nakadi.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class EventBatchBufferTest {
+
+    @Test
+    public void whenEventsAddedThenSizeAndBytesAreAccounted() {
+        final EventBatchBuffer buffer = new EventBatchBuffer(3);
+        buffer.add("ab".getBytes(UTF_8));
+        buffer.add("cde".getBytes(UTF_8));
+
+        Assert.assertEquals(2, buffer.size());
+        Assert.assertEquals(5, buffer.getBytes());
+        Assert.assertFalse(buffer.isFull());
+
+        buffer.add("f".getBytes(UTF_8));
+        Assert.assertTrue(buffer.isFull());
+    }
+
+    @Test
+    public void whenBufferWrapsAroundThenOrderIsPreserved() {
+        final EventBatchBuffer buffer = new EventBatchBuffer(40);
+        for (int round = 0; round < 5; ++round) {
+            for (int i = 0; i < 30; ++i) {
+                buffer.add(String.valueOf(round * 100 + i).getBytes(UTF_8));
+            }
+            final List<byte[]> events = buffer.asList();
+            Assert.assertEquals(30, events.size());
+            for (int i = 0; i < 30; ++i) {
+                Assert.assertEquals(String.valueOf(round * 100 + i), new String(events.get(i), UTF_8));
+            }
+            buffer.clear();
+            Assert.assertTrue(buffer.isEmpty());
+            Assert.assertEquals(0, buffer.getBytes());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenBufferIsFullThenEventIsNotAccepted() {
+        final EventBatchBuffer buffer = new EventBatchBuffer(1);
+        buffer.add(new byte[1]);
+        buffer.add(new byte[1]);
+    }
+}
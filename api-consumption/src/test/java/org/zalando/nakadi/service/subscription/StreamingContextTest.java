@@ -16,6 +16,9 @@ import org.zalando.nakadi.util.ThreadUtils;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -29,6 +32,11 @@ import static org.mockito.Mockito.when;
 
 public class StreamingContextTest {
     private static StreamingContext createTestContext(final Consumer<Exception> onException) throws IOException {
+        return createTestContext(onException, null);
+    }
+
+    private static StreamingContext createTestContext(
+            final Consumer<Exception> onException, final StreamingEventLoop eventLoop) throws IOException {
         final SubscriptionOutput output = new SubscriptionOutput() {
             @Override
             public void onInitialized(final String ignore) {
@@ -64,6 +72,7 @@ public class StreamingContextTest {
                 .setCursorTokenService(null)
                 .setObjectMapper(null)
                 .setEventStreamChecks(null)
+                .setEventLoop(eventLoop)
                 .build();
     }
 
@@ -95,6 +104,51 @@ public class StreamingContextTest {
         Assert.assertSame(killerException, caughtException.get());
     }
 
+    @Test
+    public void streamingContextShouldStopOnExceptionWhenDrivenByEventLoop() throws Exception {
+        final AtomicReference<Exception> caughtException = new AtomicReference<>(null);
+        final RuntimeException killerException = new RuntimeException();
+        final StreamingEventLoop eventLoop = new StreamingEventLoop(1, 2);
+        try {
+            final StreamingContext ctx = createTestContext(caughtException::set, eventLoop);
+            Assert.assertTrue(ctx.isNonBlocking());
+
+            ctx.streamAsyncInternal(new State() {
+                @Override
+                public void onEnter() {
+                    throw killerException;
+                }
+            }).get(5, TimeUnit.SECONDS);
+
+            Assert.assertSame(killerException, caughtException.get());
+        } finally {
+            eventLoop.stop();
+        }
+    }
+
+    @Test
+    public void tasksShouldBeExecutedInOrderAcrossEventLoopTurns() throws Exception {
+        final StreamingEventLoop eventLoop = new StreamingEventLoop(1, 2);
+        try {
+            final StreamingContext ctx = createTestContext(null, eventLoop);
+            final List<Integer> executed = new ArrayList<>();
+            ctx.streamAsyncInternal(new State() {
+                @Override
+                public void onEnter() {
+                    for (int i = 0; i < 10; ++i) {
+                        final int idx = i;
+                        addTask(() -> executed.add(idx));
+                    }
+                    addTask(() -> switchState(new CleanupState(null)));
+                }
+            }).get(5, TimeUnit.SECONDS);
+
+            Assert.assertEquals(ImmutableList.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), executed);
+        } finally {
+            eventLoop.stop();
+        }
+    }
+
     @Test
     public void stateBaseMethodsMustBeCalledOnSwitching() throws InterruptedException, IOException {
         final StreamingContext ctx = createTestContext(null);
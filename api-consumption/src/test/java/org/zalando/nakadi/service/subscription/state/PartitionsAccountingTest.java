@@ -0,0 +1,92 @@
+package org.zalando.nakadi.service.subscription.state;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.zalando.nakadi.domain.ConsumedEvent;
+import org.zalando.nakadi.domain.NakadiCursor;
+import org.zalando.nakadi.domain.Timeline;
+import org.zalando.nakadi.domain.storage.Storage;
+import org.zalando.nakadi.repository.kafka.KafkaCursor;
+import org.zalando.nakadi.service.CursorOperationsService;
+import org.zalando.nakadi.service.timeline.TimelineService;
+
+import java.util.Comparator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PartitionsAccountingTest {
+
+    private static final Comparator<NakadiCursor> COMP = Comparator.comparing(NakadiCursor::getOffset);
+    private Timeline timeline;
+    private CursorOperationsService cursorOperationsService;
+    private PartitionsAccounting accounting;
+
+    @Before
+    public void before() {
+        timeline = mock(Timeline.class);
+        when(timeline.getStorage()).thenReturn(new Storage("", Storage.Type.KAFKA));
+        when(timeline.getOrder()).thenReturn(0);
+        cursorOperationsService = new CursorOperationsService(mock(TimelineService.class));
+        accounting = new PartitionsAccounting();
+    }
+
+    private NakadiCursor createCursor(final int partition, final long offset) {
+        return new KafkaCursor("x", partition, offset).toNakadiCursor(timeline);
+    }
+
+    private PartitionData createPartition(final int partition) {
+        final PartitionData data = new PartitionData(COMP, null, createCursor(partition, 100L),
+                LoggerFactory.getLogger(PartitionsAccountingTest.class), System.currentTimeMillis(), 0L,
+                cursorOperationsService, accounting);
+        accounting.add(data);
+        return data;
+    }
+
+    private void addEvents(final PartitionData data, final int partition, final int count, final int size) {
+        for (int i = 0; i < count; ++i) {
+            data.addEvent(new ConsumedEvent(new byte[size], createCursor(partition, 101L + i), 0, null));
+        }
+    }
+
+    @Test
+    public void whenEventsAddedAndSentThenTotalsAreUpdated() {
+        final PartitionData p0 = createPartition(0);
+        final PartitionData p1 = createPartition(1);
+        addEvents(p0, 0, 10, 5);
+        addEvents(p1, 1, 4, 3);
+        assertEquals(62L, accounting.getBytesInMemory());
+        assertEquals(0L, accounting.getUnconfirmed());
+
+        p0.extractMaxEvents(System.currentTimeMillis(), 6);
+        assertEquals(32L, accounting.getBytesInMemory());
+        assertEquals(6L, accounting.getUnconfirmed());
+
+        p0.onCommitOffset(createCursor(0, 104L));
+        assertEquals(2L, accounting.getUnconfirmed());
+
+        accounting.remove(p0);
+        assertEquals(12L, accounting.getBytesInMemory());
+        assertEquals(0L, accounting.getUnconfirmed());
+    }
+
+    @Test
+    public void whenWeightsChangeThenHeaviestPartitionIsFound() {
+        assertNull(accounting.getHeaviest());
+        final PartitionData p0 = createPartition(0);
+        final PartitionData p1 = createPartition(1);
+        addEvents(p0, 0, 10, 5);
+        addEvents(p1, 1, 4, 3);
+        assertSame(p0, accounting.getHeaviest());
+
+        p0.extractMaxEvents(System.currentTimeMillis(), 9);
+        assertSame(p1, accounting.getHeaviest());
+
+        accounting.remove(p1);
+        assertSame(p0, accounting.getHeaviest());
+    }
+}
@@ -1,7 +1,10 @@
 package org.zalando.nakadi.service;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.zalando.nakadi.cache.SubscriptionCache;
 import org.zalando.nakadi.config.NakadiSettings;
@@ -36,6 +39,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -52,6 +56,13 @@ public class CursorsService {
     private final SubscriptionDbRepository subscriptionRepository;
     private final SubscriptionCache subscriptionCache;
     private final NakadiAuditLogPublisher auditLogPublisher;
+    /**
+     * Partitions that were recently validated to be streamed by the stream, keyed by subscription id and stream id.
+     * Only successful validations are kept, so that commits of the same stream do not read sessions and topology
+     * from zookeeper on each call. Cache is local to the instance, so the lifetime should be kept short - the stream
+     * may commit partitions that were just rebalanced away from it during this time.
+     */
+    private final Cache<String, Set<EventTypePartition>> validatedStreams;
 
     @Autowired
     public CursorsService(final SubscriptionDbRepository subscriptionRepository,
@@ -62,7 +73,9 @@ public class CursorsService {
                           final UUIDGenerator uuidGenerator,
                           final TimelineService timelineService,
                           final AuthorizationValidator authorizationValidator,
-                          final NakadiAuditLogPublisher auditLogPublisher) {
+                          final NakadiAuditLogPublisher auditLogPublisher,
+                          @Value("${nakadi.subscription.commitValidation.cacheMs:1000}")
+                          final long validationCacheMs) {
         this.nakadiSettings = nakadiSettings;
         this.zkSubscriptionFactory = zkSubscriptionFactory;
         this.cursorConverter = cursorConverter;
@@ -72,6 +85,9 @@ public class CursorsService {
         this.subscriptionRepository = subscriptionRepository;
         this.subscriptionCache = subscriptionCache;
         this.auditLogPublisher = auditLogPublisher;
+        this.validatedStreams = CacheBuilder.newBuilder()
+                .expireAfterWrite(validationCacheMs, TimeUnit.MILLISECONDS)
+                .build();
     }
 
     /**
@@ -116,6 +132,13 @@ public class CursorsService {
             throw new InvalidStreamIdException(error, streamId);
         }
 
+        final String cacheKey = subscriptionId + "/" + streamId;
+        final Set<EventTypePartition> validatedPartitions = validatedStreams.getIfPresent(cacheKey);
+        if (null != validatedPartitions
+                && cursors.stream().allMatch(c -> validatedPartitions.contains(c.getEventTypePartition()))) {
+            return;
+        }
+
         if (!subscriptionClient.isActiveSession(streamId)) {
             final String error = String.format("Session with stream id %s not found", streamId);
             TracingService.logError(error);
@@ -141,6 +164,10 @@ public class CursorsService {
                 throw new InvalidStreamIdException(error, streamId);
             }
         }
+        validatedStreams.put(cacheKey, partitionSessions.entrySet().stream()
+                .filter(e -> streamId.equals(e.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet()));
     }
 
     public List<SubscriptionCursorWithoutToken> getSubscriptionCursors(final String subscriptionId)
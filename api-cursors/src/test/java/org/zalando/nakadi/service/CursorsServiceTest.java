@@ -1,19 +1,34 @@
 package org.zalando.nakadi.service;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import org.junit.Before;
 import org.junit.Test;
 import org.zalando.nakadi.cache.SubscriptionCache;
+import org.zalando.nakadi.domain.NakadiCursor;
 import org.zalando.nakadi.domain.ResourceImpl;
 import org.zalando.nakadi.domain.Subscription;
+import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.exceptions.runtime.AccessDeniedException;
+import org.zalando.nakadi.exceptions.runtime.InvalidStreamIdException;
 import org.zalando.nakadi.plugin.api.authz.AuthorizationService;
 import org.zalando.nakadi.repository.db.SubscriptionDbRepository;
+import org.zalando.nakadi.service.subscription.model.Partition;
+import org.zalando.nakadi.service.subscription.zk.SubscriptionClientFactory;
+import org.zalando.nakadi.service.subscription.zk.ZkSubscriptionClient;
+import org.zalando.nakadi.util.UUIDGenerator;
+import org.zalando.nakadi.utils.TestUtils;
 
 import java.util.Collections;
 
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class CursorsServiceTest {
 
@@ -24,7 +39,7 @@ public class CursorsServiceTest {
     public void setup() {
         authorizationValidator = mock(AuthorizationValidator.class);
         service = new CursorsService(mock(SubscriptionDbRepository.class), mock(SubscriptionCache.class), null,
-                null, null, null, null, authorizationValidator, null);
+                null, null, null, null, authorizationValidator, null, 0);
     }
 
     @Test(expected = AccessDeniedException.class)
@@ -42,4 +57,39 @@ public class CursorsServiceTest {
                 .when(authorizationValidator).authorizeSubscriptionCommit(any());
         service.commitCursors("test", "test", Collections.emptyList());
     }
+
+    @Test
+    public void whenStreamIsValidatedThenNextCommitsDoNotReadTopology() throws Exception {
+        final String streamId = "stream-id";
+        final Timeline timeline = TestUtils.buildTimeline("et");
+        final Subscription subscription = mock(Subscription.class);
+        when(subscription.getId()).thenReturn("sid");
+        when(subscription.getEventTypes()).thenReturn(ImmutableSet.of("et"));
+        final SubscriptionCache subscriptionCache = mock(SubscriptionCache.class);
+        when(subscriptionCache.getSubscription("sid")).thenReturn(subscription);
+        final ZkSubscriptionClient zkClient = mock(ZkSubscriptionClient.class);
+        final SubscriptionClientFactory zkClientFactory = mock(SubscriptionClientFactory.class);
+        when(zkClientFactory.createClient(any(), anyString())).thenReturn(zkClient);
+        when(zkClient.isActiveSession(streamId)).thenReturn(true);
+        when(zkClient.getTopology()).thenReturn(new ZkSubscriptionClient.Topology(new Partition[]{
+                new Partition("et", "0", streamId, null, Partition.State.ASSIGNED),
+                new Partition("et", "1", "other-stream-id", null, Partition.State.ASSIGNED)}, 0));
+        final UUIDGenerator uuidGenerator = mock(UUIDGenerator.class);
+        when(uuidGenerator.isUUID(any())).thenReturn(true);
+        service = new CursorsService(mock(SubscriptionDbRepository.class), subscriptionCache, null, zkClientFactory,
+                mock(CursorConverter.class), uuidGenerator, null, authorizationValidator, null, 60_000);
+
+        service.commitCursors(streamId, "sid", ImmutableList.of(NakadiCursor.of(timeline, "0", "1")));
+        service.commitCursors(streamId, "sid", ImmutableList.of(NakadiCursor.of(timeline, "0", "2")));
+        verify(zkClient, times(1)).getTopology();
+        verify(zkClient, times(2)).commitOffsets(any());
+
+        try {
+            service.commitCursors(streamId, "sid", ImmutableList.of(NakadiCursor.of(timeline, "1", "2")));
+            fail("Partition streamed by other stream should not be committed");
+        } catch (final InvalidStreamIdException ignore) {
+        }
+        verify(zkClient, times(2)).getTopology();
+        verify(zkClient, times(2)).commitOffsets(any());
+    }
 }
@@ -124,7 +124,7 @@ public class PartitionsController {
         final List<Timeline> timelines = timelineService.getActiveTimelinesOrdered(eventTypeName);
         final List<PartitionStatistics> firstStats =
                 timelineService.getTopicRepository(timelines.get(0))
-                .loadTopicStatistics(singletonList(timelines.get(0)));
+                .loadCachedTopicStatistics(singletonList(timelines.get(0)));
         final List<PartitionStatistics> lastStats = initializeLastStats(timelines, firstStats);
 
         final List<Cursor> cursorList = getParsedCursors(cursorsString, eventTypeName);
@@ -214,7 +214,7 @@ public class PartitionsController {
         } else {
             lastStats = timelineService.
                     getTopicRepository(timelines.get(timelines.size() - 1))
-                    .loadTopicStatistics(singletonList(timelines.get(timelines.size() - 1)));
+                    .loadCachedTopicStatistics(singletonList(timelines.get(timelines.size() - 1)));
         }
         return lastStats;
     }
@@ -17,7 +17,6 @@ import org.zalando.nakadi.domain.ItemsWrapper;
 import org.zalando.nakadi.domain.NakadiCursor;
 import org.zalando.nakadi.domain.PaginationLinks;
 import org.zalando.nakadi.domain.PaginationWrapper;
-import org.zalando.nakadi.domain.PartitionBaseStatistics;
 import org.zalando.nakadi.domain.PartitionEndStatistics;
 import org.zalando.nakadi.domain.Subscription;
 import org.zalando.nakadi.domain.SubscriptionBase;
@@ -271,7 +270,9 @@ public class SubscriptionService {
         }
         if (showStatus) {
             final List<Subscription> items = paginationWrapper.getItems();
-            items.forEach(s -> s.setStatus(createSubscriptionStat(s, StatsMode.LIGHT)));
+            // Subscriptions of a page often share event types, so partitions of each are listed only once
+            final Map<String, List<String>> partitionsCache = new HashMap<>();
+            items.forEach(s -> s.setStatus(createSubscriptionStat(s, StatsMode.LIGHT, partitionsCache)));
         }
         return paginationWrapper;
     }
@@ -324,12 +325,14 @@ public class SubscriptionService {
             TracingService.logError(ex);
             throw new InconsistentStateException(ex.getMessage());
         }
-        final List<SubscriptionEventTypeStats> subscriptionStat = createSubscriptionStat(subscription, statsMode);
+        final List<SubscriptionEventTypeStats> subscriptionStat =
+                createSubscriptionStat(subscription, statsMode, new HashMap<>());
         return new ItemsWrapper<>(subscriptionStat);
     }
 
     private List<SubscriptionEventTypeStats> createSubscriptionStat(final Subscription subscription,
-                                                                    final StatsMode statsMode)
+                                                                    final StatsMode statsMode,
+                                                                    final Map<String, List<String>> partitionsCache)
             throws InconsistentStateException, NoSuchEventTypeException, ServiceTemporarilyUnavailableException {
         final List<EventType> eventTypes = getEventTypesForSubscription(subscription);
         subscriptionValidationService.verifyViewAccessOnEventTypes(eventTypes);
@@ -338,7 +341,7 @@ public class SubscriptionService {
             final Optional<ZkSubscriptionNode> zkSubscriptionNode = subscriptionClient.getZkSubscriptionNode();
 
             if (statsMode == StatsMode.LIGHT) {
-                return loadLightStats(eventTypes, zkSubscriptionNode);
+                return loadLightStats(eventTypes, zkSubscriptionNode, partitionsCache);
             } else {
                 return loadStats(eventTypes, zkSubscriptionNode, subscriptionClient, statsMode);
             }
@@ -366,7 +369,7 @@ public class SubscriptionService {
         for (final Map.Entry<TopicRepository, List<Timeline>> repoEntry : timelinesByRepo.entrySet()) {
             final TopicRepository topicRepository = repoEntry.getKey();
             final List<Timeline> timelinesForRepo = repoEntry.getValue();
-            topicPartitions.addAll(topicRepository.loadTopicEndStatistics(timelinesForRepo));
+            topicPartitions.addAll(topicRepository.loadCachedTopicEndStatistics(timelinesForRepo));
         }
         return topicPartitions;
     }
@@ -395,37 +398,41 @@ public class SubscriptionService {
                 subscriptionTimeLagService.getTimeLags(committedPositions, stats) :
                 ImmutableMap.of();
 
+        final Map<EventTypePartition, NakadiCursor> committedByPartition = new HashMap<>(committedPositions.size());
+        committedPositions.forEach(c -> committedByPartition.putIfAbsent(c.getEventTypePartition(), c));
+        final Map<String, List<PartitionEndStatistics>> statsByEventType = stats.stream()
+                .collect(Collectors.groupingBy(s -> s.getTimeline().getEventType()));
+
         for (final EventType eventType : eventTypes) {
-            final List<PartitionBaseStatistics> statsForEventType = stats.stream()
-                    .filter(s -> s.getTimeline().getEventType().equals(eventType.getName()))
-                    .collect(Collectors.toList());
-            result.add(getEventTypeStats(subscriptionNode, eventType.getName(), statsForEventType,
-                    committedPositions, timeLags));
+            result.add(getEventTypeStats(subscriptionNode, eventType.getName(),
+                    statsByEventType.getOrDefault(eventType.getName(), Collections.emptyList()),
+                    committedByPartition, timeLags));
         }
         return result;
     }
 
     private List<SubscriptionEventTypeStats> loadLightStats(final Collection<EventType> eventTypes,
-                                                            final Optional<ZkSubscriptionNode> subscriptionNode)
+                                                            final Optional<ZkSubscriptionNode> subscriptionNode,
+                                                            final Map<String, List<String>> partitionsCache)
             throws ServiceTemporarilyUnavailableException {
         final List<SubscriptionEventTypeStats> result = new ArrayList<>(eventTypes.size());
         for (final EventType eventType : eventTypes) {
-            result.add(getEventTypeLightStats(subscriptionNode, eventType));
+            result.add(getEventTypeLightStats(subscriptionNode, eventType, partitionsCache));
         }
         return result;
     }
 
     private SubscriptionEventTypeStats getEventTypeStats(final Optional<ZkSubscriptionNode> subscriptionNode,
                                                          final String eventTypeName,
-                                                         final List<? extends PartitionBaseStatistics> stats,
-                                                         final Collection<NakadiCursor> committedPositions,
+                                                         final List<PartitionEndStatistics> stats,
+                                                         final Map<EventTypePartition, NakadiCursor> committed,
                                                          final Map<EventTypePartition, Duration> timeLags) {
         final List<SubscriptionEventTypeStats.Partition> resultPartitions =
                 new ArrayList<>(stats.size());
-        for (final PartitionBaseStatistics stat : stats) {
+        for (final PartitionEndStatistics stat : stats) {
             final String partition = stat.getPartition();
-            final NakadiCursor lastPosition = ((PartitionEndStatistics) stat).getLast();
-            final Long distance = computeDistance(committedPositions, lastPosition);
+            final NakadiCursor lastPosition = stat.getLast();
+            final Long distance = computeDistance(committed.get(lastPosition.getEventTypePartition()), lastPosition);
             final Long lagSeconds = Optional.ofNullable(timeLags.get(new EventTypePartition(eventTypeName, partition)))
                     .map(Duration::getSeconds)
                     .orElse(null);
@@ -436,14 +443,16 @@ public class SubscriptionService {
     }
 
     private SubscriptionEventTypeStats getEventTypeLightStats(final Optional<ZkSubscriptionNode> subscriptionNode,
-                                                              final EventType eventType) {
+                                                              final EventType eventType,
+                                                              final Map<String, List<String>> partitionsCache) {
         final List<SubscriptionEventTypeStats.Partition> resultPartitions = new ArrayList<>();
 
         final List<String> partitionsList = subscriptionNode.map(
                 node -> node.getPartitions().stream()
                         .map(Partition::getPartition)
                         .collect(Collectors.toList()))
-                .orElseGet(() -> getPartitionsList(eventType));
+                .orElseGet(() -> partitionsCache.computeIfAbsent(
+                        eventType.getName(), name -> getPartitionsList(eventType)));
 
         for (final String partition : partitionsList) {
             resultPartitions.add(getPartitionStats(subscriptionNode, eventType.getName(), partition, null, null));
@@ -490,19 +499,16 @@ public class SubscriptionService {
                 .orElse("");
     }
 
-    private Long computeDistance(final Collection<NakadiCursor> committedPositions, final NakadiCursor lastPosition) {
-        return committedPositions.stream()
-                .filter(pos -> pos.getEventTypePartition().equals(lastPosition.getEventTypePartition()))
-                .findAny()
-                .map(committed -> {
-                    try {
-                        return cursorOperationsService.calculateDistance(committed, lastPosition);
-                    } catch (final InvalidCursorOperation ex) {
-                        throw new InconsistentStateException(
-                                "Unexpected exception while calculating distance", ex);
-                    }
-                })
-                .orElse(null);
+    @Nullable
+    private Long computeDistance(@Nullable final NakadiCursor committed, final NakadiCursor lastPosition) {
+        if (null == committed) {
+            return null;
+        }
+        try {
+            return cursorOperationsService.calculateDistance(committed, lastPosition);
+        } catch (final InvalidCursorOperation ex) {
+            throw new InconsistentStateException("Unexpected exception while calculating distance", ex);
+        }
     }
 
     private Collection<NakadiCursor> loadCommittedPositions(
@@ -14,10 +14,13 @@ import org.zalando.nakadi.exceptions.runtime.ErrorGettingCursorTimeLagException;
 import org.zalando.nakadi.exceptions.runtime.InconsistentStateException;
 import org.zalando.nakadi.exceptions.runtime.InvalidCursorException;
 import org.zalando.nakadi.repository.EventConsumer;
+import org.zalando.nakadi.repository.TopicRepository;
 import org.zalando.nakadi.service.timeline.TimelineService;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
@@ -32,6 +35,7 @@ import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 import static org.echocat.jomon.runtime.concurrent.Retryer.executeWithRetry;
 
@@ -56,21 +60,69 @@ public class SubscriptionTimeLagService {
                 new SynchronousQueue<>());
     }
 
+    /**
+     * Time lag is calculated from the timestamp of the next event after committed position. Timestamps are looked up
+     * for all the partitions at once in storage. Only the partitions, for which the timestamp is not found (for
+     * example because the next event is in the next timeline) are read with separate consumers.
+     */
     public Map<EventTypePartition, Duration> getTimeLags(final Collection<NakadiCursor> committedPositions,
                                                          final List<PartitionEndStatistics> endPositions) {
-
-        final TimeLagRequestHandler timeLagHandler = new TimeLagRequestHandler(timelineService, threadPool);
         final Map<EventTypePartition, Duration> timeLags = new HashMap<>();
-        final Map<EventTypePartition, CompletableFuture<Duration>> futureTimeLags = new HashMap<>();
+        final Map<EventTypePartition, NakadiCursor> lastPositions = new HashMap<>(endPositions.size());
+        endPositions.forEach(s -> lastPositions.putIfAbsent(s.getLast().getEventTypePartition(), s.getLast()));
+        final List<NakadiCursor> lagging = new ArrayList<>();
+        for (final NakadiCursor cursor : committedPositions) {
+            if (isCursorAtTail(cursor, lastPositions.get(cursor.getEventTypePartition()))) {
+                timeLags.put(cursor.getEventTypePartition(), Duration.ZERO);
+            } else {
+                lagging.add(cursor);
+            }
+        }
+        if (lagging.isEmpty()) {
+            return timeLags;
+        }
+
+        final List<NakadiCursor> notFound = new ArrayList<>();
         try {
-            for (final NakadiCursor cursor : committedPositions) {
-                if (isCursorAtTail(cursor, endPositions)) {
-                    timeLags.put(cursor.getEventTypePartition(), Duration.ZERO);
+            final Map<NakadiCursor, Long> timestamps = getNextEventTimestamps(lagging);
+            final long now = new Date().getTime();
+            for (final NakadiCursor cursor : lagging) {
+                final Long timestamp = timestamps.get(cursor);
+                if (null != timestamp) {
+                    timeLags.put(cursor.getEventTypePartition(), Duration.ofMillis(now - timestamp));
                 } else {
-                    final CompletableFuture<Duration> timeLagFuture = timeLagHandler.getCursorTimeLagFuture(cursor);
-                    futureTimeLags.put(cursor.getEventTypePartition(), timeLagFuture);
+                    notFound.add(cursor);
                 }
             }
+        } catch (final RuntimeException e) {
+            LOG.warn("Failed to look up timestamps of next events, falling back to reading events", e);
+            notFound.clear();
+            notFound.addAll(lagging);
+        }
+        timeLags.putAll(readTimeLags(notFound));
+        return timeLags;
+    }
+
+    private Map<NakadiCursor, Long> getNextEventTimestamps(final List<NakadiCursor> positions) {
+        final Map<TopicRepository, List<NakadiCursor>> byRepository = positions.stream().collect(
+                Collectors.groupingBy(c -> timelineService.getTopicRepository(c.getTimeline())));
+        final Map<NakadiCursor, Long> result = new HashMap<>();
+        byRepository.forEach((repository, cursors) -> result.putAll(repository.getNextEventTimestamps(cursors)));
+        return result;
+    }
+
+    private Map<EventTypePartition, Duration> readTimeLags(final Collection<NakadiCursor> positions) {
+        final Map<EventTypePartition, Duration> timeLags = new HashMap<>();
+        if (positions.isEmpty()) {
+            return timeLags;
+        }
+        final TimeLagRequestHandler timeLagHandler = new TimeLagRequestHandler(timelineService, threadPool);
+        final Map<EventTypePartition, CompletableFuture<Duration>> futureTimeLags = new HashMap<>();
+        try {
+            for (final NakadiCursor cursor : positions) {
+                final CompletableFuture<Duration> timeLagFuture = timeLagHandler.getCursorTimeLagFuture(cursor);
+                futureTimeLags.put(cursor.getEventTypePartition(), timeLagFuture);
+            }
             CompletableFuture
                     .allOf(futureTimeLags.values().toArray(new CompletableFuture[futureTimeLags.size()]))
                     .get(timeLagHandler.getRemainingTimeoutMs(), TimeUnit.MILLISECONDS);
@@ -86,14 +138,8 @@ public class SubscriptionTimeLagService {
         return timeLags;
     }
 
-    private boolean isCursorAtTail(final NakadiCursor cursor, final List<PartitionEndStatistics> endPositions) {
-        return endPositions.stream()
-                .map(PartitionEndStatistics::getLast)
-                .filter(last -> last.getEventType().equals(cursor.getEventType())
-                        && last.getPartition().equals(cursor.getPartition()))
-                .findAny()
-                .map(last -> cursorComparator.compare(cursor, last) >= 0)
-                .orElse(false);
+    private boolean isCursorAtTail(final NakadiCursor cursor, @Nullable final NakadiCursor last) {
+        return null != last && cursorComparator.compare(cursor, last) >= 0;
     }
 
     private static class TimeLagRequestHandler {
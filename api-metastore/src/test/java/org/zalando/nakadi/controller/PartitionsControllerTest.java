@@ -153,7 +153,7 @@ public class PartitionsControllerTest {
     public void whenListPartitionsThenOk() throws Exception {
         Mockito.when(eventTypeCacheMock.getEventType(TEST_EVENT_TYPE)).thenReturn(EVENT_TYPE);
         Mockito.when(topicRepositoryMock.topicExists(eq(EVENT_TYPE.getName()))).thenReturn(true);
-        Mockito.when(topicRepositoryMock.loadTopicStatistics(
+        Mockito.when(topicRepositoryMock.loadCachedTopicStatistics(
                 eq(Collections.singletonList(TIMELINE))))
                 .thenReturn(TEST_POSITION_STATS);
 
@@ -363,7 +363,7 @@ public class PartitionsControllerTest {
         Mockito.doNothing().when(authorizationValidator).authorizeStreamRead(any());
         Mockito.when(eventTypeCacheMock.getEventType(TEST_EVENT_TYPE)).thenReturn(EVENT_TYPE);
         Mockito.when(topicRepositoryMock.topicExists(eq(EVENT_TYPE.getName()))).thenReturn(true);
-        Mockito.when(topicRepositoryMock.loadTopicStatistics(
+        Mockito.when(topicRepositoryMock.loadCachedTopicStatistics(
                 eq(Collections.singletonList(TIMELINE))))
                 .thenReturn(TEST_POSITION_STATS);
 
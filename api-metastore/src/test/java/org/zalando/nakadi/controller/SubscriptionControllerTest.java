@@ -271,7 +271,8 @@ public class SubscriptionControllerTest {
                 .thenReturn(EventTypeTestBuilder.builder().name(TIMELINE.getEventType()).build());
         final List<PartitionEndStatistics> statistics = Collections.singletonList(
                 new KafkaPartitionEndStatistics(TIMELINE, 0, 13));
-        when(topicRepository.loadTopicEndStatistics(eq(Collections.singletonList(TIMELINE)))).thenReturn(statistics);
+        when(topicRepository.loadCachedTopicEndStatistics(eq(Collections.singletonList(TIMELINE))))
+                .thenReturn(statistics);
         final NakadiCursor currentCursor = mock(NakadiCursor.class);
         when(currentCursor.getEventTypePartition()).thenReturn(new EventTypePartition(TIMELINE.getEventType(), "0"));
         when(cursorConverter.convert((List<SubscriptionCursorWithoutToken>) any()))
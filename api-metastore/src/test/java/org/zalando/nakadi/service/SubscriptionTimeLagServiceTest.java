@@ -1,6 +1,7 @@
 package org.zalando.nakadi.service;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import org.junit.Before;
 import org.junit.Test;
 import org.zalando.nakadi.domain.ConsumedEvent;
@@ -11,6 +12,7 @@ import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.domain.storage.Storage;
 import org.zalando.nakadi.exceptions.runtime.InvalidCursorException;
 import org.zalando.nakadi.repository.EventConsumer;
+import org.zalando.nakadi.repository.TopicRepository;
 import org.zalando.nakadi.service.timeline.TimelineService;
 
 import java.time.Duration;
@@ -23,6 +25,9 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class SubscriptionTimeLagServiceTest {
@@ -32,10 +37,13 @@ public class SubscriptionTimeLagServiceTest {
     private NakadiCursorComparator cursorComparator;
     private SubscriptionTimeLagService timeLagService;
     private TimelineService timelineService;
+    private TopicRepository topicRepository;
 
     @Before
     public void setUp() {
         timelineService = mock(TimelineService.class);
+        topicRepository = mock(TopicRepository.class);
+        when(timelineService.getTopicRepository(any(Timeline.class))).thenReturn(topicRepository);
 
         cursorComparator = mock(NakadiCursorComparator.class);
         timeLagService = new SubscriptionTimeLagService(timelineService, cursorComparator);
@@ -79,6 +87,25 @@ public class SubscriptionTimeLagServiceTest {
     }
 
 
+    @Test
+    public void whenNextEventTimestampsAreFoundThenEventsAreNotRead() {
+        final Timeline et1Timeline = new Timeline("et1", 0, new Storage("", Storage.Type.KAFKA), "t1", null);
+        final NakadiCursor committedCursor1 = NakadiCursor.of(et1Timeline, "0", "000000000000000001");
+        final NakadiCursor committedCursor2 = NakadiCursor.of(et1Timeline, "1", "000000000000000001");
+        when(topicRepository.getNextEventTimestamps(any())).thenReturn(ImmutableMap.of(
+                committedCursor1, FAKE_EVENT_TIMESTAMP,
+                committedCursor2, FAKE_EVENT_TIMESTAMP));
+
+        final Map<EventTypePartition, Duration> timeLags = timeLagService.getTimeLags(
+                ImmutableList.of(committedCursor1, committedCursor2), ImmutableList.of());
+
+        assertThat(timeLags.entrySet(), hasSize(2));
+        assertThat(timeLags.get(new EventTypePartition("et1", "0")), greaterThan(Duration.ZERO));
+        assertThat(timeLags.get(new EventTypePartition("et1", "1")), greaterThan(Duration.ZERO));
+        verify(topicRepository, times(1)).getNextEventTimestamps(any());
+        verify(timelineService, never()).createEventConsumer(any(), any());
+    }
+
     @Test
     public void whenNoSubscriptionThenReturnSizeZeroMap() {
         when(timelineService.createEventConsumer(any(), any())).thenReturn(null);
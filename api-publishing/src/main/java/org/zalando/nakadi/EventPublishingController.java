@@ -1,6 +1,6 @@
 package org.zalando.nakadi;
 
-import com.google.common.base.Charsets;
+import io.opentracing.Span;
 import io.opentracing.tag.Tags;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.zalando.nakadi.domain.EventPublishResult;
 import org.zalando.nakadi.domain.EventPublishingStatus;
 import org.zalando.nakadi.exceptions.runtime.AccessDeniedException;
@@ -28,6 +29,8 @@ import org.zalando.nakadi.service.publishing.NakadiKpiPublisher;
 import org.zalando.nakadi.service.TracingService;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -60,30 +63,35 @@ public class EventPublishingController {
     }
 
     @RequestMapping(value = "/event-types/{eventTypeName}/events", method = POST)
-    public ResponseEntity postEvents(@PathVariable final String eventTypeName,
-                                     @RequestBody final String eventsAsString,
-                                     final HttpServletRequest request,
-                                     final Client client)
+    public DeferredResult<ResponseEntity<?>> postEvents(@PathVariable final String eventTypeName,
+                                                        @RequestBody final byte[] events,
+                                                        final HttpServletRequest request,
+                                                        final Client client)
             throws AccessDeniedException, BlockedException, ServiceTemporarilyUnavailableException,
             InternalNakadiException, EventTypeTimeoutException, NoSuchEventTypeException {
-        return postEventsWithMetrics(eventTypeName, eventsAsString, request, client, false);
+        return postEventsWithMetrics(eventTypeName, events, request, client, false);
 
     }
 
     @RequestMapping(value = "/event-types/{eventTypeName}/deleted-events", method = POST)
-    public ResponseEntity deleteEvents(@PathVariable final String eventTypeName,
-                                       @RequestBody final String eventsAsString,
-                                       final HttpServletRequest request,
-                                       final Client client) {
-        return postEventsWithMetrics(eventTypeName, eventsAsString, request, client, true);
+    public DeferredResult<ResponseEntity<?>> deleteEvents(@PathVariable final String eventTypeName,
+                                                          @RequestBody final byte[] events,
+                                                          final HttpServletRequest request,
+                                                          final Client client) {
+        return postEventsWithMetrics(eventTypeName, events, request, client, true);
 
     }
 
-    private ResponseEntity postEventsWithMetrics(final String eventTypeName,
-                                                 final String eventsAsString,
-                                                 final HttpServletRequest request,
-                                                 final Client client,
-                                                 final boolean delete) {
+    /**
+     * Publishing is performed asynchronously - request thread is released while waiting for acknowledgements from
+     * kafka, and the response is written once the result is available. Errors that happen before the batch is sent
+     * are thrown directly, as for usual controller methods.
+     */
+    private DeferredResult<ResponseEntity<?>> postEventsWithMetrics(final String eventTypeName,
+                                                                    final byte[] events,
+                                                                    final HttpServletRequest request,
+                                                                    final Client client,
+                                                                    final boolean delete) {
         TracingService.setOperationName("publish_events")
                 .setTag("event_type", eventTypeName)
                 .setTag(Tags.SPAN_KIND_PRODUCER, client.getClientId());
@@ -92,53 +100,73 @@ public class EventPublishingController {
             throw new BlockedException("Application or event type is blocked");
         }
         final EventTypeMetrics eventTypeMetrics = eventTypeMetricRegistry.metricsFor(eventTypeName);
+        final DeferredResult<ResponseEntity<?>> deferredResult = new DeferredResult<>();
         try {
-            final ResponseEntity response = postEventInternal(
-                    eventTypeName, eventsAsString, eventTypeMetrics, client, request, delete);
-            eventTypeMetrics.incrementResponseCount(response.getStatusCode().value());
-            return response;
-        } catch (final NoSuchEventTypeException exception) {
-            eventTypeMetrics.incrementResponseCount(NOT_FOUND.getStatusCode());
-            throw exception;
+            postEventInternal(eventTypeName, events, eventTypeMetrics, client, request, delete)
+                    .whenComplete((response, ex) -> {
+                        if (null == ex) {
+                            eventTypeMetrics.incrementResponseCount(response.getStatusCode().value());
+                            deferredResult.setResult(response);
+                        } else {
+                            final Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+                            reportFailedResponse(eventTypeMetrics, cause);
+                            deferredResult.setErrorResult(cause);
+                        }
+                    });
         } catch (final RuntimeException ex) {
-            eventTypeMetrics.incrementResponseCount(INTERNAL_SERVER_ERROR.getStatusCode());
+            reportFailedResponse(eventTypeMetrics, ex);
             throw ex;
         }
+        return deferredResult;
+    }
+
+    private static void reportFailedResponse(final EventTypeMetrics eventTypeMetrics, final Throwable ex) {
+        if (ex instanceof NoSuchEventTypeException) {
+            eventTypeMetrics.incrementResponseCount(NOT_FOUND.getStatusCode());
+        } else {
+            eventTypeMetrics.incrementResponseCount(INTERNAL_SERVER_ERROR.getStatusCode());
+        }
     }
 
-    private ResponseEntity postEventInternal(final String eventTypeName,
-                                             final String eventsAsString,
-                                             final EventTypeMetrics eventTypeMetrics,
-                                             final Client client,
-                                             final HttpServletRequest request,
-                                             final boolean delete)
+    private CompletableFuture<ResponseEntity<?>> postEventInternal(final String eventTypeName,
+                                                                   final byte[] events,
+                                                                   final EventTypeMetrics eventTypeMetrics,
+                                                                   final Client client,
+                                                                   final HttpServletRequest request,
+                                                                   final boolean delete)
             throws AccessDeniedException, ServiceTemporarilyUnavailableException, InternalNakadiException,
             EventTypeTimeoutException, NoSuchEventTypeException {
         final long startingNanos = System.nanoTime();
+        final CompletableFuture<EventPublishResult> futureResult;
         try {
-            final EventPublishResult result;
-
-            final int totalSizeBytes = eventsAsString.getBytes(Charsets.UTF_8).length;
+            final int totalSizeBytes = events.length;
             TracingService.setTag("slo_bucket", TracingService.getSLOBucketName(totalSizeBytes));
 
             if (delete) {
-                result = publisher.delete(eventsAsString, eventTypeName);
+                futureResult = publisher.deleteAsync(events, eventTypeName);
             } else {
-                result = publisher.publish(eventsAsString, eventTypeName);
-            }
-            final int eventCount = result.getResponses().size();
-
-            reportMetrics(eventTypeMetrics, result, totalSizeBytes, eventCount);
-            reportSLOs(startingNanos, totalSizeBytes, eventCount, result, eventTypeName, client);
-
-            if (result.getStatus() == EventPublishingStatus.FAILED) {
-                TracingService.setErrorFlag();
+                futureResult = publisher.publishAsync(events, eventTypeName);
             }
-
-            return response(result);
-        } finally {
+        } catch (final RuntimeException ex) {
             eventTypeMetrics.updateTiming(startingNanos, System.nanoTime());
+            throw ex;
         }
+        // Span is bound to request thread, while the result may be provided by any other thread
+        final Span requestSpan = TracingService.getActiveSpan();
+        return futureResult
+                .thenApply(result -> {
+                    final int eventCount = result.getResponses().size();
+
+                    reportMetrics(eventTypeMetrics, result, events.length, eventCount);
+                    reportSLOs(startingNanos, events.length, eventCount, result, eventTypeName, client);
+
+                    if (result.getStatus() == EventPublishingStatus.FAILED) {
+                        TracingService.setErrorFlag(requestSpan);
+                    }
+
+                    return response(result);
+                })
+                .whenComplete((ignore, ex) -> eventTypeMetrics.updateTiming(startingNanos, System.nanoTime()));
     }
 
     private void reportSLOs(final long startingNanos, final int totalSizeBytes, final int eventCount,
@@ -174,7 +202,7 @@ public class EventPublishingController {
         }
     }
 
-    private ResponseEntity response(final EventPublishResult result) {
+    private ResponseEntity<?> response(final EventPublishResult result) {
         switch (result.getStatus()) {
             case SUBMITTED:
                 return status(HttpStatus.OK).build();
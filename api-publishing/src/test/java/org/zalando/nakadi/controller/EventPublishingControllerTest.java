@@ -8,8 +8,10 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.zalando.nakadi.EventPublishingController;
@@ -35,6 +37,7 @@ import org.zalando.nakadi.utils.TestUtils;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -42,6 +45,7 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -90,7 +94,8 @@ public class EventPublishingControllerTest {
                         "kpiEventTypeName");
 
         mockMvc = standaloneSetup(controller)
-                .setMessageConverters(new StringHttpMessageConverter(), TestUtils.JACKSON_2_HTTP_MESSAGE_CONVERTER)
+                .setMessageConverters(new ByteArrayHttpMessageConverter(), new StringHttpMessageConverter(),
+                        TestUtils.JACKSON_2_HTTP_MESSAGE_CONVERTER)
                 .setCustomArgumentResolvers(new ClientResolver(settings, authorizationService))
                 .setControllerAdvice(new NakadiProblemExceptionHandler(), new EventPublishingExceptionHandler())
                 .build();
@@ -101,9 +106,9 @@ public class EventPublishingControllerTest {
         final EventPublishResult result = new EventPublishResult(SUBMITTED, null, submittedResponses(1));
 
         Mockito
-                .doReturn(result)
+                .doReturn(CompletableFuture.completedFuture(result))
                 .when(publisher)
-                .publish(any(String.class), eq(TOPIC));
+                .publishAsync(any(byte[].class), eq(TOPIC));
 
         postBatch(TOPIC, EVENT_BATCH)
                 .andExpect(status().isOk())
@@ -115,14 +120,14 @@ public class EventPublishingControllerTest {
 
         Mockito.doThrow(new JSONException("Error"))
                 .when(publisher)
-                .publish(any(String.class), eq(TOPIC));
+                .publishAsync(any(byte[].class), eq(TOPIC));
 
         postBatch(TOPIC, "invalid json array").andExpect(status().isBadRequest());
     }
 
     @Test
     public void whenEventPublishTimeoutThen503() throws Exception {
-        Mockito.when(publisher.publish(any(), any())).thenThrow(new EventTypeTimeoutException(""));
+        Mockito.when(publisher.publishAsync(any(byte[].class), any())).thenThrow(new EventTypeTimeoutException(""));
 
         postBatch(TOPIC, EVENT_BATCH)
                 .andExpect(content().contentType("application/problem+json"))
@@ -134,9 +139,9 @@ public class EventPublishingControllerTest {
         final EventPublishResult result = new EventPublishResult(ABORTED, PARTITIONING, responses());
 
         Mockito
-                .doReturn(result)
+                .doReturn(CompletableFuture.completedFuture(result))
                 .when(publisher)
-                .publish(any(String.class), eq(TOPIC));
+                .publishAsync(any(byte[].class), eq(TOPIC));
 
         postBatch(TOPIC, EVENT_BATCH)
                 .andExpect(status().isUnprocessableEntity())
@@ -148,9 +153,9 @@ public class EventPublishingControllerTest {
         final EventPublishResult result = new EventPublishResult(FAILED, PUBLISHING, responses());
 
         Mockito
-                .doReturn(result)
+                .doReturn(CompletableFuture.completedFuture(result))
                 .when(publisher)
-                .publish(any(String.class), eq(TOPIC));
+                .publishAsync(any(byte[].class), eq(TOPIC));
 
         postBatch(TOPIC, EVENT_BATCH)
                 .andExpect(status().isMultiStatus())
@@ -162,7 +167,7 @@ public class EventPublishingControllerTest {
         Mockito
                 .doThrow(new NoSuchEventTypeException("topic not found"))
                 .when(publisher)
-                .publish(any(String.class), eq(TOPIC));
+                .publishAsync(any(byte[].class), eq(TOPIC));
 
         postBatch(TOPIC, EVENT_BATCH)
                 .andExpect(content().contentType("application/problem+json"))
@@ -173,11 +178,11 @@ public class EventPublishingControllerTest {
     public void publishedEventsAreReportedPerEventType() throws Exception {
         final EventPublishResult success = new EventPublishResult(SUBMITTED, null, submittedResponses(3));
         Mockito
-                .doReturn(success)
-                .doReturn(success)
+                .doReturn(CompletableFuture.completedFuture(success))
+                .doReturn(CompletableFuture.completedFuture(success))
                 .doThrow(InternalNakadiException.class)
                 .when(publisher)
-                .publish(any(), any());
+                .publishAsync(any(byte[].class), any());
 
         postBatch(TOPIC, EVENT_BATCH);
         postBatch(TOPIC, EVENT_BATCH);
@@ -189,15 +194,31 @@ public class EventPublishingControllerTest {
         assertThat(eventTypeMetrics.getResponseCount(500), equalTo(1L));
     }
 
+    @Test
+    public void whenPublishingCompletesExceptionallyThen500() throws Exception {
+        final CompletableFuture<EventPublishResult> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new InternalNakadiException("failed"));
+        Mockito
+                .doReturn(failure)
+                .when(publisher)
+                .publishAsync(any(byte[].class), eq(TOPIC));
+
+        postBatch(TOPIC, EVENT_BATCH)
+                .andExpect(content().contentType("application/problem+json"))
+                .andExpect(status().isInternalServerError());
+
+        assertThat(eventTypeMetricRegistry.metricsFor(TOPIC).getResponseCount(500), equalTo(1L));
+    }
+
     @Test
     public void publishedEventsKPIReported() throws Exception {
         final EventPublishResult success = new EventPublishResult(SUBMITTED, null, submittedResponses(3));
         Mockito
-                .doReturn(success)
-                .doReturn(success)
+                .doReturn(CompletableFuture.completedFuture(success))
+                .doReturn(CompletableFuture.completedFuture(success))
                 .doThrow(InternalNakadiException.class)
                 .when(publisher)
-                .publish(any(), any());
+                .publishAsync(any(byte[].class), any());
 
         Mockito.when(kpiPublisher.hash(any())).thenReturn("hashed-application-name");
 
@@ -255,6 +276,8 @@ public class EventPublishingControllerTest {
                 .contentType(APPLICATION_JSON)
                 .content(batch);
 
-        return mockMvc.perform(requestBuilder);
+        final ResultActions resultActions = mockMvc.perform(requestBuilder);
+        final MvcResult mvcResult = resultActions.andReturn();
+        return mvcResult.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(mvcResult)) : resultActions;
     }
 }
@@ -77,7 +77,8 @@ public class LoggingFilter extends OncePerRequestFilter {
             this.flowId = flowId;
             this.requestLogInfo = new RequestLogInfo(request, startTime);
 
-            if (featureToggleService.isFeatureEnabled(Feature.ACCESS_LOG_ENABLED)) {
+            // Publishing requests are completed asynchronously as well, but they are logged only once completed
+            if (isAccessLogEnabled() && !isPublishingRequest(requestLogInfo)) {
                 logToAccessLog(this.requestLogInfo, HttpStatus.PROCESSING.value(), 0L);
             }
         }
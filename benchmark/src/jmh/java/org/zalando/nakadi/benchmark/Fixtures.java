@@ -0,0 +1,162 @@
+package org.zalando.nakadi.benchmark;
+
+import org.zalando.nakadi.domain.EventCategory;
+import org.zalando.nakadi.domain.EventType;
+import org.zalando.nakadi.utils.EventTypeTestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Events and schemas used by benchmarks. Everything is generated in memory from a fixed seed, so that results of
+ * different runs (and different commits) are built on exactly the same input, and nothing has to be downloaded.
+ */
+public final class Fixtures {
+
+    /**
+     * Approximate size of single serialized event.
+     */
+    public enum EventSize {
+        SMALL(200),
+        MEDIUM(10 * 1024),
+        LARGE(1024 * 1024);
+
+        private final int bytes;
+
+        EventSize(final int bytes) {
+            this.bytes = bytes;
+        }
+
+        public int getBytes() {
+            return bytes;
+        }
+    }
+
+    public static final String EVENT_TYPE_NAME = "benchmark.order-placed";
+    // Batches are built to be around this size, so that scores for events of different sizes are comparable in MB/s
+    public static final int BATCH_BYTES = 1024 * 1024;
+
+    public static final String ORDER_SCHEMA = "{" +
+            "\"type\":\"object\"," +
+            "\"properties\":{" +
+            "\"order_number\":{\"type\":\"string\",\"pattern\":\"^[0-9]{10}$\"}," +
+            "\"customer\":{\"type\":\"string\",\"minLength\":36,\"maxLength\":36}," +
+            "\"created_at\":{\"type\":\"string\",\"format\":\"date-time\"}," +
+            "\"items\":{\"type\":\"array\",\"items\":{" +
+            "\"type\":\"object\"," +
+            "\"properties\":{" +
+            "\"sku\":{\"type\":\"string\",\"pattern\":\"^sku-[0-9]+$\"}," +
+            "\"quantity\":{\"type\":\"integer\",\"minimum\":1}," +
+            "\"price\":{\"type\":\"number\",\"minimum\":0}," +
+            "\"description\":{\"type\":\"string\",\"maxLength\":1000}}," +
+            "\"required\":[\"sku\",\"quantity\",\"price\"]}}}," +
+            "\"required\":[\"order_number\",\"customer\",\"items\"]}";
+
+    private static final String WORDS = "lorem ipsum dolor sit amet consectetur adipiscing elit sed do eiusmod " +
+            "tempor incididunt ut labore et dolore magna aliqua";
+
+    private Fixtures() {
+    }
+
+    public static EventType orderEventType() {
+        return EventTypeTestBuilder.builder()
+                .name(EVENT_TYPE_NAME)
+                .category(EventCategory.BUSINESS)
+                .partitionKeyFields(Collections.singletonList("order_number"))
+                .schema(ORDER_SCHEMA)
+                .build();
+    }
+
+    /**
+     * Business event, that conforms to {@link #ORDER_SCHEMA}. Size of the event grows with the number of items.
+     */
+    public static String orderEvent(final EventSize size, final int seed) {
+        final Random random = new Random(seed);
+        final StringBuilder sb = new StringBuilder(size.getBytes() + 512);
+        sb.append("{\"metadata\":{\"eid\":\"").append(new UUID(random.nextLong(), random.nextLong()))
+                .append("\",\"occurred_at\":\"2021-06-01T12:00:00.123Z\"}")
+                .append(",\"order_number\":\"").append(String.format("%010d", random.nextInt(Integer.MAX_VALUE)))
+                .append("\",\"customer\":\"").append(new UUID(random.nextLong(), random.nextLong()))
+                .append("\",\"created_at\":\"2021-06-01T11:59:59.001+02:00\",\"items\":[");
+        int item = 0;
+        do {
+            if (item > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"sku\":\"sku-").append(random.nextInt(1_000_000))
+                    .append("\",\"quantity\":").append(1 + random.nextInt(5))
+                    .append(",\"price\":").append(random.nextInt(100_000) / 100.0)
+                    .append(",\"description\":\"").append(text(random, 40 + random.nextInt(200)))
+                    .append("\"}");
+            ++item;
+        } while (sb.length() < size.getBytes() - 2);
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * Json array of events, as it comes in publishing request. The batch is around {@link #BATCH_BYTES}, but always
+     * contains at least one event.
+     */
+    public static byte[] orderBatch(final EventSize size) {
+        final int count = Math.max(1, BATCH_BYTES / size.getBytes());
+        final StringBuilder sb = new StringBuilder(BATCH_BYTES + size.getBytes());
+        sb.append('[');
+        for (int i = 0; i < count; ++i) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(orderEvent(size, i));
+        }
+        return sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Schema of objects nested into each other {@code depth} times, every level having own properties and
+     * constraints.
+     */
+    public static String nestedSchema(final int depth) {
+        String schema = "{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"}}}";
+        for (int level = 0; level < depth; ++level) {
+            schema = "{\"type\":\"object\"," +
+                    "\"properties\":{" +
+                    "\"name\":{\"type\":\"string\",\"minLength\":1}," +
+                    "\"level\":{\"type\":\"integer\",\"minimum\":0}," +
+                    "\"tags\":{\"type\":\"array\",\"items\":{\"type\":\"string\",\"enum\":[\"a\",\"b\",\"c\"]}}," +
+                    "\"child\":" + schema + "}," +
+                    "\"required\":[\"name\",\"level\"]}";
+        }
+        return schema;
+    }
+
+    public static EventType nestedEventType(final int depth) {
+        return EventTypeTestBuilder.builder()
+                .name(EVENT_TYPE_NAME)
+                .category(EventCategory.BUSINESS)
+                .schema(nestedSchema(depth))
+                .build();
+    }
+
+    /**
+     * Business event, that conforms to {@link #nestedSchema(int)} of the same depth.
+     */
+    public static String nestedEvent(final int depth) {
+        String event = "{\"name\":\"leaf\"}";
+        for (int level = depth - 1; level >= 0; --level) {
+            event = "{\"name\":\"level-" + level + "\",\"level\":" + level + ",\"tags\":[\"a\",\"c\"]," +
+                    "\"child\":" + event + "}";
+        }
+        return "{\"metadata\":{\"eid\":\"" + new UUID(depth, depth) + "\"," +
+                "\"occurred_at\":\"2021-06-01T12:00:00.123Z\"}," + event.substring(1);
+    }
+
+    private static String text(final Random random, final int length) {
+        final StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            final int start = random.nextInt(WORDS.length() - 10);
+            sb.append(WORDS, start, start + 10).append(' ');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package org.zalando.nakadi.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.zalando.nakadi.benchmark.Fixtures;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting of publishing request body (around 1 MB) into batch items, including parsing of each event.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class BatchFactoryBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private Fixtures.EventSize eventSize;
+
+    private byte[] batch;
+
+    @Setup
+    public void setUp() {
+        batch = Fixtures.orderBatch(eventSize);
+    }
+
+    @Benchmark
+    public List<BatchItem> from() {
+        return BatchFactory.from(batch);
+    }
+}
@@ -0,0 +1,53 @@
+package org.zalando.nakadi.domain;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.zalando.nakadi.benchmark.Fixtures;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StrictJsonParserBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Sized {
+        @Param({"SMALL", "MEDIUM", "LARGE"})
+        private Fixtures.EventSize eventSize;
+        private String event;
+
+        @Setup
+        public void setUp() {
+            event = Fixtures.orderEvent(eventSize, 0);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Nested {
+        @Param({"10", "50"})
+        private int depth;
+        private String event;
+
+        @Setup
+        public void setUp() {
+            event = Fixtures.nestedEvent(depth);
+        }
+    }
+
+    @Benchmark
+    public JSONObject parse(final Sized state) {
+        return StrictJsonParser.parse(state.event, false);
+    }
+
+    @Benchmark
+    public JSONObject parseNested(final Nested state) {
+        return StrictJsonParser.parse(state.event, false);
+    }
+}
@@ -0,0 +1,55 @@
+package org.zalando.nakadi.enrichment;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.zalando.nakadi.benchmark.Fixtures;
+import org.zalando.nakadi.domain.BatchFactory;
+import org.zalando.nakadi.domain.BatchItem;
+import org.zalando.nakadi.domain.EventType;
+import org.zalando.nakadi.plugin.auth.DefaultAuthorizationService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metadata enrichment of a batch (around 1 MB) together with serialization of enriched events, as both are done
+ * for each event before it is sent to kafka.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class MetadataEnrichmentBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private Fixtures.EventSize eventSize;
+
+    private MetadataEnrichmentStrategy strategy;
+    private EventType eventType;
+    private List<BatchItem> batch;
+
+    @Setup
+    public void setUp() {
+        strategy = new MetadataEnrichmentStrategy(new DefaultAuthorizationService());
+        eventType = Fixtures.orderEventType();
+        batch = BatchFactory.from(Fixtures.orderBatch(eventSize));
+        for (final BatchItem item : batch) {
+            item.setPartition("0");
+        }
+    }
+
+    @Benchmark
+    public long enrichAndSerialize() {
+        long size = 0;
+        for (final BatchItem item : batch) {
+            strategy.enrich(item, eventType);
+            size += item.dumpEventToBytes().length;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,55 @@
+package org.zalando.nakadi.partitioning;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.env.StandardEnvironment;
+import org.zalando.nakadi.benchmark.Fixtures;
+import org.zalando.nakadi.domain.EventType;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class HashPartitionStrategyBenchmark {
+
+    @Param({"8", "64"})
+    private int partitionCount;
+
+    private HashPartitionStrategy strategy;
+    private EventType eventType;
+    private JSONObject event;
+    private List<String> partitionKeys;
+    private List<String> partitions;
+
+    @Setup
+    public void setUp() {
+        strategy = new HashPartitionStrategy(
+                new HashPartitionStrategyCrutch(new StandardEnvironment(), 0), new StringHash());
+        eventType = Fixtures.orderEventType();
+        event = new JSONObject(Fixtures.orderEvent(Fixtures.EventSize.SMALL, 0));
+        partitionKeys = PartitionKeyExtractor.forEventType(eventType).extract(event);
+        partitions = IntStream.range(0, partitionCount).mapToObj(String::valueOf).sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public String calculatePartition() {
+        return strategy.calculatePartition(eventType, event, partitions);
+    }
+
+    @Benchmark
+    public String calculatePartitionFromKeys() {
+        return strategy.calculatePartition(partitionKeys, partitions);
+    }
+}
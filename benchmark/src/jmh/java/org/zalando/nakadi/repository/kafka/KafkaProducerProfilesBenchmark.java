@@ -0,0 +1,105 @@
+package org.zalando.nakadi.repository.kafka;
+
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MemoryRecordsBuilder;
+import org.apache.kafka.common.record.Record;
+import org.apache.kafka.common.record.TimestampType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.zalando.nakadi.benchmark.Fixtures;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and bytes on wire of producer profiles. Events (around 1 MB in total) are packed into record batches the
+ * same way kafka producer does it for the compression type and batch size of the profile, but without any broker,
+ * so that only the cost of building and compressing batches is measured. Linger is not relevant here, as it only
+ * defines how long producer waits for the batch to fill up.
+ * <p>
+ * Besides throughput, {@code rawBytes} and {@code wireBytes} are reported, their ratio is the compression ratio of the
+ * profile.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class KafkaProducerProfilesBenchmark {
+
+    private static final String PROFILE = "benchmark";
+    private static final long TIMESTAMP = 1622548800000L;
+
+    @Param({"none", "gzip", "snappy", "lz4", "zstd"})
+    private String compressionType;
+    @Param({"16384", "1048576"})
+    private int batchSize;
+    @Param({"SMALL", "MEDIUM"})
+    private Fixtures.EventSize eventSize;
+
+    private KafkaProducerProfiles.Profile profile;
+    private List<byte[]> events;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long rawBytes;
+        public long wireBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rawBytes = 0;
+            wireBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        final KafkaProducerProfiles.Profile configured = new KafkaProducerProfiles.Profile();
+        configured.setCompressionType(compressionType);
+        configured.setBatchSize(batchSize);
+        final KafkaProducerProfiles profiles = new KafkaProducerProfiles();
+        profiles.getProfiles().put(PROFILE, configured);
+        profiles.getEventTypes().put(Fixtures.EVENT_TYPE_NAME, PROFILE);
+        profiles.validate();
+        profile = profiles.getProfile(profiles.getProfileName(Fixtures.EVENT_TYPE_NAME));
+
+        final int count = Math.max(1, Fixtures.BATCH_BYTES / eventSize.getBytes());
+        events = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            events.add(Fixtures.orderEvent(eventSize, i).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private MemoryRecordsBuilder newBatch() {
+        return MemoryRecords.builder(ByteBuffer.allocate(profile.getBatchSize()),
+                CompressionType.forName(profile.getCompressionType()), TimestampType.CREATE_TIME, 0L);
+    }
+
+    @Benchmark
+    public int produce(final Counters counters) {
+        int batches = 1;
+        MemoryRecordsBuilder batch = newBatch();
+        for (final byte[] event : events) {
+            if (!batch.hasRoomFor(TIMESTAMP, null, event, Record.EMPTY_HEADERS)) {
+                counters.wireBytes += batch.build().sizeInBytes();
+                batch = newBatch();
+                ++batches;
+            }
+            batch.append(TIMESTAMP, null, event, Record.EMPTY_HEADERS);
+            counters.rawBytes += event.length;
+        }
+        counters.wireBytes += batch.build().sizeInBytes();
+        return batches;
+    }
+}
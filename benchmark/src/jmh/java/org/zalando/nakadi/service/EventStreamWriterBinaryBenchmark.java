@@ -0,0 +1,61 @@
+package org.zalando.nakadi.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.zalando.nakadi.benchmark.Fixtures;
+import org.zalando.nakadi.domain.ConsumedEvent;
+import org.zalando.nakadi.domain.NakadiCursor;
+import org.zalando.nakadi.domain.Timeline;
+import org.zalando.nakadi.repository.kafka.KafkaCursor;
+import org.zalando.nakadi.utils.TestUtils;
+import org.zalando.nakadi.view.SubscriptionCursor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing of subscription batch (around 1 MB) to the output stream of the client.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class EventStreamWriterBinaryBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private Fixtures.EventSize eventSize;
+
+    private final EventStreamWriterBinary writer = new EventStreamWriterBinary();
+    private final OutputStream outputStream = OutputStream.nullOutputStream();
+    private SubscriptionCursor cursor;
+    private List<ConsumedEvent> events;
+
+    @Setup
+    public void setUp() {
+        final Timeline timeline = TestUtils.buildTimeline(Fixtures.EVENT_TYPE_NAME);
+        final int count = Math.max(1, Fixtures.BATCH_BYTES / eventSize.getBytes());
+        events = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            final byte[] event = Fixtures.orderEvent(eventSize, i).getBytes(StandardCharsets.UTF_8);
+            final NakadiCursor position = NakadiCursor.of(timeline, "0", KafkaCursor.toNakadiOffset(i));
+            events.add(new ConsumedEvent(event, position, 0L, null));
+        }
+        cursor = new SubscriptionCursor("0", KafkaCursor.toNakadiOffset(count - 1), Fixtures.EVENT_TYPE_NAME,
+                "5d0ca8e0-4d8f-4a2c-8a59-bf4c2f0c3c2e");
+    }
+
+    @Benchmark
+    public int writeSubscriptionBatch() throws IOException {
+        return writer.writeSubscriptionBatch(outputStream, cursor, events, Optional.empty());
+    }
+}
@@ -0,0 +1,72 @@
+package org.zalando.nakadi.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.zalando.nakadi.cache.EventTypeCache;
+import org.zalando.nakadi.domain.NakadiCursor;
+import org.zalando.nakadi.domain.Timeline;
+import org.zalando.nakadi.domain.storage.Storage;
+import org.zalando.nakadi.repository.kafka.KafkaCursor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class NakadiCursorComparatorBenchmark {
+
+    private static final String ET = "et";
+
+    private NakadiCursorComparator comparator;
+    private NakadiCursor firstTimelineCursor;
+    private NakadiCursor firstTimelineLaterCursor;
+    private NakadiCursor firstTimelineLastCursor;
+    private NakadiCursor lastTimelineInitialCursor;
+
+    @Setup
+    public void setUp() throws Exception {
+        final Storage storage = new Storage("default", Storage.Type.KAFKA);
+        final Timeline timeline1 = new Timeline(ET, 1, storage, UUID.randomUUID().toString(), new Date());
+        final Timeline timeline2 = new Timeline(ET, 2, storage, UUID.randomUUID().toString(), new Date());
+        final Timeline timeline3 = new Timeline(ET, 3, storage, UUID.randomUUID().toString(), new Date());
+        timeline1.setLatestPosition(new Timeline.KafkaStoragePosition(Collections.singletonList(100L)));
+        timeline2.setLatestPosition(new Timeline.KafkaStoragePosition(Collections.singletonList(-1L)));
+
+        final EventTypeCache eventTypeCache = mock(EventTypeCache.class);
+        when(eventTypeCache.getTimelinesOrdered(ET)).thenReturn(Arrays.asList(timeline1, timeline2, timeline3));
+        comparator = new NakadiCursorComparator(eventTypeCache);
+
+        firstTimelineCursor = cursor(timeline1, 50);
+        firstTimelineLaterCursor = cursor(timeline1, 99);
+        // Comparison of these two walks through all the timelines (the second one is empty) to find out, that the
+        // cursors are equal
+        firstTimelineLastCursor = cursor(timeline1, 100);
+        lastTimelineInitialCursor = cursor(timeline3, -1);
+    }
+
+    private static NakadiCursor cursor(final Timeline timeline, final long offset) {
+        return NakadiCursor.of(timeline, KafkaCursor.toNakadiPartition(0), KafkaCursor.toNakadiOffset(offset));
+    }
+
+    @Benchmark
+    public int compareWithinTimeline() {
+        return comparator.compare(firstTimelineCursor, firstTimelineLaterCursor);
+    }
+
+    @Benchmark
+    public int compareAcrossTimelines() {
+        return comparator.compare(firstTimelineLastCursor, lastTimelineInitialCursor);
+    }
+}
@@ -0,0 +1,169 @@
+package org.zalando.nakadi.service;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.zalando.nakadi.cache.EventTypeCache;
+import org.zalando.nakadi.domain.EventType;
+import org.zalando.nakadi.domain.EventTypePartition;
+import org.zalando.nakadi.domain.ItemsWrapper;
+import org.zalando.nakadi.domain.NakadiCursor;
+import org.zalando.nakadi.domain.PartitionEndStatistics;
+import org.zalando.nakadi.domain.Subscription;
+import org.zalando.nakadi.domain.SubscriptionEventTypeStats;
+import org.zalando.nakadi.domain.Timeline;
+import org.zalando.nakadi.domain.storage.Storage;
+import org.zalando.nakadi.repository.TopicRepository;
+import org.zalando.nakadi.repository.db.SubscriptionDbRepository;
+import org.zalando.nakadi.repository.db.SubscriptionTokenLister;
+import org.zalando.nakadi.repository.kafka.KafkaCursor;
+import org.zalando.nakadi.repository.kafka.KafkaPartitionEndStatistics;
+import org.zalando.nakadi.service.publishing.NakadiAuditLogPublisher;
+import org.zalando.nakadi.service.publishing.NakadiKpiPublisher;
+import org.zalando.nakadi.service.subscription.model.Partition;
+import org.zalando.nakadi.service.subscription.model.Session;
+import org.zalando.nakadi.service.subscription.zk.SubscriptionClientFactory;
+import org.zalando.nakadi.service.subscription.zk.ZkSubscriptionClient;
+import org.zalando.nakadi.service.subscription.zk.ZkSubscriptionNode;
+import org.zalando.nakadi.service.timeline.TimelineService;
+import org.zalando.nakadi.utils.EventTypeTestBuilder;
+import org.zalando.nakadi.utils.RandomSubscriptionBuilder;
+import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Subscription stats endpoint for a subscription with 1000 partitions spread over several event types. Zookeeper,
+ * kafka and database are stubbed, so that the score shows the cost of assembling stats out of zookeeper state,
+ * committed offsets and end positions of partitions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class SubscriptionStatsBenchmark {
+
+    private static final String SUBSCRIPTION_ID = "benchmark-subscription";
+
+    @Param({"1000"})
+    private int partitionCount;
+    @Param({"1", "10"})
+    private int eventTypeCount;
+    @Param({"10"})
+    private int sessionCount;
+    @Param({"LIGHT", "NORMAL"})
+    private SubscriptionService.StatsMode statsMode;
+
+    private SubscriptionService subscriptionService;
+
+    // Invocations on mocks are not recorded, so that memory does not grow with the number of benchmark invocations
+    private static <T> T stub(final Class<T> clazz) {
+        return Mockito.mock(clazz, Mockito.withSettings().stubOnly());
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        final Storage storage = new Storage("default", Storage.Type.KAFKA);
+        final Map<String, EventType> eventTypes = new HashMap<>();
+        final Map<String, Timeline> timelines = new HashMap<>();
+        for (int i = 0; i < eventTypeCount; ++i) {
+            final EventType eventType = EventTypeTestBuilder.builder().name("benchmark.event-type-" + i).build();
+            eventTypes.put(eventType.getName(), eventType);
+            timelines.put(eventType.getName(),
+                    new Timeline(eventType.getName(), 1, storage, UUID.randomUUID().toString(), new Date()));
+        }
+
+        final List<Session> sessions = new ArrayList<>(sessionCount);
+        for (int i = 0; i < sessionCount; ++i) {
+            sessions.add(new Session("session-" + i, 1));
+        }
+        final List<Partition> partitions = new ArrayList<>(partitionCount);
+        final Map<EventTypePartition, SubscriptionCursorWithoutToken> committed = new HashMap<>();
+        final List<NakadiCursor> committedCursors = new ArrayList<>(partitionCount);
+        final List<PartitionEndStatistics> endStatistics = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; ++i) {
+            final Timeline timeline = timelines.get("benchmark.event-type-" + (i % eventTypeCount));
+            final int partition = i / eventTypeCount;
+            final String partitionId = KafkaCursor.toNakadiPartition(partition);
+            partitions.add(new Partition(timeline.getEventType(), partitionId,
+                    sessions.get(i % sessionCount).getId(), null, Partition.State.ASSIGNED));
+            final NakadiCursor cursor = NakadiCursor.of(timeline, partitionId, KafkaCursor.toNakadiOffset(100));
+            committedCursors.add(cursor);
+            committed.put(cursor.getEventTypePartition(), new SubscriptionCursorWithoutToken(
+                    timeline.getEventType(), partitionId, cursor.getOffset()));
+            endStatistics.add(new KafkaPartitionEndStatistics(timeline, partition, 200));
+        }
+
+        final Subscription subscription = RandomSubscriptionBuilder.builder()
+                .withId(SUBSCRIPTION_ID)
+                .withEventTypes(eventTypes.keySet())
+                .build();
+        final SubscriptionDbRepository subscriptionRepository = stub(SubscriptionDbRepository.class);
+        when(subscriptionRepository.getSubscription(SUBSCRIPTION_ID)).thenReturn(subscription);
+
+        final EventTypeCache eventTypeCache = stub(EventTypeCache.class);
+        when(eventTypeCache.getEventType(anyString()))
+                .thenAnswer(invocation -> eventTypes.get((String) invocation.getArguments()[0]));
+
+        final ZkSubscriptionClient subscriptionClient = stub(ZkSubscriptionClient.class);
+        when(subscriptionClient.getZkSubscriptionNode())
+                .thenReturn(Optional.of(new ZkSubscriptionNode(partitions, sessions)));
+        when(subscriptionClient.getOffsets(anyCollection())).thenReturn(committed);
+        final SubscriptionClientFactory subscriptionClientFactory = stub(SubscriptionClientFactory.class);
+        when(subscriptionClientFactory.createClient(any(Subscription.class), anyString()))
+                .thenReturn(subscriptionClient);
+
+        final CursorConverter converter = stub(CursorConverter.class);
+        when(converter.convert(anyCollection())).thenReturn(committedCursors);
+
+        final TopicRepository topicRepository = stub(TopicRepository.class);
+        when(topicRepository.loadCachedTopicEndStatistics(anyList())).thenReturn(endStatistics);
+        final TimelineService timelineService = stub(TimelineService.class);
+        when(timelineService.getActiveTimeline(any(EventType.class)))
+                .thenAnswer(invocation -> timelines.get(((EventType) invocation.getArguments()[0]).getName()));
+        when(timelineService.getTopicRepository(any(Timeline.class))).thenReturn(topicRepository);
+
+        final CursorOperationsService cursorOperationsService = stub(CursorOperationsService.class);
+        when(cursorOperationsService.calculateDistance(any(NakadiCursor.class), any(NakadiCursor.class)))
+                .thenReturn(100L);
+
+        subscriptionService = new SubscriptionService(
+                subscriptionRepository,
+                subscriptionClientFactory,
+                timelineService,
+                stub(SubscriptionValidationService.class),
+                converter,
+                cursorOperationsService,
+                stub(NakadiKpiPublisher.class),
+                stub(FeatureToggleService.class),
+                stub(SubscriptionTimeLagService.class),
+                "nakadi.subscription.log",
+                stub(NakadiAuditLogPublisher.class),
+                stub(AuthorizationValidator.class),
+                eventTypeCache,
+                stub(SubscriptionTokenLister.class));
+    }
+
+    @Benchmark
+    public ItemsWrapper<SubscriptionEventTypeStats> subscriptionStats() {
+        return subscriptionService.getSubscriptionStat(SUBSCRIPTION_ID, statsMode);
+    }
+}
@@ -0,0 +1,55 @@
+package org.zalando.nakadi.service.subscription;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.zalando.nakadi.benchmark.Fixtures;
+import org.zalando.nakadi.service.subscription.model.Partition;
+import org.zalando.nakadi.service.subscription.model.Session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebalance of subscription with 1000 partitions, that are evenly assigned to existing sessions, when one more
+ * session joins.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class SubscriptionRebalancerBenchmark {
+
+    private static final int PARTITION_COUNT = 1000;
+
+    @Param({"1", "10", "100"})
+    private int sessionCount;
+
+    private final SubscriptionRebalancer rebalancer = new SubscriptionRebalancer();
+    private List<Session> sessions;
+    private Partition[] partitions;
+
+    @Setup
+    public void setUp() {
+        sessions = new ArrayList<>(sessionCount + 1);
+        for (int i = 0; i < sessionCount; ++i) {
+            sessions.add(new Session("session-" + i, 1));
+        }
+        partitions = new Partition[PARTITION_COUNT];
+        for (int i = 0; i < PARTITION_COUNT; ++i) {
+            partitions[i] = new Partition(Fixtures.EVENT_TYPE_NAME, String.valueOf(i),
+                    sessions.get(i % sessionCount).getId(), null, Partition.State.ASSIGNED);
+        }
+        sessions.add(new Session("session-new", 1));
+    }
+
+    @Benchmark
+    public Partition[] apply() {
+        return rebalancer.apply(sessions, partitions);
+    }
+}
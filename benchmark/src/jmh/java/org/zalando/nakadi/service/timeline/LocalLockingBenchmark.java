@@ -0,0 +1,52 @@
+package org.zalando.nakadi.service.timeline;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Contention of publishing threads on local gating of publishing during timeline switch. Threads are either publishing
+ * to the same event type, or each one to its own event type.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class LocalLockingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        private final LocalLocking localLocking = new LocalLocking();
+    }
+
+    @State(Scope.Thread)
+    public static class Publisher {
+        @Param({"true", "false"})
+        private boolean sameEventType;
+        private String eventType;
+
+        @Setup
+        public void setUp(final ThreadParams threadParams) {
+            eventType = sameEventType ? "event-type" : "event-type-" + threadParams.getThreadIndex();
+        }
+    }
+
+    @Benchmark
+    public void workWithEventType(final Shared shared, final Publisher publisher)
+            throws InterruptedException, TimeoutException, IOException {
+        try (Closeable ignored = shared.localLocking.workWithEventType(publisher.eventType, 1000)) {
+            // Publishing itself is out of scope, only entering and leaving the gate is measured
+        }
+    }
+}
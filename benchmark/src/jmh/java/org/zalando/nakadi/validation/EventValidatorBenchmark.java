@@ -0,0 +1,87 @@
+package org.zalando.nakadi.validation;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.zalando.nakadi.benchmark.Fixtures;
+import org.zalando.nakadi.domain.EventType;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of events against effective schema of event type, and building of validators themselves (which happens
+ * each time event type is loaded into cache).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EventValidatorBenchmark {
+
+    private static EventValidatorBuilder createBuilder() throws IOException {
+        return new EventValidatorBuilder(
+                new JsonSchemaEnrichment(new DefaultResourceLoader(), "classpath:schema_metadata.json"));
+    }
+
+    private static void checkFixture(final EventTypeValidator validator, final JSONObject event) {
+        validator.validate(event).ifPresent(error -> {
+            throw new IllegalStateException("Fixture does not conform to schema: " + error.getMessage());
+        });
+    }
+
+    @State(Scope.Benchmark)
+    public static class Sized {
+        @Param({"SMALL", "MEDIUM", "LARGE"})
+        private Fixtures.EventSize eventSize;
+        private EventTypeValidator validator;
+        private JSONObject event;
+
+        @Setup
+        public void setUp() throws IOException {
+            validator = createBuilder().build(Fixtures.orderEventType());
+            event = new JSONObject(Fixtures.orderEvent(eventSize, 0));
+            checkFixture(validator, event);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Nested {
+        @Param({"10", "50"})
+        private int depth;
+        private EventValidatorBuilder builder;
+        private EventType eventType;
+        private EventTypeValidator validator;
+        private JSONObject event;
+
+        @Setup
+        public void setUp() throws IOException {
+            builder = createBuilder();
+            eventType = Fixtures.nestedEventType(depth);
+            validator = builder.build(eventType);
+            event = new JSONObject(Fixtures.nestedEvent(depth));
+            checkFixture(validator, event);
+        }
+    }
+
+    @Benchmark
+    public Optional<ValidationError> validate(final Sized state) {
+        return state.validator.validate(state.event);
+    }
+
+    @Benchmark
+    public Optional<ValidationError> validateNested(final Nested state) {
+        return state.validator.validate(state.event);
+    }
+
+    @Benchmark
+    public EventTypeValidator buildNested(final Nested state) {
+        return state.builder.build(state.eventType);
+    }
+}
@@ -1,17 +1,26 @@
 package org.zalando.nakadi.domain;
 
 import org.json.JSONException;
+import org.json.JSONObject;
 
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 
+/**
+ * Splits incoming batch of events into separate {@link BatchItem}s. The splitting is performed directly on UTF-8
+ * encoded bytes - all the structural characters of json are ascii, and ascii bytes never appear inside of multibyte
+ * UTF-8 sequences, so it is safe to navigate the data byte by byte. All the positions that are passed to batch items
+ * (injections, skipped characters) are byte offsets relative to the event start.
+ */
 public class BatchFactory {
 
-    private static int navigateToObjectStart(final int from, final int end, final String data) {
+    private static int navigateToObjectStart(final int from, final int end, final byte[] data) {
         int curPos = from;
-        char currentChar;
-        while (curPos < end && (currentChar = data.charAt(curPos)) != '{') {
+        byte currentChar;
+        while (curPos < end && (currentChar = data[curPos]) != '{') {
             if (currentChar != ',' && !isEmptyCharacter(currentChar)) {
                 throw new JSONException("Illegal character at position " + curPos);
             }
@@ -21,7 +30,8 @@ public class BatchFactory {
         return found ? curPos : -1;
     }
 
-    private static int navigateToObjectEnd(final int from, final int end, final String data,
+    private static int navigateToObjectEnd(final int from, final int end, final byte[] data,
+                                           @Nullable final JSONObject parsedEvent,
                                            final Consumer<BatchItem> batchItemConsumer) {
         int curPos = from;
         int nestingLevel = 0;
@@ -35,7 +45,7 @@ public class BatchFactory {
         final List<Integer> skipPositions = new ArrayList<>();
 
         while (curPos < end) {
-            final char curChar = data.charAt(curPos);
+            final byte curChar = data[curPos];
             if (!insideQuote && shouldBeSkipped(curChar)) {
                 skipPositions.add(curPos - from);
             }
@@ -73,12 +83,15 @@ public class BatchFactory {
             }
             ++curPos;
         }
-        if (curPos == data.length()) {
+        if (curPos == data.length) {
             return -1;
         }
         batchItemConsumer.accept(
                 new BatchItem(
-                        data.substring(from, curPos + 1),
+                        data,
+                        from,
+                        curPos + 1 - from,
+                        parsedEvent,
                         BatchItem.EmptyInjectionConfiguration.build(1, hasFields),
                         injections,
                         skipPositions));
@@ -89,15 +102,15 @@ public class BatchFactory {
             final int messageOffset,
             final int injectionPointStart,
             final int end,
-            final String data) {
+            final byte[] data) {
         for (final BatchItem.Injection type : BatchItem.Injection.values()) {
             if ((end - injectionPointStart - 3) < type.name.length()) {
                 continue;
             }
-            boolean matches = data.charAt(injectionPointStart + 1 + type.name.length()) == '"';
+            boolean matches = data[injectionPointStart + 1 + type.name.length()] == '"';
             if (matches) {
                 for (int i = 0; i < type.name.length(); ++i) {
-                    if (data.charAt(injectionPointStart + i + 1) != type.name.charAt(i)) {
+                    if (data[injectionPointStart + i + 1] != type.name.charAt(i)) {
                         matches = false;
                         break;
                     }
@@ -112,12 +125,23 @@ public class BatchFactory {
     }
 
     public static List<BatchItem> from(final String events) {
+        return from(events.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates batch items out of UTF-8 encoded json array of events. Batch items are referencing the provided array,
+     * so it must not be modified afterwards.
+     *
+     * @param events UTF-8 encoded json array of events
+     * @return List of batch items in the same order as they are in the array
+     */
+    public static List<BatchItem> from(final byte[] events) {
         final List<BatchItem> batch = new ArrayList<>();
         int objectStart = locateOpenSquareBracket(events) + 1;
         final int arrayEnd = locateClosingSquareBracket(objectStart, events);
 
         while (-1 != (objectStart = navigateToObjectStart(objectStart, arrayEnd, events))) {
-            final int objectEnd = navigateToObjectEnd(objectStart, arrayEnd, events, batch::add);
+            final int objectEnd = navigateToObjectEnd(objectStart, arrayEnd, events, null, batch::add);
             if (objectEnd == -1) {
                 throw new JSONException("Unclosed object staring at " + objectStart + " found.");
             }
@@ -127,33 +151,50 @@ public class BatchFactory {
         return batch;
     }
 
-    private static int locateOpenSquareBracket(final String events) {
+    /**
+     * Creates batch item out of event that is already built in memory (e.g. by nakadi itself). The event is
+     * serialized once and is used by the batch item as is, so that it is not parsed once again. The event must not be
+     * modified afterwards.
+     *
+     * @param event Event to create batch item for
+     * @return Batch item, that is backed by serialized event
+     */
+    public static BatchItem fromEvent(final JSONObject event) {
+        final byte[] data = event.toString().getBytes(StandardCharsets.UTF_8);
+        final List<BatchItem> result = new ArrayList<>(1);
+        if (-1 == navigateToObjectEnd(0, data.length, data, event, result::add)) {
+            throw new JSONException("Failed to locate end of serialized event");
+        }
+        return result.get(0);
+    }
+
+    private static int locateOpenSquareBracket(final byte[] events) {
         int pos = 0;
-        while (pos < events.length() && isEmptyCharacter(events.charAt(pos))) {
+        while (pos < events.length && isEmptyCharacter(events[pos])) {
             ++pos;
         }
-        if (events.charAt(pos) != '[') {
+        if (pos == events.length || events[pos] != '[') {
             throw new JSONException("Array of events should start with [ at position " + pos);
         }
         return pos;
     }
 
-    private static int locateClosingSquareBracket(final int start, final String events) {
-        int pos = events.length() - 1;
-        while (pos >= start && isEmptyCharacter(events.charAt(pos))) {
+    private static int locateClosingSquareBracket(final int start, final byte[] events) {
+        int pos = events.length - 1;
+        while (pos >= start && isEmptyCharacter(events[pos])) {
             --pos;
         }
-        if (events.charAt(pos) != ']') {
+        if (events[pos] != ']') {
             throw new JSONException("Array of events should end with ] at position " + pos);
         }
         return pos;
     }
 
-    static boolean shouldBeSkipped(final char c) {
+    static boolean shouldBeSkipped(final byte c) {
         return (c == '\r' || c == '\n' || c == ' ' || c == '\t');
     }
 
-    static boolean isEmptyCharacter(final char c) {
+    static boolean isEmptyCharacter(final byte c) {
         return (c == ' ' || c == '\t' || c == '\n' || c == '\r');
     }
 }
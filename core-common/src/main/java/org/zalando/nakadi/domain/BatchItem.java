@@ -58,15 +58,18 @@ public class BatchItem implements Resource<BatchItem> {
     private static final EmptyInjectionConfiguration CONFIG_NO_COMMA = new EmptyInjectionConfiguration(1, false);
 
     private final BatchItemResponse response;
-    private final String rawEvent;
+    private final byte[] data;
+    private final int offset;
+    private final int length;
     private final JSONObject event;
     private final EmptyInjectionConfiguration emptyInjectionConfiguration;
     private final InjectionConfiguration[] injections;
-    private String[] injectionValues;
+    private byte[][] injectionValues;
     private final List<Integer> skipCharacters;
     private String partition;
     private String brokerId;
     private String eventKey;
+    private List<String> partitionKeys;
     private int eventSize;
     private EventOwnerHeader owner;
 
@@ -75,10 +78,52 @@ public class BatchItem implements Resource<BatchItem> {
             final EmptyInjectionConfiguration emptyInjectionConfiguration,
             final InjectionConfiguration[] injections,
             final List<Integer> skipCharacters) {
-        this.rawEvent = rawEvent;
+        this(rawEvent.getBytes(StandardCharsets.UTF_8), emptyInjectionConfiguration, injections, skipCharacters);
+    }
+
+    public BatchItem(
+            final byte[] rawEvent,
+            final EmptyInjectionConfiguration emptyInjectionConfiguration,
+            final InjectionConfiguration[] injections,
+            final List<Integer> skipCharacters) {
+        this(rawEvent, 0, rawEvent.length, emptyInjectionConfiguration, injections, skipCharacters);
+    }
+
+    /**
+     * Creates batch item that is backed by the range of UTF-8 encoded data. The data is not copied, so the caller
+     * must not modify it while the item is in use. Injection and skip positions are byte offsets relative to
+     * {@code offset}.
+     */
+    public BatchItem(
+            final byte[] data,
+            final int offset,
+            final int length,
+            final EmptyInjectionConfiguration emptyInjectionConfiguration,
+            final InjectionConfiguration[] injections,
+            final List<Integer> skipCharacters) {
+        this(data, offset, length, null, emptyInjectionConfiguration, injections, skipCharacters);
+    }
+
+    /**
+     * Same as {@link #BatchItem(byte[], int, int, EmptyInjectionConfiguration, InjectionConfiguration[], List)}, but
+     * if {@code parsedEvent} is provided, it is used as the event instead of parsing the data. It is up to the caller
+     * to guarantee that the data is the serialized form of the event.
+     */
+    public BatchItem(
+            final byte[] data,
+            final int offset,
+            final int length,
+            @Nullable final JSONObject parsedEvent,
+            final EmptyInjectionConfiguration emptyInjectionConfiguration,
+            final InjectionConfiguration[] injections,
+            final List<Integer> skipCharacters) {
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
         this.skipCharacters = skipCharacters;
-        this.event = StrictJsonParser.parseObject(rawEvent);
-        this.eventSize = rawEvent.getBytes(StandardCharsets.UTF_8).length;
+        this.event = null != parsedEvent ? parsedEvent :
+                StrictJsonParser.parseObject(new String(data, offset, length, StandardCharsets.UTF_8));
+        this.eventSize = length;
         this.emptyInjectionConfiguration = emptyInjectionConfiguration;
         this.injections = injections;
         this.response = new BatchItemResponse();
@@ -88,12 +133,42 @@ public class BatchItem implements Resource<BatchItem> {
     }
 
     public void inject(final Injection type, final String value) {
+        inject(type, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Same as {@link #inject(Injection, String)}, but takes the value that is already UTF-8 encoded json.
+     */
+    public void inject(final Injection type, final byte[] value) {
         if (null == injectionValues) {
-            injectionValues = new String[Injection.values().length];
+            injectionValues = new byte[Injection.values().length][];
         }
         injectionValues[type.ordinal()] = value;
     }
 
+    /**
+     * Returns value of the field at the injection point exactly as it was received, but without whitespace outside
+     * of strings, so that it can be rewritten without parsing.
+     *
+     * @return UTF-8 encoded json value of the field or null if the event does not have the field.
+     */
+    @Nullable
+    public byte[] getRawInjectionValue(final Injection type) {
+        final InjectionConfiguration config = injections[type.ordinal()];
+        if (null == config) {
+            return null;
+        }
+        // Injection point covers the whole member, so value starts right after the colon following the "name"
+        int valueStart = config.startPos + type.name.length() + 2;
+        while (data[offset + valueStart] != ':') {
+            ++valueStart;
+        }
+        ++valueStart;
+        final ByteOutput out = new ByteOutput(config.endPos - valueStart);
+        appendWithSkip(out, valueStart, config.endPos, 0);
+        return out.toByteArray();
+    }
+
     public JSONObject getEvent() {
         return this.event;
     }
@@ -142,6 +217,19 @@ public class BatchItem implements Resource<BatchItem> {
         this.eventKey = key;
     }
 
+    /**
+     * @return Values of partition key fields, available only for events of event types with hash partitioning
+     * strategy, after partitioning step.
+     */
+    @Nullable
+    public List<String> getPartitionKeys() {
+        return partitionKeys;
+    }
+
+    public void setPartitionKeys(@Nullable final List<String> partitionKeys) {
+        this.partitionKeys = partitionKeys;
+    }
+
     @Override
     public String getName() {
         return response.getEid();
@@ -185,19 +273,41 @@ public class BatchItem implements Resource<BatchItem> {
     }
 
     public String dumpEventToString() {
+        return new String(dumpEventToBytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serializes event with all the injections applied to UTF-8 encoded byte array. Injected values are spliced in
+     * at the positions calculated while splitting the batch, so the event itself is never re-serialized.
+     *
+     * @return UTF-8 representation of the event, ready to be sent to storage.
+     */
+    public byte[] dumpEventToBytes() {
         if (null == injectionValues) {
             if (skipCharacters.isEmpty()) {
-                return rawEvent;
+                if (offset == 0 && length == data.length) {
+                    return data;
+                }
+                return Arrays.copyOfRange(data, offset, offset + length);
             } else {
-                final StringBuilder sb = new StringBuilder();
-                appendWithSkip(sb, 0, rawEvent.length(), 0);
-                return sb.toString();
+                final ByteOutput out = new ByteOutput(length);
+                appendWithSkip(out, 0, length, 0);
+                return out.toByteArray();
             }
         }
+        int maxSize = length;
+        for (final Injection injection : Injection.values()) {
+            final byte[] value = injectionValues[injection.ordinal()];
+            if (null != value) {
+                // "name": + value + ,
+                maxSize += injection.name.length() + 4 + value.length;
+            }
+        }
+
         boolean nonComaAdded = false;
         int lastMainEventUsedPosition = 0;
         int currentSkipPosition = 0;
-        final StringBuilder sb = new StringBuilder();
+        final ByteOutput out = new ByteOutput(maxSize);
         final Injection[] sortedInjections = Arrays.copyOf(Injection.values(), Injection.values().length);
         Arrays.sort(sortedInjections, Comparator.comparing(injection -> {
             final InjectionConfiguration config = injections[injection.ordinal()];
@@ -205,7 +315,7 @@ public class BatchItem implements Resource<BatchItem> {
         }));
 
         for (final Injection injectionKey : sortedInjections) {
-            final String injectionValue = injectionValues[injectionKey.ordinal()];
+            final byte[] injectionValue = injectionValues[injectionKey.ordinal()];
             if (injectionValue == null) {
                 continue;
             }
@@ -221,31 +331,32 @@ public class BatchItem implements Resource<BatchItem> {
             }
 
             if (positionStart > lastMainEventUsedPosition) {
-                currentSkipPosition = appendWithSkip(sb, lastMainEventUsedPosition, positionStart, currentSkipPosition);
+                currentSkipPosition = appendWithSkip(
+                        out, lastMainEventUsedPosition, positionStart, currentSkipPosition);
                 lastMainEventUsedPosition = positionEnd;
             }
-            sb.append('\"').append(injectionKey.name).append("\":");
-            sb.append(injectionValue);
+            out.append((byte) '"').appendAscii(injectionKey.name).append((byte) '"').append((byte) ':');
+            out.append(injectionValue, 0, injectionValue.length);
             if (config == null) {
                 if (!emptyInjectionConfiguration.addComma) {
                     // Well, really rare case, but we are trying to load brain, so cover it as well
                     if (nonComaAdded) {
-                        sb.append(',');
+                        out.append((byte) ',');
                     } else {
                         nonComaAdded = true;
                     }
                 } else {
-                    sb.append(',');
+                    out.append((byte) ',');
                 }
             }
         }
-        if (lastMainEventUsedPosition < rawEvent.length()) {
-            appendWithSkip(sb, lastMainEventUsedPosition, rawEvent.length(), currentSkipPosition);
+        if (lastMainEventUsedPosition < length) {
+            appendWithSkip(out, lastMainEventUsedPosition, length, currentSkipPosition);
         }
-        return sb.toString();
+        return out.toByteArray();
     }
 
-    private int appendWithSkip(final StringBuilder sb, final int from, final int to, final int currentSkipPosition) {
+    private int appendWithSkip(final ByteOutput out, final int from, final int to, final int currentSkipPosition) {
         int currentPos = from;
         int idx;
         for (idx = currentSkipPosition; idx < skipCharacters.size(); ++idx) {
@@ -257,14 +368,58 @@ public class BatchItem implements Resource<BatchItem> {
                 break;
             }
             if (currentSkipIdx > currentPos) {
-                sb.append(rawEvent, currentPos, currentSkipIdx);
+                out.append(data, offset + currentPos, currentSkipIdx - currentPos);
             }
             currentPos = currentSkipIdx + 1;
         }
         if (to > currentPos) {
-            sb.append(rawEvent, currentPos, to);
+            out.append(data, offset + currentPos, to - currentPos);
         }
         return idx;
     }
 
+    /**
+     * Minimalistic replacement for ByteArrayOutputStream without synchronization and with ability to return the
+     * underlying buffer when it is completely filled.
+     */
+    private static class ByteOutput {
+        private byte[] buffer;
+        private int size;
+
+        ByteOutput(final int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        ByteOutput append(final byte value) {
+            ensureCapacity(1);
+            buffer[size++] = value;
+            return this;
+        }
+
+        ByteOutput appendAscii(final String value) {
+            ensureCapacity(value.length());
+            for (int i = 0; i < value.length(); ++i) {
+                buffer[size++] = (byte) value.charAt(i);
+            }
+            return this;
+        }
+
+        ByteOutput append(final byte[] source, final int from, final int count) {
+            ensureCapacity(count);
+            System.arraycopy(source, from, buffer, size, count);
+            size += count;
+            return this;
+        }
+
+        private void ensureCapacity(final int additional) {
+            if (size + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+            }
+        }
+
+        byte[] toByteArray() {
+            return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        }
+    }
+
 }
@@ -29,7 +29,7 @@ public abstract class NakadiCursor {
 
     private final Timeline timeline;
     private final String partition;
-    // NO BEGIN HERE - only real offset!
+    // NO BEGIN HERE - only real offset! May be null if offset is kept by subclass in storage specific form.
     private final String offset;
 
     private NakadiCursor(
@@ -61,6 +61,14 @@ public abstract class NakadiCursor {
         return offset;
     }
 
+    /**
+     * Compares offsets of cursors within the same timeline without taking timelines into account. Storage specific
+     * cursors are comparing offsets without converting them to strings.
+     */
+    public int compareOffset(final NakadiCursor other) {
+        return getOffset().compareTo(other.getOffset());
+    }
+
     public EventTypePartition getEventTypePartition() {
         return new EventTypePartition(timeline.getEventType(), partition);
     }
@@ -93,14 +101,14 @@ public abstract class NakadiCursor {
         final NakadiCursor that = (NakadiCursor) o;
         return Objects.equals(this.timeline, that.timeline)
                 && Objects.equals(this.partition, that.partition)
-                && Objects.equals(this.offset, that.offset);
+                && Objects.equals(this.getOffset(), that.getOffset());
     }
 
     @Override
     public int hashCode() {
         int result = timeline.hashCode();
         result = 31 * result + partition.hashCode();
-        result = 31 * result + offset.hashCode();
+        result = 31 * result + getOffset().hashCode();
         return result;
     }
 
@@ -109,7 +117,7 @@ public abstract class NakadiCursor {
         //Ok, it's time to compact the message.
         return "T(" + Timeline.debugString(timeline) + ")-" +
                 "P(" + partition + ")-" +
-                "O(" + offset + ")";
+                "O(" + getOffset() + ")";
     }
 
 
@@ -123,9 +131,66 @@ public abstract class NakadiCursor {
         }
     }
 
+    /**
+     * Creates cursor from storage offset, string representation of the offset is created only when it is requested.
+     */
+    public static NakadiCursor of(final Timeline timeline, final String partition, final long offset) {
+        switch (timeline.getStorage().getType()) {
+            case KAFKA:
+                return new NakadiKafkaCursor(timeline, partition, offset);
+            default:
+                throw new NakadiBaseException(
+                        "Cursor storage type " + timeline.getStorage().getType() + " not supported");
+        }
+    }
+
     private static class NakadiKafkaCursor extends NakadiCursor {
+        private final long kafkaOffset;
+        // false if cursor was created from string that is not a valid kafka offset
+        private final boolean kafkaOffsetValid;
+        private String renderedOffset;
+
         NakadiKafkaCursor(final Timeline timeline, final String partition, final String offset) {
             super(timeline, partition, offset);
+            final Long parsed = parseKafkaOffset(offset);
+            this.kafkaOffsetValid = null != parsed;
+            this.kafkaOffset = null == parsed ? 0L : parsed;
+            this.renderedOffset = offset;
+        }
+
+        NakadiKafkaCursor(final Timeline timeline, final String partition, final long offset) {
+            super(timeline, partition, null);
+            this.kafkaOffsetValid = true;
+            this.kafkaOffset = offset;
+        }
+
+        private static Long parseKafkaOffset(final String offset) {
+            if (null == offset) {
+                return null;
+            }
+            try {
+                return KafkaCursor.toKafkaOffset(offset);
+            } catch (final NumberFormatException ex) {
+                return null;
+            }
+        }
+
+        @Override
+        public String getOffset() {
+            // Race is harmless here - the same immutable value is created in any case
+            if (null == renderedOffset && kafkaOffsetValid) {
+                renderedOffset = KafkaCursor.toNakadiOffset(kafkaOffset);
+            }
+            return renderedOffset;
+        }
+
+        @Override
+        public int compareOffset(final NakadiCursor other) {
+            if (kafkaOffsetValid && other instanceof NakadiKafkaCursor
+                    && ((NakadiKafkaCursor) other).kafkaOffsetValid) {
+                return Long.compare(kafkaOffset, ((NakadiKafkaCursor) other).kafkaOffset);
+            }
+            return super.compareOffset(other);
         }
 
         @Override
@@ -133,10 +198,14 @@ public abstract class NakadiCursor {
             return new NakadiKafkaCursor(
                     getTimeline(),
                     getPartition(),
-                    KafkaCursor.toNakadiOffset(KafkaCursor.toKafkaOffset(getOffset()) + toAdd)
+                    getKafkaOffset() + toAdd
             );
         }
 
+        private long getKafkaOffset() {
+            return kafkaOffsetValid ? kafkaOffset : KafkaCursor.toKafkaOffset(getOffset());
+        }
+
         @Override
         public KafkaCursor asKafkaCursor() throws InvalidCursorException {
             return KafkaCursor.fromNakadiCursor(this);
@@ -153,14 +222,12 @@ public abstract class NakadiCursor {
             final long existingOffset = ((Timeline.KafkaStoragePosition) timeline.getLatestPosition())
                     .getLastOffsetForPartition(partition);
 
-            final long offset = KafkaCursor.toKafkaOffset(getOffset());
-
-            return offset == existingOffset;
+            return getKafkaOffset() == existingOffset;
         }
 
         @Override
         public boolean isInitial() {
-            return Long.parseLong(getOffset()) == -1; // Yes, it is always like that for kafka.
+            return getKafkaOffset() == -1; // Yes, it is always like that for kafka.
         }
 
         @Override
@@ -1,6 +1,7 @@
 package org.zalando.nakadi.enrichment;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
 import org.joda.time.DateTimeZone;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -12,9 +13,37 @@ import org.zalando.nakadi.plugin.api.authz.AuthorizationService;
 import org.zalando.nakadi.plugin.api.authz.Subject;
 import org.zalando.nakadi.util.FlowIdUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Sets publishing related fields of event metadata. Enriched metadata is written directly into the bytes that are
+ * injected into the event: members of the metadata, that are not overridden, are copied from the received bytes and
+ * computed fields are appended after them. Metadata is serialized with {@link JSONObject} only in rare cases, when
+ * its raw form is not available or member names are escaped.
+ */
 public class MetadataEnrichmentStrategy implements EnrichmentStrategy {
 
+    private static final String PUBLISHED_BY = "published_by";
+    private static final String RECEIVED_AT = "received_at";
+    private static final String EVENT_TYPE = "event_type";
+    private static final String FLOW_ID = "flow_id";
+    private static final String PARTITION = "partition";
+    private static final String VERSION = "version";
+
+    private static final byte[][] ALWAYS_SET = {
+            ascii(PUBLISHED_BY), ascii(RECEIVED_AT), ascii(EVENT_TYPE), ascii(PARTITION), ascii(VERSION)};
+    private static final byte[] FLOW_ID_BYTES = ascii(FLOW_ID);
+    private static final byte[] RECEIVED_AT_FIELD = ascii("\"" + RECEIVED_AT + "\":\"");
+    // "yyyy-MM-ddTHH:mm:ss.SSSZ"
+    private static final int RECEIVED_AT_LENGTH = RECEIVED_AT_FIELD.length + 25;
+
     private final AuthorizationService authorizationService;
+    // Events of a batch are of the same event type, published by the same client and received within few
+    // milliseconds, so the last encoded values are kept to be reused by the next events
+    private volatile EncodedValue lastPublisher = new EncodedValue("", "", new byte[0]);
+    private volatile EncodedValue lastEventType = new EncodedValue("", "", new byte[0]);
+    private volatile TimestampPrefix lastTimestampPrefix = new TimestampPrefix(Long.MIN_VALUE, new byte[0]);
 
     public MetadataEnrichmentStrategy(final AuthorizationService authorizationService) {
         this.authorizationService = authorizationService;
@@ -22,49 +51,245 @@ public class MetadataEnrichmentStrategy implements EnrichmentStrategy {
 
     @Override
     public void enrich(final BatchItem batchItem, final EventType eventType) throws EnrichmentException {
+        final JSONObject metadata = batchItem.getEvent().optJSONObject(BatchItem.Injection.METADATA.name);
+        final byte[] original = batchItem.getRawInjectionValue(BatchItem.Injection.METADATA);
+        if (null == metadata || null == original || original[0] != '{') {
+            enrichWithJson(batchItem, eventType);
+            return;
+        }
+        final boolean setFlowId = "".equals(metadata.optString(FLOW_ID));
+        final String flowId = setFlowId ? FlowIdUtils.peek() : null;
+
+        final byte[] publisher = encodePublisher();
+        final byte[] eventTypeFields = encodeEventType(eventType);
+        final byte[] partition = null == batchItem.getPartition() ? null :
+                encodeField(PARTITION, batchItem.getPartition());
+        final byte[] flowIdField = null == flowId ? null : encodeField(FLOW_ID, flowId);
+
+        final byte[] result = new byte[original.length + publisher.length + eventTypeFields.length +
+                RECEIVED_AT_LENGTH + (null == partition ? 0 : partition.length) +
+                (null == flowIdField ? 0 : flowIdField.length) + 5];
+        int size = copyMembers(original, result, metadata, setFlowId);
+        if (size < 0) {
+            enrichWithJson(batchItem, eventType);
+            return;
+        }
+        if (size > 1) {
+            result[size++] = ',';
+        }
+        size = append(result, size, publisher);
+        result[size++] = ',';
+        size = writeReceivedAt(result, size);
+        result[size++] = ',';
+        size = append(result, size, eventTypeFields);
+        if (null != partition) {
+            result[size++] = ',';
+            size = append(result, size, partition);
+        }
+        if (null != flowIdField) {
+            result[size++] = ',';
+            size = append(result, size, flowIdField);
+        }
+        result[size++] = '}';
+        batchItem.inject(BatchItem.Injection.METADATA, size == result.length ? result : Arrays.copyOf(result, size));
+    }
+
+    private void enrichWithJson(final BatchItem batchItem, final EventType eventType) throws EnrichmentException {
         try {
             final JSONObject metadata = batchItem
                     .getEvent()
                     .getJSONObject(BatchItem.Injection.METADATA.name);
 
-            setPublisher(metadata);
-            setReceivedAt(metadata);
-            setEventTypeName(metadata, eventType);
-            setFlowId(metadata);
-            setPartition(metadata, batchItem);
-            setVersion(metadata, eventType);
+            metadata.put(PUBLISHED_BY, getPublisher());
+            metadata.put(RECEIVED_AT, new DateTime(DateTimeZone.UTC).toString());
+            metadata.put(EVENT_TYPE, eventType.getName());
+            if ("".equals(metadata.optString(FLOW_ID))) {
+                metadata.put(FLOW_ID, FlowIdUtils.peek());
+            }
+            metadata.put(PARTITION, batchItem.getPartition());
+            metadata.put(VERSION, eventType.getSchema().getVersion().toString());
             batchItem.inject(BatchItem.Injection.METADATA, metadata.toString());
         } catch (final JSONException e) {
             throw new EnrichmentException("enrichment error", e);
         }
     }
 
-    private void setPublisher(final JSONObject metadata) {
-        final String publisher = authorizationService.getSubject().map(Subject::getName)
+    private String getPublisher() {
+        return authorizationService.getSubject().map(Subject::getName)
                 .orElse(SecuritySettings.UNAUTHENTICATED_CLIENT_ID);
-        metadata.put("published_by", publisher);
     }
 
-    private void setVersion(final JSONObject metadata, final EventType eventType) {
-        metadata.put("version", eventType.getSchema().getVersion().toString());
+    private byte[] encodePublisher() {
+        final String publisher = getPublisher();
+        EncodedValue encoded = lastPublisher;
+        if (!encoded.matches(publisher, "")) {
+            encoded = new EncodedValue(publisher, "", encodeField(PUBLISHED_BY, publisher));
+            lastPublisher = encoded;
+        }
+        return encoded.bytes;
     }
 
-    private void setFlowId(final JSONObject metadata) {
-        if ("".equals(metadata.optString("flow_id"))) {
-            metadata.put("flow_id", FlowIdUtils.peek());
+    private byte[] encodeEventType(final EventType eventType) {
+        final String version = eventType.getSchema().getVersion().toString();
+        EncodedValue encoded = lastEventType;
+        if (!encoded.matches(eventType.getName(), version)) {
+            encoded = new EncodedValue(eventType.getName(), version, (encodeFieldString(EVENT_TYPE, eventType.getName())
+                    + ',' + encodeFieldString(VERSION, version)).getBytes(StandardCharsets.UTF_8));
+            lastEventType = encoded;
         }
+        return encoded.bytes;
     }
 
-    private void setEventTypeName(final JSONObject metadata, final EventType eventType) {
-        metadata.put("event_type", eventType.getName());
+    /**
+     * Writes "received_at" field with current time in the same format as {@link DateTime#toString()} in UTC. Date and
+     * time up to seconds are formatted once per second, only milliseconds are written for every event.
+     */
+    private int writeReceivedAt(final byte[] target, final int position) {
+        final long millis = DateTimeUtils.currentTimeMillis();
+        final long second = Math.floorDiv(millis, 1000L);
+        TimestampPrefix prefix = lastTimestampPrefix;
+        if (prefix.second != second) {
+            prefix = new TimestampPrefix(second,
+                    ascii(new DateTime(second * 1000L, DateTimeZone.UTC).toString("yyyy-MM-dd'T'HH:mm:ss.")));
+            lastTimestampPrefix = prefix;
+        }
+        int size = append(target, position, RECEIVED_AT_FIELD);
+        size = append(target, size, prefix.bytes);
+        final int millisOfSecond = (int) Math.floorMod(millis, 1000L);
+        target[size++] = (byte) ('0' + millisOfSecond / 100);
+        target[size++] = (byte) ('0' + millisOfSecond / 10 % 10);
+        target[size++] = (byte) ('0' + millisOfSecond % 10);
+        target[size++] = 'Z';
+        target[size++] = '"';
+        return size;
     }
 
-    private void setReceivedAt(final JSONObject metadata) {
-        final DateTime dateTime = new DateTime(DateTimeZone.UTC);
-        metadata.put("received_at", dateTime.toString());
+    /**
+     * Copies opening brace and members of compact metadata object, that are not going to be set by enrichment.
+     *
+     * @return number of bytes written or -1 if metadata can not be processed without parsing.
+     */
+    private static int copyMembers(
+            final byte[] source, final byte[] target, final JSONObject metadata, final boolean setFlowId) {
+        if (!hasOverriddenMembers(metadata, setFlowId)) {
+            // The most common case: all the members are kept, so only the closing brace is left out
+            System.arraycopy(source, 0, target, 0, source.length - 1);
+            return source.length - 1;
+        }
+        int size = 0;
+        target[size++] = '{';
+        int pos = 1;
+        while (source[pos] != '}') {
+            final int nameEnd = skipString(source, pos);
+            final int memberEnd = skipValue(source, nameEnd + 1);
+            for (int i = pos + 1; i < nameEnd - 1; ++i) {
+                if (source[i] == '\\') {
+                    return -1;
+                }
+            }
+            if (!isOverridden(source, pos + 1, nameEnd - 1, setFlowId)) {
+                if (size > 1) {
+                    target[size++] = ',';
+                }
+                System.arraycopy(source, pos, target, size, memberEnd - pos);
+                size += memberEnd - pos;
+            }
+            pos = source[memberEnd] == ',' ? memberEnd + 1 : memberEnd;
+        }
+        return size;
     }
 
-    public void setPartition(final JSONObject metadata, final BatchItem batchItem) {
-        metadata.put("partition", batchItem.getPartition());
+    private static boolean hasOverriddenMembers(final JSONObject metadata, final boolean setFlowId) {
+        return metadata.has(PUBLISHED_BY) || metadata.has(RECEIVED_AT) || metadata.has(EVENT_TYPE) ||
+                metadata.has(PARTITION) || metadata.has(VERSION) || (setFlowId && metadata.has(FLOW_ID));
+    }
+
+    private static boolean isOverridden(final byte[] source, final int from, final int to, final boolean setFlowId) {
+        for (final byte[] name : ALWAYS_SET) {
+            if (Arrays.equals(source, from, to, name, 0, name.length)) {
+                return true;
+            }
+        }
+        return setFlowId && Arrays.equals(source, from, to, FLOW_ID_BYTES, 0, FLOW_ID_BYTES.length);
+    }
+
+    /**
+     * @return position right after the closing quote of the string, that starts at {@code position}.
+     */
+    private static int skipString(final byte[] source, final int position) {
+        int pos = position + 1;
+        while (source[pos] != '"') {
+            pos += source[pos] == '\\' ? 2 : 1;
+        }
+        return pos + 1;
+    }
+
+    /**
+     * @return position of the comma or closing brace, that follows the value starting at {@code position}.
+     */
+    private static int skipValue(final byte[] source, final int position) {
+        int depth = 0;
+        int pos = position;
+        while (true) {
+            final byte current = source[pos];
+            if (current == '"') {
+                pos = skipString(source, pos);
+                continue;
+            }
+            if (current == '{' || current == '[') {
+                ++depth;
+            } else if (current == '}' || current == ']') {
+                if (depth == 0) {
+                    return pos;
+                }
+                --depth;
+            } else if (current == ',' && depth == 0) {
+                return pos;
+            }
+            ++pos;
+        }
+    }
+
+    private static int append(final byte[] target, final int position, final byte[] value) {
+        System.arraycopy(value, 0, target, position, value.length);
+        return position + value.length;
+    }
+
+    private static byte[] encodeField(final String name, final String value) {
+        return encodeFieldString(name, value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String encodeFieldString(final String name, final String value) {
+        return '"' + name + "\":" + JSONObject.quote(value);
+    }
+
+    private static byte[] ascii(final String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static class EncodedValue {
+        private final String first;
+        private final String second;
+        private final byte[] bytes;
+
+        private EncodedValue(final String first, final String second, final byte[] bytes) {
+            this.first = first;
+            this.second = second;
+            this.bytes = bytes;
+        }
+
+        private boolean matches(final String first, final String second) {
+            return this.first.equals(first) && this.second.equals(second);
+        }
+    }
+
+    private static class TimestampPrefix {
+        private final long second;
+        private final byte[] bytes;
+
+        private TimestampPrefix(final long second, final byte[] bytes) {
+            this.second = second;
+            this.bytes = bytes;
+        }
     }
 }
@@ -9,11 +9,14 @@ import org.zalando.nakadi.metrics.MetricUtils;
 import org.zalando.nakadi.plugin.api.authz.AuthorizationService;
 import org.zalando.nakadi.plugin.api.authz.Subject;
 
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class MonitoringRequestFilter extends OncePerRequestFilter {
 
@@ -48,13 +51,55 @@ public class MonitoringRequestFilter extends OncePerRequestFilter {
                 request.getServletPath());
         final Timer.Context perPathTimerContext = perPathMetricRegistry.timer(perPathMetricKey).time();
 
+        final Runnable stopMeasuring = new Runnable() {
+            private final AtomicBoolean stopped = new AtomicBoolean(false);
+
+            @Override
+            public void run() {
+                if (stopped.compareAndSet(false, true)) {
+                    perPathTimerContext.stop();
+                    timerContext.stop();
+                    openHttpConnectionsCounter.dec();
+                }
+            }
+        };
         try {
             filterChain.doFilter(request, response);
         } finally {
-            perPathTimerContext.stop();
-            timerContext.stop();
-            openHttpConnectionsCounter.dec();
+            if (request.isAsyncStarted()) {
+                // Response of async request (e.g. publishing) is written only after the request thread is released,
+                // so the request is measured until the async processing is completed
+                request.getAsyncContext().addListener(new CompletionListener(stopMeasuring));
+            } else {
+                stopMeasuring.run();
+            }
+        }
+    }
+
+    private static class CompletionListener implements AsyncListener {
+        private final Runnable onCompletion;
+
+        private CompletionListener(final Runnable onCompletion) {
+            this.onCompletion = onCompletion;
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            onCompletion.run();
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            onCompletion.run();
         }
 
+        @Override
+        public void onError(final AsyncEvent event) {
+            onCompletion.run();
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+        }
     }
 }
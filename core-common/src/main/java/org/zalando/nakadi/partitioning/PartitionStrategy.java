@@ -13,6 +13,9 @@ public interface PartitionStrategy {
     String USER_DEFINED_STRATEGY = "user_defined";
     String RANDOM_STRATEGY = "random";
 
+    /**
+     * @param partitions Partitions of the event type, sorted in natural order
+     */
     String calculatePartition(EventType eventType, JSONObject event, List<String> partitions)
             throws PartitioningException;
 }
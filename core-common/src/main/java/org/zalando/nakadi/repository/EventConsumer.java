@@ -15,6 +15,15 @@ public interface EventConsumer extends Closeable {
 
     List<ConsumedEvent> readEvents();
 
+    /**
+     * Reads events waiting for them not longer than timeout. Zero timeout allows to check for available data without
+     * blocking the calling thread.
+     *
+     * @param timeoutMs Maximum time to wait for events in milliseconds.
+     * @return List of consumed events, possibly empty.
+     */
+    List<ConsumedEvent> readEvents(long timeoutMs);
+
     interface LowLevelConsumer extends EventConsumer {
         Set<TopicPartition> getAssignment();
     }
@@ -13,6 +13,7 @@ import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
 import org.zalando.nakadi.exceptions.runtime.TopicRepositoryException;
 import org.zalando.nakadi.repository.kafka.KafkaFactory;
 import org.zalando.nakadi.repository.kafka.KafkaLocationManager;
+import org.zalando.nakadi.repository.kafka.KafkaProducerProfiles;
 import org.zalando.nakadi.repository.kafka.KafkaSettings;
 import org.zalando.nakadi.repository.kafka.KafkaTopicConfigFactory;
 import org.zalando.nakadi.repository.kafka.KafkaTopicRepository;
@@ -29,6 +30,7 @@ public class KafkaRepositoryCreator implements TopicRepositoryCreator {
 
     private final NakadiSettings nakadiSettings;
     private final KafkaSettings kafkaSettings;
+    private final KafkaProducerProfiles kafkaProducerProfiles;
     private final ZookeeperSettings zookeeperSettings;
     private final KafkaTopicConfigFactory kafkaTopicConfigFactory;
     private final MetricRegistry metricRegistry;
@@ -38,12 +40,14 @@ public class KafkaRepositoryCreator implements TopicRepositoryCreator {
     public KafkaRepositoryCreator(
             final NakadiSettings nakadiSettings,
             final KafkaSettings kafkaSettings,
+            final KafkaProducerProfiles kafkaProducerProfiles,
             final ZookeeperSettings zookeeperSettings,
             final KafkaTopicConfigFactory kafkaTopicConfigFactory,
             final MetricRegistry metricRegistry,
             final ObjectMapper objectMapper) {
         this.nakadiSettings = nakadiSettings;
         this.kafkaSettings = kafkaSettings;
+        this.kafkaProducerProfiles = kafkaProducerProfiles;
         this.zookeeperSettings = zookeeperSettings;
         this.kafkaTopicConfigFactory = kafkaTopicConfigFactory;
         this.metricRegistry = metricRegistry;
@@ -60,8 +64,8 @@ public class KafkaRepositoryCreator implements TopicRepositoryCreator {
                     zookeeperSettings.getZkConnectionTimeoutMs(),
                     nakadiSettings);
             final KafkaLocationManager kafkaLocationManager = new KafkaLocationManager(zooKeeperHolder, kafkaSettings);
-            final KafkaFactory kafkaFactory =
-                    new KafkaFactory(new KafkaLocationManager(zooKeeperHolder, kafkaSettings), metricRegistry);
+            final KafkaFactory kafkaFactory = new KafkaFactory(new KafkaLocationManager(zooKeeperHolder, kafkaSettings),
+                    metricRegistry, kafkaSettings.getProducerPoolSize(), kafkaProducerProfiles);
             final KafkaZookeeper zk = new KafkaZookeeper(zooKeeperHolder, objectMapper);
             final KafkaTopicRepository kafkaTopicRepository =
                     new KafkaTopicRepository.Builder()
@@ -75,7 +79,12 @@ public class KafkaRepositoryCreator implements TopicRepositoryCreator {
                             .setMetricRegistry(metricRegistry)
                             .build();
             // check that it does work
-            kafkaTopicRepository.listTopics();
+            try {
+                kafkaTopicRepository.listTopics();
+            } catch (final RuntimeException e) {
+                kafkaTopicRepository.close();
+                throw e;
+            }
             return kafkaTopicRepository;
         } catch (final Exception e) {
             throw new TopicRepositoryException("Could not create topic repository", e);
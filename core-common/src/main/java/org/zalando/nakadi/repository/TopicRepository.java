@@ -20,6 +20,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface TopicRepository {
 
@@ -50,6 +51,16 @@ public interface TopicRepository {
     void syncPostBatch(String topicId, List<BatchItem> batch, String eventTypeName, boolean delete)
             throws EventPublishingException;
 
+    /**
+     * Publishes batch without waiting for acknowledgements from the storage.
+     *
+     * @return Future, that is completed when all the events in batch are acknowledged by storage or when publishing
+     * failed. In case of failure future is completed exceptionally with {@link EventPublishingException}.
+     * @throws EventPublishingException In case if it is clear right away that publishing is not possible.
+     */
+    CompletableFuture<Void> asyncPostBatch(String topicId, List<BatchItem> batch, String eventTypeName, boolean delete)
+            throws EventPublishingException;
+
     void repartition(String topic, int partitionsNumber) throws CannotAddPartitionToTopicException,
             TopicConfigException;
 
@@ -73,6 +84,21 @@ public interface TopicRepository {
     List<PartitionEndStatistics> loadTopicEndStatistics(Collection<Timeline> topics)
             throws ServiceTemporarilyUnavailableException;
 
+    /**
+     * Same as {@link #loadTopicStatistics(Collection)}, but statistics may be taken from node-wide cache, and
+     * therefore be outdated for a short time. Must not be used when exact offsets are required (e.g. for timelines
+     * switch), is intended for statistics that are only shown to users.
+     */
+    List<PartitionStatistics> loadCachedTopicStatistics(Collection<Timeline> timelines)
+            throws ServiceTemporarilyUnavailableException;
+
+    /**
+     * Same as {@link #loadTopicEndStatistics(Collection)}, but statistics may be taken from node-wide cache, with
+     * the same restrictions as for {@link #loadCachedTopicStatistics(Collection)}.
+     */
+    List<PartitionEndStatistics> loadCachedTopicEndStatistics(Collection<Timeline> topics)
+            throws ServiceTemporarilyUnavailableException;
+
     List<String> listPartitionNames(String topicId);
 
     /**
@@ -85,8 +111,27 @@ public interface TopicRepository {
     EventConsumer.LowLevelConsumer createEventConsumer(String clientId, List<NakadiCursor> positions)
             throws InvalidCursorException;
 
+    /**
+     * Creates consumer that reads partitions together with other consumers of the node, positioned at the same
+     * offsets, if it is enabled for the storage. Otherwise works as {@link #createEventConsumer(String, List)}.
+     */
+    EventConsumer.LowLevelConsumer createSharedEventConsumer(String clientId, List<NakadiCursor> positions)
+            throws InvalidCursorException;
+
     void validateReadCursors(List<NakadiCursor> cursors) throws InvalidCursorException,
             ServiceTemporarilyUnavailableException;
 
+    /**
+     * Returns timestamps of the events that are following the positions. Positions for which the event can not be read
+     * within a short time (including the positions that are the last ones in their timelines) are absent in result.
+     */
+    Map<NakadiCursor, Long> getNextEventTimestamps(Collection<NakadiCursor> positions);
+
     void updateTopicConfig(String topic, Long retentionMs, CleanupPolicy cleanupPolicy) throws TopicConfigException;
+
+    /**
+     * Releases resources held by the repository. The repository can not be used after it is closed.
+     */
+    default void close() {
+    }
 }
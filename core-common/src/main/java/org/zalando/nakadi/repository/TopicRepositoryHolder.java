@@ -1,5 +1,6 @@
 package org.zalando.nakadi.repository;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +14,7 @@ import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
 import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableException;
 import org.zalando.nakadi.exceptions.runtime.TopicRepositoryException;
 
+import javax.annotation.PreDestroy;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -30,31 +32,38 @@ public class TopicRepositoryHolder {
     private static final Logger LOG = LoggerFactory.getLogger(TopicRepositoryHolder.class);
 
     private final Map<Storage.Type, TopicRepositoryCreator> repositoryCreators;
-    private final Map<Storage, TopicRepository> storageTopicRepository;
+    // Immutable snapshot, that is replaced (under lock) when repository for new storage is created. Storages are
+    // added very rarely, while lookups are made on every publish and stream, therefore lookups are not locking.
+    private volatile Map<Storage, TopicRepository> storageTopicRepository;
 
-    private final Lock lock = new ReentrantLock();
+    @VisibleForTesting
+    final Lock lock = new ReentrantLock();
     private final Condition loadingListChanged = lock.newCondition();
     private final Set<Storage> storagesBeingLoaded = new HashSet<>();
 
     @Autowired
     public TopicRepositoryHolder(@Qualifier("kafka") final TopicRepositoryCreator kafkaRepository) {
 
-        this.storageTopicRepository = new HashMap<>();
+        this.storageTopicRepository = Collections.emptyMap();
         this.repositoryCreators = new HashMap<>();
         this.repositoryCreators.put(kafkaRepository.getSupportedStorageType(), kafkaRepository);
     }
 
     public TopicRepository getTopicRepository(final Storage storage) throws TopicRepositoryException {
+        final TopicRepository topicRepository = storageTopicRepository.get(storage);
+        if (topicRepository != null) {
+            return topicRepository;
+        }
+        return createTopicRepository(storage);
+    }
+
+    private TopicRepository createTopicRepository(final Storage storage) throws TopicRepositoryException {
         lock.lock();
         try {
-            TopicRepository topicRepository = storageTopicRepository.get(storage);
-            if (topicRepository != null) {
-                return topicRepository;
-            }
             while (storagesBeingLoaded.contains(storage)) {
                 loadingListChanged.await();
             }
-            topicRepository = storageTopicRepository.get(storage);
+            final TopicRepository topicRepository = storageTopicRepository.get(storage);
             if (null != topicRepository) {
                 return topicRepository;
             }
@@ -74,7 +83,9 @@ public class TopicRepositoryHolder {
             lock.lock();
             try {
                 if (null != created) {
-                    storageTopicRepository.put(storage, created);
+                    final Map<Storage, TopicRepository> updated = new HashMap<>(storageTopicRepository);
+                    updated.put(storage, created);
+                    storageTopicRepository = Collections.unmodifiableMap(updated);
                 }
                 storagesBeingLoaded.remove(storage);
                 loadingListChanged.signalAll();
@@ -84,6 +95,17 @@ public class TopicRepositoryHolder {
         }
     }
 
+    @PreDestroy
+    public void close() {
+        for (final TopicRepository topicRepository : storageTopicRepository.values()) {
+            try {
+                topicRepository.close();
+            } catch (final RuntimeException e) {
+                LOG.warn("Failed to close topic repository", e);
+            }
+        }
+    }
+
     public Timeline.StoragePosition createStoragePosition(final Timeline timeline) {
         try {
             final Storage storage = timeline.getStorage();
@@ -0,0 +1,173 @@
+package org.zalando.nakadi.repository.kafka;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Reads timestamps of events at given positions. All the positions of a request are read in one go by one kafka
+ * consumer, reading only the first event of each partition. Consumers are taken from a small pool, so that
+ * concurrent requests are not waiting for each other's polls, and the number of consumers per node stays bounded -
+ * if all of them are busy for longer than read timeout, timestamps are not read. Timestamps are cached for a short
+ * time, so that subscriptions of the same event type, that are positioned at the same offsets, do not read them
+ * again.
+ */
+class KafkaEventTimestampReader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KafkaEventTimestampReader.class);
+    private static final long CACHE_TTL_MS = 5000;
+    private static final long CACHE_MAX_SIZE = 100_000;
+
+    private final Supplier<Consumer<byte[], byte[]>> consumerFactory;
+    private final long readTimeoutMs;
+    private final Cache<KafkaCursor, Long> timestamps;
+    // Permits to use a consumer, so that at most poolSize consumers exist at a time
+    private final Semaphore consumerPermits;
+    private final BlockingQueue<Consumer<byte[], byte[]>> idleConsumers;
+    private volatile boolean closed;
+
+    KafkaEventTimestampReader(
+            final Supplier<Consumer<byte[], byte[]>> consumerFactory,
+            final long readTimeoutMs,
+            final int poolSize) {
+        this.consumerFactory = consumerFactory;
+        this.readTimeoutMs = readTimeoutMs;
+        this.consumerPermits = new Semaphore(poolSize);
+        this.idleConsumers = new ArrayBlockingQueue<>(poolSize);
+        this.timestamps = CacheBuilder.newBuilder()
+                .expireAfterWrite(CACHE_TTL_MS, TimeUnit.MILLISECONDS)
+                .maximumSize(CACHE_MAX_SIZE)
+                .build();
+    }
+
+    /**
+     * @return Timestamps of events at positions. Positions that can not be read within timeout (there is no event
+     * yet or it was already removed) are absent in result.
+     */
+    Map<KafkaCursor, Long> getTimestamps(final Collection<KafkaCursor> positions) {
+        final Map<KafkaCursor, Long> result = new HashMap<>();
+        final Map<TopicPartition, KafkaCursor> toRead = new HashMap<>();
+        for (final KafkaCursor position : positions) {
+            final Long cached = timestamps.getIfPresent(position);
+            if (null != cached) {
+                result.put(position, cached);
+            } else {
+                // In case if several positions of the same partition are requested, only one of them is read
+                toRead.putIfAbsent(new TopicPartition(position.getTopic(), position.getPartition()), position);
+            }
+        }
+        if (!toRead.isEmpty()) {
+            read(toRead).forEach((position, timestamp) -> {
+                timestamps.put(position, timestamp);
+                result.put(position, timestamp);
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Closes idle consumers. Consumers that are in use at the moment are closed when returned.
+     */
+    void close() {
+        closed = true;
+        closeIdleConsumers();
+    }
+
+    private Map<KafkaCursor, Long> read(final Map<TopicPartition, KafkaCursor> toRead) {
+        try {
+            if (!consumerPermits.tryAcquire(readTimeoutMs, TimeUnit.MILLISECONDS)) {
+                LOG.warn("All the consumers are busy, not reading timestamps of {} partitions", toRead.size());
+                return Collections.emptyMap();
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyMap();
+        }
+        Consumer<byte[], byte[]> consumer = idleConsumers.poll();
+        try {
+            if (null == consumer) {
+                consumer = consumerFactory.get();
+            }
+            final Map<KafkaCursor, Long> result = read(consumer, toRead);
+            if (closed || !idleConsumers.offer(consumer)) {
+                closeConsumer(consumer);
+            } else if (closed) {
+                // Reader was closed while the consumer was returned
+                closeIdleConsumers();
+            }
+            return result;
+        } catch (final RuntimeException ex) {
+            LOG.warn("Failed to read event timestamps, recreating consumer", ex);
+            closeConsumer(consumer);
+            return Collections.emptyMap();
+        } finally {
+            consumerPermits.release();
+        }
+    }
+
+    private Map<KafkaCursor, Long> read(
+            final Consumer<byte[], byte[]> consumer, final Map<TopicPartition, KafkaCursor> toRead) {
+        final Map<KafkaCursor, Long> result = new HashMap<>();
+        final Map<TopicPartition, KafkaCursor> remaining = new HashMap<>(toRead);
+        consumer.assign(new ArrayList<>(remaining.keySet()));
+        remaining.forEach((tp, position) -> consumer.seek(tp, position.getOffset()));
+
+        final long deadline = System.currentTimeMillis() + readTimeoutMs;
+        long timeLeftMs = readTimeoutMs;
+        while (!remaining.isEmpty() && timeLeftMs > 0) {
+            final ConsumerRecords<byte[], byte[]> records = consumer.poll(timeLeftMs);
+            for (final TopicPartition tp : records.partitions()) {
+                final KafkaCursor position = remaining.get(tp);
+                if (null == position) {
+                    continue;
+                }
+                for (final ConsumerRecord<byte[], byte[]> record : records.records(tp)) {
+                    if (record.offset() >= position.getOffset()) {
+                        result.put(position, record.timestamp());
+                        remaining.remove(tp);
+                        // Partition is not fetched anymore, so that next polls bring data of other partitions
+                        consumer.pause(Collections.singleton(tp));
+                        break;
+                    }
+                }
+            }
+            timeLeftMs = deadline - System.currentTimeMillis();
+        }
+        consumer.assign(Collections.emptyList());
+        return result;
+    }
+
+    private void closeIdleConsumers() {
+        final List<Consumer<byte[], byte[]>> consumers = new ArrayList<>();
+        idleConsumers.drainTo(consumers);
+        consumers.forEach(KafkaEventTimestampReader::closeConsumer);
+    }
+
+    private static void closeConsumer(@Nullable final Consumer<byte[], byte[]> consumer) {
+        if (null != consumer) {
+            try {
+                consumer.close();
+            } catch (final RuntimeException ex) {
+                LOG.warn("Failed to close consumer", ex);
+            }
+        }
+    }
+}
@@ -15,14 +15,13 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class KafkaFactory {
 
@@ -30,111 +29,235 @@ public class KafkaFactory {
     private final KafkaLocationManager kafkaLocationManager;
     private final Counter useCountMetric;
     private final Counter producerTerminations;
-    private final Map<Producer<String, String>, AtomicInteger> useCount = new ConcurrentHashMap<>();
-    private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
-    @Nullable
-    private Producer<String, String> activeProducer;
+    private final KafkaProducerProfiles producerProfiles;
+    private final ProducerSlot[] slots;
+    private final Map<String, ProducerSlot[]> profileSlots = new HashMap<>();
+    private final Map<Producer<String, byte[]>, ProducerHolder> holders = new ConcurrentHashMap<>();
 
     public KafkaFactory(final KafkaLocationManager kafkaLocationManager, final MetricRegistry metricRegistry) {
+        this(kafkaLocationManager, metricRegistry, 1);
+    }
+
+    public KafkaFactory(final KafkaLocationManager kafkaLocationManager, final MetricRegistry metricRegistry,
+                        final int producerPoolSize) {
+        this(kafkaLocationManager, metricRegistry, producerPoolSize, new KafkaProducerProfiles());
+    }
+
+    /**
+     * @param producerProfiles Producer profiles, each of the profiles has its own pool of {@code producerPoolSize}
+     *                         producers.
+     */
+    public KafkaFactory(final KafkaLocationManager kafkaLocationManager, final MetricRegistry metricRegistry,
+                        final int producerPoolSize, final KafkaProducerProfiles producerProfiles) {
         this.kafkaLocationManager = kafkaLocationManager;
+        this.producerProfiles = producerProfiles;
         this.useCountMetric = metricRegistry.counter("kafka.producer.use_count");
         this.producerTerminations = metricRegistry.counter("kafka.producer.termination_count");
-    }
-
-    @Nullable
-    private Producer<String, String> takeUnderLock(final boolean canCreate) {
-        final Lock lock = canCreate ? rwLock.writeLock() : rwLock.readLock();
-        lock.lock();
-        try {
-            if (null != activeProducer) {
-                useCount.get(activeProducer).incrementAndGet();
-                return activeProducer;
-            } else if (canCreate) {
-                activeProducer = createProducerInstance();
-                useCount.put(activeProducer, new AtomicInteger(1));
-                LOG.info("New producer instance created: " + activeProducer);
-                return activeProducer;
-            } else {
-                return null;
+        for (final String profile : producerProfiles.getProfileNames()) {
+            // Metric names of default profile are kept as they were before profiles were introduced
+            final String metricPrefix = KafkaProducerProfiles.DEFAULT_PROFILE.equals(profile) ?
+                    "kafka.producer" : MetricRegistry.name("kafka.producer", profile);
+            final ProducerSlot[] profilePool = new ProducerSlot[Math.max(1, producerPoolSize)];
+            for (int i = 0; i < profilePool.length; ++i) {
+                profilePool[i] = new ProducerSlot(profile, i,
+                        metricRegistry.counter(MetricRegistry.name(metricPrefix, String.valueOf(i), "use_count")),
+                        metricRegistry.counter(
+                                MetricRegistry.name(metricPrefix, String.valueOf(i), "termination_count")));
             }
-        } finally {
-            lock.unlock();
+            profileSlots.put(profile, profilePool);
         }
+        this.slots = profileSlots.get(KafkaProducerProfiles.DEFAULT_PROFILE);
     }
 
-    protected Producer<String, String> createProducerInstance() {
-        return new KafkaProducerCrutch(kafkaLocationManager.getKafkaProducerProperties(),
+    protected Producer<String, byte[]> createProducerInstance(@Nullable final KafkaProducerProfiles.Profile profile) {
+        return new KafkaProducerCrutch(kafkaLocationManager.getKafkaProducerProperties(profile),
                 new KafkaCrutch(kafkaLocationManager));
     }
 
+    public int getProducerPoolSize() {
+        return slots.length;
+    }
+
     /**
      * Takes producer from producer cache. Every producer, that was received by this method must be released with
      * {@link #releaseProducer(Producer)} method.
+     * Same as {@link #takeProducer(String)}, but always uses the first producer of the pool.
      *
      * @return Initialized kafka producer instance.
      */
-    public Producer<String, String> takeProducer() {
-        Producer<String, String> result = takeUnderLock(false);
-        if (null == result) {
-            result = takeUnderLock(true);
-        }
-        useCountMetric.inc();
-        return result;
+    public Producer<String, byte[]> takeProducer() {
+        return takeProducer(slots[0]);
     }
 
     /**
-     * Release kafka producer that was obtained by {@link #takeProducer()} method. If producer was not obtained by
-     * {@link #takeProducer()} call - method will throw {@link NullPointerException}
+     * Takes producer from producer cache. Producers are sharded by topic, so all the events of a topic are sent
+     * through the same producer, while different topics are spread over the pool. Every producer, that was received
+     * by this method must be released with {@link #releaseProducer(Producer)} method.
      *
-     * @param producer Producer to release.
+     * @param topic Topic that is going to be used with the producer.
+     * @return Initialized kafka producer instance.
      */
-    public void releaseProducer(final Producer<String, String> producer) {
-        useCountMetric.dec();
-        final AtomicInteger counter = useCount.get(producer);
-        if (counter != null && 0 == counter.decrementAndGet()) {
-            final boolean deleteProducer;
-            rwLock.readLock().lock();
-            try {
-                deleteProducer = producer != activeProducer;
-            } finally {
-                rwLock.readLock().unlock();
+    public Producer<String, byte[]> takeProducer(final String topic) {
+        return takeProducer(slots[Math.floorMod(topic.hashCode(), slots.length)]);
+    }
+
+    /**
+     * Same as {@link #takeProducer(String)}, but the producer is taken from the pool of producer profile that is
+     * configured for the event type (compression, linger, batch size).
+     *
+     * @param topic     Topic that is going to be used with the producer.
+     * @param eventType Event type that is going to be published with the producer.
+     * @return Initialized kafka producer instance.
+     */
+    public Producer<String, byte[]> takeProducer(final String topic, final String eventType) {
+        final ProducerSlot[] pool = profileSlots.get(producerProfiles.getProfileName(eventType));
+        return takeProducer(pool[Math.floorMod(topic.hashCode(), pool.length)]);
+    }
+
+    private Producer<String, byte[]> takeProducer(final ProducerSlot slot) {
+        while (true) {
+            ProducerHolder holder = slot.active.get();
+            if (null == holder) {
+                holder = slot.createHolder();
             }
-            if (deleteProducer) {
-                rwLock.writeLock().lock();
-                try {
-                    if (counter.get() == 0 && null != useCount.remove(producer)) {
-                        LOG.info("Stopping producer instance - It was reported that instance should be refreshed " +
-                                "and it is not used anymore: " + producer);
-                        producer.close();
-                    }
-                } finally {
-                    rwLock.writeLock().unlock();
-                }
+            if (holder.tryAcquire()) {
+                useCountMetric.inc();
+                slot.useCountMetric.inc();
+                return holder.producer;
             }
+            // The holder was closed between reading and acquiring it, it is already replaced in the slot
         }
     }
 
+    /**
+     * Release kafka producer that was obtained by {@link #takeProducer(String)} method. If producer was not obtained
+     * by {@link #takeProducer(String)} call - method will throw {@link NullPointerException}
+     *
+     * @param producer Producer to release.
+     */
+    public void releaseProducer(final Producer<String, byte[]> producer) {
+        final ProducerHolder holder = holders.get(producer);
+        useCountMetric.dec();
+        holder.slot.useCountMetric.dec();
+        holder.release();
+    }
+
     /**
      * Notifies producer cache, that this producer should be marked as obsolete. All methods, that are using this
-     * producer instance right now can continue using it, but new calls to {@link #takeProducer()} will use some other
-     * producers.
-     * It is allowed to call this method only between {@link #takeProducer()} and {@link #releaseProducer(Producer)}
-     * method calls. (You can not terminate something that you do not own)
+     * producer instance right now can continue using it, but new calls to {@link #takeProducer(String)} will use some
+     * other producers. Only the producer itself is affected, other producers of the pool are kept.
+     * It is allowed to call this method only between {@link #takeProducer(String)} and
+     * {@link #releaseProducer(Producer)} method calls. (You can not terminate something that you do not own)
      *
      * @param producer Producer instance to terminate.
      */
-    public void terminateProducer(final Producer<String, String> producer) {
+    public void terminateProducer(final Producer<String, byte[]> producer) {
         LOG.info("Received signal to terminate producer " + producer);
-        rwLock.writeLock().lock();
-        try {
-            if (producer == this.activeProducer) {
-                producerTerminations.inc();
-                this.activeProducer = null;
-            } else {
-                LOG.info("Signal for producer termination already received: " + producer);
+        final ProducerHolder holder = holders.get(producer);
+        if (null == holder || !deactivate(holder)) {
+            LOG.info("Signal for producer termination already received: " + producer);
+        }
+    }
+
+    /**
+     * Marks producers, that are used for the topic in all the producer profiles, as obsolete (for example, in order
+     * to refresh topic metadata). Same as {@link #terminateProducer(Producer)}, the producers are closed once they
+     * are not used anymore.
+     *
+     * @param topic Topic to terminate producers for.
+     */
+    public void terminateProducers(final String topic) {
+        for (final ProducerSlot[] pool : profileSlots.values()) {
+            final ProducerHolder holder = pool[Math.floorMod(topic.hashCode(), pool.length)].active.get();
+            if (null != holder) {
+                LOG.info("Terminating producer {} used for topic {}", holder.producer, topic);
+                deactivate(holder);
+            }
+        }
+    }
+
+    private boolean deactivate(final ProducerHolder holder) {
+        if (!holder.slot.active.compareAndSet(holder, null)) {
+            return false;
+        }
+        producerTerminations.inc();
+        holder.slot.terminationsMetric.inc();
+        holder.terminate();
+        return true;
+    }
+
+    private class ProducerSlot {
+        private final String profile;
+        private final int index;
+        private final Counter useCountMetric;
+        private final Counter terminationsMetric;
+        private final AtomicReference<ProducerHolder> active = new AtomicReference<>();
+
+        private ProducerSlot(final String profile, final int index, final Counter useCountMetric,
+                             final Counter terminationsMetric) {
+            this.profile = profile;
+            this.index = index;
+            this.useCountMetric = useCountMetric;
+            this.terminationsMetric = terminationsMetric;
+        }
+
+        // Creation of kafka producer is expensive, therefore only creation is serialized, not the acquisition.
+        private synchronized ProducerHolder createHolder() {
+            ProducerHolder holder = active.get();
+            if (null == holder) {
+                holder = new ProducerHolder(this, createProducerInstance(producerProfiles.getProfile(profile)));
+                holders.put(holder.producer, holder);
+                active.set(holder);
+                LOG.info("New producer instance created in slot {} of profile {}: {}",
+                        index, profile, holder.producer);
+            }
+            return holder;
+        }
+    }
+
+    private class ProducerHolder {
+        private static final int CLOSED = -1;
+
+        private final ProducerSlot slot;
+        private final Producer<String, byte[]> producer;
+        private final AtomicInteger useCount = new AtomicInteger();
+        private volatile boolean terminated;
+
+        private ProducerHolder(final ProducerSlot slot, final Producer<String, byte[]> producer) {
+            this.slot = slot;
+            this.producer = producer;
+        }
+
+        private boolean tryAcquire() {
+            while (true) {
+                final int current = useCount.get();
+                if (current == CLOSED) {
+                    return false;
+                }
+                if (useCount.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void release() {
+            if (0 == useCount.decrementAndGet() && terminated) {
+                closeIfUnused();
+            }
+        }
+
+        private void terminate() {
+            terminated = true;
+            closeIfUnused();
+        }
+
+        private void closeIfUnused() {
+            if (useCount.compareAndSet(0, CLOSED)) {
+                holders.remove(producer);
+                LOG.info("Stopping producer instance - It was reported that instance should be refreshed " +
+                        "and it is not used anymore: " + producer);
+                producer.close();
             }
-        } finally {
-            rwLock.writeLock().unlock();
         }
     }
 
@@ -181,7 +304,7 @@ public class KafkaFactory {
         }
     }
 
-    public class KafkaProducerCrutch extends KafkaProducer<String, String> {
+    public class KafkaProducerCrutch extends KafkaProducer<String, byte[]> {
 
         private final KafkaCrutch kafkaCrutch;
 
@@ -191,7 +314,7 @@ public class KafkaFactory {
         }
 
         @Override
-        public Future<RecordMetadata> send(final ProducerRecord<String, String> record, final Callback callback) {
+        public Future<RecordMetadata> send(final ProducerRecord<String, byte[]> record, final Callback callback) {
             if (kafkaCrutch.brokerIpAddressChanged) {
                 throw new KafkaCrutchException("Kafka broker ip address changed, exiting");
             }
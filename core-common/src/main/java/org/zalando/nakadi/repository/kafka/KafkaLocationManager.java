@@ -12,9 +12,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zalando.nakadi.repository.zookeeper.ZooKeeperHolder;
 
+import javax.annotation.Nullable;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -27,6 +29,7 @@ public class KafkaLocationManager {
 
     private static final Logger LOG = LoggerFactory.getLogger(KafkaLocationManager.class);
     private static final String BROKERS_IDS_PATH = "/brokers/ids";
+    private static final String DEFAULT_COMPRESSION_TYPE = "lz4";
 
     private final ZooKeeperHolder zkFactory;
     private final Properties kafkaProperties;
@@ -117,17 +120,27 @@ public class KafkaLocationManager {
     }
 
     public Properties getKafkaProducerProperties() {
+        return getKafkaProducerProperties(null);
+    }
+
+    /**
+     * @param profile Producer profile, settings of which are overriding global ones
+     */
+    public Properties getKafkaProducerProperties(@Nullable final KafkaProducerProfiles.Profile profile) {
         final Properties producerProps = (Properties) kafkaProperties.clone();
         producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
                 "org.apache.kafka.common.serialization.StringSerializer");
         producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
-                "org.apache.kafka.common.serialization.StringSerializer");
+                "org.apache.kafka.common.serialization.ByteArraySerializer");
         producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
         producerProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, kafkaSettings.getRequestTimeoutMs());
         producerProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, kafkaSettings.getBufferMemory());
-        producerProps.put(ProducerConfig.BATCH_SIZE_CONFIG, kafkaSettings.getBatchSize());
-        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, kafkaSettings.getLingerMs());
-        producerProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        producerProps.put(ProducerConfig.BATCH_SIZE_CONFIG, Optional.ofNullable(profile)
+                .map(KafkaProducerProfiles.Profile::getBatchSize).orElse(kafkaSettings.getBatchSize()));
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, Optional.ofNullable(profile)
+                .map(KafkaProducerProfiles.Profile::getLingerMs).orElse(kafkaSettings.getLingerMs()));
+        producerProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, Optional.ofNullable(profile)
+                .map(KafkaProducerProfiles.Profile::getCompressionType).orElse(DEFAULT_COMPRESSION_TYPE));
         producerProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, kafkaSettings.getMaxRequestSize());
         producerProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, kafkaSettings.getDeliveryTimeoutMs());
         producerProps.put(ProducerConfig.RETRIES_CONFIG, 0);
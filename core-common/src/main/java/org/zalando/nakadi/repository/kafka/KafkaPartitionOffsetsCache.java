@@ -0,0 +1,246 @@
+package org.zalando.nakadi.repository.kafka;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Node-wide source of partition lists and begin/end offsets of kafka topics. Instead of creating a consumer for each
+ * request, all the lookups are made by one long-living consumer, that only sends metadata and list offsets requests
+ * (it never fetches data). On top of it:
+ * <ul>
+ *     <li>Concurrent lookups of the same partitions are coalesced, so that only one request is sent to kafka</li>
+ *     <li>Results are kept for maxStalenessMs, and are served from memory if caller allows outdated values</li>
+ * </ul>
+ */
+class KafkaPartitionOffsetsCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KafkaPartitionOffsetsCache.class);
+
+    static class Offsets {
+        private final long begin;
+        private final long end;
+
+        Offsets(final long begin, final long end) {
+            this.begin = begin;
+            this.end = end;
+        }
+
+        /**
+         * @return Offset of the first available event in partition
+         */
+        long getBegin() {
+            return begin;
+        }
+
+        /**
+         * @return Offset that will be given to the next published event
+         */
+        long getEnd() {
+            return end;
+        }
+    }
+
+    private static class Entry<V> {
+        private final long createdAt;
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+
+        private Entry(final long createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        private boolean isUsable(final boolean allowCached, final long now, final long maxStalenessMs) {
+            if (!future.isDone()) {
+                // Lookup is in progress, there is no sense to send one more request
+                return true;
+            }
+            return allowCached && !future.isCompletedExceptionally() && now - createdAt <= maxStalenessMs;
+        }
+    }
+
+    private final Supplier<Consumer<byte[], byte[]>> consumerFactory;
+    private final long maxStalenessMs;
+    private final ConcurrentMap<String, Entry<List<TopicPartition>>> partitions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<TopicPartition, Entry<Offsets>> offsets = new ConcurrentHashMap<>();
+    private final Meter hits;
+    private final Meter misses;
+    // guarded by this
+    @Nullable
+    private Consumer<byte[], byte[]> consumer;
+
+    KafkaPartitionOffsetsCache(
+            final Supplier<Consumer<byte[], byte[]>> consumerFactory,
+            final long maxStalenessMs,
+            final MetricRegistry metricRegistry) {
+        this.consumerFactory = consumerFactory;
+        this.maxStalenessMs = maxStalenessMs;
+        this.hits = metricRegistry.meter(MetricRegistry.name("kafka.offsets.cache", "hit"));
+        this.misses = metricRegistry.meter(MetricRegistry.name("kafka.offsets.cache", "miss"));
+    }
+
+    /**
+     * @param topics      Topics to get partitions for
+     * @param allowCached If partitions, that were loaded not earlier than maxStalenessMs ago, may be returned
+     * @return Partitions of each topic. Topics that do not exist have empty list of partitions.
+     */
+    Map<String, List<TopicPartition>> getPartitions(final Collection<String> topics, final boolean allowCached) {
+        return get(partitions, topics, allowCached, this::loadPartitions);
+    }
+
+    /**
+     * @param topicPartitions Partitions to get offsets for
+     * @param allowCached     If offsets, that were loaded not earlier than maxStalenessMs ago, may be returned
+     * @return Offsets of each requested partition
+     */
+    Map<TopicPartition, Offsets> getOffsets(final Collection<TopicPartition> topicPartitions,
+                                            final boolean allowCached) {
+        return get(offsets, topicPartitions, allowCached, this::loadOffsets);
+    }
+
+    /**
+     * Removes everything that is known about topic, so that next lookup goes to kafka.
+     */
+    void invalidate(final String topic) {
+        partitions.remove(topic);
+        offsets.keySet().removeIf(tp -> tp.topic().equals(topic));
+    }
+
+    /**
+     * Closes consumer, next lookup will create a new one (for example, with actual broker addresses).
+     */
+    synchronized void resetConsumer() {
+        if (null != consumer) {
+            try {
+                consumer.close();
+            } catch (final RuntimeException ex) {
+                LOG.warn("Failed to close consumer", ex);
+            }
+            consumer = null;
+        }
+    }
+
+    private <K, V> Map<K, V> get(
+            final ConcurrentMap<K, Entry<V>> cache,
+            final Collection<K> keys,
+            final boolean allowCached,
+            final Function<Set<K>, Map<K, V>> loader) {
+        final long now = System.currentTimeMillis();
+        final Map<K, Entry<V>> toWait = new HashMap<>();
+        final Map<K, Entry<V>> toLoad = new HashMap<>();
+        for (final K key : keys) {
+            final Entry<V> created = new Entry<>(now);
+            final Entry<V> actual = cache.compute(key, (k, existing) ->
+                    null != existing && existing.isUsable(allowCached, now, maxStalenessMs) ? existing : created);
+            if (actual == created) {
+                misses.mark();
+                toLoad.put(key, created);
+            } else {
+                hits.mark();
+            }
+            toWait.put(key, actual);
+        }
+
+        if (!toLoad.isEmpty()) {
+            load(cache, toLoad, loader);
+        }
+
+        final Map<K, V> result = new HashMap<>();
+        for (final Map.Entry<K, Entry<V>> item : toWait.entrySet()) {
+            try {
+                result.put(item.getKey(), item.getValue().future.join());
+            } catch (final CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                throw ex;
+            }
+        }
+        return result;
+    }
+
+    private <K, V> void load(
+            final ConcurrentMap<K, Entry<V>> cache,
+            final Map<K, Entry<V>> toLoad,
+            final Function<Set<K>, Map<K, V>> loader) {
+        try {
+            final Map<K, V> loaded = loader.apply(toLoad.keySet());
+            toLoad.forEach((key, entry) -> {
+                final V value = loaded.get(key);
+                if (null == value) {
+                    cache.remove(key, entry);
+                    entry.future.completeExceptionally(
+                            new UnknownTopicOrPartitionException("Failed to get offsets for " + key));
+                } else {
+                    entry.future.complete(value);
+                }
+            });
+        } catch (final RuntimeException ex) {
+            toLoad.forEach((key, entry) -> {
+                cache.remove(key, entry);
+                entry.future.completeExceptionally(ex);
+            });
+        }
+    }
+
+    private synchronized Map<String, List<TopicPartition>> loadPartitions(final Set<String> topics) {
+        try {
+            final Map<String, List<TopicPartition>> result = new HashMap<>();
+            for (final String topic : topics) {
+                final List<PartitionInfo> infos = getConsumer().partitionsFor(topic);
+                result.put(topic, null == infos ? Collections.emptyList() : infos.stream()
+                        .map(p -> new TopicPartition(p.topic(), p.partition()))
+                        .collect(Collectors.toList()));
+            }
+            return result;
+        } catch (final RuntimeException ex) {
+            resetConsumer();
+            throw ex;
+        }
+    }
+
+    private synchronized Map<TopicPartition, Offsets> loadOffsets(final Set<TopicPartition> topicPartitions) {
+        try {
+            final Map<TopicPartition, Long> begins = getConsumer().beginningOffsets(topicPartitions);
+            final Map<TopicPartition, Long> ends = getConsumer().endOffsets(topicPartitions);
+            final Map<TopicPartition, Offsets> result = new HashMap<>();
+            for (final TopicPartition tp : topicPartitions) {
+                final Long begin = begins.get(tp);
+                final Long end = ends.get(tp);
+                if (null != begin && null != end) {
+                    result.put(tp, new Offsets(begin, end));
+                }
+            }
+            return result;
+        } catch (final RuntimeException ex) {
+            resetConsumer();
+            throw ex;
+        }
+    }
+
+    private Consumer<byte[], byte[]> getConsumer() {
+        if (null == consumer) {
+            consumer = consumerFactory.get();
+        }
+        return consumer;
+    }
+}
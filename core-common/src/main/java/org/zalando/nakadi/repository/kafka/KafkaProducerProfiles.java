@@ -0,0 +1,115 @@
+package org.zalando.nakadi.repository.kafka;
+
+import org.apache.kafka.common.record.CompressionType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Named sets of kafka producer settings (compression, linger, batch size) and assignment of event types to them.
+ * Each profile gets its own producers, event types that are not assigned to any profile are published with
+ * {@link #DEFAULT_PROFILE}. Settings that are not set in a profile are taken from {@link KafkaSettings}.
+ * <p>
+ * Example:
+ * <pre>
+ * nakadi.kafka.producer:
+ *   profiles:
+ *     telemetry: { compression-type: zstd, linger-ms: 5, batch-size: 1048576 }
+ *     documents: { compression-type: gzip }
+ *   event-types:
+ *     some.telemetry.event-type: telemetry
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "nakadi.kafka.producer")
+public class KafkaProducerProfiles {
+
+    public static final String DEFAULT_PROFILE = "default";
+
+    public static class Profile {
+        private String compressionType;
+        private Integer lingerMs;
+        private Integer batchSize;
+
+        @Nullable
+        public String getCompressionType() {
+            return compressionType;
+        }
+
+        public void setCompressionType(final String compressionType) {
+            this.compressionType = compressionType;
+        }
+
+        @Nullable
+        public Integer getLingerMs() {
+            return lingerMs;
+        }
+
+        public void setLingerMs(final Integer lingerMs) {
+            this.lingerMs = lingerMs;
+        }
+
+        @Nullable
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(final Integer batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    private final Map<String, Profile> profiles = new HashMap<>();
+    private final Map<String, String> eventTypes = new HashMap<>();
+
+    public Map<String, Profile> getProfiles() {
+        return profiles;
+    }
+
+    public Map<String, String> getEventTypes() {
+        return eventTypes;
+    }
+
+    @PostConstruct
+    public void validate() {
+        profiles.forEach((name, profile) -> {
+            if (null != profile.getCompressionType()) {
+                // Fails on unknown codec right away, instead of failing on creation of the first producer
+                CompressionType.forName(profile.getCompressionType());
+            }
+        });
+        eventTypes.forEach((eventType, profile) -> {
+            if (!DEFAULT_PROFILE.equals(profile) && !profiles.containsKey(profile)) {
+                throw new IllegalArgumentException(
+                        "Producer profile " + profile + " of event type " + eventType + " is not defined");
+            }
+        });
+    }
+
+    /**
+     * @return Names of all profiles that producers may be created for, including {@link #DEFAULT_PROFILE}
+     */
+    public Set<String> getProfileNames() {
+        final Set<String> result = new HashSet<>(profiles.keySet());
+        result.add(DEFAULT_PROFILE);
+        return result;
+    }
+
+    public String getProfileName(final String eventType) {
+        return eventTypes.getOrDefault(eventType, DEFAULT_PROFILE);
+    }
+
+    /**
+     * @return Settings of the profile, or null if nothing is configured for the profile.
+     */
+    @Nullable
+    public Profile getProfile(final String profileName) {
+        return profiles.get(profileName);
+    }
+}
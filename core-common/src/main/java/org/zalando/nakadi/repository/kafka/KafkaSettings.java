@@ -22,6 +22,11 @@ public class KafkaSettings {
     private final int deliveryTimeoutMs;
     private final int maxBlockMs;
     private final String clientRack;
+    private final int producerPoolSize;
+    private final boolean sharedConsumerEnabled;
+    private final int sharedConsumerQueueSize;
+    private final long offsetsCacheMs;
+    private final int publishingCompletionThreads;
 
     @Autowired
     public KafkaSettings(@Value("${nakadi.kafka.request.timeout.ms}") final int requestTimeoutMs,
@@ -32,7 +37,13 @@ public class KafkaSettings {
                          @Value("${nakadi.kafka.max.request.size}") final int maxRequestSize,
                          @Value("${nakadi.kafka.delivery.timeout.ms}") final int deliveryTimeoutMs,
                          @Value("${nakadi.kafka.max.block.ms}") final int maxBlockMs,
-                         @Value("${nakadi.kafka.client.rack:}") final String clientRack) {
+                         @Value("${nakadi.kafka.client.rack:}") final String clientRack,
+                         @Value("${nakadi.kafka.producer.pool.size:1}") final int producerPoolSize,
+                         @Value("${nakadi.kafka.consumer.shared.enabled:false}") final boolean sharedConsumerEnabled,
+                         @Value("${nakadi.kafka.consumer.shared.queue.size:10000}") final int sharedConsumerQueueSize,
+                         @Value("${nakadi.kafka.offsets.cache.ms:1000}") final long offsetsCacheMs,
+                         @Value("${nakadi.kafka.producer.completion.threads:8}")
+                         final int publishingCompletionThreads) {
         this.requestTimeoutMs = requestTimeoutMs;
         this.batchSize = batchSize;
         this.bufferMemory = bufferMemory;
@@ -42,6 +53,11 @@ public class KafkaSettings {
         this.deliveryTimeoutMs = deliveryTimeoutMs;
         this.maxBlockMs = maxBlockMs;
         this.clientRack = clientRack;
+        this.producerPoolSize = producerPoolSize;
+        this.sharedConsumerEnabled = sharedConsumerEnabled;
+        this.sharedConsumerQueueSize = sharedConsumerQueueSize;
+        this.offsetsCacheMs = offsetsCacheMs;
+        this.publishingCompletionThreads = publishingCompletionThreads;
     }
 
     public int getRequestTimeoutMs() {
@@ -79,4 +95,24 @@ public class KafkaSettings {
     public String getClientRack() {
         return clientRack;
     }
+
+    public int getProducerPoolSize() {
+        return producerPoolSize;
+    }
+
+    public boolean isSharedConsumerEnabled() {
+        return sharedConsumerEnabled;
+    }
+
+    public int getSharedConsumerQueueSize() {
+        return sharedConsumerQueueSize;
+    }
+
+    public long getOffsetsCacheMs() {
+        return offsetsCacheMs;
+    }
+
+    public int getPublishingCompletionThreads() {
+        return publishingCompletionThreads;
+    }
 }
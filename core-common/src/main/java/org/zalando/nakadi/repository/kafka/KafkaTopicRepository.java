@@ -12,7 +12,6 @@ import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.config.ConfigResource;
 import org.apache.kafka.common.errors.InterruptException;
@@ -62,13 +61,17 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.Collections.unmodifiableList;
@@ -83,6 +86,8 @@ public class KafkaTopicRepository implements TopicRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(KafkaTopicRepository.class);
     private static final String HYSTRIX_SHORT_CIRCUIT_COUNTER = "hystrix.short.circuit.%s";
+    private static final long TIMESTAMP_READ_TIMEOUT_MS = 1000;
+    private static final int TIMESTAMP_READ_CONSUMERS = 4;
 
     private final KafkaZookeeper kafkaZookeeper;
     private final KafkaFactory kafkaFactory;
@@ -93,6 +98,13 @@ public class KafkaTopicRepository implements TopicRepository {
     private final KafkaTopicConfigFactory kafkaTopicConfigFactory;
     private final KafkaLocationManager kafkaLocationManager;
     private final MetricRegistry metricRegistry;
+    @Nullable
+    private final SharedKafkaFetcher sharedFetcher;
+    private final KafkaEventTimestampReader timestampReader;
+    private final KafkaPartitionOffsetsCache offsetsCache;
+    private final Runnable brokerIpAddressChangeListener;
+    // Completes publishing after acks are received: failure handling, metrics and dispatch of the http response
+    private final ExecutorService publishingCompletionExecutor;
 
     public KafkaTopicRepository(final Builder builder) {
         this.kafkaZookeeper = builder.kafkaZookeeper;
@@ -108,6 +120,50 @@ public class KafkaTopicRepository implements TopicRepository {
             this.circuitBreakers = builder.circuitBreakers;
         }
         this.metricRegistry = builder.metricRegistry;
+        if (null != kafkaSettings && kafkaSettings.isSharedConsumerEnabled()) {
+            this.sharedFetcher = new SharedKafkaFetcher(kafkaFactory::getConsumer,
+                    nakadiSettings.getKafkaPollTimeoutMs(), kafkaSettings.getSharedConsumerQueueSize());
+        } else {
+            this.sharedFetcher = null;
+        }
+        this.timestampReader = new KafkaEventTimestampReader(
+                () -> kafkaFactory.getConsumer(), TIMESTAMP_READ_TIMEOUT_MS, TIMESTAMP_READ_CONSUMERS);
+        this.offsetsCache = new KafkaPartitionOffsetsCache(
+                () -> kafkaFactory.getConsumer(),
+                null == kafkaSettings ? 0 : kafkaSettings.getOffsetsCacheMs(),
+                null == metricRegistry ? new MetricRegistry() : metricRegistry);
+        this.brokerIpAddressChangeListener = offsetsCache::resetConsumer;
+        if (null != kafkaLocationManager) {
+            kafkaLocationManager.addIpAddressChangeListener(brokerIpAddressChangeListener);
+        }
+        final int completionThreads = null == kafkaSettings ? 1 :
+                Math.max(1, kafkaSettings.getPublishingCompletionThreads());
+        final AtomicInteger completionThreadIdx = new AtomicInteger();
+        // After shutdown completion runs on the thread that received the acks, so that requests do not hang
+        this.publishingCompletionExecutor = new ThreadPoolExecutor(
+                completionThreads, completionThreads,
+                0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    final Thread thread = new Thread(
+                            r, "kafka-publishing-completion-" + completionThreadIdx.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, executor) -> task.run());
+    }
+
+    @Override
+    public void close() {
+        publishingCompletionExecutor.shutdown();
+        timestampReader.close();
+        if (null != kafkaLocationManager) {
+            kafkaLocationManager.removeIpAddressChangeListener(brokerIpAddressChangeListener);
+        }
+        offsetsCache.resetConsumer();
+        if (null != sharedFetcher) {
+            sharedFetcher.close();
+        }
     }
 
     public static class Builder {
@@ -172,7 +228,7 @@ public class KafkaTopicRepository implements TopicRepository {
     }
 
     private CompletableFuture<Exception> publishItem(
-            final Producer<String, String> producer,
+            final Producer<String, byte[]> producer,
             final String topicId,
             final String eventType,
             final BatchItem item,
@@ -180,11 +236,11 @@ public class KafkaTopicRepository implements TopicRepository {
             final boolean delete) throws EventPublishingException {
         try {
             final CompletableFuture<Exception> result = new CompletableFuture<>();
-            final ProducerRecord<String, String> kafkaRecord = new ProducerRecord<>(
+            final ProducerRecord<String, byte[]> kafkaRecord = new ProducerRecord<>(
                     topicId,
                     KafkaCursor.toKafkaPartition(item.getPartition()),
                     item.getEventKey(),
-                    delete ? null : item.dumpEventToString());
+                    delete ? null : item.dumpEventToBytes());
             if (null != item.getOwner()) {
                 item.getOwner().serialize(kafkaRecord);
             }
@@ -250,20 +306,17 @@ public class KafkaTopicRepository implements TopicRepository {
         try (AdminClient adminClient = AdminClient.create(kafkaLocationManager.getProperties())) {
             adminClient.createPartitions(ImmutableMap.of(topic, NewPartitions.increaseTo(partitionsNumber)));
             final long timeoutMillis = TimeUnit.SECONDS.toMillis(5);
-            final Boolean areNewPartitionsAdded = Retryer.executeWithRetry(() -> {
-                        try (Consumer<byte[], byte[]> consumer = kafkaFactory.getConsumer()) {
-                            return consumer.partitionsFor(topic).size() == partitionsNumber;
-                        }
-                    },
+            final Boolean areNewPartitionsAdded = Retryer.executeWithRetry(() ->
+                            offsetsCache.getPartitions(Collections.singleton(topic), false)
+                                    .get(topic).size() == partitionsNumber,
                     new RetryForSpecifiedTimeStrategy<Boolean>(timeoutMillis)
                             .withWaitBetweenEachTry(100L)
                             .withResultsThatForceRetry(Boolean.FALSE));
+            offsetsCache.invalidate(topic);
             if (!Boolean.TRUE.equals(areNewPartitionsAdded)) {
                 throw new TopicConfigException(String.format("Failed to repartition topic to %s", partitionsNumber));
             }
-            final Producer<String, String> producer = kafkaFactory.takeProducer();
-            kafkaFactory.terminateProducer(producer);
-            kafkaFactory.releaseProducer(producer);
+            kafkaFactory.terminateProducers(topic);
         } catch (Exception e) {
             throw new CannotAddPartitionToTopicException(String
                     .format("Failed to increase the number of partition for %s topic to %s", topic,
@@ -316,6 +369,7 @@ public class KafkaTopicRepository implements TopicRepository {
         try (AdminClient adminClient = AdminClient.create(kafkaLocationManager.getProperties())) {
             // this will only trigger topic deletion, but the actual deletion is asynchronous
             adminClient.deleteTopics(Lists.newArrayList(topic)).all().get(30, TimeUnit.SECONDS);
+            offsetsCache.invalidate(topic);
         } catch (final Exception e) {
             if (e instanceof InterruptedException) {
                 Thread.currentThread().interrupt();
@@ -335,87 +389,127 @@ public class KafkaTopicRepository implements TopicRepository {
     public void syncPostBatch(
             final String topicId, final List<BatchItem> batch, final String eventType, final boolean delete)
             throws EventPublishingException {
-        final Producer<String, String> producer = kafkaFactory.takeProducer();
         try {
-            final Map<String, String> partitionToBroker = producer.partitionsFor(topicId).stream()
-                    .filter(partitionInfo -> partitionInfo.leader() != null)
-                    .collect(
-                            Collectors.toMap(
-                                    p -> String.valueOf(p.partition()),
-                                    p -> p.leader().idString() + "_" + p.leader().host()));
-            batch.forEach(item -> {
-                Preconditions.checkNotNull(
-                        item.getPartition(), "BatchItem partition can't be null at the moment of publishing!");
-                item.setBrokerId(partitionToBroker.get(item.getPartition()));
-            });
-
-            int shortCircuited = 0;
-            final Set<String> shortCircuitedBrokerIds = new HashSet<>();
-            final Map<BatchItem, CompletableFuture<Exception>> sendFutures = new HashMap<>();
-            for (final BatchItem item : batch) {
-                final String brokerId = item.getBrokerId();
-                if (brokerId == null) {
-                    item.updateStatusAndDetail(EventPublishingStatus.FAILED,
-                            String.format("No leader for partition: %s, topic: %s.", item.getPartition(), topicId));
-                    LOG.error("Failed to publish to kafka. No leader for ({}:{}).",
-                            topicId, item.getPartition());
-                    continue;
-                }
-                item.setStep(EventPublishingStep.PUBLISHING);
-                final HystrixKafkaCircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(
-                        brokerId, _id -> new HystrixKafkaCircuitBreaker(brokerId));
-                if (circuitBreaker.attemptExecution()) {
-                    sendFutures.put(item, publishItem(producer, topicId, eventType, item, circuitBreaker, delete));
-                } else {
-                    shortCircuited++;
-                    shortCircuitedBrokerIds.add(brokerId);
-                    item.updateStatusAndDetail(EventPublishingStatus.FAILED, "short circuited");
-                    metricRegistry
-                            .meter(String.format(HYSTRIX_SHORT_CIRCUIT_COUNTER, brokerId))
-                            .mark();
-                }
-            }
-            if (shortCircuited > 0) {
-                final String brokerIdsString = shortCircuitedBrokerIds.stream()
-                        .sorted()
-                        .collect(Collectors.joining(", "));
-                LOG.warn("Short circuiting request to Kafka broker(s) {}: {} time(s) due to timeout for topic {} / {}",
-                        brokerIdsString, shortCircuited, topicId, eventType);
-            }
-            final CompletableFuture<Void> multiFuture = CompletableFuture.allOf(
-                    sendFutures.values().toArray(new CompletableFuture<?>[sendFutures.size()]));
-            multiFuture.get(createSendTimeout(), TimeUnit.MILLISECONDS);
-
-            // Now lets check for errors
-            final Optional<Exception> needReset = sendFutures.entrySet().stream()
-                    .filter(entry -> isExceptionShouldLeadToReset(entry.getValue().getNow(null)))
-                    .map(entry -> entry.getValue().getNow(null))
-                    .findAny();
-            if (needReset.isPresent()) {
-                LOG.info("Terminating producer while publishing to topic {} because of unrecoverable exception",
-                        topicId, needReset.get());
-                kafkaFactory.terminateProducer(producer);
-            }
-        } catch (final TimeoutException ex) {
-            kafkaFactory.terminateProducer(producer);
-            failUnpublished(batch, "timed out");
-            throw new EventPublishingException("Timeout publishing message to kafka", ex, topicId, eventType);
+            asyncPostBatch(topicId, batch, eventType, delete).get();
         } catch (final ExecutionException ex) {
+            if (ex.getCause() instanceof EventPublishingException) {
+                throw (EventPublishingException) ex.getCause();
+            }
             failUnpublished(batch, "internal error");
             throw new EventPublishingException("Internal error publishing message to kafka", ex, topicId, eventType);
         } catch (final InterruptedException ex) {
             Thread.currentThread().interrupt();
             failUnpublished(batch, "interrupted");
             throw new EventPublishingException("Interrupted publishing message to kafka", ex, topicId, eventType);
-        } finally {
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> asyncPostBatch(
+            final String topicId, final List<BatchItem> batch, final String eventType, final boolean delete)
+            throws EventPublishingException {
+        final Producer<String, byte[]> producer = kafkaFactory.takeProducer(topicId, eventType);
+        final Map<BatchItem, CompletableFuture<Exception>> sendFutures;
+        try {
+            sendFutures = sendBatch(producer, topicId, batch, eventType, delete);
+        } catch (final RuntimeException ex) {
             kafkaFactory.releaseProducer(producer);
+            throw ex;
+        }
+        // Acknowledgements are completed on kafka producer network thread, therefore the rest of the processing (and
+        // whatever is chained by the caller) is moved away from it to the dedicated pool.
+        return CompletableFuture.allOf(sendFutures.values().toArray(new CompletableFuture<?>[sendFutures.size()]))
+                .orTimeout(createSendTimeout(), TimeUnit.MILLISECONDS)
+                .handleAsync((ignore, ex) -> {
+                    try {
+                        if (null != ex) {
+                            final Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+                            if (cause instanceof TimeoutException) {
+                                kafkaFactory.terminateProducer(producer);
+                                failUnpublished(batch, "timed out");
+                                throw new EventPublishingException("Timeout publishing message to kafka",
+                                        (TimeoutException) cause, topicId, eventType);
+                            }
+                            failUnpublished(batch, "internal error");
+                            throw new EventPublishingException("Internal error publishing message to kafka",
+                                    new ExecutionException(cause), topicId, eventType);
+                        }
+                        // Now lets check for errors
+                        final Optional<Exception> needReset = sendFutures.values().stream()
+                                .filter(future -> isExceptionShouldLeadToReset(future.getNow(null)))
+                                .map(future -> future.getNow(null))
+                                .findAny();
+                        if (needReset.isPresent()) {
+                            LOG.info("Terminating producer while publishing to topic {} because of unrecoverable " +
+                                    "exception", topicId, needReset.get());
+                            kafkaFactory.terminateProducer(producer);
+                        }
+                    } finally {
+                        kafkaFactory.releaseProducer(producer);
+                    }
+                    final boolean atLeastOneFailed = batch.stream()
+                            .anyMatch(item -> item.getResponse().getPublishingStatus() == EventPublishingStatus.FAILED);
+                    if (atLeastOneFailed) {
+                        failUnpublished(batch, "internal error");
+                        throw new EventPublishingException(
+                                "Internal error publishing message to kafka", topicId, eventType);
+                    }
+                    return null;
+                }, publishingCompletionExecutor);
+    }
+
+    private Map<BatchItem, CompletableFuture<Exception>> sendBatch(
+            final Producer<String, byte[]> producer,
+            final String topicId,
+            final List<BatchItem> batch,
+            final String eventType,
+            final boolean delete) throws EventPublishingException {
+        final Map<String, String> partitionToBroker = producer.partitionsFor(topicId).stream()
+                .filter(partitionInfo -> partitionInfo.leader() != null)
+                .collect(
+                        Collectors.toMap(
+                                p -> String.valueOf(p.partition()),
+                                p -> p.leader().idString() + "_" + p.leader().host()));
+        batch.forEach(item -> {
+            Preconditions.checkNotNull(
+                    item.getPartition(), "BatchItem partition can't be null at the moment of publishing!");
+            item.setBrokerId(partitionToBroker.get(item.getPartition()));
+        });
+
+        int shortCircuited = 0;
+        final Set<String> shortCircuitedBrokerIds = new HashSet<>();
+        final Map<BatchItem, CompletableFuture<Exception>> sendFutures = new HashMap<>();
+        for (final BatchItem item : batch) {
+            final String brokerId = item.getBrokerId();
+            if (brokerId == null) {
+                item.updateStatusAndDetail(EventPublishingStatus.FAILED,
+                        String.format("No leader for partition: %s, topic: %s.", item.getPartition(), topicId));
+                LOG.error("Failed to publish to kafka. No leader for ({}:{}).",
+                        topicId, item.getPartition());
+                continue;
+            }
+            item.setStep(EventPublishingStep.PUBLISHING);
+            final HystrixKafkaCircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(
+                    brokerId, _id -> new HystrixKafkaCircuitBreaker(brokerId));
+            if (circuitBreaker.attemptExecution()) {
+                sendFutures.put(item, publishItem(producer, topicId, eventType, item, circuitBreaker, delete));
+            } else {
+                shortCircuited++;
+                shortCircuitedBrokerIds.add(brokerId);
+                item.updateStatusAndDetail(EventPublishingStatus.FAILED, "short circuited");
+                metricRegistry
+                        .meter(String.format(HYSTRIX_SHORT_CIRCUIT_COUNTER, brokerId))
+                        .mark();
+            }
         }
-        final boolean atLeastOneFailed = batch.stream()
-                .anyMatch(item -> item.getResponse().getPublishingStatus() == EventPublishingStatus.FAILED);
-        if (atLeastOneFailed) {
-            failUnpublished(batch, "internal error");
-            throw new EventPublishingException("Internal error publishing message to kafka", topicId, eventType);
+        if (shortCircuited > 0) {
+            final String brokerIdsString = shortCircuitedBrokerIds.stream()
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            LOG.warn("Short circuiting request to Kafka broker(s) {}: {} time(s) due to timeout for topic {} / {}",
+                    brokerIdsString, shortCircuited, topicId, eventType);
         }
+        return sendFutures;
     }
 
     private long createSendTimeout() {
@@ -476,54 +570,47 @@ public class KafkaTopicRepository implements TopicRepository {
 
     public List<Optional<PartitionStatistics>> loadPartitionStatisticsInternal(
             final Collection<TimelinePartition> partitions) {
-        final Map<String, Set<String>> topicToPartitions = partitions.stream().collect(
-                Collectors.groupingBy(
-                        tp -> tp.getTimeline().getTopic(),
-                        Collectors.mapping(TimelinePartition::getPartition, Collectors.toSet())
-                ));
-        try (Consumer<byte[], byte[]> consumer = kafkaFactory.getConsumer()) {
-            final List<PartitionInfo> allKafkaPartitions = topicToPartitions.keySet().stream()
-                    .map(consumer::partitionsFor)
-                    .flatMap(Collection::stream)
-                    .collect(Collectors.toList());
-            final List<TopicPartition> partitionsToQuery = allKafkaPartitions.stream()
-                    .filter(pi -> topicToPartitions.get(pi.topic())
-                            .contains(KafkaCursor.toNakadiPartition(pi.partition())))
-                    .map(pi -> new TopicPartition(pi.topic(), pi.partition()))
-                    .collect(Collectors.toList());
-
-            consumer.assign(partitionsToQuery);
-            consumer.seekToBeginning(partitionsToQuery);
-            final List<Long> begins = partitionsToQuery.stream().map(consumer::position).collect(toList());
-            consumer.seekToEnd(partitionsToQuery);
-            final List<Long> ends = partitionsToQuery.stream().map(consumer::position).collect(toList());
-
-            final List<Optional<PartitionStatistics>> result = new ArrayList<>(partitions.size());
-            for (final TimelinePartition tap : partitions) {
-                // Now search for an index.
-                final Optional<PartitionStatistics> itemResult = IntStream.range(0, partitionsToQuery.size())
-                        .filter(i -> {
-                            final TopicPartition info = partitionsToQuery.get(i);
-                            return info.topic().equals(tap.getTimeline().getTopic()) &&
-                                    info.partition() == KafkaCursor.toKafkaPartition(tap.getPartition());
-                        }).mapToObj(indexFound -> (PartitionStatistics) new KafkaPartitionStatistics(
-                                tap.getTimeline(),
-                                partitionsToQuery.get(indexFound).partition(),
-                                begins.get(indexFound),
-                                ends.get(indexFound) - 1L))
-                        .findAny();
-                result.add(itemResult);
-            }
-            return result;
+        final Map<TopicPartition, Timeline> backMap = new HashMap<>();
+        for (final TimelinePartition tap : partitions) {
+            backMap.put(new TopicPartition(tap.getTimeline().getTopic(),
+                    KafkaCursor.toKafkaPartition(tap.getPartition())), tap.getTimeline());
+        }
+        final Map<String, List<TopicPartition>> existing = offsetsCache.getPartitions(
+                backMap.keySet().stream().map(TopicPartition::topic).collect(Collectors.toSet()), true);
+        final Set<TopicPartition> partitionsToQuery = backMap.keySet().stream()
+                .filter(tp -> existing.get(tp.topic()).contains(tp))
+                .collect(Collectors.toSet());
+        final Map<TopicPartition, KafkaPartitionOffsetsCache.Offsets> offsets =
+                offsetsCache.getOffsets(partitionsToQuery, false);
+
+        final List<Optional<PartitionStatistics>> result = new ArrayList<>(partitions.size());
+        for (final TimelinePartition tap : partitions) {
+            final TopicPartition tp = new TopicPartition(
+                    tap.getTimeline().getTopic(), KafkaCursor.toKafkaPartition(tap.getPartition()));
+            result.add(Optional.ofNullable(offsets.get(tp)).map(o -> new KafkaPartitionStatistics(
+                    tap.getTimeline(), tp.partition(), o.getBegin(), o.getEnd() - 1L)));
         }
+        return result;
     }
 
     @Override
     public List<PartitionStatistics> loadTopicStatistics(final Collection<Timeline> timelines)
             throws ServiceTemporarilyUnavailableException {
+        return loadTopicStatistics(timelines, false);
+    }
+
+    @Override
+    public List<PartitionStatistics> loadCachedTopicStatistics(final Collection<Timeline> timelines)
+            throws ServiceTemporarilyUnavailableException {
+        return loadTopicStatistics(timelines, true);
+    }
+
+    private List<PartitionStatistics> loadTopicStatistics(final Collection<Timeline> timelines,
+                                                          final boolean allowCached)
+            throws ServiceTemporarilyUnavailableException {
         try {
             return Retryer.executeWithRetry(() -> {
-                        return loadTopicStatisticsInternal(timelines);
+                        return loadTopicStatisticsInternal(timelines, allowCached);
                     },
                     new RetryForSpecifiedCountStrategy(3)
                             .withWaitBetweenEachTry(5000)
@@ -533,39 +620,38 @@ public class KafkaTopicRepository implements TopicRepository {
         }
     }
 
-    public List<PartitionStatistics> loadTopicStatisticsInternal(final Collection<Timeline> timelines) {
-        try (Consumer<byte[], byte[]> consumer = kafkaFactory.getConsumer()) {
-            final Map<TopicPartition, Timeline> backMap = new HashMap<>();
-            for (final Timeline timeline : timelines) {
-                consumer.partitionsFor(timeline.getTopic())
-                        .stream()
-                        .map(p -> new TopicPartition(p.topic(), p.partition()))
-                        .forEach(tp -> backMap.put(tp, timeline));
-            }
-            final List<TopicPartition> kafkaTPs = new ArrayList<>(backMap.keySet());
-            consumer.assign(kafkaTPs);
-            consumer.seekToBeginning(kafkaTPs);
-            final long[] begins = kafkaTPs.stream().mapToLong(consumer::position).toArray();
-
-            consumer.seekToEnd(kafkaTPs);
-            final long[] ends = kafkaTPs.stream().mapToLong(consumer::position).toArray();
-
-            return IntStream.range(0, kafkaTPs.size())
-                    .mapToObj(i -> new KafkaPartitionStatistics(
-                            backMap.get(kafkaTPs.get(i)),
-                            kafkaTPs.get(i).partition(),
-                            begins[i],
-                            ends[i] - 1))
-                    .collect(toList());
-        }
+    public List<PartitionStatistics> loadTopicStatisticsInternal(final Collection<Timeline> timelines,
+                                                                 final boolean allowCached) {
+        final Map<TopicPartition, Timeline> backMap = getTopicPartitions(timelines, allowCached);
+        final Map<TopicPartition, KafkaPartitionOffsetsCache.Offsets> offsets =
+                offsetsCache.getOffsets(backMap.keySet(), allowCached);
+        return backMap.entrySet().stream()
+                .map(e -> new KafkaPartitionStatistics(
+                        e.getValue(),
+                        e.getKey().partition(),
+                        offsets.get(e.getKey()).getBegin(),
+                        offsets.get(e.getKey()).getEnd() - 1))
+                .collect(toList());
     }
 
     @Override
     public List<PartitionEndStatistics> loadTopicEndStatistics(final Collection<Timeline> timelines)
             throws ServiceTemporarilyUnavailableException {
+        return loadTopicEndStatistics(timelines, false);
+    }
+
+    @Override
+    public List<PartitionEndStatistics> loadCachedTopicEndStatistics(final Collection<Timeline> timelines)
+            throws ServiceTemporarilyUnavailableException {
+        return loadTopicEndStatistics(timelines, true);
+    }
+
+    private List<PartitionEndStatistics> loadTopicEndStatistics(final Collection<Timeline> timelines,
+                                                                final boolean allowCached)
+            throws ServiceTemporarilyUnavailableException {
         try {
             return Retryer.executeWithRetry(() -> {
-                        return loadTopicEndStatisticsInternal(timelines);
+                        return loadTopicEndStatisticsInternal(timelines, allowCached);
                     },
                     new RetryForSpecifiedCountStrategy(3)
                             .withWaitBetweenEachTry(5000)
@@ -575,26 +661,26 @@ public class KafkaTopicRepository implements TopicRepository {
         }
     }
 
-    private List<PartitionEndStatistics> loadTopicEndStatisticsInternal(final Collection<Timeline> timelines) {
-        try (Consumer<byte[], byte[]> consumer = kafkaFactory.getConsumer()) {
-            final Map<TopicPartition, Timeline> backMap = new HashMap<>();
-            for (final Timeline timeline : timelines) {
-                consumer.partitionsFor(timeline.getTopic())
-                        .stream()
-                        .map(p -> new TopicPartition(p.topic(), p.partition()))
-                        .forEach(tp -> backMap.put(tp, timeline));
-            }
-            final List<TopicPartition> kafkaTPs = Lists.newArrayList(backMap.keySet());
-            consumer.assign(kafkaTPs);
-            consumer.seekToEnd(kafkaTPs);
-            return backMap.entrySet().stream()
-                    .map(e -> {
-                        final TopicPartition tp = e.getKey();
-                        final Timeline timeline = e.getValue();
-                        return new KafkaPartitionEndStatistics(timeline, tp.partition(), consumer.position(tp) - 1);
-                    })
-                    .collect(toList());
+    private List<PartitionEndStatistics> loadTopicEndStatisticsInternal(final Collection<Timeline> timelines,
+                                                                        final boolean allowCached) {
+        final Map<TopicPartition, Timeline> backMap = getTopicPartitions(timelines, allowCached);
+        final Map<TopicPartition, KafkaPartitionOffsetsCache.Offsets> offsets =
+                offsetsCache.getOffsets(backMap.keySet(), allowCached);
+        return backMap.entrySet().stream()
+                .map(e -> new KafkaPartitionEndStatistics(
+                        e.getValue(), e.getKey().partition(), offsets.get(e.getKey()).getEnd() - 1))
+                .collect(toList());
+    }
+
+    private Map<TopicPartition, Timeline> getTopicPartitions(final Collection<Timeline> timelines,
+                                                             final boolean allowCached) {
+        final Map<String, List<TopicPartition>> partitions = offsetsCache.getPartitions(
+                timelines.stream().map(Timeline::getTopic).collect(Collectors.toSet()), allowCached);
+        final Map<TopicPartition, Timeline> backMap = new HashMap<>();
+        for (final Timeline timeline : timelines) {
+            partitions.get(timeline.getTopic()).forEach(tp -> backMap.put(tp, timeline));
         }
+        return backMap;
     }
 
     @Override
@@ -633,7 +719,7 @@ public class KafkaTopicRepository implements TopicRepository {
     }
 
     public List<String> listPartitionNamesInternal(final String topicId) {
-        final Producer<String, String> producer = kafkaFactory.takeProducer();
+        final Producer<String, byte[]> producer = kafkaFactory.takeProducer(topicId);
         try {
             return unmodifiableList(producer.partitionsFor(topicId)
                     .stream()
@@ -650,21 +736,61 @@ public class KafkaTopicRepository implements TopicRepository {
             throws ServiceTemporarilyUnavailableException, InvalidCursorException {
 
         final Map<NakadiCursor, KafkaCursor> cursorMapping = convertToKafkaCursors(cursors);
-        final Map<TopicPartition, Timeline> timelineMap = cursorMapping.entrySet().stream()
+        return new NakadiKafkaConsumer(
+                kafkaFactory.getConsumer(clientId),
+                getNextKafkaCursors(cursorMapping),
+                getTimelineMap(cursorMapping),
+                nakadiSettings.getKafkaPollTimeoutMs());
+
+    }
+
+    @Override
+    public EventConsumer.LowLevelConsumer createSharedEventConsumer(
+            @Nullable final String clientId, final List<NakadiCursor> cursors)
+            throws ServiceTemporarilyUnavailableException, InvalidCursorException {
+        if (null == sharedFetcher) {
+            return createEventConsumer(clientId, cursors);
+        }
+        final Map<NakadiCursor, KafkaCursor> cursorMapping = convertToKafkaCursors(cursors);
+        return new SharedKafkaConsumer(
+                sharedFetcher,
+                () -> kafkaFactory.getConsumer(clientId),
+                getNextKafkaCursors(cursorMapping),
+                getTimelineMap(cursorMapping));
+    }
+
+    private static Map<TopicPartition, Timeline> getTimelineMap(final Map<NakadiCursor, KafkaCursor> cursorMapping) {
+        return cursorMapping.entrySet().stream()
                 .collect(Collectors.toMap(
                         entry -> new TopicPartition(entry.getValue().getTopic(), entry.getValue().getPartition()),
                         entry -> entry.getKey().getTimeline(),
                         (v1, v2) -> v2));
-        final List<KafkaCursor> kafkaCursors = cursorMapping.values().stream()
+    }
+
+    private static List<KafkaCursor> getNextKafkaCursors(final Map<NakadiCursor, KafkaCursor> cursorMapping) {
+        return cursorMapping.values().stream()
                 .map(kafkaCursor -> kafkaCursor.addOffset(1))
                 .collect(toList());
+    }
 
-        return new NakadiKafkaConsumer(
-                kafkaFactory.getConsumer(clientId),
-                kafkaCursors,
-                timelineMap,
-                nakadiSettings.getKafkaPollTimeoutMs());
-
+    @Override
+    public Map<NakadiCursor, Long> getNextEventTimestamps(final Collection<NakadiCursor> positions) {
+        final Map<KafkaCursor, NakadiCursor> nextPositions = new HashMap<>();
+        for (final NakadiCursor position : positions) {
+            if (position.isLast()) {
+                // Next event is in the next timeline
+                continue;
+            }
+            try {
+                nextPositions.put(position.asKafkaCursor().addOffset(1), position);
+            } catch (final InvalidCursorException ex) {
+                LOG.warn("Can not read timestamp of event after {}", position, ex);
+            }
+        }
+        final Map<NakadiCursor, Long> result = new HashMap<>();
+        timestampReader.getTimestamps(nextPositions.keySet())
+                .forEach((next, timestamp) -> result.put(nextPositions.get(next), timestamp));
+        return result;
     }
 
     @Override
@@ -676,8 +802,20 @@ public class KafkaTopicRepository implements TopicRepository {
     private Map<NakadiCursor, KafkaCursor> convertToKafkaCursors(final List<NakadiCursor> cursors)
             throws ServiceTemporarilyUnavailableException, InvalidCursorException {
         final List<Timeline> timelines = cursors.stream().map(NakadiCursor::getTimeline).distinct().collect(toList());
-        final List<PartitionStatistics> statistics = loadTopicStatistics(timelines);
+        try {
+            return convertToKafkaCursors(cursors, loadTopicStatistics(timelines, true));
+        } catch (final InvalidCursorException ex) {
+            if (ex.getError() != UNAVAILABLE && ex.getError() != PARTITION_NOT_FOUND) {
+                throw ex;
+            }
+            // Cached statistics may be outdated, so the decision is made only against the actual ones
+            return convertToKafkaCursors(cursors, loadTopicStatistics(timelines, false));
+        }
+    }
 
+    private Map<NakadiCursor, KafkaCursor> convertToKafkaCursors(
+            final List<NakadiCursor> cursors, final List<PartitionStatistics> statistics)
+            throws InvalidCursorException {
         final Map<NakadiCursor, KafkaCursor> result = new HashMap<>();
         for (final NakadiCursor position : cursors) {
             validateCursorForNulls(position);
@@ -9,6 +9,7 @@ import org.zalando.nakadi.domain.EventOwnerHeader;
 import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.repository.EventConsumer;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -52,24 +53,37 @@ public class NakadiKafkaConsumer implements EventConsumer.LowLevelConsumer {
 
     @Override
     public List<ConsumedEvent> readEvents() {
-        final ConsumerRecords<byte[], byte[]> records = kafkaConsumer.poll(pollTimeout);
+        return toConsumedEvents(kafkaConsumer.poll(pollTimeout));
+    }
+
+    @Override
+    public List<ConsumedEvent> readEvents(final long timeoutMs) {
+        // Unlike poll(long), waiting for metadata is limited by the timeout as well, so the call does not block the
+        // event loop thread
+        return toConsumedEvents(kafkaConsumer.poll(Duration.ofMillis(timeoutMs)));
+    }
+
+    private List<ConsumedEvent> toConsumedEvents(final ConsumerRecords<byte[], byte[]> records) {
         if (records.isEmpty()) {
             return Collections.emptyList();
         }
         final ArrayList<ConsumedEvent> result = new ArrayList<>(records.count());
         for (final ConsumerRecord<byte[], byte[]> record : records) {
-            final KafkaCursor cursor = new KafkaCursor(record.topic(), record.partition(), record.offset());
             final Timeline timeline = timelineMap.get(new TopicPartition(record.topic(), record.partition()));
-
-            result.add(new ConsumedEvent(
-                    record.value(),
-                    cursor.toNakadiCursor(timeline),
-                    record.timestamp(),
-                    EventOwnerHeader.deserialize(record)));
+            result.add(toConsumedEvent(record, timeline));
         }
         return result;
     }
 
+    static ConsumedEvent toConsumedEvent(final ConsumerRecord<byte[], byte[]> record, final Timeline timeline) {
+        final KafkaCursor cursor = new KafkaCursor(record.topic(), record.partition(), record.offset());
+        return new ConsumedEvent(
+                record.value(),
+                cursor.toNakadiCursor(timeline),
+                record.timestamp(),
+                EventOwnerHeader.deserialize(record));
+    }
+
     @Override
     public void close() {
         kafkaConsumer.close();
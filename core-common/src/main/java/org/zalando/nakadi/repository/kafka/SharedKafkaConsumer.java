@@ -0,0 +1,217 @@
+package org.zalando.nakadi.repository.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.zalando.nakadi.domain.ConsumedEvent;
+import org.zalando.nakadi.domain.Timeline;
+import org.zalando.nakadi.repository.EventConsumer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Consumer of a single session, that receives events from {@link SharedKafkaFetcher} whenever it is possible, and
+ * reads partitions on its own otherwise (while catching up with the shared position or after being detached because
+ * of slow consumption). Own kafka consumer is created only while there are partitions that can not be read through
+ * the shared fetcher.
+ * <p>
+ * Events received from the shared fetcher are kept in a queue, which is the only per-session buffer. Number of events
+ * in the queue is limited per partition - once the limit is reached for a partition, the session is detached from
+ * this partition only and continues reading it on its own, at its own pace, so that a burst in one partition does
+ * not move the other partitions of the session away from the shared fetcher.
+ */
+public class SharedKafkaConsumer implements EventConsumer.LowLevelConsumer, SharedKafkaFetcher.Subscriber {
+
+    private final SharedKafkaFetcher fetcher;
+    private final Supplier<Consumer<byte[], byte[]>> consumerFactory;
+    private final Map<TopicPartition, Timeline> timelineMap;
+    private final Set<TopicPartition> attached = new HashSet<>();
+    // Partitions that are read by own consumer, mapped to the next offset to read
+    private final Map<TopicPartition, Long> ownPositions = new HashMap<>();
+    private final int partitionQueueSize;
+    private final BlockingQueue<SharedEvent> sharedEvents = new LinkedBlockingQueue<>();
+    private final Map<TopicPartition, AtomicInteger> sharedEventsCount = new ConcurrentHashMap<>();
+    private final Queue<Detached> detached = new ConcurrentLinkedQueue<>();
+    private Consumer<byte[], byte[]> ownConsumer;
+    private boolean ownAssignmentChanged;
+
+    public SharedKafkaConsumer(
+            final SharedKafkaFetcher fetcher,
+            final Supplier<Consumer<byte[], byte[]>> consumerFactory,
+            final List<KafkaCursor> kafkaCursors,
+            final Map<TopicPartition, Timeline> timelineMap) {
+        this.fetcher = fetcher;
+        this.consumerFactory = consumerFactory;
+        this.timelineMap = timelineMap;
+        this.partitionQueueSize = Math.max(1, fetcher.getQueueSize());
+        for (final KafkaCursor cursor : kafkaCursors) {
+            ownPositions.put(new TopicPartition(cursor.getTopic(), cursor.getPartition()), cursor.getOffset());
+        }
+        ownAssignmentChanged = true;
+    }
+
+    @Override
+    public Set<org.zalando.nakadi.domain.TopicPartition> getAssignment() {
+        return timelineMap.keySet().stream()
+                .map(tp -> new org.zalando.nakadi.domain.TopicPartition(
+                        tp.topic(),
+                        KafkaCursor.toNakadiPartition(tp.partition())))
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public List<ConsumedEvent> readEvents() {
+        return readEvents(fetcher.getPollTimeoutMs());
+    }
+
+    @Override
+    public List<ConsumedEvent> readEvents(final long timeoutMs) {
+        rearrangePartitions();
+        // Events received before detaching are taken before the partition is read by own consumer, so that the order
+        // of events is preserved. Nothing is received for the partition after it is detached.
+        final List<ConsumedEvent> result = new ArrayList<>();
+        drainSharedEvents(result);
+
+        if (!ownPositions.isEmpty()) {
+            // Unlike poll(long), waiting for metadata is limited by the timeout too, so event loop threads do not stall
+            final ConsumerRecords<byte[], byte[]> records =
+                    getOwnConsumer().poll(Duration.ofMillis(result.isEmpty() ? timeoutMs : 0));
+            for (final ConsumerRecord<byte[], byte[]> record : records) {
+                final TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+                result.add(NakadiKafkaConsumer.toConsumedEvent(record, timelineMap.get(tp)));
+                ownPositions.put(tp, record.offset() + 1);
+            }
+        } else if (result.isEmpty() && timeoutMs > 0) {
+            try {
+                final SharedEvent first = sharedEvents.poll(timeoutMs, TimeUnit.MILLISECONDS);
+                if (null != first) {
+                    result.add(first.take());
+                    drainSharedEvents(result);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return result;
+    }
+
+    private void drainSharedEvents(final List<ConsumedEvent> result) {
+        SharedEvent item;
+        while (null != (item = sharedEvents.poll())) {
+            result.add(item.take());
+        }
+    }
+
+    /**
+     * Moves partitions that were detached from shared fetcher to own consumer, and partitions that reached the
+     * shared position - back to shared fetcher.
+     */
+    private void rearrangePartitions() {
+        Detached item;
+        while (null != (item = detached.poll())) {
+            attached.remove(item.topicPartition);
+            ownPositions.put(item.topicPartition, item.nextOffset);
+            ownAssignmentChanged = true;
+        }
+        final Iterator<Map.Entry<TopicPartition, Long>> it = ownPositions.entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<TopicPartition, Long> entry = it.next();
+            if (fetcher.attach(this, entry.getKey(), timelineMap.get(entry.getKey()), entry.getValue())) {
+                attached.add(entry.getKey());
+                it.remove();
+                ownAssignmentChanged = true;
+            }
+        }
+        if (!ownAssignmentChanged) {
+            return;
+        }
+        ownAssignmentChanged = false;
+        if (ownPositions.isEmpty()) {
+            closeOwnConsumer();
+        } else {
+            final Consumer<byte[], byte[]> consumer = getOwnConsumer();
+            consumer.assign(new ArrayList<>(ownPositions.keySet()));
+            ownPositions.forEach(consumer::seek);
+        }
+    }
+
+    private Consumer<byte[], byte[]> getOwnConsumer() {
+        if (null == ownConsumer) {
+            ownConsumer = consumerFactory.get();
+        }
+        return ownConsumer;
+    }
+
+    private void closeOwnConsumer() {
+        if (null != ownConsumer) {
+            ownConsumer.close();
+            ownConsumer = null;
+        }
+    }
+
+    @Override
+    public boolean offer(final TopicPartition topicPartition, final ConsumedEvent event) {
+        final AtomicInteger count = sharedEventsCount.computeIfAbsent(topicPartition, tp -> new AtomicInteger());
+        if (count.incrementAndGet() > partitionQueueSize) {
+            count.decrementAndGet();
+            return false;
+        }
+        return sharedEvents.add(new SharedEvent(count, event));
+    }
+
+    @Override
+    public void onDetached(final TopicPartition topicPartition, final long nextOffset) {
+        detached.add(new Detached(topicPartition, nextOffset));
+    }
+
+    @Override
+    public void close() {
+        for (final TopicPartition tp : attached) {
+            fetcher.detach(this, tp);
+        }
+        attached.clear();
+        closeOwnConsumer();
+    }
+
+    private static class SharedEvent {
+        private final AtomicInteger partitionCount;
+        private final ConsumedEvent event;
+
+        private SharedEvent(final AtomicInteger partitionCount, final ConsumedEvent event) {
+            this.partitionCount = partitionCount;
+            this.event = event;
+        }
+
+        private ConsumedEvent take() {
+            partitionCount.decrementAndGet();
+            return event;
+        }
+    }
+
+    private static class Detached {
+        private final TopicPartition topicPartition;
+        private final long nextOffset;
+
+        private Detached(final TopicPartition topicPartition, final long nextOffset) {
+            this.topicPartition = topicPartition;
+            this.nextOffset = nextOffset;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package org.zalando.nakadi.repository.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zalando.nakadi.domain.ConsumedEvent;
+import org.zalando.nakadi.domain.Timeline;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Node level reader of kafka partitions, that are consumed by several subscription streams at the same position.
+ * Each partition is read once by one shared kafka consumer, and events are handed over to all the subscribers of
+ * the partition.
+ * <p>
+ * Partition is read starting from the position of the first subscriber. Subscriber may join the partition only if it
+ * is positioned exactly where the partition is being read, otherwise it should read the data on its own until it
+ * reaches this position. Subscriber that is not able to accept more events (client is consuming slower than others)
+ * is detached from the partition with the position of the first event it didn't receive, so that slow consumers are
+ * never slowing down the others.
+ * <p>
+ * Kafka consumer is used only by the fetching thread, changes of assignment are applied by this thread before each
+ * poll.
+ */
+public class SharedKafkaFetcher implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SharedKafkaFetcher.class);
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    interface Subscriber {
+        /**
+         * Called from fetching thread for every event of the partitions subscriber is attached to.
+         *
+         * @return false if event can not be accepted, in which case subscriber is detached from the partition.
+         */
+        boolean offer(TopicPartition topicPartition, ConsumedEvent event);
+
+        /**
+         * Called from fetching thread when subscriber is detached from partition because it was not able to accept
+         * the event.
+         *
+         * @param nextOffset Offset of the first event that was not delivered to subscriber.
+         */
+        void onDetached(TopicPartition topicPartition, long nextOffset);
+    }
+
+    private final Supplier<Consumer<byte[], byte[]>> consumerFactory;
+    private final long pollTimeoutMs;
+    private final int queueSize;
+    private final String name;
+    private final Map<TopicPartition, PartitionFeed> feeds = new HashMap<>();
+    private final Set<TopicPartition> assignmentChanged = new HashSet<>();
+    private Thread thread;
+    private volatile boolean running = true;
+
+    public SharedKafkaFetcher(
+            final Supplier<Consumer<byte[], byte[]>> consumerFactory,
+            final long pollTimeoutMs,
+            final int queueSize) {
+        this.name = "shared-kafka-fetcher-" + COUNTER.incrementAndGet();
+        this.consumerFactory = consumerFactory;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * @return Number of events of one partition each subscriber is supposed to be able to keep before it is detached
+     * from the partition.
+     */
+    int getQueueSize() {
+        return queueSize;
+    }
+
+    long getPollTimeoutMs() {
+        return pollTimeoutMs;
+    }
+
+    /**
+     * Tries to attach subscriber to the partition.
+     *
+     * @param nextOffset Offset of the next event subscriber expects to receive.
+     * @return true if subscriber is attached and will receive events starting from nextOffset, false if partition is
+     * already read at different position.
+     */
+    synchronized boolean attach(
+            final Subscriber subscriber,
+            final TopicPartition topicPartition,
+            final Timeline timeline,
+            final long nextOffset) {
+        if (!running) {
+            return false;
+        }
+        PartitionFeed feed = feeds.get(topicPartition);
+        if (null == feed) {
+            feed = new PartitionFeed(timeline, nextOffset);
+            feeds.put(topicPartition, feed);
+            assignmentChanged.add(topicPartition);
+            ensureStarted();
+            notifyAll();
+        } else if (feed.nextOffset != nextOffset) {
+            return false;
+        }
+        feed.subscribers.add(subscriber);
+        return true;
+    }
+
+    synchronized void detach(final Subscriber subscriber, final TopicPartition topicPartition) {
+        final PartitionFeed feed = feeds.get(topicPartition);
+        if (null != feed && feed.subscribers.remove(subscriber) && feed.subscribers.isEmpty()) {
+            feeds.remove(topicPartition);
+            assignmentChanged.add(topicPartition);
+        }
+    }
+
+    synchronized int getPartitionsCount() {
+        return feeds.size();
+    }
+
+    private void ensureStarted() {
+        if (null == thread) {
+            thread = new Thread(this::run, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public void close() {
+        final Thread toJoin;
+        synchronized (this) {
+            running = false;
+            notifyAll();
+            toJoin = thread;
+        }
+        if (null != toJoin) {
+            try {
+                toJoin.join(pollTimeoutMs * 2);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        Consumer<byte[], byte[]> consumer = null;
+        try {
+            while (running) {
+                try {
+                    if (null == consumer) {
+                        consumer = consumerFactory.get();
+                        synchronized (this) {
+                            // New consumer is positioned from scratch
+                            assignmentChanged.addAll(feeds.keySet());
+                        }
+                    }
+                    if (!applyAssignment(consumer)) {
+                        continue;
+                    }
+                    final ConsumerRecords<byte[], byte[]> records = consumer.poll(Duration.ofMillis(pollTimeoutMs));
+                    if (!records.isEmpty()) {
+                        dispatch(records);
+                    }
+                } catch (final KafkaFactory.KafkaCrutchException ex) {
+                    LOG.warn("Shared kafka consumer {} should be recreated", name, ex);
+                    consumer = closeQuietly(consumer);
+                } catch (final RuntimeException ex) {
+                    LOG.error("Failed to read events by shared kafka consumer {}, recreating consumer", name, ex);
+                    consumer = closeQuietly(consumer);
+                    synchronized (this) {
+                        pause();
+                    }
+                }
+            }
+        } finally {
+            closeQuietly(consumer);
+        }
+    }
+
+    /**
+     * @return false if there is nothing to read
+     */
+    private boolean applyAssignment(final Consumer<byte[], byte[]> consumer) {
+        final Map<TopicPartition, Long> toSeek = new HashMap<>();
+        synchronized (this) {
+            if (feeds.isEmpty() && assignmentChanged.isEmpty()) {
+                pause();
+                return false;
+            }
+            if (assignmentChanged.isEmpty()) {
+                return true;
+            }
+            for (final TopicPartition tp : assignmentChanged) {
+                final PartitionFeed feed = feeds.get(tp);
+                if (null != feed) {
+                    feed.active = true;
+                    toSeek.put(tp, feed.nextOffset);
+                }
+            }
+            assignmentChanged.clear();
+            consumer.assign(new ArrayList<>(feeds.keySet()));
+        }
+        toSeek.forEach(consumer::seek);
+        return !consumer.assignment().isEmpty();
+    }
+
+    private synchronized void dispatch(final ConsumerRecords<byte[], byte[]> records) {
+        for (final TopicPartition tp : records.partitions()) {
+            final PartitionFeed feed = feeds.get(tp);
+            if (null == feed || !feed.active || assignmentChanged.contains(tp)) {
+                // Partition was removed or repositioned while data was fetched
+                continue;
+            }
+            for (final ConsumerRecord<byte[], byte[]> record : records.records(tp)) {
+                if (record.offset() < feed.nextOffset) {
+                    continue;
+                }
+                final ConsumedEvent event = NakadiKafkaConsumer.toConsumedEvent(record, feed.timeline);
+                final Iterator<Subscriber> it = feed.subscribers.iterator();
+                while (it.hasNext()) {
+                    final Subscriber subscriber = it.next();
+                    if (!subscriber.offer(tp, event)) {
+                        it.remove();
+                        subscriber.onDetached(tp, record.offset());
+                    }
+                }
+                feed.nextOffset = record.offset() + 1;
+                if (feed.subscribers.isEmpty()) {
+                    feeds.remove(tp);
+                    assignmentChanged.add(tp);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void pause() {
+        try {
+            wait(pollTimeoutMs);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @Nullable
+    private Consumer<byte[], byte[]> closeQuietly(@Nullable final Consumer<byte[], byte[]> consumer) {
+        if (null != consumer) {
+            try {
+                consumer.close();
+            } catch (final RuntimeException ex) {
+                LOG.warn("Failed to close shared kafka consumer {}", name, ex);
+            }
+        }
+        return null;
+    }
+
+    private static class PartitionFeed {
+        private final Timeline timeline;
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private long nextOffset;
+        private boolean active;
+
+        private PartitionFeed(final Timeline timeline, final long nextOffset) {
+            this.timeline = timeline;
+            this.nextOffset = nextOffset;
+        }
+    }
+}
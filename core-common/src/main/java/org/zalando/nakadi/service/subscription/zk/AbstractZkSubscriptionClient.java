@@ -1,13 +1,9 @@
 package org.zalando.nakadi.service.subscription.zk;
 
-import com.google.common.base.Charsets;
-import com.google.common.collect.Lists;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.recipes.cache.NodeCache;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
-import org.apache.zookeeper.data.Stat;
-import org.echocat.jomon.runtime.concurrent.RetryForSpecifiedCountStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zalando.nakadi.domain.EventTypePartition;
@@ -20,48 +16,45 @@ import org.zalando.nakadi.exceptions.runtime.UnableProcessException;
 import org.zalando.nakadi.exceptions.runtime.ZookeeperException;
 import org.zalando.nakadi.repository.zookeeper.ZooKeeperHolder;
 import org.zalando.nakadi.service.subscription.model.Session;
-import org.zalando.nakadi.view.Cursor;
 import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import static com.google.common.base.Charsets.UTF_8;
-import static org.echocat.jomon.runtime.concurrent.Retryer.executeWithRetry;
 
 public abstract class AbstractZkSubscriptionClient implements ZkSubscriptionClient {
     private static final String STATE_INITIALIZED = "INITIALIZED";
-    private static final int COMMIT_CONFLICT_RETRY_TIMES = 5;
-    private static final int MAX_ZK_RESPONSE_SECONDS = 5;
     protected static final String NODE_TOPOLOGY = "/topology";
 
     private final String subscriptionId;
     private final ZooKeeperHolder.CloseableCuratorFramework closeableCuratorFramework;
     private final String closeSubscriptionStream;
     private final Logger log;
+    private final OffsetStore offsetStore;
 
     public AbstractZkSubscriptionClient(
             final String subscriptionId,
             final ZooKeeperHolder.CloseableCuratorFramework closeableCuratorFramework,
-            final String loggingPath) throws ZookeeperException {
+            final String loggingPath,
+            final OffsetStore offsetStore) throws ZookeeperException {
         this.subscriptionId = subscriptionId;
         this.closeableCuratorFramework = closeableCuratorFramework;
         this.closeSubscriptionStream = getSubscriptionPath("/close_subscription_stream");
         this.log = LoggerFactory.getLogger(loggingPath + ".zk");
+        this.offsetStore = offsetStore;
+    }
+
+    protected OffsetStore getOffsetStore() {
+        return offsetStore;
     }
 
     protected CuratorFramework getCurator() {
@@ -114,7 +107,7 @@ public abstract class AbstractZkSubscriptionClient implements ZkSubscriptionClie
     public final void fillEmptySubscription(final Collection<SubscriptionCursorWithoutToken> cursors) {
         try {
             createSessionsZNode();
-            createOffsetZNodes(cursors);
+            offsetStore.createOffsets(cursors);
             createTopologyZNode(cursors);
             createStateZNodeAsInitialized();
         } catch (final Exception e) {
@@ -134,20 +127,6 @@ public abstract class AbstractZkSubscriptionClient implements ZkSubscriptionClie
         }
     }
 
-    private void createOffsetZNodes(final Collection<SubscriptionCursorWithoutToken> cursors) throws Exception {
-        getLog().info("Creating offsets");
-        for (final SubscriptionCursorWithoutToken cursor : cursors) {
-            try {
-                getCurator().create().creatingParentsIfNeeded().forPath(
-                        getOffsetPath(cursor.getEventTypePartition()),
-                        cursor.getOffset().getBytes(UTF_8));
-            } catch (final KeeperException.NodeExistsException ex) {
-                getLog().info("Offset ZNode {}/{} exists, not creating a new one",
-                        cursor.getEventType(), cursor.getPartition());
-            }
-        }
-    }
-
     private void createStateZNodeAsInitialized() throws Exception {
         getLog().info("updating state");
         try {
@@ -184,44 +163,8 @@ public abstract class AbstractZkSubscriptionClient implements ZkSubscriptionClie
                                              final Function<K, String> keyConverter,
                                              final BiFunction<K, byte[], V> valueConverter)
             throws ServiceTemporarilyUnavailableException, NakadiRuntimeException {
-        final Map<K, V> result = new HashMap<>();
-        final CountDownLatch latch = new CountDownLatch(keys.size());
-        try {
-            for (final K key : keys) {
-                final String zkKey = keyConverter.apply(key);
-                getCurator().getData().inBackground((client, event) -> {
-                    try {
-                        if (event.getResultCode() == KeeperException.Code.OK.intValue()) {
-                            final V value = valueConverter.apply(key, event.getData());
-                            synchronized (result) {
-                                result.put(key, value);
-                            }
-                        } else if (event.getResultCode() == KeeperException.Code.NONODE.intValue()) {
-                            getLog().warn("Unable to get {} data from zk. Node not found ", zkKey);
-                        } else {
-                            getLog().error(
-                                    "Failed to get {} data from zk. status code: {}",
-                                    zkKey, event.getResultCode());
-                        }
-                    } catch (RuntimeException ex) {
-                        getLog().error("Failed to memorize {} key value", key, ex);
-                    } finally {
-                        latch.countDown();
-                    }
-                }).forPath(zkKey);
-            }
-        } catch (Exception ex) {
-            throw new NakadiRuntimeException(ex);
-        }
-        try {
-            if (!latch.await(MAX_ZK_RESPONSE_SECONDS, TimeUnit.SECONDS)) {
-                throw new ServiceTemporarilyUnavailableException("Failed to wait for zk response", null);
-            }
-        } catch (InterruptedException ex) {
-            Thread.currentThread().interrupt();
-            throw new ServiceTemporarilyUnavailableException("Failed to wait for zk response", ex);
-        }
-        return result;
+        return AsyncZkReader.read(getCurator(), getLog(), keys, keyConverter,
+                (key, event) -> valueConverter.apply(key, event.getData()));
     }
 
     @Override
@@ -289,13 +232,7 @@ public abstract class AbstractZkSubscriptionClient implements ZkSubscriptionClie
     @Override
     public ZkSubscription<SubscriptionCursorWithoutToken> subscribeForOffsetChanges(
             final EventTypePartition key, final Runnable commitListener) {
-        final String path = getOffsetPath(key);
-        return new ZkSubscriptionImpl.ZkSubscriptionValueImpl<>(
-                getCurator(),
-                commitListener,
-                data -> new SubscriptionCursorWithoutToken(
-                        key.getEventType(), key.getPartition(), new String(data, UTF_8)),
-                path);
+        return offsetStore.subscribeForOffsetChanges(key, commitListener);
     }
 
     @Override
@@ -375,79 +312,25 @@ public abstract class AbstractZkSubscriptionClient implements ZkSubscriptionClie
                 listSessions()));
     }
 
+    @Override
+    public Map<EventTypePartition, SubscriptionCursorWithoutToken> getOffsets(
+            final Collection<EventTypePartition> keys)
+            throws NakadiRuntimeException, ServiceTemporarilyUnavailableException {
+        return offsetStore.getOffsets(keys);
+    }
+
     public void forceCommitOffsets(final List<SubscriptionCursorWithoutToken> cursors) throws NakadiRuntimeException {
-        try {
-            for (final SubscriptionCursorWithoutToken cursor : cursors) {
-                getCurator().setData().forPath(
-                        getOffsetPath(cursor.getEventTypePartition()),
-                        cursor.getOffset().getBytes(UTF_8));
-            }
-        } catch (Exception e) {
-            throw new NakadiRuntimeException(e);
-        }
+        offsetStore.forceCommitOffsets(cursors);
     }
 
     @Override
     public List<Boolean> commitOffsets(
             final List<SubscriptionCursorWithoutToken> cursors) {
-        final Map<EventTypePartition, List<SubscriptionCursorWithoutToken>> grouped =
-                cursors.stream().collect(Collectors.groupingBy(SubscriptionCursorWithoutToken::getEventTypePartition));
-        try {
-            final Map<EventTypePartition, Iterator<Boolean>> committedOverall = new HashMap<>();
-            for (final Map.Entry<EventTypePartition, List<SubscriptionCursorWithoutToken>> entry : grouped.entrySet()) {
-                final String offsetPath = getOffsetPath(entry.getKey());
-                final List<Boolean> committed;
-                committed = executeWithRetry(() -> {
-                            final Stat stat = new Stat();
-                            final byte[] currentOffsetData = getCurator().getData().storingStatIn(stat)
-                                    .forPath(offsetPath);
-                            final String currentMaxOffset = new String(currentOffsetData, UTF_8);
-                            String newMaxOffset = currentMaxOffset;
-                            final List<Boolean> commits = Lists.newArrayList();
-
-                            for (final SubscriptionCursorWithoutToken cursor : entry.getValue()) {
-                                // Offsets are lexicographically comparable, except 'BEGIN'
-                                if (cursor.getOffset().compareTo(newMaxOffset) > 0
-                                        || newMaxOffset.equalsIgnoreCase(Cursor.BEFORE_OLDEST_OFFSET)) {
-                                    newMaxOffset = cursor.getOffset();
-                                    commits.add(true);
-                                } else {
-                                    commits.add(false);
-                                }
-                            }
-                            if (!newMaxOffset.equals(currentMaxOffset)) {
-                                getLog().info("Committing {} to {}/{}",
-                                        newMaxOffset, entry.getKey().getEventType(), entry.getKey().getPartition());
-
-                                getCurator()
-                                        .setData()
-                                        .withVersion(stat.getVersion())
-                                        .forPath(offsetPath, newMaxOffset.getBytes(Charsets.UTF_8));
-                            }
-                            return commits;
-                        },
-                        new RetryForSpecifiedCountStrategy<List<Boolean>>(COMMIT_CONFLICT_RETRY_TIMES)
-                                .withExceptionsThatForceRetry(KeeperException.BadVersionException.class));
-                committedOverall.put(
-                        entry.getKey(),
-                        Optional.ofNullable(committed)
-                                .orElse(Collections.nCopies(entry.getValue().size(), false))
-                                .iterator());
-
-            }
-            return cursors.stream()
-                    .map(cursor -> committedOverall.get(cursor.getEventTypePartition()).next())
-                    .collect(Collectors.toList());
-
-        } catch (final Exception ex) {
-            throw new NakadiRuntimeException(ex);
-        }
+        return offsetStore.commitOffsets(cursors);
     }
 
     protected abstract void createTopologyZNode(Collection<SubscriptionCursorWithoutToken> cursors) throws Exception;
 
-    protected abstract String getOffsetPath(EventTypePartition etp);
-
     protected abstract byte[] serializeSession(Session session) throws NakadiRuntimeException;
 
     protected abstract Session deserializeSession(String sessionId, byte[] sessionZkData) throws NakadiRuntimeException;
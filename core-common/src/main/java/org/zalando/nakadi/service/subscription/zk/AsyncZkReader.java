@@ -0,0 +1,75 @@
+package org.zalando.nakadi.service.subscription.zk;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.CuratorEvent;
+import org.apache.zookeeper.KeeperException;
+import org.slf4j.Logger;
+import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
+import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Reads data of several zk nodes in one round, sending all the requests before waiting for responses.
+ */
+final class AsyncZkReader {
+    private static final int MAX_ZK_RESPONSE_SECONDS = 5;
+
+    private AsyncZkReader() {
+    }
+
+    /**
+     * @return Values for the keys that were read successfully. Keys for missing nodes are absent in result.
+     */
+    static <K, V> Map<K, V> read(final CuratorFramework curator,
+                                 final Logger log,
+                                 final Collection<K> keys,
+                                 final Function<K, String> keyConverter,
+                                 final BiFunction<K, CuratorEvent, V> valueConverter)
+            throws ServiceTemporarilyUnavailableException, NakadiRuntimeException {
+        final Map<K, V> result = new HashMap<>();
+        final CountDownLatch latch = new CountDownLatch(keys.size());
+        try {
+            for (final K key : keys) {
+                final String zkKey = keyConverter.apply(key);
+                curator.getData().inBackground((client, event) -> {
+                    try {
+                        if (event.getResultCode() == KeeperException.Code.OK.intValue()) {
+                            final V value = valueConverter.apply(key, event);
+                            synchronized (result) {
+                                result.put(key, value);
+                            }
+                        } else if (event.getResultCode() == KeeperException.Code.NONODE.intValue()) {
+                            log.warn("Unable to get {} data from zk. Node not found ", zkKey);
+                        } else {
+                            log.error(
+                                    "Failed to get {} data from zk. status code: {}",
+                                    zkKey, event.getResultCode());
+                        }
+                    } catch (RuntimeException ex) {
+                        log.error("Failed to memorize {} key value", key, ex);
+                    } finally {
+                        latch.countDown();
+                    }
+                }).forPath(zkKey);
+            }
+        } catch (Exception ex) {
+            throw new NakadiRuntimeException(ex);
+        }
+        try {
+            if (!latch.await(MAX_ZK_RESPONSE_SECONDS, TimeUnit.SECONDS)) {
+                throw new ServiceTemporarilyUnavailableException("Failed to wait for zk response", null);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceTemporarilyUnavailableException("Failed to wait for zk response", ex);
+        }
+        return result;
+    }
+}
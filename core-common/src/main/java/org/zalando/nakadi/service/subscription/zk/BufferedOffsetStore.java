@@ -0,0 +1,92 @@
+package org.zalando.nakadi.service.subscription.zk;
+
+import org.zalando.nakadi.domain.EventTypePartition;
+import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
+import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableException;
+import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Offset store that keeps commits in {@link OffsetCommitBuffer} and reads offsets from zookeeper, overlaying them
+ * with the offsets that are buffered on this node and are not persisted yet. Commits are not served from the buffer
+ * alone: each of them reads reset epoch and persisted offsets from zookeeper, only the write is buffered.
+ */
+class BufferedOffsetStore implements OffsetStore {
+
+    private final ZkOffsetStore persistentStore;
+    private final OffsetCommitBuffer buffer;
+    private final String subscriptionId;
+
+    BufferedOffsetStore(final ZkOffsetStore persistentStore, final OffsetCommitBuffer buffer) {
+        this.persistentStore = persistentStore;
+        this.buffer = buffer;
+        this.subscriptionId = persistentStore.getSubscriptionId();
+    }
+
+    @Override
+    public void createOffsets(final Collection<SubscriptionCursorWithoutToken> cursors) throws NakadiRuntimeException {
+        persistentStore.createOffsets(cursors);
+    }
+
+    @Override
+    public Map<EventTypePartition, SubscriptionCursorWithoutToken> getOffsets(
+            final Collection<EventTypePartition> keys)
+            throws NakadiRuntimeException, ServiceTemporarilyUnavailableException {
+        buffer.dropOutdated(subscriptionId, persistentStore.getResetEpoch());
+        final Map<EventTypePartition, SubscriptionCursorWithoutToken> result = new HashMap<>();
+        persistentStore.getOffsets(keys).forEach((etp, cursor) -> result.put(etp, withPending(cursor)));
+        return result;
+    }
+
+    @Override
+    public ZkSubscription<SubscriptionCursorWithoutToken> subscribeForOffsetChanges(
+            final EventTypePartition key, final Runnable listener) throws NakadiRuntimeException {
+        final ZkSubscription<SubscriptionCursorWithoutToken> persistentSubscription =
+                persistentStore.subscribeForOffsetChanges(key, listener);
+        buffer.addListener(subscriptionId, key, listener);
+        return new ZkSubscription<SubscriptionCursorWithoutToken>() {
+            @Override
+            public SubscriptionCursorWithoutToken getData() throws NakadiRuntimeException {
+                return withPending(persistentSubscription.getData());
+            }
+
+            @Override
+            public void close() {
+                buffer.removeListener(subscriptionId, key, listener);
+                persistentSubscription.close();
+            }
+        };
+    }
+
+    @Override
+    public List<Boolean> commitOffsets(final List<SubscriptionCursorWithoutToken> cursors)
+            throws NakadiRuntimeException {
+        // Epoch is read first, so that offsets read before a concurrent reset are never tagged with the new epoch
+        final int resetEpoch = persistentStore.getResetEpoch();
+        final Map<EventTypePartition, SubscriptionCursorWithoutToken> persisted = persistentStore.getOffsets(
+                cursors.stream().map(SubscriptionCursorWithoutToken::getEventTypePartition)
+                        .collect(Collectors.toSet()));
+        return buffer.commit(subscriptionId, resetEpoch, cursors, persisted);
+    }
+
+    @Override
+    public void forceCommitOffsets(final List<SubscriptionCursorWithoutToken> cursors) throws NakadiRuntimeException {
+        // Offsets buffered concurrently with the reset are dropped on flush, as they have previous reset epoch
+        buffer.discard(subscriptionId);
+        persistentStore.forceCommitOffsets(cursors);
+    }
+
+    private SubscriptionCursorWithoutToken withPending(final SubscriptionCursorWithoutToken persisted) {
+        final String pendingOffset = buffer.getPendingOffset(subscriptionId, persisted.getEventTypePartition());
+        if (null != pendingOffset && OffsetStore.isAfter(pendingOffset, persisted.getOffset())) {
+            return new SubscriptionCursorWithoutToken(
+                    persisted.getEventType(), persisted.getPartition(), pendingOffset);
+        }
+        return persisted;
+    }
+}
@@ -10,9 +10,9 @@ import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.data.Stat;
 import org.echocat.jomon.runtime.concurrent.RetryForSpecifiedCountStrategy;
 import org.echocat.jomon.runtime.concurrent.Retryer;
+import org.slf4j.LoggerFactory;
 import org.zalando.nakadi.domain.EventTypePartition;
 import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
-import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableException;
 import org.zalando.nakadi.exceptions.runtime.ZookeeperException;
 import org.zalando.nakadi.repository.zookeeper.ZooKeeperHolder;
 import org.zalando.nakadi.service.subscription.model.Partition;
@@ -23,9 +23,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.google.common.base.Charsets.UTF_8;
@@ -76,9 +74,26 @@ public class NewZkSubscriptionClient extends AbstractZkSubscriptionClient {
             final ZooKeeperHolder.CloseableCuratorFramework closeableCuratorFramework,
             final String loggingPath,
             final ObjectMapper objectMapper) throws ZookeeperException {
+        this(subscriptionId,
+                closeableCuratorFramework,
+                loggingPath,
+                objectMapper,
+                new ZkOffsetStore(
+                        closeableCuratorFramework.getCuratorFramework(),
+                        subscriptionId,
+                        LoggerFactory.getLogger(loggingPath + ".zk")));
+    }
+
+    public NewZkSubscriptionClient(
+            final String subscriptionId,
+            final ZooKeeperHolder.CloseableCuratorFramework closeableCuratorFramework,
+            final String loggingPath,
+            final ObjectMapper objectMapper,
+            final OffsetStore offsetStore) throws ZookeeperException {
         super(subscriptionId,
                 closeableCuratorFramework,
-                loggingPath);
+                loggingPath,
+                offsetStore);
         this.objectMapper = objectMapper;
     }
 
@@ -197,31 +212,6 @@ public class NewZkSubscriptionClient extends AbstractZkSubscriptionClient {
         }
     }
 
-    protected String getOffsetPath(final EventTypePartition etp) {
-        return getSubscriptionPath("/offsets/" + etp.getEventType() + "/" + etp.getPartition());
-    }
-
-    @Override
-    public Map<EventTypePartition, SubscriptionCursorWithoutToken> getOffsets(
-            final Collection<EventTypePartition> keys)
-            throws NakadiRuntimeException, ServiceTemporarilyUnavailableException {
-        final Map<EventTypePartition, SubscriptionCursorWithoutToken> offSets = loadDataAsync(keys,
-                this::getOffsetPath, (etp, value) ->
-                        new SubscriptionCursorWithoutToken(etp.getEventType(), etp.getPartition(),
-                                new String(value, UTF_8)));
-
-        if (offSets.size() != keys.size()) {
-            throw new ServiceTemporarilyUnavailableException("Failed to get all the keys " +
-                    keys.stream()
-                            .filter(v -> !offSets.containsKey(v))
-                            .map(String::valueOf)
-                            .collect(Collectors.joining(", "))
-                    + " from ZK.", null);
-        }
-
-        return offSets;
-    }
-
     @Override
     public void transfer(final String sessionId, final Collection<EventTypePartition> partitions)
             throws NakadiRuntimeException, SubscriptionNotInitializedException {
@@ -255,21 +245,16 @@ public class NewZkSubscriptionClient extends AbstractZkSubscriptionClient {
                 filter(partition -> partition.getEventType().equals(eventTypeName)).count();
 
         // Partitions can only be increased for an event type.
-        // Add new partitions & create nodes for partitions' offset
+        // Add new partitions & create offsets for them
+        final List<SubscriptionCursorWithoutToken> newOffsets = new ArrayList<>();
         for (int index = oldPartitionsCount; index < newPartitionsCount; index++) {
             final String partition = String.valueOf(index);
             partitionsList.add(new Partition(
                     eventTypeName, partition, null, null, Partition.State.UNASSIGNED
             ));
-
-            try {
-                getCurator().create().creatingParentsIfNeeded().forPath(
-                        getOffsetPath(new EventTypePartition(eventTypeName, partition)),
-                        offset.getBytes(UTF_8));
-            } catch (final Exception e) {
-                throw new NakadiRuntimeException(e);
-            }
+            newOffsets.add(new SubscriptionCursorWithoutToken(eventTypeName, partition, offset));
         }
+        getOffsetStore().createOffsets(newOffsets);
 
         final Topology partitionedTopology = new Topology(
                 partitionsList.toArray(new Partition[0]),
@@ -0,0 +1,272 @@
+package org.zalando.nakadi.service.subscription.zk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.zalando.nakadi.config.NakadiSettings;
+import org.zalando.nakadi.domain.EventTypePartition;
+import org.zalando.nakadi.repository.zookeeper.ZooKeeperHolder;
+import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
+
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node level buffer of subscription commits, that coalesces commits in memory and persists them to zookeeper in
+ * batches, so that zookeeper receives at most one write per partition per flush interval (instead of one write per
+ * commit call). Streams of the node are notified about buffered commits immediately, streams on other nodes - once
+ * the commit is persisted.
+ * <p>
+ * Buffering saves zookeeper writes only: every commit still reads persisted offsets (in one asynchronous round) and
+ * the reset epoch of the subscription from zookeeper, as the result of commit depends on them.
+ * <p>
+ * Every buffered offset is tagged with the reset epoch (see {@link ZkOffsetStore#getResetEpoch()}) that was read
+ * before the commit. Offsets are persisted only if the epoch is still the same, so commits buffered on any node
+ * before cursors reset, including the ones being flushed while the reset happens, are dropped instead of undoing
+ * the reset.
+ * <p>
+ * The price is that commits acknowledged to the client may be lost (and events delivered again) if the node fails
+ * within flush interval or the commit races with cursors reset, and that the result of commit is based on the offsets
+ * known to this node only - commits of the same partition buffered on different nodes are resolved in zookeeper by
+ * keeping the biggest offset.
+ */
+@Component
+public class OffsetCommitBuffer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OffsetCommitBuffer.class);
+    private static final int MAX_PERSIST_ATTEMPTS = 10;
+
+    interface Persister {
+        /**
+         * @return false if offsets were reset after the reset epoch and nothing was persisted.
+         */
+        boolean persist(String subscriptionId, int resetEpoch, List<SubscriptionCursorWithoutToken> cursors)
+                throws Exception;
+    }
+
+    private final boolean enabled;
+    private final Persister persister;
+    // subscription id -> partition -> buffered offset, guarded by this
+    private final Map<String, Map<EventTypePartition, PendingOffset>> pending = new HashMap<>();
+    // subscription id -> partition -> listeners, guarded by this
+    private final Map<String, Map<EventTypePartition, List<Runnable>>> listeners = new HashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    @Autowired
+    public OffsetCommitBuffer(
+            final ZooKeeperHolder zooKeeperHolder,
+            final NakadiSettings nakadiSettings,
+            @Value("${nakadi.subscription.offsets.buffer.enabled:false}") final boolean enabled,
+            @Value("${nakadi.subscription.offsets.buffer.flushIntervalMs:200}") final long flushIntervalMs) {
+        this((subscriptionId, resetEpoch, cursors) -> {
+            try (ZooKeeperHolder.CloseableCuratorFramework curator = zooKeeperHolder.getSubscriptionCurator(
+                    TimeUnit.SECONDS.toMillis(nakadiSettings.getMaxCommitTimeout()))) {
+                return new ZkOffsetStore(curator.getCuratorFramework(), subscriptionId, LOG)
+                        .commitOffsets(cursors, resetEpoch);
+            }
+        }, enabled, flushIntervalMs);
+    }
+
+    OffsetCommitBuffer(final Persister persister, final boolean enabled, final long flushIntervalMs) {
+        this.persister = persister;
+        this.enabled = enabled;
+        if (enabled) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "offset-commit-buffer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+            LOG.info("Subscription commits are buffered and persisted every {} ms", flushIntervalMs);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public OffsetStore createStore(final ZkOffsetStore persistentStore) {
+        return new BufferedOffsetStore(persistentStore, this);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (null != flusher) {
+            flusher.shutdown();
+            flush();
+        }
+    }
+
+    /**
+     * Buffers commits, only moving offsets forward.
+     *
+     * @param resetEpoch Reset epoch of the subscription, read before persisted offsets.
+     * @param persisted  Offsets of the partitions of cursors that are persisted at the moment.
+     * @return for every cursor true if it moved committed offset forward, false otherwise.
+     */
+    List<Boolean> commit(
+            final String subscriptionId,
+            final int resetEpoch,
+            final List<SubscriptionCursorWithoutToken> cursors,
+            final Map<EventTypePartition, SubscriptionCursorWithoutToken> persisted) {
+        final List<Boolean> result = new ArrayList<>(cursors.size());
+        final List<Runnable> toNotify = new ArrayList<>();
+        synchronized (this) {
+            dropOutdated(subscriptionId, resetEpoch);
+            final Map<EventTypePartition, PendingOffset> subscriptionPending =
+                    pending.computeIfAbsent(subscriptionId, id -> new HashMap<>());
+            for (final SubscriptionCursorWithoutToken cursor : cursors) {
+                final EventTypePartition etp = cursor.getEventTypePartition();
+                final PendingOffset current = subscriptionPending.get(etp);
+                final String persistedOffset = persisted.get(etp).getOffset();
+                final String currentOffset = null != current && OffsetStore.isAfter(current.offset, persistedOffset)
+                        ? current.offset : persistedOffset;
+                if (OffsetStore.isAfter(cursor.getOffset(), currentOffset)) {
+                    subscriptionPending.put(etp, new PendingOffset(cursor.getOffset(), resetEpoch));
+                    toNotify.addAll(listeners.getOrDefault(subscriptionId, Collections.emptyMap())
+                            .getOrDefault(etp, Collections.emptyList()));
+                    result.add(true);
+                } else {
+                    result.add(false);
+                }
+            }
+        }
+        toNotify.stream().distinct().forEach(Runnable::run);
+        return result;
+    }
+
+    /**
+     * @return Buffered offset of the partition that is not persisted yet or null if there is no such offset.
+     */
+    @Nullable
+    synchronized String getPendingOffset(final String subscriptionId, final EventTypePartition etp) {
+        final PendingOffset offset = pending.getOrDefault(subscriptionId, Collections.emptyMap()).get(etp);
+        return null == offset ? null : offset.offset;
+    }
+
+    /**
+     * Drops buffered offsets of the subscription, used when offsets are set directly to persistent store.
+     */
+    synchronized void discard(final String subscriptionId) {
+        pending.remove(subscriptionId);
+    }
+
+    /**
+     * Drops buffered offsets, that were committed before offsets of the subscription were reset.
+     */
+    synchronized void dropOutdated(final String subscriptionId, final int resetEpoch) {
+        final Map<EventTypePartition, PendingOffset> subscriptionPending = pending.get(subscriptionId);
+        if (null != subscriptionPending && subscriptionPending.values().removeIf(o -> o.resetEpoch < resetEpoch)) {
+            LOG.info("Dropped buffered offsets of subscription {} committed before offsets reset", subscriptionId);
+        }
+    }
+
+    synchronized void addListener(final String subscriptionId, final EventTypePartition etp, final Runnable listener) {
+        listeners.computeIfAbsent(subscriptionId, id -> new HashMap<>())
+                .computeIfAbsent(etp, p -> new ArrayList<>())
+                .add(listener);
+    }
+
+    synchronized void removeListener(
+            final String subscriptionId, final EventTypePartition etp, final Runnable listener) {
+        final Map<EventTypePartition, List<Runnable>> subscriptionListeners = listeners.get(subscriptionId);
+        if (null == subscriptionListeners) {
+            return;
+        }
+        final List<Runnable> partitionListeners = subscriptionListeners.get(etp);
+        if (null != partitionListeners) {
+            partitionListeners.remove(listener);
+            if (partitionListeners.isEmpty()) {
+                subscriptionListeners.remove(etp);
+            }
+        }
+        if (subscriptionListeners.isEmpty()) {
+            listeners.remove(subscriptionId);
+        }
+    }
+
+    /**
+     * Persists all buffered offsets, grouped by subscription and reset epoch. Offsets stay in buffer while being
+     * persisted, so that readers never observe committed offset moving back.
+     */
+    void flush() {
+        final Map<String, Map<Integer, Map<EventTypePartition, PendingOffset>>> snapshot = new HashMap<>();
+        synchronized (this) {
+            pending.values().removeIf(Map::isEmpty);
+            pending.forEach((subscriptionId, offsets) -> offsets.forEach((etp, offset) -> snapshot
+                    .computeIfAbsent(subscriptionId, id -> new HashMap<>())
+                    .computeIfAbsent(offset.resetEpoch, e -> new HashMap<>())
+                    .put(etp, offset)));
+        }
+        snapshot.forEach((subscriptionId, epochs) -> epochs.forEach((resetEpoch, offsets) -> {
+            final List<SubscriptionCursorWithoutToken> cursors = new ArrayList<>();
+            offsets.forEach((etp, offset) -> cursors.add(
+                    new SubscriptionCursorWithoutToken(etp.getEventType(), etp.getPartition(), offset.offset)));
+            PersistResult result;
+            try {
+                result = persister.persist(subscriptionId, resetEpoch, cursors) ?
+                        PersistResult.PERSISTED : PersistResult.RESET;
+            } catch (final Exception ex) {
+                LOG.warn("Failed to persist buffered offsets of subscription {}", subscriptionId, ex);
+                result = PersistResult.FAILED;
+            }
+            afterPersist(subscriptionId, offsets, result);
+        }));
+    }
+
+    private synchronized void afterPersist(
+            final String subscriptionId,
+            final Map<EventTypePartition, PendingOffset> flushed,
+            final PersistResult result) {
+        final Map<EventTypePartition, PendingOffset> subscriptionPending = pending.get(subscriptionId);
+        if (null == subscriptionPending) {
+            return;
+        }
+        flushed.forEach((etp, offset) -> {
+            // Offsets that were committed again while being persisted will be persisted next time
+            if (subscriptionPending.get(etp) != offset) {
+                return;
+            }
+            if (result == PersistResult.PERSISTED) {
+                subscriptionPending.remove(etp);
+            } else if (result == PersistResult.RESET) {
+                LOG.info("Dropping buffered offset {} of {} in subscription {} committed before offsets reset",
+                        offset.offset, etp, subscriptionId);
+                subscriptionPending.remove(etp);
+            } else if (++offset.attempts >= MAX_PERSIST_ATTEMPTS) {
+                LOG.error("Dropping buffered offset {} of {} in subscription {} after {} attempts to persist it",
+                        offset.offset, etp, subscriptionId, offset.attempts);
+                subscriptionPending.remove(etp);
+            }
+        });
+    }
+
+    private enum PersistResult {
+        PERSISTED,
+        RESET,
+        FAILED
+    }
+
+    private static class PendingOffset {
+        private final String offset;
+        private final int resetEpoch;
+        private int attempts;
+
+        private PendingOffset(final String offset, final int resetEpoch) {
+            this.offset = offset;
+            this.resetEpoch = resetEpoch;
+        }
+    }
+}
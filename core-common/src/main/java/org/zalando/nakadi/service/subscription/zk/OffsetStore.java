@@ -0,0 +1,59 @@
+package org.zalando.nakadi.service.subscription.zk;
+
+import org.zalando.nakadi.domain.EventTypePartition;
+import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
+import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableException;
+import org.zalando.nakadi.view.Cursor;
+import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage of committed offsets of one subscription, used by {@link ZkSubscriptionClient} for all the operations on
+ * offsets. Offsets are stored as view values (the ones from {@link SubscriptionCursorWithoutToken#getOffset()}).
+ */
+public interface OffsetStore {
+
+    /**
+     * Creates offsets for partitions that do not have them yet, existing offsets are not changed.
+     */
+    void createOffsets(Collection<SubscriptionCursorWithoutToken> cursors) throws NakadiRuntimeException;
+
+    /**
+     * @throws ServiceTemporarilyUnavailableException in case if offset for any of the keys can not be read
+     */
+    Map<EventTypePartition, SubscriptionCursorWithoutToken> getOffsets(Collection<EventTypePartition> keys)
+            throws NakadiRuntimeException, ServiceTemporarilyUnavailableException;
+
+    /**
+     * Subscribes for changes of committed offset of the partition.
+     *
+     * @param listener called whenever committed offset may have changed.
+     */
+    ZkSubscription<SubscriptionCursorWithoutToken> subscribeForOffsetChanges(
+            EventTypePartition key, Runnable listener) throws NakadiRuntimeException;
+
+    /**
+     * Commits offsets, only moving committed offset forward. It is guaranteed, that len(cursors) == len(result).
+     *
+     * @return for every cursor true if it moved committed offset forward, false otherwise.
+     */
+    List<Boolean> commitOffsets(List<SubscriptionCursorWithoutToken> cursors) throws NakadiRuntimeException;
+
+    /**
+     * Sets offsets regardless of their current values.
+     */
+    void forceCommitOffsets(List<SubscriptionCursorWithoutToken> cursors) throws NakadiRuntimeException;
+
+    /**
+     * Offsets are lexicographically comparable, except {@link Cursor#BEFORE_OLDEST_OFFSET}, which is replaced by any
+     * other offset.
+     *
+     * @return true if committing candidate moves the current offset forward.
+     */
+    static boolean isAfter(final String candidate, final String current) {
+        return candidate.compareTo(current) > 0 || current.equalsIgnoreCase(Cursor.BEFORE_OLDEST_OFFSET);
+    }
+}
@@ -2,6 +2,7 @@ package org.zalando.nakadi.service.subscription.zk;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.zalando.nakadi.config.NakadiSettings;
@@ -11,6 +12,7 @@ import org.zalando.nakadi.exceptions.runtime.NoSuchEventTypeException;
 import org.zalando.nakadi.exceptions.runtime.ZookeeperException;
 import org.zalando.nakadi.repository.zookeeper.ZooKeeperHolder;
 
+import javax.annotation.Nullable;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -19,15 +21,25 @@ public class SubscriptionClientFactory {
     private final ZooKeeperHolder zkHolder;
     private final ObjectMapper objectMapper;
     private final long maxCommitTimeoutMs;
+    private final OffsetCommitBuffer offsetCommitBuffer;
 
-    @Autowired
     public SubscriptionClientFactory(
             final ZooKeeperHolder zkHolder,
             final ObjectMapper objectMapper,
             final NakadiSettings nakadiSettings) {
+        this(zkHolder, objectMapper, nakadiSettings, null);
+    }
+
+    @Autowired
+    public SubscriptionClientFactory(
+            final ZooKeeperHolder zkHolder,
+            final ObjectMapper objectMapper,
+            final NakadiSettings nakadiSettings,
+            @Nullable final OffsetCommitBuffer offsetCommitBuffer) {
         this.zkHolder = zkHolder;
         this.objectMapper = objectMapper;
         this.maxCommitTimeoutMs = TimeUnit.SECONDS.toMillis(nakadiSettings.getMaxCommitTimeout());
+        this.offsetCommitBuffer = offsetCommitBuffer;
     }
 
     public ZkSubscriptionClient createClient(final Subscription subscription, final String loggingPath)
@@ -40,11 +52,16 @@ public class SubscriptionClientFactory {
                                              final long commitTimeoutMillis)
             throws InternalNakadiException, NoSuchEventTypeException, ZookeeperException {
         Preconditions.checkNotNull(subscription.getId());
+        final ZooKeeperHolder.CloseableCuratorFramework curator = zkHolder.getSubscriptionCurator(commitTimeoutMillis);
+        final ZkOffsetStore zkOffsetStore = new ZkOffsetStore(
+                curator.getCuratorFramework(), subscription.getId(), LoggerFactory.getLogger(loggingPath + ".zk"));
         return new NewZkSubscriptionClient(
                 subscription.getId(),
-                zkHolder.getSubscriptionCurator(commitTimeoutMillis),
+                curator,
                 loggingPath,
-                objectMapper
+                objectMapper,
+                null != offsetCommitBuffer && offsetCommitBuffer.isEnabled()
+                        ? offsetCommitBuffer.createStore(zkOffsetStore) : zkOffsetStore
         );
     }
 }
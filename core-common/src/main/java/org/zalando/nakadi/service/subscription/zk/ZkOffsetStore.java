@@ -0,0 +1,282 @@
+package org.zalando.nakadi.service.subscription.zk;
+
+import com.google.common.collect.Lists;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.transaction.CuratorOp;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import org.echocat.jomon.runtime.concurrent.RetryForSpecifiedCountStrategy;
+import org.slf4j.Logger;
+import org.zalando.nakadi.domain.EventTypePartition;
+import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
+import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableException;
+import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.echocat.jomon.runtime.concurrent.Retryer.executeWithRetry;
+
+/**
+ * Offset store that keeps offset of each partition in a separate zk node
+ * /nakadi/subscriptions/{subscription_id}/offsets/{event_type}/{partition}. Version of the node
+ * /nakadi/subscriptions/{subscription_id}/offsets_reset_epoch is increased every time offsets are reset.
+ */
+public class ZkOffsetStore implements OffsetStore {
+    private static final int COMMIT_CONFLICT_RETRY_TIMES = 5;
+    private static final int NO_RESET_EPOCH = -1;
+
+    private final CuratorFramework curator;
+    private final String subscriptionId;
+    private final Logger log;
+
+    public ZkOffsetStore(final CuratorFramework curator, final String subscriptionId, final Logger log) {
+        this.curator = curator;
+        this.subscriptionId = subscriptionId;
+        this.log = log;
+    }
+
+    public String getSubscriptionId() {
+        return subscriptionId;
+    }
+
+    private String getOffsetPath(final EventTypePartition etp) {
+        return "/nakadi/subscriptions/" + subscriptionId + "/offsets/" + etp.getEventType() + "/" + etp.getPartition();
+    }
+
+    private String getResetEpochPath() {
+        return "/nakadi/subscriptions/" + subscriptionId + "/offsets_reset_epoch";
+    }
+
+    /**
+     * Reset epoch is changed by every {@link #forceCommitOffsets(List)}, so that commits prepared before the reset
+     * can be detected and dropped, see {@link #commitOffsets(List, int)}.
+     *
+     * @return current reset epoch of the subscription.
+     */
+    public int getResetEpoch() throws NakadiRuntimeException {
+        try {
+            Stat stat = curator.checkExists().forPath(getResetEpochPath());
+            if (null == stat) {
+                try {
+                    curator.create().forPath(getResetEpochPath(), new byte[0]);
+                } catch (final KeeperException.NodeExistsException ignore) {
+                    // created concurrently
+                }
+                stat = curator.checkExists().forPath(getResetEpochPath());
+            }
+            return stat.getVersion();
+        } catch (final Exception e) {
+            throw new NakadiRuntimeException(e);
+        }
+    }
+
+    @Override
+    public void createOffsets(final Collection<SubscriptionCursorWithoutToken> cursors) throws NakadiRuntimeException {
+        log.info("Creating offsets");
+        try {
+            for (final SubscriptionCursorWithoutToken cursor : cursors) {
+                try {
+                    curator.create().creatingParentsIfNeeded().forPath(
+                            getOffsetPath(cursor.getEventTypePartition()),
+                            cursor.getOffset().getBytes(UTF_8));
+                } catch (final KeeperException.NodeExistsException ex) {
+                    log.info("Offset ZNode {}/{} exists, not creating a new one",
+                            cursor.getEventType(), cursor.getPartition());
+                }
+            }
+        } catch (final Exception e) {
+            throw new NakadiRuntimeException(e);
+        }
+    }
+
+    @Override
+    public Map<EventTypePartition, SubscriptionCursorWithoutToken> getOffsets(
+            final Collection<EventTypePartition> keys)
+            throws NakadiRuntimeException, ServiceTemporarilyUnavailableException {
+        final Map<EventTypePartition, SubscriptionCursorWithoutToken> offSets = AsyncZkReader.read(curator, log, keys,
+                this::getOffsetPath, (etp, event) ->
+                        new SubscriptionCursorWithoutToken(etp.getEventType(), etp.getPartition(),
+                                new String(event.getData(), UTF_8)));
+
+        if (offSets.size() != keys.size()) {
+            throw new ServiceTemporarilyUnavailableException("Failed to get all the keys " +
+                    keys.stream()
+                            .filter(v -> !offSets.containsKey(v))
+                            .map(String::valueOf)
+                            .collect(Collectors.joining(", "))
+                    + " from ZK.", null);
+        }
+
+        return offSets;
+    }
+
+    @Override
+    public ZkSubscription<SubscriptionCursorWithoutToken> subscribeForOffsetChanges(
+            final EventTypePartition key, final Runnable commitListener) throws NakadiRuntimeException {
+        return new ZkSubscriptionImpl.ZkSubscriptionValueImpl<>(
+                curator,
+                commitListener,
+                data -> new SubscriptionCursorWithoutToken(
+                        key.getEventType(), key.getPartition(), new String(data, UTF_8)),
+                getOffsetPath(key));
+    }
+
+    /**
+     * Sets offsets and changes reset epoch in one multi-operation.
+     */
+    @Override
+    public void forceCommitOffsets(final List<SubscriptionCursorWithoutToken> cursors) throws NakadiRuntimeException {
+        getResetEpoch();
+        try {
+            final List<CuratorOp> operations = new ArrayList<>();
+            for (final SubscriptionCursorWithoutToken cursor : cursors) {
+                operations.add(curator.transactionOp().setData().forPath(
+                        getOffsetPath(cursor.getEventTypePartition()),
+                        cursor.getOffset().getBytes(UTF_8)));
+            }
+            operations.add(curator.transactionOp().setData().forPath(getResetEpochPath(), new byte[0]));
+            curator.transaction().forOperations(operations);
+        } catch (Exception e) {
+            throw new NakadiRuntimeException(e);
+        }
+    }
+
+    /**
+     * Commits offsets of all the partitions in one round: current offsets are read asynchronously, and all the
+     * changes are written in a single multi-operation, that fails as a whole if any of the offsets was changed
+     * concurrently. In this case the whole round is repeated.
+     */
+    @Override
+    public List<Boolean> commitOffsets(final List<SubscriptionCursorWithoutToken> cursors)
+            throws NakadiRuntimeException {
+        final Map<EventTypePartition, List<SubscriptionCursorWithoutToken>> grouped = groupByPartition(cursors);
+        try {
+            final Map<EventTypePartition, List<Boolean>> committed = commitWithRetry(grouped, NO_RESET_EPOCH);
+            final Map<EventTypePartition, Iterator<Boolean>> committedOverall = new HashMap<>();
+            for (final Map.Entry<EventTypePartition, List<SubscriptionCursorWithoutToken>> entry : grouped.entrySet()) {
+                committedOverall.put(
+                        entry.getKey(),
+                        Optional.ofNullable(committed)
+                                .map(c -> c.get(entry.getKey()))
+                                .orElse(Collections.nCopies(entry.getValue().size(), false))
+                                .iterator());
+            }
+            return cursors.stream()
+                    .map(cursor -> committedOverall.get(cursor.getEventTypePartition()).next())
+                    .collect(Collectors.toList());
+
+        } catch (final Exception ex) {
+            throw new NakadiRuntimeException(ex);
+        }
+    }
+
+    /**
+     * Commits offsets the same way as {@link #commitOffsets(List)}, but only if offsets were not reset since the reset
+     * epoch was read with {@link #getResetEpoch()}.
+     *
+     * @return false if offsets were reset and nothing was committed, true otherwise.
+     */
+    public boolean commitOffsets(final List<SubscriptionCursorWithoutToken> cursors, final int resetEpoch)
+            throws NakadiRuntimeException {
+        try {
+            return null != commitWithRetry(groupByPartition(cursors), resetEpoch);
+        } catch (final Exception ex) {
+            throw new NakadiRuntimeException(ex);
+        }
+    }
+
+    private static Map<EventTypePartition, List<SubscriptionCursorWithoutToken>> groupByPartition(
+            final List<SubscriptionCursorWithoutToken> cursors) {
+        return cursors.stream().collect(Collectors.groupingBy(SubscriptionCursorWithoutToken::getEventTypePartition));
+    }
+
+    @Nullable
+    private Map<EventTypePartition, List<Boolean>> commitWithRetry(
+            final Map<EventTypePartition, List<SubscriptionCursorWithoutToken>> grouped,
+            final int resetEpoch) throws Exception {
+        return executeWithRetry(
+                () -> commitOffsetsRound(grouped, resetEpoch),
+                new RetryForSpecifiedCountStrategy<Map<EventTypePartition, List<Boolean>>>(
+                        COMMIT_CONFLICT_RETRY_TIMES)
+                        .withExceptionsThatForceRetry(KeeperException.BadVersionException.class));
+    }
+
+    /**
+     * @return null if reset epoch is given and offsets were reset after it.
+     */
+    @Nullable
+    private Map<EventTypePartition, List<Boolean>> commitOffsetsRound(
+            final Map<EventTypePartition, List<SubscriptionCursorWithoutToken>> grouped,
+            final int resetEpoch) throws Exception {
+        if (resetEpoch != NO_RESET_EPOCH) {
+            final Stat stat = curator.checkExists().forPath(getResetEpochPath());
+            if (null == stat || stat.getVersion() != resetEpoch) {
+                log.info("Offsets were reset, not committing offsets prepared before the reset");
+                return null;
+            }
+        }
+        final Map<EventTypePartition, VersionedOffset> currentOffsets = AsyncZkReader.read(
+                curator,
+                log,
+                grouped.keySet(),
+                this::getOffsetPath,
+                (etp, event) -> new VersionedOffset(new String(event.getData(), UTF_8), event.getStat().getVersion()));
+        if (currentOffsets.size() != grouped.size()) {
+            throw new ServiceTemporarilyUnavailableException("Failed to read current offsets from zk", null);
+        }
+
+        final Map<EventTypePartition, List<Boolean>> result = new HashMap<>();
+        final List<CuratorOp> operations = new ArrayList<>();
+        for (final Map.Entry<EventTypePartition, List<SubscriptionCursorWithoutToken>> entry : grouped.entrySet()) {
+            final VersionedOffset current = currentOffsets.get(entry.getKey());
+            String newMaxOffset = current.offset;
+            final List<Boolean> commits = Lists.newArrayList();
+
+            for (final SubscriptionCursorWithoutToken cursor : entry.getValue()) {
+                if (OffsetStore.isAfter(cursor.getOffset(), newMaxOffset)) {
+                    newMaxOffset = cursor.getOffset();
+                    commits.add(true);
+                } else {
+                    commits.add(false);
+                }
+            }
+            if (!newMaxOffset.equals(current.offset)) {
+                log.info("Committing {} to {}/{}",
+                        newMaxOffset, entry.getKey().getEventType(), entry.getKey().getPartition());
+                operations.add(curator.transactionOp()
+                        .setData()
+                        .withVersion(current.version)
+                        .forPath(getOffsetPath(entry.getKey()), newMaxOffset.getBytes(UTF_8)));
+            }
+            result.put(entry.getKey(), commits);
+        }
+        if (!operations.isEmpty()) {
+            if (resetEpoch != NO_RESET_EPOCH) {
+                // Fails the round if offsets are reset concurrently
+                operations.add(curator.transactionOp().check().withVersion(resetEpoch).forPath(getResetEpochPath()));
+            }
+            curator.transaction().forOperations(operations);
+        }
+        return result;
+    }
+
+    private static class VersionedOffset {
+        private final String offset;
+        private final int version;
+
+        private VersionedOffset(final String offset, final int version) {
+            this.offset = offset;
+            this.version = version;
+        }
+    }
+}
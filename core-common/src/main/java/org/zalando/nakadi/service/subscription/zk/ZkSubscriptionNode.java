@@ -1,11 +1,15 @@
 package org.zalando.nakadi.service.subscription.zk;
 
+import org.zalando.nakadi.domain.EventTypePartition;
 import org.zalando.nakadi.domain.SubscriptionEventTypeStats;
 import org.zalando.nakadi.service.subscription.model.Partition;
 import org.zalando.nakadi.service.subscription.model.Session;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.zalando.nakadi.domain.SubscriptionEventTypeStats.Partition.AssignmentType.AUTO;
@@ -14,11 +18,20 @@ import static org.zalando.nakadi.domain.SubscriptionEventTypeStats.Partition.Ass
 public final class ZkSubscriptionNode {
 
     private final Collection<Partition> partitions;
-    private final Collection<Session> sessions;
+    // Lookups are made for each partition of subscription, so they should not scan all the partitions and sessions
+    private final Map<EventTypePartition, Partition> partitionsByKey;
+    private final Map<String, Session> sessionsById;
 
     public ZkSubscriptionNode(final Collection<Partition> partitions, final Collection<Session> sessions) {
         this.partitions = partitions;
-        this.sessions = sessions;
+        this.partitionsByKey = new HashMap<>(partitions.size());
+        for (final Partition partition : partitions) {
+            partitionsByKey.putIfAbsent(partition.getKey(), partition);
+        }
+        this.sessionsById = new HashMap<>(sessions.size());
+        for (final Session session : sessions) {
+            sessionsById.putIfAbsent(session.getId().toLowerCase(Locale.ROOT), session);
+        }
     }
 
     public Collection<Partition> getPartitions() {
@@ -32,10 +45,13 @@ public final class ZkSubscriptionNode {
     }
 
     private Optional<Partition> getPartitionWithActiveSession(final String eventType, final String partition) {
-        return partitions.stream()
-                .filter(p -> p.getPartition().equals(partition) && p.getEventType().equals(eventType))
-                .filter(p -> sessions.stream().anyMatch(s -> s.getId().equalsIgnoreCase(p.getSession())))
-                .findAny();
+        return Optional.ofNullable(partitionsByKey.get(new EventTypePartition(eventType, partition)))
+                .filter(p -> getActiveSession(p).isPresent());
+    }
+
+    private Optional<Session> getActiveSession(final Partition partition) {
+        return Optional.ofNullable(partition.getSession())
+                .map(session -> sessionsById.get(session.toLowerCase(Locale.ROOT)));
     }
 
     @Nullable
@@ -48,10 +64,8 @@ public final class ZkSubscriptionNode {
     @Nullable
     public SubscriptionEventTypeStats.Partition.AssignmentType getPartitionAssignmentType(final String eventType,
                                                                                           final String partition) {
-        return partitions.stream()
-                .filter(p -> p.getPartition().equals(partition) && p.getEventType().equals(eventType))
-                .flatMap(p -> sessions.stream().filter(s -> s.getId().equalsIgnoreCase(p.getSession())))
-                .findAny()
+        return Optional.ofNullable(partitionsByKey.get(new EventTypePartition(eventType, partition)))
+                .flatMap(this::getActiveSession)
                 .map(s -> s.getRequestedPartitions().isEmpty() ? AUTO : DIRECT)
                 .orElse(null);
     }
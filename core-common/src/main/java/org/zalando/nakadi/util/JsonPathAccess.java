@@ -1,9 +1,11 @@
 package org.zalando.nakadi.util;
 
-import org.json.JSONException;
 import org.json.JSONObject;
 import org.zalando.nakadi.exceptions.runtime.JsonPathAccessException;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /*
  One could use JsonPath Lib instead: https://github.com/jayway/JsonPath
 
@@ -19,19 +21,32 @@ public class JsonPathAccess {
     }
 
     public Object get(final String path) throws JsonPathAccessException {
+        return get(this.jsonObject, compile(path));
+    }
 
+    /**
+     * Splits path into field names, so that it can be resolved many times with {@link #get(JSONObject, String[])}
+     * without parsing the path again.
+     */
+    public static String[] compile(final String path) {
         final JsonPathTokenizer pathTokenizer = new JsonPathTokenizer(path);
-
-        Object curr = this.jsonObject;
+        final List<String> fields = new ArrayList<>();
         String field;
-
         while ((field = pathTokenizer.nextToken()) != null) {
+            fields.add(field);
+        }
+        return fields.toArray(new String[0]);
+    }
+
+    public static Object get(final JSONObject jsonObject, final String[] compiledPath)
+            throws JsonPathAccessException {
+        Object curr = jsonObject;
+        for (final String field : compiledPath) {
             if (!(curr instanceof JSONObject)) {
                 throw new JsonPathAccessException("field " + field + " doesn't exist.");
             }
-            try {
-                curr = ((JSONObject) curr).get(field);
-            } catch (JSONException e) {
+            curr = ((JSONObject) curr).opt(field);
+            if (null == curr) {
                 throw new JsonPathAccessException("field " + field + " doesn't exist.");
             }
         }
@@ -1,12 +1,15 @@
 package org.zalando.nakadi.domain;
 
 import org.json.JSONException;
+import org.json.JSONObject;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static junit.framework.TestCase.fail;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class BatchFactoryTest {
 
@@ -140,4 +143,30 @@ public class BatchFactoryTest {
         final String events = "[{\"number\": 9223372036854775808 }]";
         BatchFactory.from(events);
     }
+
+    @Test
+    public void testMultiByteEventsFromBytes() {
+        final byte[] events = "[{\"name\":\"香港\"}, {\"name\":\"MyEvent\"}]".getBytes(StandardCharsets.UTF_8);
+        final List<BatchItem> batch = BatchFactory.from(events);
+        assertEquals(2, batch.size());
+        assertEquals(17, batch.get(0).getEventSize());
+        assertEquals("{\"name\":\"香港\"}", batch.get(0).getEvent().toString());
+        assertEquals("{\"name\":\"MyEvent\"}", batch.get(1).dumpEventToString());
+    }
+
+    @Test(expected = JSONException.class)
+    public void testEmptyBody() {
+        BatchFactory.from(new byte[0]);
+    }
+
+    @Test
+    public void testEventFromObjectIsNotParsedAgain() {
+        final JSONObject event = new JSONObject()
+                .put("name", "香港")
+                .put("metadata", new JSONObject().put("eid", "x"));
+        final BatchItem item = BatchFactory.fromEvent(event);
+        assertSame(event, item.getEvent());
+        assertEquals(event.toString().getBytes(StandardCharsets.UTF_8).length, item.getEventSize());
+        assertEquals(event.toString(), item.dumpEventToString());
+    }
 }
@@ -8,7 +8,9 @@ import org.json.JSONObject;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
@@ -185,4 +187,36 @@ public class BatchItemTest {
                 "{\"StartOfEnrls=tgy[9}m}Wo%5}q\\u0002d~u%&Qq4a\":\"broker_key_value\"}",
                 bi.dumpEventToString());
     }
+
+    @Test
+    public void testInjectionWithMultiByteCharsIsSplicedAtByteOffsets() {
+        final String events = "[{\"name\":\"香港\"},{\"metadata\":{\"x\":\"y\"},\n \"city\": \"Zürich\"}]";
+        final List<BatchItem> batch = BatchFactory.from(events.getBytes(StandardCharsets.UTF_8));
+        final BatchItem bi = batch.get(1);
+        bi.inject(BatchItem.Injection.METADATA, "{\"z\":\"Ž\"}");
+
+        Assert.assertEquals("{\"name\":\"香港\"}", batch.get(0).dumpEventToString());
+        Assert.assertArrayEquals(
+                "{\"metadata\":{\"z\":\"Ž\"},\"city\":\"Zürich\"}".getBytes(StandardCharsets.UTF_8),
+                bi.dumpEventToBytes());
+    }
+
+    @Test
+    public void testRawInjectionValueIsCompact() {
+        final String events = "[{\"name\":\"香港\"},{\"x\": 1, \"metadata\" :\n { \"a\" : \"b c\", \"d\": [ 1 ] } ," +
+                " \"city\": \"Zürich\"}]";
+        final List<BatchItem> batch = BatchFactory.from(events.getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertNull(batch.get(0).getRawInjectionValue(BatchItem.Injection.METADATA));
+        Assert.assertArrayEquals(
+                "{\"a\":\"b c\",\"d\":[1]}".getBytes(StandardCharsets.UTF_8),
+                batch.get(1).getRawInjectionValue(BatchItem.Injection.METADATA));
+    }
+
+    @Test
+    public void testInjectionOfEncodedValue() {
+        final BatchItem bi = BatchFactory.from("[{\"metadata\":{\"x\":\"y\"}, \"a\":\"b\"}]").get(0);
+        bi.inject(BatchItem.Injection.METADATA, "{\"z\":\"Ž\"}".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals("{\"metadata\":{\"z\":\"Ž\"},\"a\":\"b\"}", bi.dumpEventToString());
+    }
 }
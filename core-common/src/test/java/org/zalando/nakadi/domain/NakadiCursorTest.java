@@ -30,4 +30,22 @@ public class NakadiCursorTest {
                 });
     }
 
-}
\ No newline at end of file
+    @Test
+    public void whenCursorIsCreatedFromLongOffsetThenItIsEqualToParsedOne() {
+        final Timeline timeline = TestUtils.buildTimelineWithTopic("tmp");
+        final NakadiCursor fromLong = NakadiCursor.of(timeline, "0", 23L);
+        final NakadiCursor parsed = NakadiCursor.of(timeline, "0", "000000000000000023");
+        assertThat(fromLong.getOffset(), equalTo("000000000000000023"));
+        assertThat(fromLong, equalTo(parsed));
+        assertThat(fromLong.hashCode(), equalTo(parsed.hashCode()));
+    }
+
+    @Test
+    public void whenCompareOffsetsThenNumericOrderIsUsed() {
+        final Timeline timeline = TestUtils.buildTimelineWithTopic("tmp");
+        assertThat(Integer.signum(NakadiCursor.of(timeline, "0", 9L).compareOffset(
+                NakadiCursor.of(timeline, "0", "000000000000000010"))), equalTo(-1));
+        assertThat(NakadiCursor.of(timeline, "0", -1L).compareOffset(
+                NakadiCursor.of(timeline, "0", "-1")), equalTo(0));
+    }
+}
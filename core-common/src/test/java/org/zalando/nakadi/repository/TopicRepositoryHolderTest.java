@@ -93,6 +93,31 @@ public class TopicRepositoryHolderTest {
         Assert.assertEquals(1, callCount.get());
     }
 
+    @Test(timeout = 5000L)
+    public void testLookupOfExistingRepoDoesNotTakeLock() throws InterruptedException {
+        final TopicRepositoryHolder holder = new TopicRepositoryHolder(new TestTopicRepository());
+        final TopicRepository existing = holder.getTopicRepository(new Storage("1", Storage.Type.KAFKA));
+
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread locker = new Thread(() -> {
+            holder.lock.lock();
+            try {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException ignore) {
+            } finally {
+                holder.lock.unlock();
+            }
+        });
+        locker.start();
+        locked.await();
+
+        Assert.assertSame(existing, holder.getTopicRepository(new Storage("1", Storage.Type.KAFKA)));
+        release.countDown();
+        locker.join();
+    }
+
     private class TestTopicRepository implements TopicRepositoryCreator {
 
         @Override
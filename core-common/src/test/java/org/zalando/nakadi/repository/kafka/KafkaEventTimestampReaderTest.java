@@ -0,0 +1,90 @@
+package org.zalando.nakadi.repository.kafka;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class KafkaEventTimestampReaderTest {
+
+    private static ConsumerRecord<byte[], byte[]> record(final int partition, final long offset, final long timestamp) {
+        return new ConsumerRecord<>("topic", partition, offset, timestamp, TimestampType.CREATE_TIME, 0L, 0, 0,
+                null, new byte[0]);
+    }
+
+    @Test
+    public void whenTimestampsAreReadThenAllPartitionsAreReadByOneConsumerAndCached() {
+        final MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.NONE);
+        final AtomicInteger consumersCreated = new AtomicInteger();
+        final KafkaEventTimestampReader reader = new KafkaEventTimestampReader(() -> {
+            consumersCreated.incrementAndGet();
+            return consumer;
+        }, 1000, 2);
+        consumer.schedulePollTask(() -> {
+            consumer.addRecord(record(0, 5, 100L));
+            consumer.addRecord(record(0, 6, 101L));
+            consumer.addRecord(record(1, 7, 200L));
+        });
+
+        final KafkaCursor first = new KafkaCursor("topic", 0, 5);
+        final KafkaCursor second = new KafkaCursor("topic", 1, 7);
+        Assert.assertEquals(ImmutableMap.of(first, 100L, second, 200L),
+                reader.getTimestamps(ImmutableList.of(first, second)));
+        Assert.assertTrue(consumer.assignment().isEmpty());
+
+        // Nothing can be polled anymore, so the values are taken from cache
+        Assert.assertEquals(ImmutableMap.of(first, 100L, second, 200L),
+                reader.getTimestamps(ImmutableList.of(first, second)));
+        Assert.assertEquals(1, consumersCreated.get());
+    }
+
+    @Test
+    public void whenThereIsNoEventThenPositionIsAbsent() {
+        final MockConsumer<byte[], byte[]> consumer = new MockConsumer<>(OffsetResetStrategy.NONE);
+        final KafkaEventTimestampReader reader = new KafkaEventTimestampReader(() -> consumer, 50, 2);
+        Assert.assertTrue(reader.getTimestamps(ImmutableList.of(new KafkaCursor("topic", 0, 5))).isEmpty());
+    }
+
+    @Test
+    public void whenConsumerIsBusyThenRequestIsServedByAnotherOne() throws Exception {
+        final MockConsumer<byte[], byte[]> idle = new MockConsumer<>(OffsetResetStrategy.NONE);
+        final MockConsumer<byte[], byte[]> busy = new MockConsumer<>(OffsetResetStrategy.NONE);
+        final Queue<MockConsumer<byte[], byte[]>> consumers = new ArrayDeque<>(ImmutableList.of(busy, idle));
+        final KafkaEventTimestampReader reader = new KafkaEventTimestampReader(consumers::poll, 5000, 2);
+        final CountDownLatch polling = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        busy.schedulePollTask(() -> {
+            polling.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            busy.addRecord(record(0, 5, 100L));
+        });
+        final Thread busyReader = new Thread(
+                () -> reader.getTimestamps(ImmutableList.of(new KafkaCursor("topic", 0, 5))));
+        busyReader.start();
+        Assert.assertTrue(polling.await(5, TimeUnit.SECONDS));
+
+        idle.schedulePollTask(() -> idle.addRecord(record(1, 7, 200L)));
+        final KafkaCursor position = new KafkaCursor("topic", 1, 7);
+        Assert.assertEquals(ImmutableMap.of(position, 200L), reader.getTimestamps(ImmutableList.of(position)));
+
+        release.countDown();
+        busyReader.join();
+        reader.close();
+        Assert.assertTrue(busy.closed());
+        Assert.assertTrue(idle.closed());
+    }
+}
@@ -7,40 +7,59 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public class KafkaFactoryTest {
     private static class FakeKafkaFactory extends KafkaFactory {
+        private final Map<Producer<String, byte[]>, KafkaProducerProfiles.Profile> createdWith = new HashMap<>();
 
-        FakeKafkaFactory(final MetricRegistry metricRegistry) {
-            super(null, metricRegistry);
+        FakeKafkaFactory(final MetricRegistry metricRegistry, final int producerPoolSize,
+                         final KafkaProducerProfiles producerProfiles) {
+            super(null, metricRegistry, producerPoolSize, producerProfiles);
         }
 
         @Override
-        protected Producer<String, String> createProducerInstance() {
-            return Mockito.mock(Producer.class);
+        protected Producer<String, byte[]> createProducerInstance(
+                @Nullable final KafkaProducerProfiles.Profile profile) {
+            final Producer<String, byte[]> producer = Mockito.mock(Producer.class);
+            createdWith.put(producer, profile);
+            return producer;
         }
     }
 
     private static KafkaFactory createTestKafkaFactory() {
+        return createTestKafkaFactory(1);
+    }
+
+    private static KafkaFactory createTestKafkaFactory(final int producerPoolSize) {
+        return createTestKafkaFactory(producerPoolSize, new KafkaProducerProfiles());
+    }
+
+    private static FakeKafkaFactory createTestKafkaFactory(final int producerPoolSize,
+                                                           final KafkaProducerProfiles producerProfiles) {
         final MetricRegistry reg = Mockito.mock(MetricRegistry.class);
         Mockito.when(reg.counter(Mockito.anyString())).thenReturn(Mockito.mock(Counter.class));
-        return new FakeKafkaFactory(reg);
+        return new FakeKafkaFactory(reg, producerPoolSize, producerProfiles);
     }
 
     @Test
     public void verifySameProducerUsed() {
         final KafkaFactory factory = createTestKafkaFactory();
-        final Producer<String, String> producer1 = factory.takeProducer();
+        final Producer<String, byte[]> producer1 = factory.takeProducer();
         try {
             Assert.assertNotNull(producer1);
         } finally {
             factory.releaseProducer(producer1);
         }
 
-        final Producer<String, String> producer2 = factory.takeProducer();
+        final Producer<String, byte[]> producer2 = factory.takeProducer();
         try {
             Assert.assertSame(producer1, producer2);
         } finally {
@@ -52,9 +71,9 @@ public class KafkaFactoryTest {
     public void verifyProducerIsClosedAtCorrectTime() {
         final KafkaFactory factory = createTestKafkaFactory();
 
-        final List<Producer<String, String>> producers1 = IntStream.range(0, 10)
+        final List<Producer<String, byte[]>> producers1 = IntStream.range(0, 10)
                 .mapToObj(ignore -> factory.takeProducer()).collect(Collectors.toList());
-        final Producer<String, String> producer = producers1.get(0);
+        final Producer<String, byte[]> producer = producers1.get(0);
         Assert.assertNotNull(producer);
         producers1.forEach(p -> Assert.assertSame(producer, p));
         producers1.forEach(factory::releaseProducer);
@@ -62,9 +81,9 @@ public class KafkaFactoryTest {
         Mockito.verify(producer, Mockito.times(0)).close();
 
 
-        final List<Producer<String, String>> producers2 = IntStream.range(0, 10)
+        final List<Producer<String, byte[]>> producers2 = IntStream.range(0, 10)
                 .mapToObj(ignore -> factory.takeProducer()).collect(Collectors.toList());
-        final Producer<String, String> additionalProducer = factory.takeProducer();
+        final Producer<String, byte[]> additionalProducer = factory.takeProducer();
 
         Assert.assertSame(producer, additionalProducer);
         producers2.forEach(p -> Assert.assertSame(producer, p));
@@ -82,16 +101,84 @@ public class KafkaFactoryTest {
     @Test
     public void verifyNewProducerCreatedAfterClose() {
         final KafkaFactory factory = createTestKafkaFactory();
-        final Producer<String, String> producer1 = factory.takeProducer();
+        final Producer<String, byte[]> producer1 = factory.takeProducer();
         Assert.assertNotNull(producer1);
         factory.terminateProducer(producer1);
         factory.releaseProducer(producer1);
         Mockito.verify(producer1, Mockito.times(1)).close();
 
-        final Producer<String, String> producer2 = factory.takeProducer();
+        final Producer<String, byte[]> producer2 = factory.takeProducer();
         Assert.assertNotNull(producer2);
         Assert.assertNotSame(producer1, producer2);
         factory.releaseProducer(producer2);
         Mockito.verify(producer2, Mockito.times(0)).close();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void verifyTopicsAreSpreadOverProducerPool() {
+        final KafkaFactory factory = createTestKafkaFactory(4);
+        final Set<Producer<String, byte[]>> producers = new HashSet<>();
+        for (int i = 0; i < 100; ++i) {
+            final Producer<String, byte[]> producer = factory.takeProducer("topic-" + i);
+            producers.add(producer);
+            Assert.assertSame(producer, factory.takeProducer("topic-" + i));
+            factory.releaseProducer(producer);
+            factory.releaseProducer(producer);
+        }
+        Assert.assertEquals(4, producers.size());
+    }
+
+    @Test
+    public void verifyTerminationAffectsOnlyOneProducerOfPool() {
+        final KafkaFactory factory = createTestKafkaFactory(2);
+        final String topic1 = "a";
+        final String topic2 = "b";
+        final Producer<String, byte[]> producer1 = factory.takeProducer(topic1);
+        final Producer<String, byte[]> producer2 = factory.takeProducer(topic2);
+        Assert.assertNotSame(producer1, producer2);
+
+        factory.terminateProducer(producer1);
+        factory.releaseProducer(producer1);
+        factory.releaseProducer(producer2);
+        Mockito.verify(producer1, Mockito.times(1)).close();
+        Mockito.verify(producer2, Mockito.times(0)).close();
+
+        final Producer<String, byte[]> newProducer1 = factory.takeProducer(topic1);
+        Assert.assertNotSame(producer1, newProducer1);
+        Assert.assertSame(producer2, factory.takeProducer(topic2));
+        factory.releaseProducer(newProducer1);
+        factory.releaseProducer(producer2);
+    }
+
+    @Test
+    public void verifyEventTypesUseProducersOfTheirProfiles() {
+        final KafkaProducerProfiles profiles = new KafkaProducerProfiles();
+        final KafkaProducerProfiles.Profile telemetry = new KafkaProducerProfiles.Profile();
+        telemetry.setCompressionType("zstd");
+        profiles.getProfiles().put("telemetry", telemetry);
+        profiles.getEventTypes().put("et-telemetry", "telemetry");
+        profiles.validate();
+        final FakeKafkaFactory factory = createTestKafkaFactory(1, profiles);
+
+        final Producer<String, byte[]> telemetryProducer = factory.takeProducer("topic", "et-telemetry");
+        final Producer<String, byte[]> defaultProducer = factory.takeProducer("topic", "et-other");
+        Assert.assertNotSame(telemetryProducer, defaultProducer);
+        Assert.assertSame(defaultProducer, factory.takeProducer("topic"));
+        Assert.assertSame(telemetry, factory.createdWith.get(telemetryProducer));
+        Assert.assertNull(factory.createdWith.get(defaultProducer));
+
+        factory.terminateProducers("topic");
+        factory.releaseProducer(telemetryProducer);
+        factory.releaseProducer(defaultProducer);
+        factory.releaseProducer(defaultProducer);
+        Mockito.verify(telemetryProducer, Mockito.times(1)).close();
+        Mockito.verify(defaultProducer, Mockito.times(1)).close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void verifyUnknownProfileOfEventTypeIsRejected() {
+        final KafkaProducerProfiles profiles = new KafkaProducerProfiles();
+        profiles.getEventTypes().put("et", "unknown");
+        profiles.validate();
+    }
+}
@@ -0,0 +1,99 @@
+package org.zalando.nakadi.repository.kafka;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class KafkaPartitionOffsetsCacheTest {
+
+    private static final TopicPartition TP = new TopicPartition("topic", 0);
+
+    private Consumer<byte[], byte[]> consumer;
+    private MetricRegistry metricRegistry;
+    private KafkaPartitionOffsetsCache cache;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        consumer = mock(Consumer.class);
+        when(consumer.beginningOffsets(any())).thenReturn(ImmutableMap.of(TP, 10L));
+        when(consumer.endOffsets(any())).thenReturn(ImmutableMap.of(TP, 20L));
+        metricRegistry = new MetricRegistry();
+        cache = new KafkaPartitionOffsetsCache(() -> consumer, 60_000, metricRegistry);
+    }
+
+    @Test
+    public void whenCachedOffsetsAreAllowedThenKafkaIsQueriedOnce() {
+        final Map<TopicPartition, KafkaPartitionOffsetsCache.Offsets> first =
+                cache.getOffsets(ImmutableSet.of(TP), true);
+        final Map<TopicPartition, KafkaPartitionOffsetsCache.Offsets> second =
+                cache.getOffsets(ImmutableSet.of(TP), true);
+
+        Assert.assertEquals(10L, second.get(TP).getBegin());
+        Assert.assertEquals(20L, second.get(TP).getEnd());
+        Assert.assertSame(first.get(TP), second.get(TP));
+        verify(consumer, times(1)).endOffsets(any());
+        Assert.assertEquals(1, metricRegistry.meter("kafka.offsets.cache.hit").getCount());
+        Assert.assertEquals(1, metricRegistry.meter("kafka.offsets.cache.miss").getCount());
+    }
+
+    @Test
+    public void whenCachedOffsetsAreNotAllowedThenKafkaIsQueriedEachTime() {
+        cache.getOffsets(ImmutableSet.of(TP), false);
+        cache.getOffsets(ImmutableSet.of(TP), false);
+
+        verify(consumer, times(2)).endOffsets(any());
+    }
+
+    @Test
+    public void whenTopicIsInvalidatedThenOffsetsAreReloaded() {
+        cache.getOffsets(ImmutableSet.of(TP), true);
+        cache.invalidate(TP.topic());
+        cache.getOffsets(ImmutableSet.of(TP), true);
+
+        verify(consumer, times(2)).endOffsets(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void whenLookupFailsThenErrorIsNotCachedAndConsumerIsRecreated() {
+        final Consumer<byte[], byte[]> failing = mock(Consumer.class);
+        when(failing.beginningOffsets(any())).thenThrow(new TimeoutException("timeout"));
+        final Consumer<byte[], byte[]>[] consumers = new Consumer[]{failing, consumer};
+        final int[] created = {0};
+        cache = new KafkaPartitionOffsetsCache(() -> consumers[created[0]++], 60_000, metricRegistry);
+
+        try {
+            cache.getOffsets(ImmutableSet.of(TP), true);
+            Assert.fail("TimeoutException expected");
+        } catch (final TimeoutException ignore) {
+        }
+        verify(failing).close();
+
+        Assert.assertEquals(20L, cache.getOffsets(ImmutableSet.of(TP), true).get(TP).getEnd());
+        Assert.assertEquals(2, created[0]);
+    }
+
+    @Test
+    public void whenTopicDoesNotExistThenPartitionsAreEmpty() {
+        when(consumer.partitionsFor("unknown")).thenReturn(Collections.emptyList());
+
+        Assert.assertEquals(Collections.emptyList(),
+                cache.getPartitions(ImmutableSet.of("unknown"), true).get("unknown"));
+    }
+}
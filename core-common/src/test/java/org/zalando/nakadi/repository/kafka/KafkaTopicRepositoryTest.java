@@ -36,6 +36,7 @@ import org.zalando.nakadi.view.Cursor;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -58,10 +59,8 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Matchers.anyString;
-import static org.mockito.Matchers.anyVararg;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
-import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -80,7 +79,7 @@ public class KafkaTopicRepositoryTest {
     private static final String KAFKA_CLIENT_ID = "application_name-topic_name";
 
     @Captor
-    private ArgumentCaptor<ProducerRecord<String, String>> producerRecordArgumentCaptor;
+    private ArgumentCaptor<ProducerRecord<String, byte[]>> producerRecordArgumentCaptor;
 
     @SuppressWarnings("unchecked")
     public static final ProducerRecord EXPECTED_PRODUCER_RECORD = new ProducerRecord(MY_TOPIC, 0, "0", "payload");
@@ -99,13 +98,6 @@ public class KafkaTopicRepositoryTest {
         PARTITIONS.add(new PartitionState(ANOTHER_TOPIC, 9, 99, 222));
     }
 
-    private ConsumerOffsetMode offsetMode = ConsumerOffsetMode.EARLIEST;
-
-    private enum ConsumerOffsetMode {
-        EARLIEST,
-        LATEST
-    }
-
     public static final List<Cursor> MY_TOPIC_VALID_CURSORS = asList(
             cursor("0", "39"), // the first one possible
             cursor("0", "40"), // something in the middle
@@ -116,7 +108,7 @@ public class KafkaTopicRepositoryTest {
             cursor("5", "30"), cursor("9", "100"));
 
     private final KafkaTopicRepository kafkaTopicRepository;
-    private final KafkaProducer<String, String> kafkaProducer;
+    private final KafkaProducer<String, byte[]> kafkaProducer;
     private final KafkaFactory kafkaFactory;
 
     @SuppressWarnings("unchecked")
@@ -171,7 +163,7 @@ public class KafkaTopicRepositoryTest {
             kafkaTopicRepository.syncPostBatch(myTopic, batch, "random", false);
             fail();
         } catch (final EventPublishingException e) {
-            final ProducerRecord<String, String> recordSent = captureProducerRecordSent();
+            final ProducerRecord<String, byte[]> recordSent = captureProducerRecordSent();
             final Header nameHeader = recordSent.headers().headers(EventOwnerHeader.AUTH_PARAM_NAME)
                     .iterator().next();
             Assert.assertEquals(new String(nameHeader.value()), "retailer");
@@ -517,6 +509,22 @@ public class KafkaTopicRepositoryTest {
         Assert.assertTrue(meter.getCount() >= 1);
     }
 
+    @Test
+    public void whenRepositoryIsClosedThenIpAddressChangeListenerIsRemoved() {
+        final KafkaLocationManager locationManager = mock(KafkaLocationManager.class);
+        final KafkaTopicRepository repository = new KafkaTopicRepository.Builder()
+                .setKafkaFactory(kafkaFactory)
+                .setNakadiSettings(nakadiSettings)
+                .setKafkaSettings(kafkaSettings)
+                .setKafkaLocationManager(locationManager)
+                .build();
+        final ArgumentCaptor<Runnable> listener = ArgumentCaptor.forClass(Runnable.class);
+        verify(locationManager).addIpAddressChangeListener(listener.capture());
+
+        repository.close();
+        verify(locationManager).removeIpAddressChangeListener(listener.getValue());
+    }
+
     private static Cursor cursor(final String partition, final String offset) {
         return new Cursor(partition, offset);
     }
@@ -557,26 +565,10 @@ public class KafkaTopicRepositoryTest {
         allTopics().forEach(
                 topic -> when(consumer.partitionsFor(topic)).thenReturn(partitionsOfTopic(topic)));
 
-        doAnswer(invocation -> {
-            offsetMode = ConsumerOffsetMode.EARLIEST;
-            return null;
-        }).when(consumer).seekToBeginning(anyVararg());
-
-        doAnswer(invocation -> {
-            offsetMode = ConsumerOffsetMode.LATEST;
-            return null;
-        }).when(consumer).seekToEnd(anyVararg());
-
-        when(consumer.position(any())).thenAnswer(invocation -> {
-            final org.apache.kafka.common.TopicPartition tp =
-                    (org.apache.kafka.common.TopicPartition) invocation.getArguments()[0];
-            return PARTITIONS
-                    .stream()
-                    .filter(ps -> ps.topic.equals(tp.topic()) && ps.partition == tp.partition())
-                    .findFirst()
-                    .map(ps -> offsetMode == ConsumerOffsetMode.LATEST ? ps.latestOffset : ps.earliestOffset)
-                    .orElseThrow(KafkaException::new);
-        });
+        when(consumer.beginningOffsets(any())).thenAnswer(
+                invocation -> offsetsOf((Collection) invocation.getArguments()[0], false));
+        when(consumer.endOffsets(any())).thenAnswer(
+                invocation -> offsetsOf((Collection) invocation.getArguments()[0], true));
 
         // KafkaProducer
         when(kafkaProducer.send(EXPECTED_PRODUCER_RECORD)).thenReturn(mock(Future.class));
@@ -586,11 +578,23 @@ public class KafkaTopicRepositoryTest {
 
         when(kafkaFactory.getConsumer(KAFKA_CLIENT_ID)).thenReturn(consumer);
         when(kafkaFactory.getConsumer()).thenReturn(consumer);
-        when(kafkaFactory.takeProducer()).thenReturn(kafkaProducer);
+        when(kafkaFactory.takeProducer(any())).thenReturn(kafkaProducer);
+        when(kafkaFactory.takeProducer(any(), any())).thenReturn(kafkaProducer);
 
         return kafkaFactory;
     }
 
+    private static Map<org.apache.kafka.common.TopicPartition, Long> offsetsOf(
+            final Collection<org.apache.kafka.common.TopicPartition> partitions, final boolean latest) {
+        return partitions.stream().collect(Collectors.toMap(
+                tp -> tp,
+                tp -> PARTITIONS.stream()
+                        .filter(ps -> ps.topic.equals(tp.topic()) && ps.partition == tp.partition())
+                        .findFirst()
+                        .map(ps -> latest ? ps.latestOffset : ps.earliestOffset)
+                        .orElseThrow(KafkaException::new)));
+    }
+
     private List<PartitionInfo> partitionsOfTopic(final String topic) {
         return PARTITIONS.stream()
                 .filter(p -> p.topic.equals(topic))
@@ -603,7 +607,7 @@ public class KafkaTopicRepositoryTest {
     }
 
     @SuppressWarnings("unchecked")
-    private ProducerRecord<String, String> captureProducerRecordSent() {
+    private ProducerRecord<String, byte[]> captureProducerRecordSent() {
         verify(kafkaProducer, atLeastOnce()).send(producerRecordArgumentCaptor.capture(), any());
         return producerRecordArgumentCaptor.getValue();
     }
@@ -0,0 +1,152 @@
+package org.zalando.nakadi.repository.kafka;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.nakadi.domain.ConsumedEvent;
+import org.zalando.nakadi.domain.Timeline;
+import org.zalando.nakadi.utils.TestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.zalando.nakadi.utils.TestUtils.buildTimeline;
+
+public class SharedKafkaConsumerTest {
+
+    private static final String TOPIC = TestUtils.randomValidEventTypeName();
+    private static final TopicPartition TP = new TopicPartition(TOPIC, 0);
+
+    private MockConsumer<byte[], byte[]> sharedKafkaConsumer;
+    private SharedKafkaFetcher fetcher;
+    private Map<TopicPartition, Timeline> timelineMap;
+
+    @Before
+    public void before() {
+        sharedKafkaConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        fetcher = new SharedKafkaFetcher(() -> sharedKafkaConsumer, 10, 2);
+        timelineMap = ImmutableMap.of(TP, buildTimeline(TOPIC, TOPIC, new Date()));
+    }
+
+    @After
+    public void after() {
+        fetcher.close();
+    }
+
+    private SharedKafkaConsumer createConsumer(final long nextOffset, final MockConsumer<byte[], byte[]> own) {
+        return new SharedKafkaConsumer(fetcher, () -> {
+            Assert.assertNotNull("Own consumer is not expected to be created", own);
+            return own;
+        }, ImmutableList.of(new KafkaCursor(TOPIC, 0, nextOffset)), timelineMap);
+    }
+
+    private static ConsumerRecord<byte[], byte[]> record(final long offset) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, null, new byte[]{(byte) offset});
+    }
+
+    private static List<Long> offsets(final List<ConsumedEvent> events) {
+        return events.stream()
+                .map(e -> KafkaCursor.fromNakadiCursor(e.getPosition()).getOffset())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void whenConsumersArePositionedEquallyThenPartitionIsReadOnce() {
+        final SharedKafkaConsumer consumer1 = createConsumer(5, null);
+        final SharedKafkaConsumer consumer2 = createConsumer(5, null);
+        Assert.assertTrue(consumer1.readEvents(0).isEmpty());
+        Assert.assertTrue(consumer2.readEvents(0).isEmpty());
+        Assert.assertEquals(1, fetcher.getPartitionsCount());
+        TestUtils.waitFor(() -> Assert.assertEquals(ImmutableSet.of(TP), sharedKafkaConsumer.assignment()), 5000, 10);
+
+        sharedKafkaConsumer.addRecord(record(5));
+        sharedKafkaConsumer.addRecord(record(6));
+
+        final List<ConsumedEvent> events1 = new ArrayList<>();
+        final List<ConsumedEvent> events2 = new ArrayList<>();
+        TestUtils.waitFor(() -> {
+            events1.addAll(consumer1.readEvents(0));
+            events2.addAll(consumer2.readEvents(0));
+            Assert.assertEquals(ImmutableList.of(5L, 6L), offsets(events1));
+            Assert.assertEquals(ImmutableList.of(5L, 6L), offsets(events2));
+        }, 5000, 10);
+
+        consumer1.close();
+        Assert.assertEquals(1, fetcher.getPartitionsCount());
+        consumer2.close();
+        Assert.assertEquals(0, fetcher.getPartitionsCount());
+    }
+
+    @Test
+    public void whenConsumerIsSlowThenItIsDetachedAndReadsOnItsOwn() {
+        final MockConsumer<byte[], byte[]> own = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        final SharedKafkaConsumer fast = createConsumer(0, null);
+        final SharedKafkaConsumer slow = createConsumer(0, own);
+        fast.readEvents(0);
+        slow.readEvents(0);
+        TestUtils.waitFor(() -> Assert.assertEquals(ImmutableSet.of(TP), sharedKafkaConsumer.assignment()), 5000, 10);
+
+        sharedKafkaConsumer.addRecord(record(0));
+        sharedKafkaConsumer.addRecord(record(1));
+        sharedKafkaConsumer.addRecord(record(2));
+        final List<ConsumedEvent> fastEvents = new ArrayList<>();
+        TestUtils.waitFor(() -> {
+            fastEvents.addAll(fast.readEvents(0));
+            Assert.assertEquals(ImmutableList.of(0L, 1L, 2L), offsets(fastEvents));
+        }, 5000, 10);
+
+        // Slow consumer received only the events that fit into its queue, the rest is read by own consumer
+        Assert.assertEquals(ImmutableList.of(0L, 1L), offsets(slow.readEvents(0)));
+        Assert.assertEquals(ImmutableSet.of(TP), own.assignment());
+        own.addRecord(record(2));
+        Assert.assertEquals(ImmutableList.of(2L), offsets(slow.readEvents(0)));
+
+        // Position of the shared reader is reached, so slow consumer is attached again
+        Assert.assertTrue(slow.readEvents(0).isEmpty());
+        Assert.assertTrue(own.closed());
+    }
+
+    @Test
+    public void whenOnePartitionIsBehindThenOnlyThisPartitionIsDetached() {
+        final TopicPartition tp1 = new TopicPartition(TOPIC, 1);
+        final MockConsumer<byte[], byte[]> own = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        final SharedKafkaConsumer fast = createConsumer(0, null);
+        final SharedKafkaConsumer slow = new SharedKafkaConsumer(fetcher, () -> own,
+                ImmutableList.of(new KafkaCursor(TOPIC, 0, 0), new KafkaCursor(TOPIC, 1, 0)),
+                ImmutableMap.of(TP, timelineMap.get(TP), tp1, timelineMap.get(TP)));
+        fast.readEvents(0);
+        slow.readEvents(0);
+        TestUtils.waitFor(
+                () -> Assert.assertEquals(ImmutableSet.of(TP, tp1), sharedKafkaConsumer.assignment()), 5000, 10);
+
+        sharedKafkaConsumer.addRecord(record(0));
+        sharedKafkaConsumer.addRecord(record(1));
+        sharedKafkaConsumer.addRecord(record(2));
+        sharedKafkaConsumer.addRecord(new ConsumerRecord<>(TOPIC, 1, 0, null, new byte[]{0}));
+        final List<ConsumedEvent> fastEvents = new ArrayList<>();
+        TestUtils.waitFor(() -> {
+            fastEvents.addAll(fast.readEvents(0));
+            Assert.assertEquals(ImmutableList.of(0L, 1L, 2L), offsets(fastEvents));
+        }, 5000, 10);
+
+        // Burst in partition 0 moved only this partition to own consumer, partition 1 is still read by shared one
+        final List<ConsumedEvent> slowEvents = new ArrayList<>();
+        TestUtils.waitFor(() -> {
+            slowEvents.addAll(slow.readEvents(0));
+            Assert.assertEquals(3, slowEvents.size());
+        }, 5000, 10);
+        Assert.assertEquals(ImmutableSet.of(TP), own.assignment());
+        Assert.assertEquals(2, fetcher.getPartitionsCount());
+    }
+}
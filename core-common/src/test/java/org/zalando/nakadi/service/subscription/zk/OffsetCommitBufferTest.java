@@ -0,0 +1,133 @@
+package org.zalando.nakadi.service.subscription.zk;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.zalando.nakadi.domain.EventTypePartition;
+import org.zalando.nakadi.view.SubscriptionCursorWithoutToken;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OffsetCommitBufferTest {
+
+    private static final String SUBSCRIPTION_ID = "sid";
+    private static final EventTypePartition ETP = new EventTypePartition("et", "0");
+
+    private final List<List<SubscriptionCursorWithoutToken>> persisted = new ArrayList<>();
+    private boolean failPersist;
+    private int resetEpoch;
+    private OffsetCommitBuffer buffer;
+
+    @Before
+    public void before() {
+        buffer = new OffsetCommitBuffer((subscriptionId, epoch, cursors) -> {
+            if (failPersist) {
+                throw new RuntimeException("Failed to persist");
+            }
+            if (epoch != resetEpoch) {
+                return false;
+            }
+            persisted.add(cursors);
+            return true;
+        }, false, 0);
+    }
+
+    private static SubscriptionCursorWithoutToken cursor(final String offset) {
+        return new SubscriptionCursorWithoutToken(ETP.getEventType(), ETP.getPartition(), offset);
+    }
+
+    private static Map<EventTypePartition, SubscriptionCursorWithoutToken> stored(final String offset) {
+        return ImmutableMap.of(ETP, cursor(offset));
+    }
+
+    @Test
+    public void whenCommittedSeveralTimesThenLatestOffsetIsPersistedOnce() {
+        final AtomicInteger notifications = new AtomicInteger();
+        buffer.addListener(SUBSCRIPTION_ID, ETP, notifications::incrementAndGet);
+
+        Assert.assertEquals(ImmutableList.of(true, false),
+                buffer.commit(SUBSCRIPTION_ID, 0, ImmutableList.of(cursor("002"), cursor("001")), stored("001")));
+        Assert.assertEquals(ImmutableList.of(true),
+                buffer.commit(SUBSCRIPTION_ID, 0, ImmutableList.of(cursor("003")), stored("001")));
+        Assert.assertEquals(2, notifications.get());
+        Assert.assertEquals("003", buffer.getPendingOffset(SUBSCRIPTION_ID, ETP));
+
+        buffer.flush();
+        Assert.assertEquals(ImmutableList.of(ImmutableList.of(cursor("003"))), persisted);
+        Assert.assertNull(buffer.getPendingOffset(SUBSCRIPTION_ID, ETP));
+
+        buffer.flush();
+        Assert.assertEquals(1, persisted.size());
+    }
+
+    @Test
+    public void whenPersistedOffsetIsBiggerThenItIsUsedForComparison() {
+        buffer.commit(SUBSCRIPTION_ID, 0, ImmutableList.of(cursor("002")), stored("001"));
+        Assert.assertEquals(ImmutableList.of(false),
+                buffer.commit(SUBSCRIPTION_ID, 0, ImmutableList.of(cursor("004")), stored("005")));
+        Assert.assertEquals(ImmutableList.of(false),
+                buffer.commit(SUBSCRIPTION_ID, 0, ImmutableList.of(cursor("001")), stored("BEGIN")));
+    }
+
+    @Test
+    public void whenPersistFailsThenOffsetIsKeptUntilNextFlush() {
+        buffer.commit(SUBSCRIPTION_ID, 0, ImmutableList.of(cursor("002")), stored("001"));
+        failPersist = true;
+        buffer.flush();
+        Assert.assertEquals("002", buffer.getPendingOffset(SUBSCRIPTION_ID, ETP));
+
+        failPersist = false;
+        buffer.flush();
+        Assert.assertEquals(ImmutableList.of(ImmutableList.of(cursor("002"))), persisted);
+        Assert.assertNull(buffer.getPendingOffset(SUBSCRIPTION_ID, ETP));
+    }
+
+    @Test
+    public void whenListenerRemovedThenItIsNotNotified() {
+        final AtomicInteger notifications = new AtomicInteger();
+        final Runnable listener = notifications::incrementAndGet;
+        buffer.addListener(SUBSCRIPTION_ID, ETP, listener);
+        buffer.removeListener(SUBSCRIPTION_ID, ETP, listener);
+        buffer.commit(SUBSCRIPTION_ID, 0, ImmutableList.of(cursor("002")), stored("001"));
+        Assert.assertEquals(0, notifications.get());
+    }
+
+    @Test
+    public void whenReadThroughBufferedStoreThenPendingOffsetsAreVisible() {
+        final ZkOffsetStore zkOffsetStore = Mockito.mock(ZkOffsetStore.class);
+        Mockito.when(zkOffsetStore.getSubscriptionId()).thenReturn(SUBSCRIPTION_ID);
+        Mockito.when(zkOffsetStore.getOffsets(Mockito.any())).thenReturn(stored("001"));
+        Mockito.when(zkOffsetStore.getResetEpoch()).thenReturn(0);
+        final OffsetStore store = buffer.createStore(zkOffsetStore);
+
+        Assert.assertEquals(ImmutableList.of(true), store.commitOffsets(ImmutableList.of(cursor("002"))));
+        Assert.assertEquals(stored("002"), store.getOffsets(ImmutableList.of(ETP)));
+        Mockito.verify(zkOffsetStore, Mockito.never()).commitOffsets(Mockito.any());
+
+        store.forceCommitOffsets(ImmutableList.of(cursor("000")));
+        Assert.assertNull(buffer.getPendingOffset(SUBSCRIPTION_ID, ETP));
+        Mockito.verify(zkOffsetStore).forceCommitOffsets(ImmutableList.of(cursor("000")));
+    }
+
+    @Test
+    public void whenOffsetsResetThenOffsetsBufferedBeforeResetAreDropped() {
+        buffer.commit(SUBSCRIPTION_ID, 0, ImmutableList.of(cursor("005")), stored("001"));
+        resetEpoch = 1;
+        buffer.flush();
+        Assert.assertTrue(persisted.isEmpty());
+        Assert.assertNull(buffer.getPendingOffset(SUBSCRIPTION_ID, ETP));
+
+        buffer.commit(SUBSCRIPTION_ID, 0, ImmutableList.of(cursor("006")), stored("001"));
+        Assert.assertEquals(ImmutableList.of(true),
+                buffer.commit(SUBSCRIPTION_ID, 1, ImmutableList.of(cursor("002")), stored("000")));
+        Assert.assertEquals("002", buffer.getPendingOffset(SUBSCRIPTION_ID, ETP));
+        buffer.flush();
+        Assert.assertEquals(ImmutableList.of(ImmutableList.of(cursor("002"))), persisted);
+    }
+}
@@ -60,4 +60,16 @@ public class ZkSubscriptionNodeTest {
         assertThat(zkSubscriptionNode.getPartitionAssignmentType("et2", "0"), equalTo(AUTO));
         assertThat(zkSubscriptionNode.getPartitionAssignmentType("et2", "1"), equalTo(null));
     }
+
+    @Test
+    public void whenSessionIdDiffersInCaseThenSessionIsFound() {
+        final ZkSubscriptionNode node = new ZkSubscriptionNode(
+                ImmutableList.of(new Partition("et1", "0", "STREAM1", null, Partition.State.ASSIGNED)),
+                ImmutableList.of(new Session("stream1", 1)));
+
+        assertThat(node.guessStream("et1", "0"), equalTo("STREAM1"));
+        assertThat(node.guessState("et1", "0"), equalTo(Partition.State.ASSIGNED));
+        assertThat(node.getPartitionAssignmentType("et1", "0"), equalTo(AUTO));
+        assertThat(node.guessState("et1", "1"), equalTo(Partition.State.UNASSIGNED));
+    }
 }
@@ -13,6 +13,7 @@ import org.zalando.nakadi.domain.EventType;
 import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.exceptions.runtime.InternalNakadiException;
 import org.zalando.nakadi.exceptions.runtime.NoSuchEventTypeException;
+import org.zalando.nakadi.partitioning.PartitionKeyExtractor;
 import org.zalando.nakadi.repository.db.EventTypeRepository;
 import org.zalando.nakadi.repository.db.TimelineDbRepository;
 import org.zalando.nakadi.service.timeline.TimelineSync;
@@ -275,6 +276,10 @@ public class EventTypeCache {
         return getCached(name).getEventTypeValidator();
     }
 
+    public PartitionKeyExtractor getPartitionKeyExtractor(final String name) throws NoSuchEventTypeException {
+        return getCached(name).getPartitionKeyExtractor();
+    }
+
     public List<Timeline> getTimelinesOrdered(final String name) throws NoSuchEventTypeException {
         return getCached(name).getTimelines();
     }
@@ -301,6 +306,7 @@ public class EventTypeCache {
         final CachedValue result = new CachedValue(
                 eventType,
                 eventValidatorBuilder.build(eventType),
+                PartitionKeyExtractor.forEventType(eventType),
                 timelines
         );
         LOG.info("Successfully load event type {}, took: {} ms", eventTypeName, System.currentTimeMillis() - start);
@@ -316,13 +322,16 @@ public class EventTypeCache {
     private static class CachedValue {
         private final EventType eventType;
         private final EventTypeValidator eventTypeValidator;
+        private final PartitionKeyExtractor partitionKeyExtractor;
         private final List<Timeline> timelines;
 
         CachedValue(final EventType eventType,
                     final EventTypeValidator eventTypeValidator,
+                    final PartitionKeyExtractor partitionKeyExtractor,
                     final List<Timeline> timelines) {
             this.eventType = eventType;
             this.eventTypeValidator = eventTypeValidator;
+            this.partitionKeyExtractor = partitionKeyExtractor;
             this.timelines = timelines;
         }
 
@@ -334,6 +343,10 @@ public class EventTypeCache {
             return eventTypeValidator;
         }
 
+        public PartitionKeyExtractor getPartitionKeyExtractor() {
+            return partitionKeyExtractor;
+        }
+
         public List<Timeline> getTimelines() {
             return timelines;
         }
@@ -0,0 +1,79 @@
+package org.zalando.nakadi.cache;
+
+import com.google.common.collect.ImmutableList;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.zalando.nakadi.domain.EventType;
+import org.zalando.nakadi.domain.Timeline;
+import org.zalando.nakadi.service.timeline.TimelineService;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local cache of partition names for topics that are used for publishing. Listing partitions requires a call to
+ * kafka producer (with retries on timeout), therefore it is done once and the result is kept as an ordered immutable
+ * list.
+ * <p>
+ * Entries are keyed by topic, so timeline switch naturally leads to a new entry. In addition to that, all the entries
+ * of an event type are dropped when {@link EventTypeCache} invalidates the event type (that happens on timeline
+ * switch and on repartitioning). As invalidation notifications may be lost, entries also have limited lifetime.
+ */
+@Component
+public class TopicPartitionsCache {
+
+    private final TimelineService timelineService;
+    private final long ttlMillis;
+    private final ConcurrentMap<String, CachedPartitions> partitionsByTopic = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TopicPartitionsCache(
+            final TimelineService timelineService,
+            final EventTypeCache eventTypeCache,
+            @Value("${nakadi.publishing.partitionsCache.ttlSeconds:60}") final long ttlSeconds) {
+        this.timelineService = timelineService;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        eventTypeCache.addInvalidationListener(this::invalidate);
+    }
+
+    /**
+     * Returns partitions of the active timeline of the event type.
+     *
+     * @return Immutable list of partition names, sorted in natural order
+     */
+    public List<String> getOrderedPartitions(final EventType eventType) {
+        final Timeline timeline = timelineService.getActiveTimeline(eventType);
+        final long now = System.currentTimeMillis();
+        final CachedPartitions cached = partitionsByTopic.get(timeline.getTopic());
+        if (null != cached && cached.expiresAt > now) {
+            return cached.partitions;
+        }
+        final List<String> partitions = timelineService.getTopicRepository(timeline)
+                .listPartitionNames(timeline.getTopic())
+                .stream()
+                .sorted()
+                .collect(ImmutableList.toImmutableList());
+        partitionsByTopic.put(
+                timeline.getTopic(), new CachedPartitions(eventType.getName(), partitions, now + ttlMillis));
+        return partitions;
+    }
+
+    public void invalidate(final String eventTypeName) {
+        partitionsByTopic.values().removeIf(cached -> cached.eventTypeName.equals(eventTypeName));
+    }
+
+    private static class CachedPartitions {
+        private final String eventTypeName;
+        private final List<String> partitions;
+        private final long expiresAt;
+
+        private CachedPartitions(final String eventTypeName, final List<String> partitions, final long expiresAt) {
+            this.eventTypeName = eventTypeName;
+            this.partitions = partitions;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -3,19 +3,12 @@ package org.zalando.nakadi.partitioning;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.zalando.nakadi.domain.EventCategory;
 import org.zalando.nakadi.domain.EventType;
-import org.zalando.nakadi.exceptions.Try;
 import org.zalando.nakadi.exceptions.runtime.InvalidPartitionKeyFieldsException;
-import org.zalando.nakadi.exceptions.runtime.JsonPathAccessException;
-import org.zalando.nakadi.exceptions.runtime.NakadiRuntimeException;
-import org.zalando.nakadi.util.JsonPathAccess;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static java.lang.Math.abs;
-import static org.zalando.nakadi.validation.JsonSchemaEnrichment.DATA_PATH_PREFIX;
 
 @Component
 public class HashPartitionStrategy implements PartitionStrategy {
@@ -30,47 +23,35 @@ public class HashPartitionStrategy implements PartitionStrategy {
         this.stringHash = stringHash;
     }
 
+    /**
+     * Builds partition key extractor for every call. Publishing resolves partitions with the extractor cached per
+     * event type instead, see {@link PartitionResolver}.
+     */
     @Override
     public String calculatePartition(final EventType eventType, final JSONObject event, final List<String> partitions)
             throws InvalidPartitionKeyFieldsException {
-        final List<String> partitionKeyFields = eventType.getPartitionKeyFields();
-        if (partitionKeyFields.isEmpty()) {
+        final PartitionKeyExtractor extractor = PartitionKeyExtractor.forEventType(eventType);
+        if (extractor.isEmpty()) {
             throw new RuntimeException("Applying " + this.getClass().getSimpleName() + " although event type " +
                     "has no partition key fields configured.");
         }
-        try {
-            final JsonPathAccess traversableJsonEvent = new JsonPathAccess(event);
-            final int hashValue = partitionKeyFields.stream()
-                    // The problem is that JSONObject doesn't override hashCode(). Therefore convert it to
-                    // a string first and then use hashCode()
-                    .map(pkf -> EventCategory.DATA.equals(eventType.getCategory()) ? DATA_PATH_PREFIX + pkf : pkf)
-                    .map(Try.wrap(okf -> {
-                        try {
-                            final String fieldValue = traversableJsonEvent.get(okf).toString();
-                            return stringHash.hashCode(fieldValue);
-                        } catch (final JsonPathAccessException e) {
-                            throw new InvalidPartitionKeyFieldsException(e.getMessage());
-                        }
-                    }))
-                    .map(Try::getOrThrow)
-                    .mapToInt(hc -> hc)
-                    .sum();
-
-
-            int partitionIndex = abs(hashValue) % partitions.size();
-            partitionIndex = hashPartitioningCrutch.adjustPartitionIndex(partitionIndex, partitions.size());
-
-            final List<String> sortedPartitions = partitions.stream().sorted().collect(Collectors.toList());
-            return sortedPartitions.get(partitionIndex);
+        return calculatePartition(extractor.extract(event), partitions);
+    }
 
-        } catch (NakadiRuntimeException e) {
-            final Exception original = e.getException();
-            if (original instanceof InvalidPartitionKeyFieldsException) {
-                throw (InvalidPartitionKeyFieldsException) original;
-            } else {
-                throw e;
-            }
+    /**
+     * Calculates partition out of already extracted values of partition key fields.
+     *
+     * @param partitionKeys Values of partition key fields, as returned by {@link PartitionKeyExtractor}
+     * @param partitions    Partitions of the event type, sorted in natural order
+     */
+    public String calculatePartition(final List<String> partitionKeys, final List<String> partitions) {
+        int hashValue = 0;
+        for (final String partitionKey : partitionKeys) {
+            hashValue += stringHash.hashCode(partitionKey);
         }
+        int partitionIndex = abs(hashValue) % partitions.size();
+        partitionIndex = hashPartitioningCrutch.adjustPartitionIndex(partitionIndex, partitions.size());
+        return partitions.get(partitionIndex);
     }
 
 }
@@ -0,0 +1,59 @@
+package org.zalando.nakadi.partitioning;
+
+import org.json.JSONObject;
+import org.zalando.nakadi.domain.EventCategory;
+import org.zalando.nakadi.domain.EventType;
+import org.zalando.nakadi.exceptions.runtime.InvalidPartitionKeyFieldsException;
+import org.zalando.nakadi.exceptions.runtime.JsonPathAccessException;
+import org.zalando.nakadi.util.JsonPathAccess;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.zalando.nakadi.validation.JsonSchemaEnrichment.DATA_PATH_PREFIX;
+
+/**
+ * Extracts values of partition key fields of an event type. Paths to the fields (including data prefix for data
+ * change events) are parsed once on creation, so that the extractor may be cached together with the event type and
+ * reused for every published event.
+ */
+public class PartitionKeyExtractor {
+
+    private final String[][] compiledPaths;
+
+    private PartitionKeyExtractor(final String[][] compiledPaths) {
+        this.compiledPaths = compiledPaths;
+    }
+
+    public static PartitionKeyExtractor forEventType(final EventType eventType) {
+        final List<String> partitionKeyFields = null == eventType.getPartitionKeyFields() ?
+                Collections.emptyList() : eventType.getPartitionKeyFields();
+        final boolean isDataEvent = EventCategory.DATA.equals(eventType.getCategory());
+        final String[][] compiledPaths = new String[partitionKeyFields.size()][];
+        for (int i = 0; i < compiledPaths.length; ++i) {
+            final String path = partitionKeyFields.get(i);
+            compiledPaths[i] = JsonPathAccess.compile(isDataEvent ? DATA_PATH_PREFIX + path : path);
+        }
+        return new PartitionKeyExtractor(compiledPaths);
+    }
+
+    public boolean isEmpty() {
+        return compiledPaths.length == 0;
+    }
+
+    /**
+     * @return String values of partition key fields, in the order the fields are defined in event type
+     */
+    public List<String> extract(final JSONObject event) throws InvalidPartitionKeyFieldsException {
+        final List<String> result = new ArrayList<>(compiledPaths.length);
+        for (final String[] compiledPath : compiledPaths) {
+            try {
+                result.add(JsonPathAccess.get(event, compiledPath).toString());
+            } catch (final JsonPathAccessException e) {
+                throw new InvalidPartitionKeyFieldsException(e.getMessage());
+            }
+        }
+        return result;
+    }
+}
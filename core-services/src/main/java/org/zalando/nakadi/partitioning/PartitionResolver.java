@@ -5,12 +5,14 @@ import com.google.common.collect.ImmutableMap;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.zalando.nakadi.cache.EventTypeCache;
+import org.zalando.nakadi.cache.TopicPartitionsCache;
+import org.zalando.nakadi.domain.BatchItem;
 import org.zalando.nakadi.domain.EventType;
 import org.zalando.nakadi.domain.EventTypeBase;
 import org.zalando.nakadi.exceptions.runtime.InvalidEventTypeException;
 import org.zalando.nakadi.exceptions.runtime.NoSuchPartitionStrategyException;
 import org.zalando.nakadi.exceptions.runtime.PartitioningException;
-import org.zalando.nakadi.service.timeline.TimelineService;
 
 import java.util.List;
 import java.util.Map;
@@ -28,11 +30,17 @@ public class PartitionResolver {
             HASH_STRATEGY, USER_DEFINED_STRATEGY, RANDOM_STRATEGY);
 
     private final Map<String, PartitionStrategy> partitionStrategies;
-    private final TimelineService timelineService;
+    private final HashPartitionStrategy hashPartitionStrategy;
+    private final TopicPartitionsCache topicPartitionsCache;
+    private final EventTypeCache eventTypeCache;
 
     @Autowired
-    public PartitionResolver(final TimelineService timelineService, final HashPartitionStrategy hashPartitionStrategy) {
-        this.timelineService = timelineService;
+    public PartitionResolver(final TopicPartitionsCache topicPartitionsCache,
+                             final EventTypeCache eventTypeCache,
+                             final HashPartitionStrategy hashPartitionStrategy) {
+        this.topicPartitionsCache = topicPartitionsCache;
+        this.eventTypeCache = eventTypeCache;
+        this.hashPartitionStrategy = hashPartitionStrategy;
 
         partitionStrategies = ImmutableMap.of(
                 HASH_STRATEGY, hashPartitionStrategy,
@@ -56,19 +64,62 @@ public class PartitionResolver {
         }
     }
 
+    /**
+     * Returns partitions of the event type, that should be used for publishing. The result is cached and is supposed
+     * to be resolved once per batch and passed to {@link #resolvePartition(EventType, BatchItem, List)}.
+     *
+     * @return Immutable list of partition names, sorted in natural order
+     */
+    public List<String> getOrderedPartitions(final EventType eventType) {
+        return topicPartitionsCache.getOrderedPartitions(eventType);
+    }
+
     public String resolvePartition(final EventType eventType, final JSONObject eventAsJson)
             throws PartitioningException {
+        final PartitionStrategy partitionStrategy = getPartitionStrategy(eventType);
+        final List<String> orderedPartitions = getOrderedPartitions(eventType);
+        if (partitionStrategy == hashPartitionStrategy) {
+            return hashPartitionStrategy.calculatePartition(
+                    extractPartitionKeys(eventType, eventAsJson), orderedPartitions);
+        }
+        return partitionStrategy.calculatePartition(eventType, eventAsJson, orderedPartitions);
+    }
 
+    /**
+     * Resolves partition for the batch item. In case of hash partitioning strategy, partition key values are
+     * extracted with the extractor cached in {@link EventTypeCache} and are stored in the item, so that they can be
+     * reused afterwards (for example as a kafka key).
+     */
+    public String resolvePartition(final EventType eventType, final BatchItem item,
+                                   final List<String> orderedPartitions)
+            throws PartitioningException {
+        final PartitionStrategy partitionStrategy = getPartitionStrategy(eventType);
+        if (partitionStrategy == hashPartitionStrategy) {
+            final List<String> partitionKeys = extractPartitionKeys(eventType, item.getEvent());
+            item.setPartitionKeys(partitionKeys);
+            return hashPartitionStrategy.calculatePartition(partitionKeys, orderedPartitions);
+        }
+        return partitionStrategy.calculatePartition(eventType, item.getEvent(), orderedPartitions);
+    }
+
+    private List<String> extractPartitionKeys(final EventType eventType, final JSONObject event)
+            throws PartitioningException {
+        final PartitionKeyExtractor extractor = eventTypeCache.getPartitionKeyExtractor(eventType.getName());
+        if (extractor.isEmpty()) {
+            throw new RuntimeException("Applying " + HashPartitionStrategy.class.getSimpleName() +
+                    " although event type has no partition key fields configured.");
+        }
+        return extractor.extract(event);
+    }
+
+    private PartitionStrategy getPartitionStrategy(final EventType eventType) throws PartitioningException {
         final String eventTypeStrategy = eventType.getPartitionStrategy();
         final PartitionStrategy partitionStrategy = partitionStrategies.get(eventTypeStrategy);
         if (partitionStrategy == null) {
             throw new PartitioningException("Partition Strategy defined for this EventType is not found: " +
                     eventTypeStrategy);
         }
-
-        final List<String> partitions = timelineService.getTopicRepository(eventType)
-                .listPartitionNames(timelineService.getActiveTimeline(eventType).getTopic());
-        return partitionStrategy.calculatePartition(eventType, eventAsJson, partitions);
+        return partitionStrategy;
     }
 
 }
@@ -1,7 +1,10 @@
 package org.zalando.nakadi.service;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.zalando.nakadi.cache.SubscriptionCache;
 import org.zalando.nakadi.domain.ConsumedEvent;
@@ -16,23 +19,44 @@ public class EventStreamChecks {
     private final BlacklistService blacklistService;
     private final AuthorizationService authorizationService;
     private final SubscriptionCache subscriptionCache;
+    private final long readAuthorizationCacheMs;
+    private final Counter readAuthorizationCacheHits;
+    private final Counter readAuthorizationCacheMisses;
     private static final Logger LOG = LoggerFactory.getLogger(EventStreamChecks.class);
 
     public EventStreamChecks(
             final BlacklistService blacklistService,
             final AuthorizationService authorizationService,
-            final SubscriptionCache subscriptionCache) {
+            final SubscriptionCache subscriptionCache,
+            final MetricRegistry metricRegistry,
+            @Value("${nakadi.stream.read-authorization-cache-ms:10000}") final long readAuthorizationCacheMs) {
         this.blacklistService = blacklistService;
         this.authorizationService = authorizationService;
         this.subscriptionCache = subscriptionCache;
+        this.readAuthorizationCacheMs = readAuthorizationCacheMs;
+        this.readAuthorizationCacheHits = metricRegistry.counter("nakadi.stream.read-authorization-cache.hit");
+        this.readAuthorizationCacheMisses = metricRegistry.counter("nakadi.stream.read-authorization-cache.miss");
     }
 
     public boolean isConsumptionBlocked(final Collection<String> etNames, final String appId) {
         return blacklistService.isConsumptionBlocked(etNames, appId);
     }
 
-    public boolean isConsumptionBlocked(final ConsumedEvent evt) {
-        return !authorizationService.isAuthorized(AuthorizationService.Operation.READ, evt);
+    /**
+     * Checks if consumer is not authorized to read the event. Authorization decisions are reused from the cache of
+     * the stream, as long as they are not older than configured time.
+     */
+    public boolean isConsumptionBlocked(final ConsumedEvent evt, final ReadAuthorizationCache cache) {
+        final long now = System.currentTimeMillis();
+        final Boolean cached = cache.get(evt.getOwner(), now - readAuthorizationCacheMs);
+        if (null != cached) {
+            readAuthorizationCacheHits.inc();
+            return !cached;
+        }
+        readAuthorizationCacheMisses.inc();
+        final boolean authorized = authorizationService.isAuthorized(AuthorizationService.Operation.READ, evt);
+        cache.put(evt.getOwner(), authorized, now);
+        return !authorized;
     }
 
     public boolean isSubscriptionConsumptionBlocked(final String subscriptionId, final String appId) {
@@ -28,7 +28,7 @@ public class NakadiCursorComparator implements Comparator<NakadiCursor> {
             throw new IllegalArgumentException("Cursors from different event types are not comparable");
         }
         if (c1.getTimeline().getOrder() == c2.getTimeline().getOrder()) {
-            return c1.getOffset().compareTo(c2.getOffset());
+            return c1.compareOffset(c2);
         }
         if (c1.getTimeline().getOrder() > c2.getTimeline().getOrder()) {
             return -compareOrdered(c2, c1);
@@ -65,7 +65,7 @@ public class NakadiCursorComparator implements Comparator<NakadiCursor> {
             final String initialOffset = StaticStorageWorkerFactory.get(nextTimeline).getBeforeFirstOffset();
             first = NakadiCursor.of(nextTimeline, first.getPartition(), initialOffset);
         }
-        return first.getOffset().compareTo(c2.getOffset());
+        return first.compareOffset(c2);
     }
 
 
@@ -0,0 +1,63 @@
+package org.zalando.nakadi.service;
+
+import org.zalando.nakadi.domain.EventOwnerHeader;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decisions of READ authorization for consumed events of one stream. The decision for an event depends only on the
+ * consumer (which is the same for the whole stream) and on event owner header, which has low cardinality, therefore
+ * decisions are remembered per owner header.
+ * <p>
+ * Cache must be invalidated when authorization of event types that are streamed changes. It is safe to invalidate it
+ * from any thread.
+ */
+public class ReadAuthorizationCache {
+
+    // Owner headers are expected to have low cardinality, the limit protects from unbounded growth otherwise
+    private static final int MAX_SIZE = 1000;
+
+    private static class Decision {
+        private final boolean authorized;
+        private final long createdAt;
+
+        private Decision(final boolean authorized, final long createdAt) {
+            this.authorized = authorized;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private final ConcurrentMap<EventOwnerHeader, Decision> decisions = new ConcurrentHashMap<>();
+    @Nullable
+    private volatile Decision noOwnerDecision;
+
+    /**
+     * @param owner     Owner header of the event
+     * @param notBefore Decisions, that were made earlier than this moment, are considered outdated
+     * @return Authorization decision or null if there is no actual decision for the owner
+     */
+    @Nullable
+    Boolean get(@Nullable final EventOwnerHeader owner, final long notBefore) {
+        final Decision decision = null == owner ? noOwnerDecision : decisions.get(owner);
+        if (null == decision || decision.createdAt < notBefore) {
+            return null;
+        }
+        return decision.authorized;
+    }
+
+    void put(@Nullable final EventOwnerHeader owner, final boolean authorized, final long now) {
+        final Decision decision = new Decision(authorized, now);
+        if (null == owner) {
+            noOwnerDecision = decision;
+        } else if (decisions.size() < MAX_SIZE || decisions.containsKey(owner)) {
+            decisions.put(owner, decision);
+        }
+    }
+
+    public void invalidate() {
+        noOwnerDecision = null;
+        decisions.clear();
+    }
+}
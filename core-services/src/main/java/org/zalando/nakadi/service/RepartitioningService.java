@@ -5,6 +5,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.zalando.nakadi.cache.EventTypeCache;
 import org.zalando.nakadi.config.NakadiSettings;
 import org.zalando.nakadi.domain.EventType;
 import org.zalando.nakadi.domain.EventTypeStatistics;
@@ -48,6 +49,7 @@ public class RepartitioningService {
     private final CursorConverter cursorConverter;
     private final TimelineSync timelineSync;
     private final SubscriptionTokenLister subscriptionTokenLister;
+    private final EventTypeCache eventTypeCache;
 
     @Autowired
     public RepartitioningService(
@@ -58,7 +60,8 @@ public class RepartitioningService {
             final NakadiSettings nakadiSettings,
             final CursorConverter cursorConverter,
             final TimelineSync timelineSync,
-            final SubscriptionTokenLister subscriptionTokenLister) {
+            final SubscriptionTokenLister subscriptionTokenLister,
+            final EventTypeCache eventTypeCache) {
         this.eventTypeRepository = eventTypeRepository;
         this.timelineService = timelineService;
         this.subscriptionRepository = subscriptionRepository;
@@ -67,6 +70,7 @@ public class RepartitioningService {
         this.cursorConverter = cursorConverter;
         this.timelineSync = timelineSync;
         this.subscriptionTokenLister = subscriptionTokenLister;
+        this.eventTypeCache = eventTypeCache;
     }
 
     public void repartition(final String eventTypeName, final int partitions)
@@ -106,6 +110,8 @@ public class RepartitioningService {
             } catch (Exception e) {
                 throw new NakadiBaseException(e.getMessage(), e);
             }
+            // notify all the instances about changed partitions count
+            eventTypeCache.invalidate(eventType.getName());
         } catch (final InterruptedException e) {
             Thread.currentThread().interrupt();
             LOG.error("Failed to wait for timeline switch", e);
@@ -0,0 +1,185 @@
+package org.zalando.nakadi.service.publishing;
+
+import com.google.common.base.Throwables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.zalando.nakadi.domain.BatchItem;
+import org.zalando.nakadi.domain.EventPublishingStep;
+import org.zalando.nakadi.exceptions.runtime.InternalNakadiException;
+
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes per-event work of the publishing batch (validation, partitioning, etc.).
+ * <p>
+ * Small batches (and all the batches in case if parallel processing is disabled) are processed sequentially on the
+ * calling thread. Big batches are split into chunks, which are processed concurrently by a bounded pool of threads,
+ * calling thread is processing the first chunk itself. In both cases the result is exactly the same as if the
+ * batch was processed sequentially: the reported failure is the first one in batch order, and publishing step is
+ * updated only for the items up to (and including) the failed one.
+ */
+@Component
+public class BatchProcessingExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchProcessingExecutor.class);
+
+    private final int minParallelBatchSize;
+    private final int chunkSize;
+    @Nullable
+    private final ExecutorService executorService;
+
+    @FunctionalInterface
+    public interface ItemAction {
+        void apply(BatchItem item);
+    }
+
+    public static class Failure {
+        private final BatchItem item;
+        private final RuntimeException exception;
+
+        private Failure(final BatchItem item, final RuntimeException exception) {
+            this.item = item;
+            this.exception = exception;
+        }
+
+        public BatchItem getItem() {
+            return item;
+        }
+
+        public RuntimeException getException() {
+            return exception;
+        }
+    }
+
+    @Autowired
+    public BatchProcessingExecutor(
+            @Value("${nakadi.publishing.parallel.threads:0}") final int threads,
+            @Value("${nakadi.publishing.parallel.queueSize:1000}") final int queueSize,
+            @Value("${nakadi.publishing.parallel.minBatchSize:200}") final int minParallelBatchSize,
+            @Value("${nakadi.publishing.parallel.chunkSize:100}") final int chunkSize) {
+        this.minParallelBatchSize = minParallelBatchSize;
+        this.chunkSize = chunkSize;
+        if (threads > 0) {
+            // In case if the queue is full the chunk is processed by the request thread, so the parallelism degrades
+            // to sequential processing instead of rejecting the request. Unlike CallerRunsPolicy, the chunk is
+            // processed even after shutdown, otherwise its future would never complete and the request would hang.
+            this.executorService = new ThreadPoolExecutor(
+                    threads,
+                    threads,
+                    60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(queueSize),
+                    new NamedThreadFactory("publishing-batch-processor-"),
+                    (task, executor) -> task.run());
+            LOG.info("Parallel batch processing enabled with {} threads for batches of at least {} events",
+                    threads, minParallelBatchSize);
+        } else {
+            this.executorService = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (null != executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Applies action to every item in the batch until the first failure.
+     *
+     * @param batch  Batch to process
+     * @param step   Step to set for processed items, null if the step should not be changed
+     * @param action Action to apply. Should not modify the status of the item, as in case of parallel processing
+     *               it may be called for items that are following the failed one.
+     * @return The first failure in batch order, null if all the items were processed successfully.
+     */
+    @Nullable
+    public Failure execute(final List<BatchItem> batch, @Nullable final EventPublishingStep step,
+                           final ItemAction action) {
+        if (null == executorService || batch.size() < minParallelBatchSize || batch.size() <= chunkSize) {
+            return executeSequentially(batch, step, action);
+        }
+        final int chunksCount = (batch.size() + chunkSize - 1) / chunkSize;
+        final Failure[] chunkFailures = new Failure[chunksCount];
+        final AtomicInteger firstFailedIdx = new AtomicInteger(Integer.MAX_VALUE);
+
+        final List<Future<?>> futures = new ArrayList<>(chunksCount - 1);
+        for (int chunk = 1; chunk < chunksCount; ++chunk) {
+            final int chunkIdx = chunk;
+            futures.add(executorService.submit(
+                    () -> chunkFailures[chunkIdx] = executeChunk(batch, chunkIdx, action, firstFailedIdx)));
+        }
+        chunkFailures[0] = executeChunk(batch, 0, action, firstFailedIdx);
+
+        try {
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            throw new InternalNakadiException("Interrupted while processing batch", e);
+        } catch (final ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new InternalNakadiException("Failed to process batch", e);
+        }
+
+        final int failedIdx = firstFailedIdx.get();
+        final int lastProcessedIdx = failedIdx == Integer.MAX_VALUE ? batch.size() - 1 : failedIdx;
+        if (null != step) {
+            for (int i = 0; i <= lastProcessedIdx; ++i) {
+                batch.get(i).setStep(step);
+            }
+        }
+        return failedIdx == Integer.MAX_VALUE ? null : chunkFailures[failedIdx / chunkSize];
+    }
+
+    @Nullable
+    private Failure executeChunk(final List<BatchItem> batch, final int chunkIdx, final ItemAction action,
+                                 final AtomicInteger firstFailedIdx) {
+        final int end = Math.min(batch.size(), (chunkIdx + 1) * chunkSize);
+        for (int i = chunkIdx * chunkSize; i < end; ++i) {
+            if (i > firstFailedIdx.get()) {
+                // There is a failure earlier in the batch, results for this item will not be used anyway
+                return null;
+            }
+            final BatchItem item = batch.get(i);
+            try {
+                action.apply(item);
+            } catch (final RuntimeException e) {
+                firstFailedIdx.accumulateAndGet(i, Math::min);
+                return new Failure(item, e);
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Failure executeSequentially(final List<BatchItem> batch, @Nullable final EventPublishingStep step,
+                                               final ItemAction action) {
+        for (final BatchItem item : batch) {
+            if (null != step) {
+                item.setStep(step);
+            }
+            try {
+                action.apply(item);
+            } catch (final RuntimeException e) {
+                return new Failure(item, e);
+            }
+        }
+        return null;
+    }
+}
@@ -29,32 +29,32 @@ import org.zalando.nakadi.exceptions.runtime.EventPublishingException;
 import org.zalando.nakadi.exceptions.runtime.EventTypeTimeoutException;
 import org.zalando.nakadi.exceptions.runtime.EventValidationException;
 import org.zalando.nakadi.exceptions.runtime.InternalNakadiException;
-import org.zalando.nakadi.exceptions.runtime.InvalidPartitionKeyFieldsException;
-import org.zalando.nakadi.exceptions.runtime.JsonPathAccessException;
 import org.zalando.nakadi.exceptions.runtime.NoSuchEventTypeException;
 import org.zalando.nakadi.exceptions.runtime.PartitioningException;
 import org.zalando.nakadi.exceptions.runtime.PublishEventOwnershipException;
 import org.zalando.nakadi.exceptions.runtime.ServiceTemporarilyUnavailableException;
+import org.zalando.nakadi.partitioning.PartitionKeyExtractor;
 import org.zalando.nakadi.partitioning.PartitionResolver;
 import org.zalando.nakadi.partitioning.PartitionStrategy;
 import org.zalando.nakadi.service.AuthorizationValidator;
 import org.zalando.nakadi.service.TracingService;
 import org.zalando.nakadi.service.timeline.TimelineService;
 import org.zalando.nakadi.service.timeline.TimelineSync;
-import org.zalando.nakadi.util.JsonPathAccess;
 import org.zalando.nakadi.validation.EventTypeValidator;
 import org.zalando.nakadi.validation.ValidationError;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import static org.zalando.nakadi.validation.JsonSchemaEnrichment.DATA_PATH_PREFIX;
-
 @Component
 public class EventPublisher {
 
@@ -69,6 +69,12 @@ public class EventPublisher {
     private final TimelineSync timelineSync;
     private final AuthorizationValidator authValidator;
     private final EventOwnerExtractorFactory eventOwnerExtractorFactory;
+    private final BatchProcessingExecutor batchProcessingExecutor;
+
+    @FunctionalInterface
+    private interface BatchSubmitter {
+        CompletableFuture<Void> submit(List<BatchItem> batch, EventType eventType, boolean delete);
+    }
 
     @Autowired
     public EventPublisher(final TimelineService timelineService,
@@ -78,7 +84,8 @@ public class EventPublisher {
                           final NakadiSettings nakadiSettings,
                           final TimelineSync timelineSync,
                           final AuthorizationValidator authValidator,
-                          final EventOwnerExtractorFactory eventOwnerExtractorFactory) {
+                          final EventOwnerExtractorFactory eventOwnerExtractorFactory,
+                          final BatchProcessingExecutor batchProcessingExecutor) {
         this.timelineService = timelineService;
         this.eventTypeCache = eventTypeCache;
         this.partitionResolver = partitionResolver;
@@ -87,6 +94,7 @@ public class EventPublisher {
         this.timelineSync = timelineSync;
         this.authValidator = authValidator;
         this.eventOwnerExtractorFactory = eventOwnerExtractorFactory;
+        this.batchProcessingExecutor = batchProcessingExecutor;
     }
 
     public EventPublishResult publish(final String events, final String eventTypeName)
@@ -98,10 +106,26 @@ public class EventPublisher {
             PublishEventOwnershipException,
             ServiceTemporarilyUnavailableException,
             PartitioningException {
+        return publish(events.getBytes(StandardCharsets.UTF_8), eventTypeName);
+    }
+
+    /**
+     * Publishes UTF-8 encoded json array of events. The array is used as a backing storage for the events being
+     * published, so it must not be modified by the caller while the call is in progress.
+     */
+    public EventPublishResult publish(final byte[] events, final String eventTypeName)
+            throws NoSuchEventTypeException,
+            InternalNakadiException,
+            EnrichmentException,
+            EventTypeTimeoutException,
+            AccessDeniedException,
+            PublishEventOwnershipException,
+            ServiceTemporarilyUnavailableException,
+            PartitioningException {
         return processInternal(events, eventTypeName, true, false);
     }
 
-    public EventPublishResult delete(final String events, final String eventTypeName)
+    public EventPublishResult delete(final byte[] events, final String eventTypeName)
             throws NoSuchEventTypeException,
             InternalNakadiException,
             EnrichmentException,
@@ -113,67 +137,181 @@ public class EventPublisher {
         return processInternal(events, eventTypeName, true, true);
     }
 
-    EventPublishResult processInternal(final String events,
+    /**
+     * Asynchronous version of {@link #publish(byte[], String)}. The batch is prepared (validated, partitioned and
+     * enriched) on the calling thread, but the calling thread is not blocked while waiting for acknowledgements from
+     * storage. Exceptions, that are thrown by {@link #publish(byte[], String)}, are thrown by this method directly.
+     *
+     * @return Future, that is completed with the result of publishing once the storage acknowledged the batch
+     */
+    public CompletableFuture<EventPublishResult> publishAsync(final byte[] events, final String eventTypeName)
+            throws NoSuchEventTypeException,
+            InternalNakadiException,
+            EnrichmentException,
+            EventTypeTimeoutException,
+            AccessDeniedException,
+            PublishEventOwnershipException,
+            ServiceTemporarilyUnavailableException,
+            PartitioningException {
+        return processAsync(events, eventTypeName, true, false, this::submitAsync);
+    }
+
+    public CompletableFuture<EventPublishResult> deleteAsync(final byte[] events, final String eventTypeName)
+            throws NoSuchEventTypeException,
+            InternalNakadiException,
+            EnrichmentException,
+            EventTypeTimeoutException,
+            AccessDeniedException,
+            PublishEventOwnershipException,
+            ServiceTemporarilyUnavailableException,
+            PartitioningException {
+        return processAsync(events, eventTypeName, true, true, this::submitAsync);
+    }
+
+    EventPublishResult processInternal(final byte[] events,
                                        final String eventTypeName,
                                        final boolean useAuthz,
                                        final boolean delete)
             throws NoSuchEventTypeException, InternalNakadiException, EventTypeTimeoutException,
             AccessDeniedException, ServiceTemporarilyUnavailableException, PublishEventOwnershipException,
             EnrichmentException, PartitioningException {
+        return processInternal(BatchFactory.from(events), eventTypeName, useAuthz, delete, true);
+    }
 
-        Closeable publishingCloser = null;
-        final List<BatchItem> batch = BatchFactory.from(events);
+    /**
+     * Publishes events that are produced by nakadi itself (KPI, audit). The events are provided as batch items, that
+     * are built directly out of the events (see {@link BatchFactory#fromEvent(org.json.JSONObject)}), so that they are
+     * neither serialized to a json array nor parsed once again. Authorization is not checked.
+     *
+     * @param validateSchema If events should be validated against the schema of event type. Size of events is
+     *                       validated in any case.
+     */
+    EventPublishResult processInternal(final List<BatchItem> batch,
+                                       final String eventTypeName,
+                                       final boolean validateSchema)
+            throws NoSuchEventTypeException, InternalNakadiException, EventTypeTimeoutException,
+            ServiceTemporarilyUnavailableException, EnrichmentException, PartitioningException {
+        return processInternal(batch, eventTypeName, false, false, validateSchema);
+    }
+
+    private EventPublishResult processInternal(final List<BatchItem> batch,
+                                               final String eventTypeName,
+                                               final boolean useAuthz,
+                                               final boolean delete,
+                                               final boolean validateSchema)
+            throws NoSuchEventTypeException, InternalNakadiException, EventTypeTimeoutException,
+            AccessDeniedException, ServiceTemporarilyUnavailableException, PublishEventOwnershipException,
+            EnrichmentException, PartitioningException {
+        // Submission is synchronous, therefore the future is already completed here
+        return processAsync(batch, eventTypeName, useAuthz, delete, validateSchema,
+                (items, eventType, deleteEvents) -> {
+                    submit(items, eventType, deleteEvents);
+                    return CompletableFuture.completedFuture(null);
+                }).join();
+    }
+
+    private CompletableFuture<EventPublishResult> processAsync(final byte[] events,
+                                                               final String eventTypeName,
+                                                               final boolean useAuthz,
+                                                               final boolean delete,
+                                                               final BatchSubmitter submitter)
+            throws NoSuchEventTypeException, InternalNakadiException, EventTypeTimeoutException,
+            AccessDeniedException, ServiceTemporarilyUnavailableException, PublishEventOwnershipException,
+            EnrichmentException, PartitioningException {
+        return processAsync(BatchFactory.from(events), eventTypeName, useAuthz, delete, true, submitter);
+    }
+
+    private CompletableFuture<EventPublishResult> processAsync(final List<BatchItem> batch,
+                                                               final String eventTypeName,
+                                                               final boolean useAuthz,
+                                                               final boolean delete,
+                                                               final boolean validateSchema,
+                                                               final BatchSubmitter submitter)
+            throws NoSuchEventTypeException, InternalNakadiException, EventTypeTimeoutException,
+            AccessDeniedException, ServiceTemporarilyUnavailableException, PublishEventOwnershipException,
+            EnrichmentException, PartitioningException {
+        final Closeable publishingCloser;
         try {
             publishingCloser = timelineSync.workWithEventType(eventTypeName, nakadiSettings.getTimelineWaitTimeoutMs());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.error("Failed to wait for timeline switch", e);
+            throw new EventTypeTimeoutException("Event type is currently in maintenance, please repeat request");
+        } catch (final TimeoutException e) {
+            LOG.error("Failed to wait for timeline switch", e);
+            throw new EventTypeTimeoutException("Event type is currently in maintenance, please repeat request");
+        }
+
+        // Event type is kept in use until the storage acknowledges the batch, so that timeline can't be switched
+        // while the events are still being written to the old one.
+        final CompletableFuture<EventPublishResult> result;
+        try {
+            result = processWithEventTypeInUse(batch, eventTypeName, useAuthz, delete, validateSchema, submitter);
+        } catch (final RuntimeException e) {
+            releaseEventType(publishingCloser);
+            throw e;
+        }
+        return result.whenComplete((ignore, ex) -> releaseEventType(publishingCloser));
+    }
 
+    private CompletableFuture<EventPublishResult> processWithEventTypeInUse(final List<BatchItem> batch,
+                                                                            final String eventTypeName,
+                                                                            final boolean useAuthz,
+                                                                            final boolean delete,
+                                                                            final boolean validateSchema,
+                                                                            final BatchSubmitter submitter) {
+        try {
             final EventType eventType = eventTypeCache.getEventType(eventTypeName);
             if (useAuthz) {
                 authValidator.authorizeEventTypeWrite(eventType);
             }
             validateEventOwnership(eventType, batch);
-            validate(batch, eventType, delete);
+            validate(batch, eventType, delete, validateSchema);
             partition(batch, eventType);
             setEventKey(batch, eventType);
             if (!delete) {
                 enrich(batch, eventType);
             }
-            submit(batch, eventType, delete);
-
-            return ok(batch);
+            return submitter.submit(batch, eventType, delete).handle((ignore, ex) -> {
+                if (null == ex) {
+                    return ok(batch);
+                }
+                final Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+                if (cause instanceof EventPublishingException) {
+                    LOG.error("error publishing event", cause);
+                    return failed(batch);
+                }
+                throw ex instanceof CompletionException ? (CompletionException) ex : new CompletionException(ex);
+            });
         } catch (final EventValidationException e) {
             LOG.info(
                     "Event type {} validation error: {}",
                     eventTypeName,
                     Optional.ofNullable(e.getMessage()).map(s -> s.replaceAll("\n", "; ")).orElse(null)
             );
-            return aborted(EventPublishingStep.VALIDATING, batch);
+            return CompletableFuture.completedFuture(aborted(EventPublishingStep.VALIDATING, batch));
         } catch (final PartitioningException e) {
             LOG.debug("Event partition error: {}", e.getMessage());
-            return aborted(EventPublishingStep.PARTITIONING, batch);
+            return CompletableFuture.completedFuture(aborted(EventPublishingStep.PARTITIONING, batch));
         } catch (final EnrichmentException e) {
             LOG.debug("Event enrichment error: {}", e.getMessage());
-            return aborted(EventPublishingStep.ENRICHING, batch);
+            return CompletableFuture.completedFuture(aborted(EventPublishingStep.ENRICHING, batch));
         } catch (final PublishEventOwnershipException e) {
             LOG.debug("Event ownership error: {}", e.getMessage());
-            return aborted(EventPublishingStep.VALIDATING, batch);
+            return CompletableFuture.completedFuture(aborted(EventPublishingStep.VALIDATING, batch));
         } catch (final EventPublishingException e) {
             LOG.error("error publishing event", e);
-            return failed(batch);
-        } catch (final InterruptedException e) {
-            Thread.currentThread().interrupt();
-            LOG.error("Failed to wait for timeline switch", e);
-            throw new EventTypeTimeoutException("Event type is currently in maintenance, please repeat request");
-        } catch (final TimeoutException e) {
-            LOG.error("Failed to wait for timeline switch", e);
-            throw new EventTypeTimeoutException("Event type is currently in maintenance, please repeat request");
-        } finally {
-            try {
-                if (publishingCloser != null) {
-                    publishingCloser.close();
-                }
-            } catch (final IOException e) {
-                LOG.error("Exception occurred when releasing usage of event-type", e);
+            return CompletableFuture.completedFuture(failed(batch));
+        }
+    }
+
+    private static void releaseEventType(@Nullable final Closeable publishingCloser) {
+        try {
+            if (publishingCloser != null) {
+                publishingCloser.close();
             }
+        } catch (final IOException e) {
+            LOG.error("Exception occurred when releasing usage of event-type", e);
         }
     }
 
@@ -198,15 +336,18 @@ public class EventPublisher {
 
     private void partition(final List<BatchItem> batch, final EventType eventType)
             throws PartitioningException {
-        for (final BatchItem item : batch) {
-            item.setStep(EventPublishingStep.PARTITIONING);
-            try {
-                final String partitionId = partitionResolver.resolvePartition(eventType, item.getEvent());
-                item.setPartition(partitionId);
-            } catch (final PartitioningException e) {
-                item.updateStatusAndDetail(EventPublishingStatus.FAILED, e.getMessage());
-                throw e;
+        final List<String> orderedPartitions = partitionResolver.getOrderedPartitions(eventType);
+        final BatchProcessingExecutor.Failure failure = batchProcessingExecutor.execute(
+                batch,
+                EventPublishingStep.PARTITIONING,
+                item -> item.setPartition(
+                        partitionResolver.resolvePartition(eventType, item, orderedPartitions)));
+        if (null != failure) {
+            if (failure.getException() instanceof PartitioningException) {
+                failure.getItem().updateStatusAndDetail(
+                        EventPublishingStatus.FAILED, failure.getException().getMessage());
             }
+            throw failure.getException();
         }
     }
 
@@ -224,18 +365,12 @@ public class EventPublisher {
             // we will set event key only if there is exactly one partition key field,
             // in other case it's not clear what should be set as event key
             if (partitionKeyFields.size() == 1) {
-                String partitionKeyField = partitionKeyFields.get(0);
-                if (EventCategory.DATA.equals(eventType.getCategory())) {
-                    partitionKeyField = DATA_PATH_PREFIX + partitionKeyField;
-                }
+                final PartitionKeyExtractor extractor = eventTypeCache.getPartitionKeyExtractor(eventType.getName());
                 for (final BatchItem item : batch) {
-                    final JsonPathAccess jsonPath = new JsonPathAccess(item.getEvent());
-                    try {
-                        final String eventKey = jsonPath.get(partitionKeyField).toString();
-                        item.setEventKey(eventKey);
-                    } catch (final JsonPathAccessException e) {
-                        throw new InvalidPartitionKeyFieldsException(e.getMessage());
-                    }
+                    // partition keys are normally extracted on partitioning step
+                    final List<String> partitionKeys = null != item.getPartitionKeys() ?
+                            item.getPartitionKeys() : extractor.extract(item.getEvent());
+                    item.setEventKey(partitionKeys.get(0));
                 }
             }
         }
@@ -259,7 +394,8 @@ public class EventPublisher {
         }
     }
 
-    private void validate(final List<BatchItem> batch, final EventType eventType, final boolean delete)
+    private void validate(final List<BatchItem> batch, final EventType eventType, final boolean delete,
+                          final boolean validateSchema)
             throws EventValidationException, InternalNakadiException, NoSuchEventTypeException {
 
         final Tracer.SpanBuilder validationSpan = TracingService.buildNewSpan("validation")
@@ -270,22 +406,29 @@ public class EventPublisher {
             if (delete && eventType.getCleanupPolicy() == CleanupPolicy.DELETE) {
                 throw new EventValidationException("It is not allowed to delete events from non compacted event type");
             }
-            for (final BatchItem item : batch) {
-                item.setStep(EventPublishingStep.VALIDATING);
-                try {
-                    if (!delete) {
-                        validateSchema(item.getEvent(), eventType);
-                    }
-                    validateEventSize(item);
-                } catch (final EventValidationException e) {
-                    item.updateStatusAndDetail(EventPublishingStatus.FAILED, e.getMessage());
+            final boolean checkSchema = !delete && validateSchema;
+            final EventTypeValidator validator = checkSchema ? eventTypeCache.getValidator(eventType.getName()) : null;
+            final BatchProcessingExecutor.Failure failure = batchProcessingExecutor.execute(
+                    batch,
+                    EventPublishingStep.VALIDATING,
+                    item -> {
+                        if (checkSchema) {
+                            validateSchema(item.getEvent(), validator);
+                        }
+                        validateEventSize(item);
+                    });
+            if (null != failure) {
+                if (failure.getException() instanceof EventValidationException) {
+                    final BatchItem item = failure.getItem();
+                    final String message = failure.getException().getMessage();
+                    item.updateStatusAndDetail(EventPublishingStatus.FAILED, message);
                     if (eventType.getCategory() != EventCategory.UNDEFINED) {
                         TracingService.log(ImmutableMap.of(
                                 "event.id", item.getEvent().getJSONObject("metadata").getString("eid"),
-                                "error", e.getMessage()));
+                                "error", message));
                     }
-                    throw e;
                 }
+                throw failure.getException();
             }
         } catch (final IOException ioe) {
             throw new InternalNakadiException("Error closing active span scope", ioe);
@@ -315,10 +458,38 @@ public class EventPublisher {
         }
     }
 
-    private void validateSchema(final JSONObject event, final EventType eventType)
-            throws EventValidationException, InternalNakadiException, NoSuchEventTypeException {
+    private CompletableFuture<Void> submitAsync(
+            final List<BatchItem> batch, final EventType eventType, final boolean delete)
+            throws EventPublishingException, InternalNakadiException {
+        final Timeline activeTimeline = timelineService.getActiveTimeline(eventType);
+        final String topic = activeTimeline.getTopic();
+
+        final Span publishingSpan = TracingService.buildNewSpan("publishing_to_kafka")
+                .withTag(Tags.MESSAGE_BUS_DESTINATION.getKey(), topic)
+                .start();
+        final CompletableFuture<Void> result;
+        try (Closeable ignored = TracingService.activateSpan(publishingSpan)) {
+            result = timelineService
+                    .getTopicRepository(eventType)
+                    .asyncPostBatch(topic, batch, eventType.getName(), delete);
+        } catch (final EventPublishingException epe) {
+            publishingSpan.log(epe.getMessage());
+            publishingSpan.finish();
+            throw epe;
+        } catch (final IOException ioe) {
+            publishingSpan.finish();
+            throw new InternalNakadiException("Error closing active span scope", ioe);
+        }
+        return result.whenComplete((ignore, ex) -> {
+            if (null != ex) {
+                publishingSpan.log((ex instanceof CompletionException ? ex.getCause() : ex).getMessage());
+            }
+            publishingSpan.finish();
+        });
+    }
 
-        final EventTypeValidator validator = eventTypeCache.getValidator(eventType.getName());
+    private static void validateSchema(final JSONObject event, final EventTypeValidator validator)
+            throws EventValidationException {
         final Optional<ValidationError> validationError = validator.validate(event);
         if (validationError.isPresent()) {
             throw new EventValidationException(validationError.get().getMessage());
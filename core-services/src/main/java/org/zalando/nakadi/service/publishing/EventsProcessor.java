@@ -1,39 +1,64 @@
 package org.zalando.nakadi.service.publishing;
 
-import org.json.JSONArray;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.zalando.nakadi.domain.BatchFactory;
+import org.zalando.nakadi.domain.BatchItem;
 
+import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
 
+/**
+ * Collects events produced by nakadi itself (KPI, audit) into batches and publishes them.
+ * <p>
+ * Events are spread between {@code workers} shards by event type name, so that all the events of an event type are
+ * batched and published by the same worker thread, in the order they were queued. Each shard has its own lock-free
+ * queue, so producers of different event types do not contend with each other, and the producers never block - in
+ * case if the queue of a shard is full, event is dropped and it is reflected in metrics.
+ * <p>
+ * Batches are normally limited by {@code batch-size} events and by {@code batch-collection-timeout}. In case if
+ * publishing can not keep up with incoming events and the backlog of a shard exceeds regular batch size, batches are
+ * allowed to grow up to {@code max-batch-size} events, so that the backlog is published in fewer requests.
+ */
 @Component
 public class EventsProcessor {
 
     private static final Logger LOG = LoggerFactory.getLogger(EventsProcessor.class);
+    private static final String METRIC_PREFIX = "nakadi.internal-events";
 
     private final EventPublisher eventPublisher;
-    private final ExecutorService executorService;
 
     private final long batchCollectionTimeout;
     private final int maxBatchSize;
+    private final int maxBurstBatchSize;
+    private final Set<String> eventTypesWithoutValidation;
 
-    private final BlockingQueue<EventToPublish> eventsQueue;
-    private final Thread dispatcherThread;
+    private final Shard[] shards;
+    private final Meter droppedOnQueueOverflow;
+    private final Meter droppedOnPublishingFailure;
+    private final Histogram batchSizes;
 
     private static class EventToPublish {
         private final String eventType;
@@ -47,176 +72,225 @@ public class EventsProcessor {
 
     @Autowired
     public EventsProcessor(final EventPublisher eventPublisher,
+                           final MetricRegistry metricRegistry,
                            @Value("${nakadi.kpi.config.batch-collection-timeout}") final long batchCollectionTimeout,
                            @Value("${nakadi.kpi.config.batch-size}") final int maxBatchSize,
+                           @Value("${nakadi.kpi.config.max-batch-size:1000}") final int maxBurstBatchSize,
                            @Value("${nakadi.kpi.config.workers}") final int workers,
-                           @Value("${nakadi.kpi.config.batch-queue:100}") final int maxBatchQueue,
-                           @Value("${nakadi.kpi.config.events-queue-size}") final int eventsQueueSize) {
+                           @Value("${nakadi.kpi.config.events-queue-size}") final int eventsQueueSize,
+                           @Value("${nakadi.kpi.config.skip-validation-event-types:}")
+                           final String eventTypesWithoutValidation) {
         this.eventPublisher = eventPublisher;
         this.batchCollectionTimeout = batchCollectionTimeout;
         this.maxBatchSize = maxBatchSize;
+        this.maxBurstBatchSize = Math.max(maxBatchSize, maxBurstBatchSize);
+        // Events are produced by nakadi itself, so for some event types it is safe to skip schema validation
+        this.eventTypesWithoutValidation = Arrays.stream(eventTypesWithoutValidation.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
 
-        // The following lines will create executor service of {@code workers} threads with burst up to workers * 2
-        // threads, unused thread death timeout of 10 seconds,
-        // maximum batch publishers in queue of {@code maxBatchQueue} and only logging rejection policy in case of
-        // queue overflow.
-        this.executorService = new ThreadPoolExecutor(
-                workers,
-                workers * 2,
-                10, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<>(maxBatchQueue),
-                new NamedThreadFactory("internal-event-batch-sender-"),
-                (runnable, threadPoolExecutor) -> {
-                    LOG.warn("Failed publish batch {}, as batch publishing queue of size {} is full",
-                            runnable, maxBatchQueue);
-                }
-        );
-        this.eventsQueue = new ArrayBlockingQueue<>(eventsQueueSize);
-        this.dispatcherThread = new Thread(this::dispatch, "processor-dispatch");
+        // Queue size is configured for the whole processor, each shard gets its part of it
+        final int shardQueueSize = Math.max(1, (eventsQueueSize + workers - 1) / workers);
+        this.shards = new Shard[workers];
+        for (int i = 0; i < workers; ++i) {
+            shards[i] = new Shard(shardQueueSize, "internal-event-batch-sender-" + (i + 1));
+        }
+
+        this.droppedOnQueueOverflow = metricRegistry.meter(
+                MetricRegistry.name(METRIC_PREFIX, "dropped", "queue-overflow"));
+        this.droppedOnPublishingFailure = metricRegistry.meter(
+                MetricRegistry.name(METRIC_PREFIX, "dropped", "publishing-failure"));
+        this.batchSizes = metricRegistry.histogram(MetricRegistry.name(METRIC_PREFIX, "batch-size"));
+        metricRegistry.register(MetricRegistry.name(METRIC_PREFIX, "queue-size"),
+                (Gauge<Integer>) () -> Arrays.stream(shards).mapToInt(shard -> shard.queueSize.get()).sum());
     }
 
     @PostConstruct
     public void start() {
-        dispatcherThread.start();
+        for (final Shard shard : shards) {
+            shard.thread.start();
+        }
     }
 
     @PreDestroy
     public void stop() throws InterruptedException {
-        dispatcherThread.interrupt();
-        dispatcherThread.join();
-        executorService.shutdown();
+        for (final Shard shard : shards) {
+            shard.running = false;
+            LockSupport.unpark(shard.thread);
+        }
+        for (final Shard shard : shards) {
+            shard.thread.join();
+        }
     }
 
     private static class BatchedRequest {
         private final String eventType;
         private final long finishCollectionAt;
-        private final JSONArray data;
-        private int size = 0;
+        private final List<JSONObject> data;
 
         private BatchedRequest(final String eventType, final long finishCollectionAt) {
             this.eventType = eventType;
             this.finishCollectionAt = finishCollectionAt;
-            this.data = new JSONArray();
+            this.data = new ArrayList<>();
         }
 
         public int add(final JSONObject obj) {
-            this.data.put(obj);
-            return ++size;
+            this.data.add(obj);
+            return data.size();
         }
 
         @Override
         public String toString() {
-            return "Batch{et=" + eventType + ",size:" + size + "}";
+            return "Batch{et=" + eventType + ",size:" + data.size() + "}";
         }
     }
 
-    private void scheduleSendBatchedRequest(final BatchedRequest req) {
-        final Runnable r = new Runnable() {
-            @Override
-            public void run() {
-                sendEventsDisabledAuthz(req.data.toString(), req.eventType);
+    /**
+     * Queue of events for a subset of event types together with the worker thread that assembles them into batches
+     * and publishes them.
+     */
+    private class Shard implements Runnable {
+        private final Queue<EventToPublish> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queueSize = new AtomicInteger();
+        private final int capacity;
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile boolean parked = false;
+
+        private Shard(final int capacity, final String threadName) {
+            this.capacity = capacity;
+            this.thread = new Thread(this, threadName);
+        }
+
+        private boolean offer(final EventToPublish event) {
+            if (queueSize.incrementAndGet() > capacity) {
+                queueSize.decrementAndGet();
+                return false;
             }
+            queue.offer(event);
+            // Waking up worker is relatively expensive, therefore it is done only if worker is waiting for events
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+            return true;
+        }
 
-            @Override
-            public String toString() {
-                return "Batch to " + req.eventType + " of size " + req.data.length();
+        @Nullable
+        private EventToPublish poll() {
+            final EventToPublish event = queue.poll();
+            if (null != event) {
+                queueSize.decrementAndGet();
             }
-        };
-        executorService.submit(r);
-    }
+            return event;
+        }
 
-    /**
-     * Generates batches from {@link #eventsQueue} single events with the following constraints:
-     * <ul>
-     *     <li>Batch size is not more than {@link #maxBatchSize} events each</li>
-     *     <li>Each batch is assembled for at most {@link #batchCollectionTimeout} ms (or close to it)</li>
-     * </ul>
-     */
-    private void dispatch() {
-        final Map<String, BatchedRequest> batchesBeingAssembled = new HashMap<>();
-        try {
+        /**
+         * Generates batches from {@link #queue} single events with the following constraints:
+         * <ul>
+         *     <li>Batch size is not more than {@link #maxBatchSize} events each, or {@link #maxBurstBatchSize} in
+         *     case if there is a backlog of events</li>
+         *     <li>Each batch is assembled for at most {@link #batchCollectionTimeout} ms (or close to it)</li>
+         * </ul>
+         */
+        @Override
+        public void run() {
+            final Map<String, BatchedRequest> batchesBeingAssembled = new HashMap<>();
             // The time here is a moment in time at which batches should be evaluated - if they should be sent or not
             long nextTimeCheck = System.currentTimeMillis() + batchCollectionTimeout;
-            while (true) {
-                long currentTime = System.currentTimeMillis();
-                final EventToPublish data = eventsQueue.poll(
-                        Math.max(nextTimeCheck - currentTime, 1), TimeUnit.MILLISECONDS);
-                currentTime = System.currentTimeMillis();
-                boolean batchWasSent = false;
-                // In case if data was taken - add it.
-                if (data != null) {
+            while (running) {
+                EventToPublish data;
+                while (null != (data = poll())) {
                     BatchedRequest batch = batchesBeingAssembled.get(data.eventType);
                     if (null == batch) {
-                        batch = new BatchedRequest(data.eventType, currentTime + batchCollectionTimeout);
+                        batch = new BatchedRequest(
+                                data.eventType, System.currentTimeMillis() + batchCollectionTimeout);
                         batchesBeingAssembled.put(data.eventType, batch);
+                        nextTimeCheck = Math.min(nextTimeCheck, batch.finishCollectionAt);
                     }
-                    // In case if batch size is crossing maxBatchSize - send batch
-                    if (batch.add(data.object) >= maxBatchSize) {
-                        scheduleSendBatchedRequest(batch);
+                    final int batchLimit = queueSize.get() > maxBatchSize ? maxBurstBatchSize : maxBatchSize;
+                    if (batch.add(data.object) >= batchLimit) {
+                        send(batch);
                         batchesBeingAssembled.remove(batch.eventType);
-                        currentTime = System.currentTimeMillis();
-                        batchWasSent = true;
                     }
                 }
-                if (batchWasSent || currentTime > nextTimeCheck) {
-                    // In order to figure out when the batches should be sent - we are selecting the nearest time
-                    // of batch expiration (finishCollectionAt) and use it in eventsQueue.poll(). Threr are only 2
-                    // possible moments when this time is changing - a set of batches to send is changing or the time
-                    // to send has come.
+                final long currentTime = System.currentTimeMillis();
+                if (currentTime >= nextTimeCheck) {
+                    // Batches are evaluated only when the nearest batch expiration moment (finishCollectionAt) comes,
+                    // and it is also the moment when the next evaluation should happen.
                     nextTimeCheck = currentTime + batchCollectionTimeout;
-                    final Set<Map.Entry<String, BatchedRequest>> entries = batchesBeingAssembled.entrySet();
-                    final Iterator<Map.Entry<String, BatchedRequest>> iterator = entries.iterator();
-                    while (iterator.hasNext()){
-                        final Map.Entry<String, BatchedRequest> entry = iterator.next();
-                        if (entry.getValue().finishCollectionAt < currentTime) {
-                            // If batch is to be sent
-                            scheduleSendBatchedRequest(entry.getValue());
+                    final Iterator<BatchedRequest> iterator = batchesBeingAssembled.values().iterator();
+                    while (iterator.hasNext()) {
+                        final BatchedRequest batch = iterator.next();
+                        if (batch.finishCollectionAt <= currentTime) {
+                            send(batch);
                             iterator.remove();
-                        } else if (nextTimeCheck > entry.getValue().finishCollectionAt) {
-                            // finishCollectionAt for the batch is closer then previous one
-                            nextTimeCheck = entry.getValue().finishCollectionAt;
+                        } else if (nextTimeCheck > batch.finishCollectionAt) {
+                            nextTimeCheck = batch.finishCollectionAt;
                         }
                     }
                 }
+                parked = true;
+                // Event may be queued after the queue was drained, but before parked flag was set
+                if (queue.isEmpty() && running) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(
+                            Math.max(nextTimeCheck - System.currentTimeMillis(), 1)));
+                }
+                parked = false;
             }
-        } catch (InterruptedException ex) {
-            LOG.info("Was interrupted while dispatching batches");
+            sendLeftoversOnShutdown(batchesBeingAssembled);
         }
-        // now we have a lot of stuff to send
-        sendLeftovesOnShutdown(batchesBeingAssembled);
-    }
 
-    private void sendLeftovesOnShutdown(final Map<String, BatchedRequest> batchesBeingAssembled) {
-        EventToPublish taken;
-        while (null != (taken = eventsQueue.poll())) {
-            BatchedRequest batchedRequest = batchesBeingAssembled.get(taken.eventType);
-            if (null == batchedRequest) {
-                batchedRequest = new BatchedRequest(taken.eventType, System.currentTimeMillis());
-                batchesBeingAssembled.put(taken.eventType, batchedRequest);
+        private void sendLeftoversOnShutdown(final Map<String, BatchedRequest> batchesBeingAssembled) {
+            EventToPublish taken;
+            while (null != (taken = poll())) {
+                BatchedRequest batchedRequest = batchesBeingAssembled.get(taken.eventType);
+                if (null == batchedRequest) {
+                    batchedRequest = new BatchedRequest(taken.eventType, System.currentTimeMillis());
+                    batchesBeingAssembled.put(taken.eventType, batchedRequest);
+                }
+                if (batchedRequest.add(taken.object) >= maxBurstBatchSize) {
+                    send(batchedRequest);
+                    batchesBeingAssembled.remove(batchedRequest.eventType);
+                }
             }
-            if (batchedRequest.add(taken.object) >= maxBatchSize) {
-                scheduleSendBatchedRequest(batchedRequest);
-                batchesBeingAssembled.remove(batchedRequest.eventType);
+            for (final BatchedRequest req : batchesBeingAssembled.values()) {
+                send(req);
             }
+            batchesBeingAssembled.clear();
         }
-        for (final BatchedRequest req : batchesBeingAssembled.values()) {
-            scheduleSendBatchedRequest(req);
+
+        private void send(final BatchedRequest req) {
+            batchSizes.update(req.data.size());
+            if (!sendEventsDisabledAuthz(req.data, req.eventType)) {
+                droppedOnPublishingFailure.mark(req.data.size());
+            }
         }
-        batchesBeingAssembled.clear();
     }
 
     public void queueEvent(final String etName, final JSONObject event) {
-        if (!eventsQueue.offer(new EventToPublish(etName, event))) {
-            LOG.warn("Rejecting events to be queued for {} due to queue overload", etName);
+        final Shard shard = shards[Math.floorMod(etName.hashCode(), shards.length)];
+        if (!shard.offer(new EventToPublish(etName, event))) {
+            droppedOnQueueOverflow.mark();
+            LOG.debug("Rejecting events to be queued for {} due to queue overload", etName);
         }
     }
 
-    public void sendEventsDisabledAuthz(final String events, final String eventType) {
+    /**
+     * Publishes events with disabled authz check. The events are handed to publisher as they are, without
+     * serializing them to a batch and parsing back.
+     */
+    public boolean sendEventsDisabledAuthz(final List<JSONObject> events, final String eventType) {
         try {
-            // sending events batch with disabled authz check
-            eventPublisher.processInternal(events, eventType, false, false);
+            final List<BatchItem> batch = new ArrayList<>(events.size());
+            for (final JSONObject event : events) {
+                batch.add(BatchFactory.fromEvent(event));
+            }
+            eventPublisher.processInternal(batch, eventType, !eventTypesWithoutValidation.contains(eventType));
+            return true;
         } catch (final RuntimeException ex) {
             LOG.error("Failed to send single batch for unknown reason", ex);
+            return false;
         }
     }
 
@@ -2,7 +2,6 @@ package org.zalando.nakadi.service.publishing;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +15,7 @@ import org.zalando.nakadi.plugin.api.authz.Subject;
 import org.zalando.nakadi.security.UsernameHasher;
 import org.zalando.nakadi.service.FeatureToggleService;
 
+import java.util.Collections;
 import java.util.Optional;
 
 @Component
@@ -84,7 +84,7 @@ public class NakadiAuditLogPublisher {
                     .put("data", payload);
 
             eventsProcessor.sendEventsDisabledAuthz(
-                    new JSONArray().put(eventMetadata.addTo(dataEvent)).toString(), auditEventType);
+                    Collections.singletonList(eventMetadata.addTo(dataEvent)), auditEventType);
         } catch (final Throwable e) {
             LOG.error("Error occurred when submitting audit event for publishing", e);
         }
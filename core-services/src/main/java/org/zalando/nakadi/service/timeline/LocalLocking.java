@@ -4,71 +4,150 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+/**
+ * Node-local gating of publishing during timeline switch. Each event type has its own gate, so that publishing to
+ * one event type never waits for publishing to another one. Entering and leaving the gate of an unlocked event type
+ * does not take any locks, monitor of the gate is used only for waiting, when the event type is locked.
+ * <p>
+ * Locking of event type waits for all the publishes that are in progress to finish, and new publishes wait for the
+ * event type to be unlocked.
+ * <p>
+ * Gates are created on first publish and are removed on every update of locked event types if they are not locked
+ * and nothing is published through them, so that gates of deleted event types do not stay forever. A removed gate is
+ * retired first, and publishers, that still hold it, take a new one.
+ */
 public class LocalLocking {
     private static final Logger LOG = LoggerFactory.getLogger(LocalLocking.class);
+    private final ConcurrentMap<String, Gate> gates = new ConcurrentHashMap<>();
+    // guarded by this
     private final Set<String> lockedEventTypes = new HashSet<>();
-    private final Map<String, Integer> eventTypesBeingPublished = new HashMap<>();
-    private final Object lock = new Object();
 
-    public Closeable workWithEventType(final String eventType, final long timeoutMs)
-            throws InterruptedException, TimeoutException {
-        final long finishAt = System.currentTimeMillis() + timeoutMs;
-        synchronized (lock) {
+    private enum Entrance {
+        ENTERED,
+        LOCKED,
+        RETIRED
+    }
+
+    private static class Gate {
+        private static final int RETIRED = Integer.MIN_VALUE;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean locked;
+
+        // Publishing increments the counter first and checks the flag afterwards, while locking sets the flag first
+        // and checks the counter afterwards, so at least one of them sees the other one.
+        private Entrance tryEnter() {
+            int current;
+            do {
+                current = inFlight.get();
+                if (RETIRED == current) {
+                    return Entrance.RETIRED;
+                }
+            } while (!inFlight.compareAndSet(current, current + 1));
+            if (locked) {
+                leave();
+                return Entrance.LOCKED;
+            }
+            return Entrance.ENTERED;
+        }
+
+        /**
+         * @return true if the gate is not used anymore and can be removed, new publishes will not enter it.
+         */
+        private boolean tryRetire() {
+            return !locked && inFlight.compareAndSet(0, RETIRED);
+        }
+
+        private void leave() {
+            if (0 == inFlight.decrementAndGet() && locked) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        private synchronized boolean awaitUnlocked(final long finishAt) throws InterruptedException {
             long now = System.currentTimeMillis();
-            while (now < finishAt && lockedEventTypes.contains(eventType)) {
-                lock.wait(finishAt - now);
+            while (locked && now < finishAt) {
+                wait(finishAt - now);
                 now = System.currentTimeMillis();
             }
-            if (lockedEventTypes.contains(eventType)) {
-                throw new TimeoutException("Timed out while waiting for event type " + eventType +
-                        " to unlock within " + timeoutMs + " ms");
+            return !locked;
+        }
+
+        private synchronized void awaitNoPublishing() throws InterruptedException {
+            while (inFlight.get() > 0) {
+                wait();
             }
-            eventTypesBeingPublished.put(eventType, eventTypesBeingPublished.getOrDefault(eventType, 0) + 1);
         }
-        return () -> {
-            synchronized (lock) {
-                final int currentCount = eventTypesBeingPublished.get(eventType);
-                if (1 == currentCount) {
-                    eventTypesBeingPublished.remove(eventType);
-                    lock.notifyAll();
-                } else {
-                    eventTypesBeingPublished.put(eventType, currentCount - 1);
+
+        private void setLocked(final boolean locked) {
+            this.locked = locked;
+            if (!locked) {
+                synchronized (this) {
+                    notifyAll();
                 }
             }
-        };
+        }
+    }
+
+    private Gate getGate(final String eventType) {
+        final Gate gate = gates.get(eventType);
+        return null != gate ? gate : gates.computeIfAbsent(eventType, et -> new Gate());
     }
 
-    public Set<String> getUnlockedEventTypes(final Set<String> lockedEventTypesUpdated) {
-        synchronized (lock) {
-            return this.lockedEventTypes.stream()
-                    .filter(v -> !lockedEventTypesUpdated.contains(v))
-                    .collect(Collectors.toSet());
+    public Closeable workWithEventType(final String eventType, final long timeoutMs)
+            throws InterruptedException, TimeoutException {
+        final long finishAt = System.currentTimeMillis() + timeoutMs;
+        while (true) {
+            final Gate gate = getGate(eventType);
+            final Entrance entrance = gate.tryEnter();
+            if (entrance == Entrance.ENTERED) {
+                return gate::leave;
+            }
+            if (entrance == Entrance.LOCKED && !gate.awaitUnlocked(finishAt)) {
+                throw new TimeoutException("Timed out while waiting for event type " + eventType +
+                        " to unlock within " + timeoutMs + " ms");
+            }
+            // Retired gate is being removed, the next attempt takes the new one
         }
     }
 
-    public void updateLockedEventTypes(final Set<String> lockedEventTypes) throws InterruptedException {
-        synchronized (lock) {
-            this.lockedEventTypes.clear();
-            this.lockedEventTypes.addAll(lockedEventTypes);
-            boolean haveUsage = true;
-            while (haveUsage) {
-                final List<String> stillLocked = this.lockedEventTypes.stream()
-                        .filter(eventTypesBeingPublished::containsKey).collect(Collectors.toList());
-                haveUsage = !stillLocked.isEmpty();
-                if (haveUsage) {
-                    LOG.info("Event types are still locked: {}", stillLocked);
-                    lock.wait();
-                }
+    public synchronized Set<String> getUnlockedEventTypes(final Set<String> lockedEventTypesUpdated) {
+        return this.lockedEventTypes.stream()
+                .filter(v -> !lockedEventTypesUpdated.contains(v))
+                .collect(Collectors.toSet());
+    }
+
+    public synchronized void updateLockedEventTypes(final Set<String> lockedEventTypes)
+            throws InterruptedException {
+        for (final String unlocked : getUnlockedEventTypes(lockedEventTypes)) {
+            getGate(unlocked).setLocked(false);
+        }
+        this.lockedEventTypes.clear();
+        this.lockedEventTypes.addAll(lockedEventTypes);
+        for (final String locked : lockedEventTypes) {
+            getGate(locked).setLocked(true);
+        }
+        for (final String locked : lockedEventTypes) {
+            final Gate gate = getGate(locked);
+            if (gate.inFlight.get() > 0) {
+                LOG.info("Event type is still being published: {}", locked);
+                gate.awaitNoPublishing();
             }
-            lock.notifyAll();
         }
+        gates.entrySet().removeIf(entry -> entry.getValue().tryRetire());
+    }
+
+    int getGatesCount() {
+        return gates.size();
     }
 }
@@ -58,21 +58,35 @@ public class MultiTimelineEventConsumer implements EventConsumer.ReassignableEve
      * Offsets, that should trigger election of topic repository for next timeline. (Actually - map of latest offsets
      * for each event type partition within current timeline.
      */
-    private final Map<EventTypePartition, String> borderOffsets = new HashMap<>();
+    private final Map<EventTypePartition, NakadiCursor> borderOffsets = new HashMap<>();
     private final TimelineService timelineService;
     private final TimelineSync timelineSync;
     private final AtomicBoolean timelinesChanged = new AtomicBoolean(false);
     private final Comparator<NakadiCursor> comparator;
+    /**
+     * Whether underlying consumers may share reading of partitions with other consumers of the node.
+     */
+    private final boolean shared;
 
     public MultiTimelineEventConsumer(
             final String clientId,
             final TimelineService timelineService,
             final TimelineSync timelineSync,
             final Comparator<NakadiCursor> comparator) {
+        this(clientId, timelineService, timelineSync, comparator, false);
+    }
+
+    public MultiTimelineEventConsumer(
+            final String clientId,
+            final TimelineService timelineService,
+            final TimelineSync timelineSync,
+            final Comparator<NakadiCursor> comparator,
+            final boolean shared) {
         this.clientId = clientId;
         this.timelineService = timelineService;
         this.timelineSync = timelineSync;
         this.comparator = comparator;
+        this.shared = shared;
     }
 
     @Override
@@ -82,6 +96,15 @@ public class MultiTimelineEventConsumer implements EventConsumer.ReassignableEve
 
     @Override
     public List<ConsumedEvent> readEvents() {
+        return readEvents(EventConsumer::readEvents);
+    }
+
+    @Override
+    public List<ConsumedEvent> readEvents(final long timeoutMs) {
+        return readEvents(consumer -> consumer.readEvents(timeoutMs));
+    }
+
+    private List<ConsumedEvent> readEvents(final Function<EventConsumer, List<ConsumedEvent>> reader) {
         if (timelinesChanged.compareAndSet(true, false)) {
             try {
                 onTimelinesChanged();
@@ -91,7 +114,7 @@ public class MultiTimelineEventConsumer implements EventConsumer.ReassignableEve
         }
         final List<ConsumedEvent> result;
         try {
-            result = poll();
+            result = poll(reader);
         } catch (KafkaFactory.KafkaCrutchException kce) {
             LOG.warn("Kafka connections should be reinitialized because consumers should be recreated", kce);
             final List<NakadiCursor> tmpOffsets = new ArrayList<>(latestOffsets.values());
@@ -109,9 +132,9 @@ public class MultiTimelineEventConsumer implements EventConsumer.ReassignableEve
         for (final ConsumedEvent event : result) {
             final EventTypePartition etp = event.getPosition().getEventTypePartition();
             latestOffsets.put(etp, event.getPosition());
-            final String border = borderOffsets.get(etp);
+            final NakadiCursor border = borderOffsets.get(etp);
             final boolean timelineBorderReached = null != border
-                    && border.compareTo(event.getPosition().getOffset()) <= 0;
+                    && border.compareOffset(event.getPosition()) <= 0;
             if (timelineBorderReached) {
                 timelinesChanged.set(true);
             }
@@ -126,13 +149,14 @@ public class MultiTimelineEventConsumer implements EventConsumer.ReassignableEve
     /**
      * Gets data from current event consumers. It tries to use as less list allocations as it is possible.
      *
+     * @param reader Function that reads events from one underlying consumer.
      * @return List of consumed events.
      */
-    private List<ConsumedEvent> poll() {
+    private List<ConsumedEvent> poll(final Function<EventConsumer, List<ConsumedEvent>> reader) {
         List<ConsumedEvent> result = null;
         boolean newCollectionCreated = false;
         for (final EventConsumer consumer : eventConsumers.values()) {
-            final List<ConsumedEvent> partialResult = consumer.readEvents();
+            final List<ConsumedEvent> partialResult = reader.apply(consumer);
             if (null == result) {
                 result = partialResult;
             } else {
@@ -209,7 +233,7 @@ public class MultiTimelineEventConsumer implements EventConsumer.ReassignableEve
                     cursor,
                     cursorReplacement::set,
                     nc -> Optional.ofNullable(nc).ifPresent(
-                            itm -> borderOffsets.put(itm.getEventTypePartition(), itm.getOffset())));
+                            itm -> borderOffsets.put(itm.getEventTypePartition(), itm)));
             if (!newAssignment.containsKey(topicRepository)) {
                 newAssignment.put(topicRepository, new ArrayList<>());
             }
@@ -247,7 +271,9 @@ public class MultiTimelineEventConsumer implements EventConsumer.ReassignableEve
                 final TopicRepository repo = entry.getKey();
                 LOG.info("Creating underlying consumer for client id {} and cursors {}",
                         clientId, Arrays.deepToString(entry.getValue().toArray()));
-                final EventConsumer.LowLevelConsumer consumer = repo.createEventConsumer(clientId, entry.getValue());
+                final EventConsumer.LowLevelConsumer consumer = shared ?
+                        repo.createSharedEventConsumer(clientId, entry.getValue()) :
+                        repo.createEventConsumer(clientId, entry.getValue());
                 eventConsumers.put(repo, consumer);
             }
         }
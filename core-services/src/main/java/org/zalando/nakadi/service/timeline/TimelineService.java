@@ -294,9 +294,13 @@ public class TimelineService {
         return result;
     }
 
+    /**
+     * Creates consumer for subscription streaming. Partitions may be read together with other subscription streams of
+     * the node, if it is enabled for the storage.
+     */
     public EventConsumer.ReassignableEventConsumer createEventConsumer(@Nullable final String clientId) {
         return new MultiTimelineEventConsumer(
-                clientId, this, timelineSync, new NakadiCursorComparator(eventTypeCache));
+                clientId, this, timelineSync, new NakadiCursorComparator(eventTypeCache), true);
     }
 
     private void switchTimelines(final Timeline activeTimeline, final Timeline nextTimeline)
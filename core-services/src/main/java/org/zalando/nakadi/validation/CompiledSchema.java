@@ -0,0 +1,419 @@
+package org.zalando.nakadi.validation;
+
+import com.google.common.collect.ImmutableSet;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Json schema compiled into checks, that are specialized for keywords and values of the schema, so that validation
+ * of an event does not interpret the schema tree again.
+ * <p>
+ * Compiled schema is only able to confirm that event is valid: it never accepts an event that everit rejects, but it
+ * may reject events that everit accepts (e.g. integer values that are not represented as Integer or Long). Therefore
+ * events that are not accepted must be validated with everit, which makes the final decision and provides error
+ * messages. Schemas with keywords, that compiled schema can not handle, are not compiled at all.
+ */
+class CompiledSchema {
+
+    // Keywords that everit takes into account while validating, but compiled schema does not support
+    private static final Set<String> UNSUPPORTED_KEYWORDS = ImmutableSet.of(
+            "$schema", "id", "$id", "not", "oneOf", "const", "multipleOf", "uniqueItems", "contains",
+            "patternProperties", "dependencies", "propertyNames", "if", "then", "else", "readOnly", "writeOnly");
+    // Keywords that are allowed next to $ref, as they do not affect validation
+    private static final Set<String> ANNOTATION_KEYWORDS = ImmutableSet.of(
+            "title", "description", "default", "examples", "$comment");
+
+    private static final Check ACCEPT_ALL = value -> true;
+
+    @FunctionalInterface
+    private interface Check {
+        boolean accepts(Object value);
+    }
+
+    private static class Reference implements Check {
+        private Check target;
+
+        @Override
+        public boolean accepts(final Object value) {
+            return target.accepts(value);
+        }
+    }
+
+    static class UnsupportedSchemaException extends Exception {
+        UnsupportedSchemaException(final String msg) {
+            super(msg);
+        }
+    }
+
+    private final JSONObject root;
+    private final Map<String, Reference> references = new HashMap<>();
+    private final RFC3339DateTimeValidator dateTimeValidator = new RFC3339DateTimeValidator();
+    private final Check rootCheck;
+
+    private CompiledSchema(final JSONObject root) throws UnsupportedSchemaException {
+        this.root = root;
+        try {
+            this.rootCheck = compileSchema(root);
+        } catch (final JSONException e) {
+            throw new UnsupportedSchemaException(e.getMessage());
+        }
+    }
+
+    /**
+     * @param schema Effective schema of event type. It must not be modified afterwards.
+     * @throws UnsupportedSchemaException if schema uses keywords or values, that are not supported
+     */
+    static CompiledSchema compile(final JSONObject schema) throws UnsupportedSchemaException {
+        return new CompiledSchema(schema);
+    }
+
+    /**
+     * @return true if event is valid, false if event must be validated with everit to get the final decision
+     */
+    boolean accepts(final JSONObject event) {
+        return rootCheck.accepts(event);
+    }
+
+    private Check compileSchema(final Object schemaValue) throws UnsupportedSchemaException {
+        if (!(schemaValue instanceof JSONObject)) {
+            throw new UnsupportedSchemaException("schema is expected to be an object, but found " + schemaValue);
+        }
+        final JSONObject schema = (JSONObject) schemaValue;
+        for (final String keyword : schema.keySet()) {
+            if (UNSUPPORTED_KEYWORDS.contains(keyword)) {
+                throw new UnsupportedSchemaException("keyword " + keyword + " is not supported");
+            }
+        }
+        if (schema.has("$ref")) {
+            return compileReference(schema);
+        }
+
+        final List<Check> checks = new ArrayList<>();
+        if (schema.has("type")) {
+            checks.add(compileType(schema.get("type")));
+        }
+        if (schema.has("enum")) {
+            checks.add(compileEnum(schema.getJSONArray("enum")));
+        }
+        addStringCheck(schema, checks);
+        addNumberCheck(schema, checks);
+        addObjectCheck(schema, checks);
+        addArrayCheck(schema, checks);
+        if (schema.has("allOf")) {
+            checks.add(allOf(compileAll(schema.getJSONArray("allOf"))));
+        }
+        if (schema.has("anyOf")) {
+            checks.add(anyOf(compileAll(schema.getJSONArray("anyOf"))));
+        }
+        return allOf(checks);
+    }
+
+    private List<Check> compileAll(final JSONArray schemas) throws UnsupportedSchemaException {
+        if (schemas.length() == 0) {
+            throw new UnsupportedSchemaException("empty list of schemas");
+        }
+        final List<Check> result = new ArrayList<>(schemas.length());
+        for (int i = 0; i < schemas.length(); ++i) {
+            result.add(compileSchema(schemas.get(i)));
+        }
+        return result;
+    }
+
+    private Check compileReference(final JSONObject schema) throws UnsupportedSchemaException {
+        for (final String keyword : schema.keySet()) {
+            if (!"$ref".equals(keyword) && !ANNOTATION_KEYWORDS.contains(keyword)) {
+                throw new UnsupportedSchemaException("keyword " + keyword + " next to $ref is not supported");
+            }
+        }
+        final String ref = schema.getString("$ref");
+        final Reference existing = references.get(ref);
+        if (null != existing) {
+            return existing;
+        }
+        // Registered before compilation of the target, so that recursive schemas are referencing themselves
+        final Reference reference = new Reference();
+        references.put(ref, reference);
+        reference.target = compileSchema(resolve(ref));
+        return reference;
+    }
+
+    private Object resolve(final String ref) throws UnsupportedSchemaException {
+        if (!ref.startsWith("#") || ref.indexOf('%') >= 0) {
+            throw new UnsupportedSchemaException("reference " + ref + " is not supported");
+        }
+        Object current = root;
+        final String pointer = ref.substring(1);
+        if (pointer.isEmpty()) {
+            return current;
+        }
+        if (!pointer.startsWith("/")) {
+            throw new UnsupportedSchemaException("reference " + ref + " is not supported");
+        }
+        for (final String token : pointer.substring(1).split("/", -1)) {
+            final String name = token.replace("~1", "/").replace("~0", "~");
+            if (current instanceof JSONObject && ((JSONObject) current).has(name)) {
+                current = ((JSONObject) current).get(name);
+            } else if (current instanceof JSONArray && name.matches("[0-9]+")
+                    && Integer.parseInt(name) < ((JSONArray) current).length()) {
+                current = ((JSONArray) current).get(Integer.parseInt(name));
+            } else {
+                throw new UnsupportedSchemaException("reference " + ref + " can not be resolved");
+            }
+        }
+        return current;
+    }
+
+    private static Check compileType(final Object typeValue) throws UnsupportedSchemaException {
+        final List<Check> types = new ArrayList<>();
+        if (typeValue instanceof JSONArray) {
+            final JSONArray array = (JSONArray) typeValue;
+            for (int i = 0; i < array.length(); ++i) {
+                types.add(compileSingleType(array.getString(i)));
+            }
+        } else if (typeValue instanceof String) {
+            types.add(compileSingleType((String) typeValue));
+        }
+        if (types.isEmpty()) {
+            throw new UnsupportedSchemaException("type " + typeValue + " is not supported");
+        }
+        return anyOf(types);
+    }
+
+    private static Check compileSingleType(final String type) throws UnsupportedSchemaException {
+        switch (type) {
+            case "string":
+                return value -> value instanceof String;
+            case "integer":
+                return value -> value instanceof Integer || value instanceof Long;
+            case "number":
+                return value -> value instanceof Number;
+            case "boolean":
+                return value -> value instanceof Boolean;
+            case "object":
+                return value -> value instanceof JSONObject;
+            case "array":
+                return value -> value instanceof JSONArray;
+            case "null":
+                return JSONObject.NULL::equals;
+            default:
+                throw new UnsupportedSchemaException("type " + type + " is not supported");
+        }
+    }
+
+    private static Check compileEnum(final JSONArray values) {
+        // Only string values are compared, any other value is left for everit to decide on
+        final Set<String> strings = new HashSet<>();
+        for (int i = 0; i < values.length(); ++i) {
+            if (values.get(i) instanceof String) {
+                strings.add((String) values.get(i));
+            }
+        }
+        return value -> value instanceof String && strings.contains(value);
+    }
+
+    private void addStringCheck(final JSONObject schema, final List<Check> checks)
+            throws UnsupportedSchemaException {
+        if (!schema.has("minLength") && !schema.has("maxLength") && !schema.has("pattern")
+                && !schema.has("format")) {
+            return;
+        }
+        final int minLength = schema.has("minLength") ? schema.getInt("minLength") : -1;
+        final int maxLength = schema.has("maxLength") ? schema.getInt("maxLength") : -1;
+        final Pattern pattern;
+        try {
+            pattern = schema.has("pattern") ? Pattern.compile(schema.getString("pattern")) : null;
+        } catch (final PatternSyntaxException e) {
+            throw new UnsupportedSchemaException("pattern " + schema.get("pattern") + " is not supported");
+        }
+        final boolean dateTime = schema.has("format");
+        if (dateTime && !dateTimeValidator.formatName().equals(schema.get("format"))) {
+            throw new UnsupportedSchemaException("format " + schema.get("format") + " is not supported");
+        }
+        checks.add(value -> {
+            if (!(value instanceof String)) {
+                return true;
+            }
+            final String string = (String) value;
+            // Length is compared in the strictest way: code points for minimum and chars for maximum
+            if (maxLength >= 0 && string.length() > maxLength) {
+                return false;
+            }
+            if (minLength >= 0 && string.codePointCount(0, string.length()) < minLength) {
+                return false;
+            }
+            if (null != pattern && !pattern.matcher(string).find()) {
+                return false;
+            }
+            return !dateTime || !dateTimeValidator.validate(string).isPresent();
+        });
+    }
+
+    private static void addNumberCheck(final JSONObject schema, final List<Check> checks)
+            throws UnsupportedSchemaException {
+        if (!schema.has("minimum") && !schema.has("maximum")) {
+            return;
+        }
+        final boolean hasMinimum = schema.has("minimum");
+        final boolean hasMaximum = schema.has("maximum");
+        final double minimum = hasMinimum ? schema.getDouble("minimum") : 0;
+        final double maximum = hasMaximum ? schema.getDouble("maximum") : 0;
+        final boolean exclusiveMinimum = getFlag(schema, "exclusiveMinimum");
+        final boolean exclusiveMaximum = getFlag(schema, "exclusiveMaximum");
+        checks.add(value -> {
+            if (!(value instanceof Number)) {
+                return true;
+            }
+            final double number = ((Number) value).doubleValue();
+            if (hasMinimum && (exclusiveMinimum ? number <= minimum : number < minimum)) {
+                return false;
+            }
+            return !hasMaximum || !(exclusiveMaximum ? number >= maximum : number > maximum);
+        });
+    }
+
+    private static boolean getFlag(final JSONObject schema, final String keyword) throws UnsupportedSchemaException {
+        if (!schema.has(keyword)) {
+            return false;
+        }
+        if (!(schema.get(keyword) instanceof Boolean)) {
+            throw new UnsupportedSchemaException("non-boolean " + keyword + " is not supported");
+        }
+        return schema.getBoolean(keyword);
+    }
+
+    private void addObjectCheck(final JSONObject schema, final List<Check> checks)
+            throws UnsupportedSchemaException {
+        if (!schema.has("properties") && !schema.has("required") && !schema.has("additionalProperties")
+                && !schema.has("minProperties") && !schema.has("maxProperties")) {
+            return;
+        }
+        final Map<String, Check> properties = new HashMap<>();
+        if (schema.has("properties")) {
+            final JSONObject propertiesSchema = schema.getJSONObject("properties");
+            for (final String property : propertiesSchema.keySet()) {
+                properties.put(property, compileSchema(propertiesSchema.get(property)));
+            }
+        }
+        final JSONArray requiredArray = schema.has("required") ? schema.getJSONArray("required") : new JSONArray();
+        final String[] required = new String[requiredArray.length()];
+        for (int i = 0; i < required.length; ++i) {
+            required[i] = requiredArray.getString(i);
+        }
+        final Object additional = schema.opt("additionalProperties");
+        final boolean additionalAllowed = !Boolean.FALSE.equals(additional);
+        final Check additionalCheck = additional instanceof JSONObject ? compileSchema(additional) : ACCEPT_ALL;
+        if (null != additional && !(additional instanceof Boolean) && !(additional instanceof JSONObject)) {
+            throw new UnsupportedSchemaException("additionalProperties " + additional + " is not supported");
+        }
+        final int minProperties = schema.has("minProperties") ? schema.getInt("minProperties") : -1;
+        final int maxProperties = schema.has("maxProperties") ? schema.getInt("maxProperties") : -1;
+
+        checks.add(value -> {
+            if (!(value instanceof JSONObject)) {
+                return true;
+            }
+            final JSONObject object = (JSONObject) value;
+            if ((minProperties >= 0 && object.length() < minProperties)
+                    || (maxProperties >= 0 && object.length() > maxProperties)) {
+                return false;
+            }
+            for (final String property : required) {
+                if (!object.has(property)) {
+                    return false;
+                }
+            }
+            for (final String key : object.keySet()) {
+                final Check property = properties.get(key);
+                if (null != property) {
+                    if (!property.accepts(object.get(key))) {
+                        return false;
+                    }
+                } else if (!additionalAllowed || !additionalCheck.accepts(object.get(key))) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    private void addArrayCheck(final JSONObject schema, final List<Check> checks)
+            throws UnsupportedSchemaException {
+        if (!schema.has("items") && !schema.has("additionalItems") && !schema.has("minItems")
+                && !schema.has("maxItems")) {
+            return;
+        }
+        final Object items = schema.opt("items");
+        if (null != items && !(items instanceof JSONObject)) {
+            throw new UnsupportedSchemaException("items " + items + " are not supported");
+        }
+        final Check itemCheck = null != items ? compileSchema(items) : ACCEPT_ALL;
+        // additionalItems is not applicable when items is a single schema. Without items, everit does not check
+        // additional items either, but that is not relied on: non-empty arrays are left for everit to decide on.
+        final Object additionalItems = schema.opt("additionalItems");
+        if (null == items && null != additionalItems && !(additionalItems instanceof Boolean)) {
+            throw new UnsupportedSchemaException("additionalItems " + additionalItems + " are not supported");
+        }
+        final boolean noItems = null == items && Boolean.FALSE.equals(additionalItems);
+        final int minItems = schema.has("minItems") ? schema.getInt("minItems") : -1;
+        final int maxItems = schema.has("maxItems") ? schema.getInt("maxItems") : -1;
+
+        checks.add(value -> {
+            if (!(value instanceof JSONArray)) {
+                return true;
+            }
+            final JSONArray array = (JSONArray) value;
+            if ((minItems >= 0 && array.length() < minItems) || (maxItems >= 0 && array.length() > maxItems)
+                    || (noItems && array.length() > 0)) {
+                return false;
+            }
+            for (int i = 0; i < array.length(); ++i) {
+                if (!itemCheck.accepts(array.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    private static Check allOf(final List<Check> checks) {
+        if (checks.isEmpty()) {
+            return ACCEPT_ALL;
+        } else if (checks.size() == 1) {
+            return checks.get(0);
+        }
+        final Check[] all = checks.toArray(new Check[0]);
+        return value -> {
+            for (final Check check : all) {
+                if (!check.accepts(value)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static Check anyOf(final List<Check> checks) {
+        if (checks.size() == 1) {
+            return checks.get(0);
+        }
+        final Check[] any = checks.toArray(new Check[0]);
+        return value -> {
+            for (final Check check : any) {
+                if (check.accepts(value)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+}
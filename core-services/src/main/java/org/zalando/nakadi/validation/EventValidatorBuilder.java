@@ -4,6 +4,8 @@ import org.everit.json.schema.Schema;
 import org.everit.json.schema.ValidationException;
 import org.everit.json.schema.loader.SchemaLoader;
 import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.zalando.nakadi.domain.EventCategory;
@@ -17,6 +19,7 @@ import java.util.function.Function;
 @Component
 public class EventValidatorBuilder {
 
+    private static final Logger LOG = LoggerFactory.getLogger(EventValidatorBuilder.class);
     private final RFC3339DateTimeValidator dateTimeValidator = new RFC3339DateTimeValidator();
     private final JsonSchemaEnrichment loader;
 
@@ -30,13 +33,22 @@ public class EventValidatorBuilder {
         final List<Function<JSONObject, Optional<ValidationError>>> validators = new ArrayList<>(2);
 
         // 1. We always validate schema.
+        final JSONObject effectiveSchema = loader.effectiveSchema(eventType);
         final Schema schema = SchemaLoader.builder()
-                .schemaJson(loader.effectiveSchema(eventType))
+                .schemaJson(effectiveSchema)
                 .addFormatValidator(new RFC3339DateTimeValidator())
                 .build()
                 .load()
                 .build();
-        validators.add((evt) -> validateSchemaConformance(schema, evt));
+        final CompiledSchema compiledSchema = compile(eventType, effectiveSchema);
+        if (null != compiledSchema) {
+            // Compiled schema only confirms valid events, everit makes the decision on all the others and provides
+            // error messages for them
+            validators.add((evt) -> compiledSchema.accepts(evt) ?
+                    Optional.empty() : validateSchemaConformance(schema, evt));
+        } else {
+            validators.add((evt) -> validateSchemaConformance(schema, evt));
+        }
 
         // 2. in case of data or business event type we validate occurred_at
         if (eventType.getCategory() == EventCategory.DATA || eventType.getCategory() == EventCategory.BUSINESS) {
@@ -51,6 +63,16 @@ public class EventValidatorBuilder {
                 .orElse(Optional.empty());
     }
 
+    private static CompiledSchema compile(final EventType eventType, final JSONObject effectiveSchema) {
+        try {
+            return CompiledSchema.compile(effectiveSchema);
+        } catch (final CompiledSchema.UnsupportedSchemaException e) {
+            LOG.debug("Schema of event type {} version {} is validated without compilation: {}",
+                    eventType.getName(), eventType.getSchema().getVersion(), e.getMessage());
+            return null;
+        }
+    }
+
     private Optional<ValidationError> validateOccurredAt(final JSONObject event) {
         return Optional
                 .ofNullable(event.optJSONObject("metadata"))
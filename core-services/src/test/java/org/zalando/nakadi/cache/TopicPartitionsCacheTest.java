@@ -0,0 +1,82 @@
+package org.zalando.nakadi.cache;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.zalando.nakadi.domain.EventType;
+import org.zalando.nakadi.domain.Timeline;
+import org.zalando.nakadi.repository.TopicRepository;
+import org.zalando.nakadi.service.timeline.TimelineService;
+
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.zalando.nakadi.utils.TestUtils.buildDefaultEventType;
+
+public class TopicPartitionsCacheTest {
+
+    private TimelineService timelineService;
+    private TopicRepository topicRepository;
+    private Timeline timeline;
+    private Consumer<String> invalidationListener;
+    private TopicPartitionsCache cache;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void before() {
+        timelineService = mock(TimelineService.class);
+        topicRepository = mock(TopicRepository.class);
+        timeline = mock(Timeline.class);
+        when(timeline.getTopic()).thenReturn("topic");
+        when(timelineService.getActiveTimeline(any(EventType.class))).thenReturn(timeline);
+        when(timelineService.getTopicRepository(any(Timeline.class))).thenReturn(topicRepository);
+        when(topicRepository.listPartitionNames("topic")).thenReturn(ImmutableList.of("2", "0", "10", "1"));
+
+        final EventTypeCache eventTypeCache = mock(EventTypeCache.class);
+        cache = new TopicPartitionsCache(timelineService, eventTypeCache, 60);
+        final ArgumentCaptor<Consumer> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(eventTypeCache).addInvalidationListener(captor.capture());
+        invalidationListener = captor.getValue();
+    }
+
+    @Test
+    public void whenPartitionsRequestedThenTheyAreSortedAndCached() {
+        final EventType eventType = buildDefaultEventType();
+
+        Assert.assertEquals(ImmutableList.of("0", "1", "10", "2"), cache.getOrderedPartitions(eventType));
+        Assert.assertEquals(ImmutableList.of("0", "1", "10", "2"), cache.getOrderedPartitions(eventType));
+
+        verify(topicRepository, times(1)).listPartitionNames("topic");
+    }
+
+    @Test
+    public void whenEventTypeInvalidatedThenPartitionsAreReloaded() {
+        final EventType eventType = buildDefaultEventType();
+        cache.getOrderedPartitions(eventType);
+
+        invalidationListener.accept("some-other-event-type");
+        cache.getOrderedPartitions(eventType);
+        verify(topicRepository, times(1)).listPartitionNames("topic");
+
+        invalidationListener.accept(eventType.getName());
+        cache.getOrderedPartitions(eventType);
+        verify(topicRepository, times(2)).listPartitionNames("topic");
+    }
+
+    @Test
+    public void whenTimelineSwitchedThenPartitionsOfNewTopicAreReturned() {
+        final EventType eventType = buildDefaultEventType();
+        cache.getOrderedPartitions(eventType);
+
+        when(timeline.getTopic()).thenReturn("new-topic");
+        when(topicRepository.listPartitionNames("new-topic")).thenReturn(ImmutableList.of("0"));
+
+        Assert.assertEquals(ImmutableList.of("0"), cache.getOrderedPartitions(eventType));
+    }
+}
@@ -41,9 +41,7 @@ public class MetadataEnrichmentStrategyTest {
             DateTimeUtils.setCurrentMillisSystem();
         }
 
-        assertThat(batch.getEvent()
-                        .getJSONObject("metadata")
-                        .getString("received_at"),
+        assertThat(enrichedMetadata(batch).getString("received_at"),
                 equalTo("1970-01-01T00:00:00.000Z"));
     }
 
@@ -67,7 +65,7 @@ public class MetadataEnrichmentStrategyTest {
 
         strategy.enrich(batch, eventType);
 
-        assertThat(batch.getEvent().getJSONObject("metadata").getString("event_type"), equalTo(eventType.getName()));
+        assertThat(enrichedMetadata(batch).getString("event_type"), equalTo(eventType.getName()));
     }
 
     @Test
@@ -80,7 +78,7 @@ public class MetadataEnrichmentStrategyTest {
 
         strategy.enrich(batchItem, eventType);
 
-        assertThat(batchItem.getEvent().getJSONObject("metadata").getString("version"), equalTo("1.0.0"));
+        assertThat(enrichedMetadata(batchItem).getString("version"), equalTo("1.0.0"));
     }
 
     @Test
@@ -95,7 +93,7 @@ public class MetadataEnrichmentStrategyTest {
         FlowIdUtils.push(flowId);
         strategy.enrich(batch, eventType);
 
-        assertThat(batch.getEvent().getJSONObject("metadata").getString("flow_id"), equalTo(flowId));
+        assertThat(enrichedMetadata(batch).getString("flow_id"), equalTo(flowId));
     }
 
     @Test
@@ -108,7 +106,7 @@ public class MetadataEnrichmentStrategyTest {
         FlowIdUtils.push("something-else");
         strategy.enrich(batch, eventType);
 
-        assertThat(batch.getEvent().getJSONObject("metadata").getString("flow_id"), equalTo("something"));
+        assertThat(enrichedMetadata(batch).getString("flow_id"), equalTo("something"));
     }
 
     @Test
@@ -122,7 +120,7 @@ public class MetadataEnrichmentStrategyTest {
         FlowIdUtils.push(flowId);
         strategy.enrich(batch, eventType);
 
-        assertThat(batch.getEvent().getJSONObject("metadata").getString("flow_id"), equalTo(flowId));
+        assertThat(enrichedMetadata(batch).getString("flow_id"), equalTo(flowId));
     }
 
     @Test
@@ -136,7 +134,7 @@ public class MetadataEnrichmentStrategyTest {
         FlowIdUtils.push(flowId);
         strategy.enrich(batch, eventType);
 
-        assertThat(batch.getEvent().getJSONObject("metadata").getString("flow_id"), equalTo(flowId));
+        assertThat(enrichedMetadata(batch).getString("flow_id"), equalTo(flowId));
     }
 
     @Test
@@ -149,7 +147,7 @@ public class MetadataEnrichmentStrategyTest {
 
         strategy.enrich(batch, eventType);
 
-        assertThat(batch.getEvent().getJSONObject("metadata").getString("partition"), equalTo(partition));
+        assertThat(enrichedMetadata(batch).getString("partition"), equalTo(partition));
     }
 
     @Test
@@ -163,7 +161,67 @@ public class MetadataEnrichmentStrategyTest {
 
         strategy.enrich(batch, eventType);
 
-        assertEquals("test-user-123", batch.getEvent().getJSONObject("metadata").getString("published_by"));
+        assertEquals("test-user-123", enrichedMetadata(batch).getString("published_by"));
     }
 
+    @Test
+    public void whenMetadataHasEnrichedFieldsThenTheyAreReplaced() throws Exception {
+        when(authorizationService.getSubject()).thenReturn(Optional.of(() -> "test-user-123"));
+        final EventType eventType = buildDefaultEventType();
+        final BatchItem batch = createBatchItem("{ \"metadata\" : { \"event_type\" : \"other\", " +
+                "\"eid\" : \"329ed3d2-8366-11e8-adc0-fa7ae01bbebc\", \"partition\" : \"5\", " +
+                "\"published_by\":{\"x\":[\"}\",\",\"]}, \"occurred_at\" : \"1992-08-03T10:00:00Z\", " +
+                "\"flow_id\" : \"flow\" }, \"foo\" : \"bar\" }");
+        batch.setPartition("0");
+
+        strategy.enrich(batch, eventType);
+
+        final JSONObject event = new JSONObject(batch.dumpEventToString());
+        final JSONObject metadata = event.getJSONObject("metadata");
+        assertEquals(eventType.getName(), metadata.getString("event_type"));
+        assertEquals("329ed3d2-8366-11e8-adc0-fa7ae01bbebc", metadata.getString("eid"));
+        assertEquals("0", metadata.getString("partition"));
+        assertEquals("test-user-123", metadata.getString("published_by"));
+        assertEquals("1992-08-03T10:00:00Z", metadata.getString("occurred_at"));
+        assertEquals("flow", metadata.getString("flow_id"));
+        assertEquals("bar", event.getString("foo"));
+        assertEquals(1, countOccurrences(batch.dumpEventToString(), "\"event_type\""));
+        assertEquals(1, countOccurrences(batch.dumpEventToString(), "\"partition\""));
+    }
+
+    @Test
+    public void whenMetadataIsEnrichedThenItIsEquivalentToJsonEnrichment() throws Exception {
+        when(authorizationService.getSubject()).thenReturn(Optional.of(() -> "test-\"user\"-\u00e9"));
+        final EventType eventType = buildDefaultEventType();
+        final JSONObject event = buildBusinessEvent();
+        event.getJSONObject("metadata").put("flow_id", "");
+        final BatchItem batch = createBatchItem(event);
+        batch.setPartition("3");
+        FlowIdUtils.push("flow-id");
+
+        try {
+            DateTimeUtils.setCurrentMillisFixed(1623456789012L);
+            strategy.enrich(batch, eventType);
+        } finally {
+            DateTimeUtils.setCurrentMillisSystem();
+        }
+
+        final JSONObject expected = new JSONObject(event.toString());
+        expected.getJSONObject("metadata")
+                .put("published_by", "test-\"user\"-\u00e9")
+                .put("received_at", "2021-06-12T00:13:09.012Z")
+                .put("event_type", eventType.getName())
+                .put("flow_id", "flow-id")
+                .put("partition", "3")
+                .put("version", "1.0.0");
+        assertEquals(expected.toMap(), new JSONObject(batch.dumpEventToString()).toMap());
+    }
+
+    private static JSONObject enrichedMetadata(final BatchItem batchItem) {
+        return new JSONObject(batchItem.dumpEventToString()).getJSONObject("metadata");
+    }
+
+    private static int countOccurrences(final String value, final String substring) {
+        return value.split(substring, -1).length - 1;
+    }
 }
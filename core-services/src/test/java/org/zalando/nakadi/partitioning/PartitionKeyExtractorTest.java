@@ -0,0 +1,48 @@
+package org.zalando.nakadi.partitioning;
+
+import com.google.common.collect.ImmutableList;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.zalando.nakadi.domain.EventCategory;
+import org.zalando.nakadi.domain.EventType;
+import org.zalando.nakadi.exceptions.runtime.InvalidPartitionKeyFieldsException;
+import org.zalando.nakadi.utils.EventTypeTestBuilder;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class PartitionKeyExtractorTest {
+
+    @Test
+    public void whenBusinessEventThenFieldsAreExtractedFromRoot() {
+        final EventType eventType = EventTypeTestBuilder.builder()
+                .category(EventCategory.BUSINESS)
+                .partitionKeyFields(ImmutableList.of("sku", "details.size"))
+                .build();
+        final JSONObject event = new JSONObject("{\"sku\":\"abc\",\"details\":{\"size\":42}}");
+
+        assertThat(PartitionKeyExtractor.forEventType(eventType).extract(event),
+                equalTo(ImmutableList.of("abc", "42")));
+    }
+
+    @Test
+    public void whenDataEventThenFieldsAreExtractedFromData() {
+        final EventType eventType = EventTypeTestBuilder.builder()
+                .category(EventCategory.DATA)
+                .partitionKeyFields(ImmutableList.of("sku"))
+                .build();
+        final JSONObject event = new JSONObject("{\"sku\":\"wrong\",\"data\":{\"sku\":\"abc\"}}");
+
+        assertThat(PartitionKeyExtractor.forEventType(eventType).extract(event), equalTo(ImmutableList.of("abc")));
+    }
+
+    @Test(expected = InvalidPartitionKeyFieldsException.class)
+    public void whenFieldIsMissingThenException() {
+        final EventType eventType = EventTypeTestBuilder.builder()
+                .category(EventCategory.BUSINESS)
+                .partitionKeyFields(ImmutableList.of("details.size"))
+                .build();
+
+        PartitionKeyExtractor.forEventType(eventType).extract(new JSONObject("{\"details\":\"none\"}"));
+    }
+}
@@ -5,6 +5,9 @@ import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.zalando.nakadi.cache.EventTypeCache;
+import org.zalando.nakadi.cache.TopicPartitionsCache;
+import org.zalando.nakadi.domain.BatchItem;
 import org.zalando.nakadi.domain.EventType;
 import org.zalando.nakadi.domain.Timeline;
 import org.zalando.nakadi.exceptions.runtime.InvalidEventTypeException;
@@ -14,7 +17,9 @@ import org.zalando.nakadi.repository.TopicRepository;
 import org.zalando.nakadi.service.timeline.TimelineService;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -29,6 +34,7 @@ public class PartitionResolverTest {
 
     private PartitionResolver partitionResolver;
     private TimelineService timelineService;
+    private EventTypeCache eventTypeCache;
 
     @Before
     public void before() {
@@ -37,7 +43,11 @@ public class PartitionResolverTest {
         timelineService = Mockito.mock(TimelineService.class);
         when(timelineService.getTopicRepository((Timeline) any())).thenReturn(topicRepository);
         when(timelineService.getTopicRepository((EventType) any())).thenReturn(topicRepository);
-        partitionResolver = new PartitionResolver(timelineService, mock(HashPartitionStrategy.class));
+        final TopicPartitionsCache topicPartitionsCache =
+                new TopicPartitionsCache(timelineService, mock(EventTypeCache.class), 60);
+        eventTypeCache = mock(EventTypeCache.class);
+        partitionResolver = new PartitionResolver(
+                topicPartitionsCache, eventTypeCache, mock(HashPartitionStrategy.class));
     }
 
     @Test
@@ -105,4 +115,19 @@ public class PartitionResolverTest {
 
         partitionResolver.validate(eventType);
     }
+
+    @Test
+    public void whenResolvePartitionWithHashStrategyAndWithoutPartitionKeysThenExceptionThrown() {
+        final EventType eventType = buildDefaultEventType();
+        eventType.setPartitionStrategy(HASH_STRATEGY);
+        when(eventTypeCache.getPartitionKeyExtractor(eventType.getName()))
+                .thenReturn(PartitionKeyExtractor.forEventType(eventType));
+
+        try {
+            partitionResolver.resolvePartition(eventType, mock(BatchItem.class), ImmutableList.of("0"));
+            fail("Partition is resolved for hash strategy without partition key fields");
+        } catch (final RuntimeException ex) {
+            assertThat(ex.getMessage(), containsString("no partition key fields"));
+        }
+    }
 }
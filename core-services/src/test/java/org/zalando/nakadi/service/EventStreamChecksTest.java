@@ -0,0 +1,66 @@
+package org.zalando.nakadi.service;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.zalando.nakadi.cache.SubscriptionCache;
+import org.zalando.nakadi.domain.ConsumedEvent;
+import org.zalando.nakadi.domain.EventOwnerHeader;
+import org.zalando.nakadi.domain.NakadiCursor;
+import org.zalando.nakadi.plugin.api.authz.AuthorizationService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventStreamChecksTest {
+
+    private AuthorizationService authorizationService;
+    private MetricRegistry metricRegistry;
+    private EventStreamChecks eventStreamChecks;
+
+    @Before
+    public void setUp() {
+        authorizationService = mock(AuthorizationService.class);
+        metricRegistry = new MetricRegistry();
+        eventStreamChecks = new EventStreamChecks(mock(BlacklistService.class), authorizationService,
+                mock(SubscriptionCache.class), metricRegistry, 60_000);
+    }
+
+    private static ConsumedEvent event(final EventOwnerHeader owner) {
+        return new ConsumedEvent(new byte[0], mock(NakadiCursor.class), 0, owner);
+    }
+
+    @Test
+    public void whenSameOwnerThenDecisionIsReused() {
+        when(authorizationService.isAuthorized(eq(AuthorizationService.Operation.READ), any()))
+                .thenReturn(true, false);
+        final ReadAuthorizationCache cache = new ReadAuthorizationCache();
+
+        Assert.assertFalse(eventStreamChecks.isConsumptionBlocked(event(new EventOwnerHeader("x", "y")), cache));
+        Assert.assertFalse(eventStreamChecks.isConsumptionBlocked(event(new EventOwnerHeader("x", "y")), cache));
+        Assert.assertTrue(eventStreamChecks.isConsumptionBlocked(event(new EventOwnerHeader("x", "z")), cache));
+
+        verify(authorizationService, times(2)).isAuthorized(any(), any());
+        Assert.assertEquals(1, metricRegistry.counter("nakadi.stream.read-authorization-cache.hit").getCount());
+        Assert.assertEquals(2, metricRegistry.counter("nakadi.stream.read-authorization-cache.miss").getCount());
+    }
+
+    @Test
+    public void whenCacheIsInvalidatedThenDecisionIsMadeAgain() {
+        when(authorizationService.isAuthorized(eq(AuthorizationService.Operation.READ), any()))
+                .thenReturn(true, false);
+        final ReadAuthorizationCache cache = new ReadAuthorizationCache();
+
+        Assert.assertFalse(eventStreamChecks.isConsumptionBlocked(event(null), cache));
+        Assert.assertFalse(eventStreamChecks.isConsumptionBlocked(event(null), cache));
+        cache.invalidate();
+        Assert.assertTrue(eventStreamChecks.isConsumptionBlocked(event(null), cache));
+
+        verify(authorizationService, times(2)).isAuthorized(any(), any());
+    }
+}
@@ -0,0 +1,91 @@
+package org.zalando.nakadi.service.publishing;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.zalando.nakadi.domain.BatchItem;
+import org.zalando.nakadi.domain.EventPublishingStep;
+import org.zalando.nakadi.exceptions.runtime.EventValidationException;
+import org.zalando.nakadi.utils.TestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class BatchProcessingExecutorTest {
+
+    private final BatchProcessingExecutor executor = new BatchProcessingExecutor(4, 100, 10, 5);
+
+    @After
+    public void tearDown() {
+        executor.stop();
+    }
+
+    private static List<BatchItem> createBatch(final int size) {
+        final List<BatchItem> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            batch.add(TestUtils.createBatchItem("{\"idx\":" + i + "}"));
+        }
+        return batch;
+    }
+
+    @Test
+    public void testAllItemsAreProcessed() {
+        final List<BatchItem> batch = createBatch(53);
+        final Set<Integer> processed = ConcurrentHashMap.newKeySet();
+
+        final BatchProcessingExecutor.Failure failure = executor.execute(
+                batch, EventPublishingStep.VALIDATING, item -> processed.add(item.getEvent().getInt("idx")));
+
+        Assert.assertNull(failure);
+        Assert.assertEquals(53, processed.size());
+        batch.forEach(item -> Assert.assertEquals(EventPublishingStep.VALIDATING, item.getStep()));
+    }
+
+    @Test
+    public void testFirstFailureInBatchOrderIsReported() {
+        final List<BatchItem> batch = createBatch(50);
+
+        final BatchProcessingExecutor.Failure failure = executor.execute(
+                batch, EventPublishingStep.VALIDATING, item -> {
+                    final int idx = item.getEvent().getInt("idx");
+                    if (idx == 17 || idx == 42) {
+                        throw new EventValidationException("failed " + idx);
+                    }
+                });
+
+        Assert.assertNotNull(failure);
+        Assert.assertSame(batch.get(17), failure.getItem());
+        Assert.assertEquals("failed 17", failure.getException().getMessage());
+        for (int i = 0; i < batch.size(); ++i) {
+            Assert.assertEquals(
+                    i <= 17 ? EventPublishingStep.VALIDATING : EventPublishingStep.NONE, batch.get(i).getStep());
+        }
+    }
+
+    @Test
+    public void testSmallBatchIsProcessedSequentially() {
+        final List<BatchItem> batch = createBatch(5);
+        final String callerThread = Thread.currentThread().getName();
+
+        final BatchProcessingExecutor.Failure failure = executor.execute(
+                batch, null, item -> Assert.assertEquals(callerThread, Thread.currentThread().getName()));
+
+        Assert.assertNull(failure);
+        batch.forEach(item -> Assert.assertEquals(EventPublishingStep.NONE, item.getStep()));
+    }
+
+    @Test(timeout = 10000)
+    public void testBatchIsProcessedAfterShutdown() {
+        final List<BatchItem> batch = createBatch(50);
+        final Set<Integer> processed = ConcurrentHashMap.newKeySet();
+        executor.stop();
+
+        final BatchProcessingExecutor.Failure failure = executor.execute(
+                batch, null, item -> processed.add(item.getEvent().getInt("idx")));
+
+        Assert.assertNull(failure);
+        Assert.assertEquals(50, processed.size());
+    }
+}
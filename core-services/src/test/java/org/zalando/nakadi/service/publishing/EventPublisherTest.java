@@ -24,6 +24,7 @@ import org.zalando.nakadi.exceptions.runtime.EnrichmentException;
 import org.zalando.nakadi.exceptions.runtime.EventPublishingException;
 import org.zalando.nakadi.exceptions.runtime.EventTypeTimeoutException;
 import org.zalando.nakadi.exceptions.runtime.PartitioningException;
+import org.zalando.nakadi.partitioning.PartitionKeyExtractor;
 import org.zalando.nakadi.partitioning.PartitionResolver;
 import org.zalando.nakadi.partitioning.PartitionStrategy;
 import org.zalando.nakadi.plugin.api.authz.Resource;
@@ -37,10 +38,12 @@ import org.zalando.nakadi.validation.ValidationError;
 import org.zalando.nakadi.view.EventOwnerSelector;
 
 import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -96,7 +99,7 @@ public class EventPublisherTest {
 
         eventOwnerExtractorFactory = mock(EventOwnerExtractorFactory.class);
         publisher = new EventPublisher(ts, cache, partitionResolver, enrichment, nakadiSettings, timelineSync,
-                authzValidator, eventOwnerExtractorFactory);
+                authzValidator, eventOwnerExtractorFactory, new BatchProcessingExecutor(0, 0, 0, 0));
     }
 
     @Test
@@ -182,6 +185,46 @@ public class EventPublisherTest {
         verify(etCloser, times(1)).close();
     }
 
+    @Test
+    public void whenPublishAsyncThenEventTypeIsReleasedAfterAcknowledgement() throws Exception {
+        final EventType eventType = buildDefaultEventType();
+        final JSONArray batch = buildDefaultBatch(2);
+        mockSuccessfulValidation(eventType);
+
+        final Closeable etCloser = mock(Closeable.class);
+        Mockito.when(timelineSync.workWithEventType(any(String.class), anyLong())).thenReturn(etCloser);
+        final CompletableFuture<Void> acknowledgement = new CompletableFuture<>();
+        Mockito.when(topicRepository.asyncPostBatch(any(), any(), any(), eq(false))).thenReturn(acknowledgement);
+
+        final CompletableFuture<EventPublishResult> result =
+                publisher.publishAsync(batch.toString().getBytes(StandardCharsets.UTF_8), eventType.getName());
+
+        assertThat(result.isDone(), is(false));
+        verify(etCloser, times(0)).close();
+
+        acknowledgement.complete(null);
+
+        assertThat(result.get().getStatus(), equalTo(EventPublishingStatus.SUBMITTED));
+        verify(etCloser, times(1)).close();
+        verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    public void whenPublishAsyncFailsThenResultIsFailed() throws Exception {
+        final EventType eventType = buildDefaultEventType();
+        final JSONArray batch = buildDefaultBatch(1);
+        mockSuccessfulValidation(eventType);
+
+        final CompletableFuture<Void> acknowledgement = new CompletableFuture<>();
+        acknowledgement.completeExceptionally(new EventPublishingException("error", "topic", eventType.getName()));
+        Mockito.when(topicRepository.asyncPostBatch(any(), any(), any(), eq(false))).thenReturn(acknowledgement);
+
+        final EventPublishResult result = publisher.publishAsync(
+                batch.toString().getBytes(StandardCharsets.UTF_8), eventType.getName()).get();
+
+        assertThat(result.getStatus(), equalTo(EventPublishingStatus.FAILED));
+    }
+
     @Test(expected = EventTypeTimeoutException.class)
     public void whenPublishAndTimelineLockTimedOutThenException() throws Exception {
         Mockito.when(timelineSync.workWithEventType(any(String.class), anyLong())).thenThrow(new TimeoutException());
@@ -200,7 +243,7 @@ public class EventPublisherTest {
 
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.ABORTED));
         verify(enrichment, times(0)).enrich(createBatchItem(event), eventType);
-        verify(partitionResolver, times(0)).resolvePartition(eventType, event);
+        verify(partitionResolver, times(0)).resolvePartition(eq(eventType), any(), any());
         verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean());
     }
 
@@ -249,7 +292,7 @@ public class EventPublisherTest {
 
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.ABORTED));
         verify(enrichment, times(0)).enrich(any(), any());
-        verify(partitionResolver, times(0)).resolvePartition(any(), any());
+        verify(partitionResolver, times(0)).resolvePartition(any(), any(), any());
         verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean());
     }
 
@@ -330,7 +373,7 @@ public class EventPublisherTest {
 
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.SUBMITTED));
         verify(enrichment, times(1)).enrich(any(), any());
-        verify(partitionResolver, times(1)).resolvePartition(any(), any());
+        verify(partitionResolver, times(1)).resolvePartition(any(), any(), any());
         verify(topicRepository, times(1)).syncPostBatch(any(), any(), any(), eq(false));
     }
 
@@ -345,7 +388,7 @@ public class EventPublisherTest {
 
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.ABORTED));
         verify(enrichment, times(0)).enrich(any(), any());
-        verify(partitionResolver, times(0)).resolvePartition(any(), any());
+        verify(partitionResolver, times(0)).resolvePartition(any(), any(), any());
         verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean());
     }
 
@@ -360,7 +403,7 @@ public class EventPublisherTest {
 
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.ABORTED));
         verify(enrichment, times(0)).enrich(any(), any());
-        verify(partitionResolver, times(0)).resolvePartition(any(), any());
+        verify(partitionResolver, times(0)).resolvePartition(any(), any(), any());
         verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean());
     }
 
@@ -375,7 +418,7 @@ public class EventPublisherTest {
 
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.SUBMITTED));
         verify(enrichment, times(1)).enrich(any(), any());
-        verify(partitionResolver, times(1)).resolvePartition(any(), any());
+        verify(partitionResolver, times(1)).resolvePartition(any(), any(), any());
         verify(topicRepository, times(1)).syncPostBatch(any(), any(), any(), eq(false));
     }
 
@@ -419,8 +462,8 @@ public class EventPublisherTest {
         assertThat(second.getStep(), equalTo(EventPublishingStep.VALIDATING));
         assertThat(second.getDetail(), is(isEmptyString()));
 
-        verify(cache, times(2)).getValidator(any());
-        verify(partitionResolver, times(1)).resolvePartition(any(), any());
+        verify(cache, times(1)).getValidator(any());
+        verify(partitionResolver, times(1)).resolvePartition(any(), any(), any());
     }
 
     @Test
@@ -450,7 +493,7 @@ public class EventPublisherTest {
 
         assertThat(result.getStatus(), equalTo(EventPublishingStatus.ABORTED));
         verify(cache, times(1)).getValidator(eventType.getName());
-        verify(partitionResolver, times(1)).resolvePartition(any(), any());
+        verify(partitionResolver, times(1)).resolvePartition(any(), any(), any());
         verify(enrichment, times(1)).enrich(any(), any());
         verify(topicRepository, times(0)).syncPostBatch(any(), any(), any(), anyBoolean());
     }
@@ -590,7 +633,7 @@ public class EventPublisherTest {
         Mockito
                 .doThrow(new PartitioningException("partition error"))
                 .when(partitionResolver)
-                .resolvePartition(any(), any());
+                .resolvePartition(any(), any(), any());
     }
 
     private void mockFaultEnrichment() throws EnrichmentException {
@@ -646,6 +689,11 @@ public class EventPublisherTest {
                 .when(cache)
                 .getEventType(eventType.getName());
 
+        Mockito
+                .doReturn(PartitionKeyExtractor.forEventType(eventType))
+                .when(cache)
+                .getPartitionKeyExtractor(eventType.getName());
+
         Mockito
                 .doReturn(Optional.empty())
                 .when(truthyValidator)
@@ -1,11 +1,17 @@
 package org.zalando.nakadi.service.publishing;
 
+import com.codahale.metrics.MetricRegistry;
 import org.json.JSONObject;
+import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.zalando.nakadi.domain.BatchItem;
 import org.zalando.nakadi.utils.TestUtils;
 
-import static org.mockito.ArgumentMatchers.any;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 
 public class EventsProcessorTest {
@@ -14,7 +20,8 @@ public class EventsProcessorTest {
 
     @Test
     public void shouldSendEventWhenSubmitted() throws InterruptedException {
-        final EventsProcessor eventsProcessor = new EventsProcessor(eventPublisher, 100, 1, 1, 10, 10);
+        final EventsProcessor eventsProcessor = new EventsProcessor(
+                eventPublisher, new MetricRegistry(), 100, 1, 1, 1, 10, "");
         eventsProcessor.start();
         try {
             final JSONObject event = new JSONObject().put("path", "/path/to/event").put("user", "adyachkov");
@@ -22,7 +29,7 @@ public class EventsProcessorTest {
             eventsProcessor.queueEvent("test_et_name", event);
             TestUtils.waitFor(() -> {
                 try {
-                    Mockito.verify(eventPublisher).processInternal(any(), any(), eq(false), eq(false));
+                    Mockito.verify(eventPublisher).processInternal(anyList(), eq("test_et_name"), eq(true));
                 } catch (final Exception e) {
                     throw new AssertionError(e);
                 }
@@ -32,4 +39,45 @@ public class EventsProcessorTest {
         }
     }
 
+    @Test
+    public void shouldSkipValidationForConfiguredEventTypes() {
+        final EventsProcessor eventsProcessor = new EventsProcessor(
+                eventPublisher, new MetricRegistry(), 100, 1, 1, 1, 10, "et_1, test_et_name");
+        final JSONObject event = new JSONObject().put("path", "/path/to/event");
+
+        eventsProcessor.sendEventsDisabledAuthz(Collections.singletonList(event), "test_et_name");
+
+        Mockito.verify(eventPublisher).processInternal(anyList(), eq("test_et_name"), eq(false));
+    }
+
+    @Test
+    public void shouldCountEventsDroppedOnQueueOverflow() {
+        final MetricRegistry metricRegistry = new MetricRegistry();
+        final EventsProcessor eventsProcessor = new EventsProcessor(
+                eventPublisher, metricRegistry, 100, 10, 10, 1, 2, "");
+
+        for (int i = 0; i < 5; ++i) {
+            eventsProcessor.queueEvent("test_et_name", new JSONObject().put("idx", i));
+        }
+
+        Assert.assertEquals(3, metricRegistry.meter("nakadi.internal-events.dropped.queue-overflow").getCount());
+        Assert.assertEquals(2, metricRegistry.getGauges().get("nakadi.internal-events.queue-size").getValue());
+    }
+
+    @Test
+    public void shouldPublishQueuedEventsInOneBatchOnStop() throws InterruptedException {
+        final MetricRegistry metricRegistry = new MetricRegistry();
+        final EventsProcessor eventsProcessor = new EventsProcessor(
+                eventPublisher, metricRegistry, 60_000, 10, 10, 1, 100, "");
+        for (int i = 0; i < 5; ++i) {
+            eventsProcessor.queueEvent("test_et_name", new JSONObject().put("idx", i));
+        }
+
+        eventsProcessor.start();
+        eventsProcessor.stop();
+
+        Mockito.verify(eventPublisher).processInternal(
+                Mockito.argThat((List<BatchItem> batch) -> batch.size() == 5), eq("test_et_name"), eq(true));
+        Assert.assertEquals(1, metricRegistry.histogram("nakadi.internal-events.batch-size").getCount());
+    }
 }
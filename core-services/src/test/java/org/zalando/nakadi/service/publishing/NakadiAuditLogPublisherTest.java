@@ -2,6 +2,7 @@ package org.zalando.nakadi.service.publishing;
 
 import org.joda.time.DateTime;
 import org.json.JSONArray;
+import org.json.JSONObject;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.zalando.nakadi.config.JsonConfig;
@@ -12,6 +13,7 @@ import org.zalando.nakadi.plugin.api.authz.Subject;
 import org.zalando.nakadi.security.UsernameHasher;
 import org.zalando.nakadi.service.FeatureToggleService;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.Assert.assertThat;
@@ -39,6 +41,7 @@ public class NakadiAuditLogPublisherTest {
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     public void testPublishAuditLog() {
         final EventsProcessor eventsProcessor = mock(EventsProcessor.class);
         final FeatureToggleService toggle = mock(FeatureToggleService.class);
@@ -65,7 +68,7 @@ public class NakadiAuditLogPublisherTest {
                 NakadiAuditLogPublisher.ResourceType.EVENT_TYPE,
                 NakadiAuditLogPublisher.ActionType.CREATED, "et-name");
 
-        final ArgumentCaptor<String> supplierCaptor = ArgumentCaptor.forClass(String.class);
+        final ArgumentCaptor<List<JSONObject>> supplierCaptor = ArgumentCaptor.forClass((Class) List.class);
         verify(eventsProcessor, times(1)).sendEventsDisabledAuthz(
                 supplierCaptor.capture(),
                 eq("audit-event-type"));
@@ -101,7 +104,7 @@ public class NakadiAuditLogPublisherTest {
                         "\"user_hash\":\"89bc5f7398509d3ce86c013c138e11357ff7f589fca9d58cfce443c27f81956c\"," +
                         "\"resource_type\":\"event_type\",\"resource_id\":\"et-name\",\"user\":\"user-name\"}," +
                         "\"data_type\":\"event_type\"}]\n").toString(),
-                sameJSONAs(supplierCaptor.getValue().toString()));
+                sameJSONAs(new JSONArray(supplierCaptor.getValue()).toString()));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package org.zalando.nakadi.service.timeline;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class LocalLockingTest {
+
+    private final LocalLocking localLocking = new LocalLocking();
+
+    @Test(timeout = 5_000)
+    public void whenEventTypeIsLockedThenOtherEventTypesArePublished() throws Exception {
+        localLocking.updateLockedEventTypes(ImmutableSet.of("a"));
+
+        localLocking.workWithEventType("b", 100).close();
+
+        try {
+            localLocking.workWithEventType("a", 100);
+            Assert.fail("Publishing to locked event type must time out");
+        } catch (final TimeoutException ignore) {
+        }
+    }
+
+    @Test(timeout = 5_000)
+    public void whenEventTypeIsLockedThenInFlightPublishingIsAwaited() throws Exception {
+        final Closeable publishing = localLocking.workWithEventType("a", 100);
+        final Closeable otherPublishing = localLocking.workWithEventType("b", 100);
+
+        final CompletableFuture<Void> locked = CompletableFuture.runAsync(() -> {
+            try {
+                localLocking.updateLockedEventTypes(ImmutableSet.of("a"));
+            } catch (final InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(100);
+        Assert.assertFalse(locked.isDone());
+
+        publishing.close();
+        locked.get(1, TimeUnit.SECONDS);
+        otherPublishing.close();
+    }
+
+    @Test(timeout = 5_000)
+    public void whenEventTypeIsUnlockedThenWaitingPublishingProceeds() throws Exception {
+        localLocking.updateLockedEventTypes(ImmutableSet.of("a"));
+
+        final CompletableFuture<Closeable> publishing = CompletableFuture.supplyAsync(() -> {
+            try {
+                return localLocking.workWithEventType("a", 5_000);
+            } catch (final InterruptedException | TimeoutException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(100);
+        Assert.assertFalse(publishing.isDone());
+
+        Assert.assertEquals(ImmutableSet.of("a"), localLocking.getUnlockedEventTypes(Collections.emptySet()));
+        localLocking.updateLockedEventTypes(Collections.emptySet());
+        publishing.get(1, TimeUnit.SECONDS).close();
+    }
+
+    @Test(timeout = 5_000)
+    public void whenLockedEventTypesAreUpdatedThenIdleGatesAreRemoved() throws Exception {
+        localLocking.workWithEventType("a", 100).close();
+        final Closeable publishing = localLocking.workWithEventType("b", 100);
+        localLocking.updateLockedEventTypes(ImmutableSet.of("c"));
+        // "b" is being published and "c" is locked
+        Assert.assertEquals(2, localLocking.getGatesCount());
+
+        publishing.close();
+        localLocking.updateLockedEventTypes(Collections.emptySet());
+        Assert.assertEquals(0, localLocking.getGatesCount());
+        localLocking.workWithEventType("b", 100).close();
+    }
+}
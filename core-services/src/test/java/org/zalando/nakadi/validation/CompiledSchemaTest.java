@@ -0,0 +1,112 @@
+package org.zalando.nakadi.validation;
+
+import org.everit.json.schema.Schema;
+import org.everit.json.schema.ValidationException;
+import org.everit.json.schema.loader.SchemaLoader;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledSchemaTest {
+
+    private static final String SCHEMA = "{" +
+            "\"type\":\"object\"," +
+            "\"additionalProperties\":false," +
+            "\"required\":[\"id\",\"items\"]," +
+            "\"properties\":{" +
+            "\"id\":{\"type\":\"string\",\"pattern\":\"^[0-9]+$\",\"minLength\":2,\"maxLength\":5}," +
+            "\"kind\":{\"type\":\"string\",\"enum\":[\"a\",\"b\"]}," +
+            "\"at\":{\"type\":\"string\",\"format\":\"date-time\"}," +
+            "\"count\":{\"type\":\"integer\",\"minimum\":1,\"maximum\":10,\"exclusiveMaximum\":true}," +
+            "\"price\":{\"type\":[\"number\",\"null\"],\"minimum\":0}," +
+            "\"labels\":{\"type\":\"object\",\"additionalProperties\":{\"type\":\"string\"},\"maxProperties\":2}," +
+            "\"items\":{\"type\":\"array\",\"minItems\":1,\"additionalItems\":false," +
+            "\"items\":{\"$ref\":\"#/definitions/item\"}}," +
+            "\"any\":{}}," +
+            "\"definitions\":{\"item\":{\"type\":\"object\",\"required\":[\"sku\"]," +
+            "\"properties\":{\"sku\":{\"type\":\"string\"},\"parts\":{\"type\":\"array\"," +
+            "\"items\":{\"$ref\":\"#/definitions/item\"}}}," +
+            "\"anyOf\":[{\"required\":[\"sku\"]},{\"required\":[\"parts\"]}]}}}";
+
+    private static final String[] VALID_EVENTS = {
+            "{\"id\":\"12\",\"items\":[{\"sku\":\"x\"}]}",
+            "{\"id\":\"12345\",\"kind\":\"b\",\"at\":\"2021-06-01T12:00:00.123Z\",\"count\":9,\"price\":null," +
+                    "\"labels\":{\"a\":\"b\"},\"items\":[{\"sku\":\"x\",\"parts\":[{\"sku\":\"y\"}]}]," +
+                    "\"any\":[1,{\"2\":3}]}",
+            "{\"id\":\"12\",\"price\":0,\"items\":[{\"sku\":\"x\"}],\"any\":null}",
+    };
+
+    private static final String[] INVALID_EVENTS = {
+            "{\"id\":\"12\"}",
+            "{\"id\":\"1\",\"items\":[{\"sku\":\"x\"}]}",
+            "{\"id\":\"123456\",\"items\":[{\"sku\":\"x\"}]}",
+            "{\"id\":\"1a\",\"items\":[{\"sku\":\"x\"}]}",
+            "{\"id\":12,\"items\":[{\"sku\":\"x\"}]}",
+            "{\"id\":\"12\",\"kind\":\"c\",\"items\":[{\"sku\":\"x\"}]}",
+            "{\"id\":\"12\",\"at\":\"2021-06-01 12:00:00\",\"items\":[{\"sku\":\"x\"}]}",
+            "{\"id\":\"12\",\"count\":10,\"items\":[{\"sku\":\"x\"}]}",
+            "{\"id\":\"12\",\"count\":0,\"items\":[{\"sku\":\"x\"}]}",
+            "{\"id\":\"12\",\"count\":1.5,\"items\":[{\"sku\":\"x\"}]}",
+            "{\"id\":\"12\",\"price\":-0.1,\"items\":[{\"sku\":\"x\"}]}",
+            "{\"id\":\"12\",\"price\":\"1\",\"items\":[{\"sku\":\"x\"}]}",
+            "{\"id\":\"12\",\"labels\":{\"a\":\"b\",\"c\":\"d\",\"e\":\"f\"},\"items\":[{\"sku\":\"x\"}]}",
+            "{\"id\":\"12\",\"labels\":{\"a\":1},\"items\":[{\"sku\":\"x\"}]}",
+            "{\"id\":\"12\",\"items\":[]}",
+            "{\"id\":\"12\",\"items\":[{\"sku\":\"x\",\"parts\":[{\"parts\":[]}]}]}",
+            "{\"id\":\"12\",\"items\":[{\"sku\":\"x\"}],\"unknown\":true}",
+    };
+
+    @Test
+    public void whenEventIsValidThenItIsAccepted() throws Exception {
+        final CompiledSchema compiled = CompiledSchema.compile(new JSONObject(SCHEMA));
+        final Schema everit = load(SCHEMA);
+        for (final String event : VALID_EVENTS) {
+            everit.validate(new JSONObject(event));
+            Assert.assertTrue("Event must be accepted: " + event, compiled.accepts(new JSONObject(event)));
+        }
+    }
+
+    @Test
+    public void whenEventIsInvalidThenItIsNeverAccepted() throws Exception {
+        final CompiledSchema compiled = CompiledSchema.compile(new JSONObject(SCHEMA));
+        final Schema everit = load(SCHEMA);
+        for (final String event : INVALID_EVENTS) {
+            try {
+                everit.validate(new JSONObject(event));
+                Assert.fail("Fixture must be invalid: " + event);
+            } catch (final ValidationException ignore) {
+            }
+            Assert.assertFalse("Event must not be accepted: " + event, compiled.accepts(new JSONObject(event)));
+        }
+    }
+
+    @Test
+    public void whenSchemaHasUnsupportedKeywordsThenItIsNotCompiled() {
+        final String[] schemas = {
+                "{\"properties\":{\"a\":{\"not\":{\"type\":\"string\"}}}}",
+                "{\"oneOf\":[{\"type\":\"object\"},{\"required\":[\"a\"]}]}",
+                "{\"properties\":{\"a\":{\"type\":\"string\",\"format\":\"email\"}}}",
+                "{\"properties\":{\"a\":{\"type\":\"array\",\"items\":[{\"type\":\"string\"}]}}}",
+                "{\"patternProperties\":{\"^a\":{\"type\":\"string\"}}}",
+                "{\"properties\":{\"a\":{\"$ref\":\"http://example.com/schema.json\"}}}",
+                "{\"properties\":{\"a\":{\"$ref\":\"#/definitions/a\",\"type\":\"string\"}}," +
+                        "\"definitions\":{\"a\":{}}}",
+        };
+        for (final String schema : schemas) {
+            try {
+                CompiledSchema.compile(new JSONObject(schema));
+                Assert.fail("Schema must not be compiled: " + schema);
+            } catch (final CompiledSchema.UnsupportedSchemaException ignore) {
+            }
+        }
+    }
+
+    private static Schema load(final String schema) {
+        return SchemaLoader.builder()
+                .schemaJson(new JSONObject(schema))
+                .addFormatValidator(new RFC3339DateTimeValidator())
+                .build()
+                .load()
+                .build();
+    }
+}